@@ -34,6 +34,14 @@ android {
     buildFeatures {
         viewBinding = true
     }
+    testOptions {
+        // Local unit tests run against the stub android.jar; Log and Handler calls are no-ops
+        unitTests.isReturnDefaultValues = true
+    }
+    androidResources {
+        // TFLite models are memory-mapped from assets and must stay uncompressed
+        noCompress += "tflite"
+    }
 }
 
 dependencies {
@@ -64,9 +72,20 @@ dependencies {
         exclude(group = "com.google.zxing", module = "core")
     }
     implementation(libs.zxing.javase) // For QR code generation
+
+    // On-device AI content classification
+    implementation(libs.tensorflow.lite)
+
+    // Background jobs (expired pairing token cleanup)
+    implementation(libs.work.runtime)
+
+    // Tracing sections for service and Firestore spans
+    implementation(libs.tracing)
     
     // Testing
     testImplementation(libs.junit)
+    // Real org.json for local tests; android.jar only has stubs
+    testImplementation(libs.org.json)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
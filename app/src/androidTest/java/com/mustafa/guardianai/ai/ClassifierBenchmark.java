@@ -0,0 +1,147 @@
+package com.mustafa.guardianai.ai;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.mustafa.guardianai.ServiceRegistry;
+import com.mustafa.guardianai.benchmark.LatencySamples;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Classifier Benchmark
+ * Measures per-sample CPU latency of ContentClassifier (p50/p99)
+ *
+ * The cache is cleared before every batch, so the numbers are tokenization plus inference.
+ * Skipped when the model asset is not bundled.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ClassifierBenchmark {
+    private static final String TAG = "ClassifierBenchmark";
+
+    private static final List<String> CORPUS = Arrays.asList(
+            "see you at practice tomorrow",
+            "nobody at school likes you, just leave",
+            "can you send me a picture of yourself",
+            "my parents are out this weekend, come over",
+            "did you finish the math homework?",
+            "I don't want to be here anymore"
+    );
+
+    @Test
+    public void classifyLatency() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ContentClassifier classifier;
+        try {
+            classifier = ContentClassifier.create(context, 1, 2,
+                    ServiceRegistry.getInstance().getClassifierExecutor());
+        } catch (IOException e) {
+            Assume.assumeTrue("Model asset not bundled: " + e.getMessage(), false);
+            return;
+        }
+        try {
+            run(classifier, CORPUS, ContentClassifier.MAX_BATCH_SIZE, 20, 200);
+        } finally {
+            classifier.close();
+        }
+    }
+
+    /**
+     * Benchmark result
+     */
+    public static class Report {
+        private final int samples;
+        private final int batchSize;
+        private final double p50Micros;
+        private final double p99Micros;
+        private final double meanMicros;
+
+        Report(int samples, int batchSize, double p50Micros, double p99Micros, double meanMicros) {
+            this.samples = samples;
+            this.batchSize = batchSize;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.meanMicros = meanMicros;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public double getP50Micros() {
+            return p50Micros;
+        }
+
+        public double getP99Micros() {
+            return p99Micros;
+        }
+
+        public double getMeanMicros() {
+            return meanMicros;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.US,
+                    "samples=%d batch=%d p50=%.1fus p99=%.1fus mean=%.1fus per sample",
+                    samples, batchSize, p50Micros, p99Micros, meanMicros);
+        }
+    }
+
+    /**
+     * Run the benchmark
+     * @param classifier Classifier under test
+     * @param corpus Text samples, cycled through
+     * @param batchSize Samples per classify() call
+     * @param warmupBatches Batches to run before measuring
+     * @param measuredBatches Batches to measure
+     */
+    public static Report run(ContentClassifier classifier, List<String> corpus, int batchSize,
+                             int warmupBatches, int measuredBatches) throws InterruptedException {
+        if (corpus.isEmpty()) {
+            throw new IllegalArgumentException("Corpus cannot be empty");
+        }
+
+        List<String> batch = new ArrayList<>(batchSize);
+        int cursor = 0;
+        LatencySamples perSample = new LatencySamples(measuredBatches);
+
+        for (int b = 0; b < warmupBatches + measuredBatches; b++) {
+            batch.clear();
+            for (int i = 0; i < batchSize; i++) {
+                batch.add(corpus.get(cursor));
+                cursor = (cursor + 1) % corpus.size();
+            }
+            // Measure the model, not the result cache
+            classifier.getCache().clear();
+            long start = System.nanoTime();
+            classifier.classify(batch);
+            long elapsed = System.nanoTime() - start;
+            if (b >= warmupBatches) {
+                perSample.add(elapsed / batchSize);
+            }
+        }
+
+        Report report = new Report(
+                measuredBatches * batchSize,
+                batchSize,
+                perSample.percentileNanos(0.50) / 1000d,
+                perSample.percentileNanos(0.99) / 1000d,
+                perSample.meanNanos() / 1000d
+        );
+        Log.d(TAG, report.toString());
+        return report;
+    }
+}
@@ -0,0 +1,92 @@
+package com.mustafa.guardianai.benchmark;
+
+import android.content.Context;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.MemoryCacheSettings;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+
+/**
+ * Firebase Emulators
+ * Separate FirebaseApp whose Firestore and Auth point at the local emulators
+ *
+ * The signed-in user and the default instance are untouched. Start the emulators with
+ * "firebase emulators:start --only firestore,auth"; from the Android emulator the host
+ * machine is 10.0.2.2 (cleartext to it is allowed by the debug network security config).
+ */
+public final class FirebaseEmulators {
+    public static final String DEFAULT_HOST = "10.0.2.2";
+    public static final int DEFAULT_FIRESTORE_PORT = 8080;
+    public static final int DEFAULT_AUTH_PORT = 9099;
+
+    private static final String APP_NAME = "load-test";
+    private static final int CONNECT_TIMEOUT_MILLIS = 1_000;
+
+    private FirebaseEmulators() {
+    }
+
+    /**
+     * "load-test" app on the emulators; useEmulator only applies before first use, so the
+     * first caller's host and ports stay in effect for the process
+     */
+    public static synchronized FirebaseApp app(Context context, String host, int firestorePort,
+                                               int authPort) {
+        for (FirebaseApp app : FirebaseApp.getApps(context)) {
+            if (APP_NAME.equals(app.getName())) {
+                return app;
+            }
+        }
+        FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseApp.getInstance().getOptions(), APP_NAME);
+        FirebaseFirestore firestore = FirebaseFirestore.getInstance(app);
+        firestore.useEmulator(host, firestorePort);
+        // No persistent cache, so every get() is answered by the emulator
+        firestore.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setLocalCacheSettings(MemoryCacheSettings.newBuilder().build())
+                .build());
+        FirebaseAuth.getInstance(app).useEmulator(host, authPort);
+        return app;
+    }
+
+    /**
+     * Whether something listens on host:port, so runs without emulators can be skipped
+     */
+    public static boolean isReachable(String host, int port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Delete every document and account in the emulators (emulator-only REST endpoints)
+     */
+    public static void clear(FirebaseApp app, String host, int firestorePort, int authPort)
+            throws IOException {
+        String projectId = app.getOptions().getProjectId();
+        delete(new URL("http", host, firestorePort,
+                "/emulator/v1/projects/" + projectId + "/databases/(default)/documents"));
+        delete(new URL("http", host, authPort,
+                "/emulator/v1/projects/" + projectId + "/accounts"));
+    }
+
+    private static void delete(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod("DELETE");
+            int status = connection.getResponseCode();
+            if (status / 100 != 2) {
+                throw new IOException("Clearing " + url + " failed: HTTP " + status);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
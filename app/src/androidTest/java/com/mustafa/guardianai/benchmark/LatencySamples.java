@@ -0,0 +1,85 @@
+package com.mustafa.guardianai.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Latency Samples
+ * Growable buffer of raw latency samples with exact percentiles, shared by the
+ * instrumented benchmarks and load harnesses
+ *
+ * Unlike trace.LatencyHistogram every sample is kept, so percentiles are exact; meant for
+ * bounded benchmark runs, not for recording in the app. Thread-safe.
+ */
+public final class LatencySamples {
+    private long[] samples;
+    private int count;
+    private boolean sorted = true;
+
+    public LatencySamples() {
+        this(1024);
+    }
+
+    public LatencySamples(int capacity) {
+        this.samples = new long[Math.max(1, capacity)];
+    }
+
+    public synchronized void add(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        sorted = false;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Nearest-rank percentile
+     * @param fraction 0-1, e.g. 0.99
+     * @return Nanoseconds, 0 if nothing was recorded
+     */
+    public synchronized long percentileNanos(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        sort();
+        int index = (int) Math.ceil(fraction * count) - 1;
+        return samples[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    public synchronized long maxNanos() {
+        if (count == 0) {
+            return 0;
+        }
+        sort();
+        return samples[count - 1];
+    }
+
+    public synchronized double meanNanos() {
+        if (count == 0) {
+            return 0d;
+        }
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += samples[i];
+        }
+        return total / (double) count;
+    }
+
+    public double percentileMillis(double fraction) {
+        return percentileNanos(fraction) / 1e6;
+    }
+
+    public double maxMillis() {
+        return maxNanos() / 1e6;
+    }
+
+    private void sort() {
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+    }
+}
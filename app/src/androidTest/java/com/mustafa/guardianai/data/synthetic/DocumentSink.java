@@ -0,0 +1,19 @@
+package com.mustafa.guardianai.data.synthetic;
+
+import java.util.Map;
+
+/**
+ * Document Sink
+ * Destination for generated documents (Firestore emulator, in-memory store, ...)
+ */
+public interface DocumentSink {
+    /**
+     * Write one document; may be buffered until flush()
+     */
+    void write(String collection, String documentId, Map<String, Object> data) throws Exception;
+
+    /**
+     * Wait until everything written so far has been stored
+     */
+    void flush() throws Exception;
+}
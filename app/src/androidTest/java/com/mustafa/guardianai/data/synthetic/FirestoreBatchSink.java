@@ -0,0 +1,77 @@
+package com.mustafa.guardianai.data.synthetic;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore Batch Sink
+ * Writes documents in full WriteBatches, with a few commits in flight at once
+ *
+ * Meant for the emulator: against production every document is a billed write.
+ * Blocks while the in-flight limit is reached, so use it off the main thread.
+ */
+public class FirestoreBatchSink implements DocumentSink {
+    // Writes per WriteBatch (Firestore allows up to 500)
+    private static final int BATCH_SIZE = 500;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    private final FirebaseFirestore firestore;
+    private final int maxInFlight;
+    private final ArrayDeque<Task<Void>> inFlight = new ArrayDeque<>();
+    private WriteBatch batch;
+    private int batchSize;
+    private long written;
+
+    public FirestoreBatchSink(FirebaseFirestore firestore) {
+        this(firestore, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public FirestoreBatchSink(FirebaseFirestore firestore, int maxInFlight) {
+        this.firestore = firestore;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    @Override
+    public void write(String collection, String documentId, Map<String, Object> data)
+            throws ExecutionException, InterruptedException {
+        if (batch == null) {
+            batch = firestore.batch();
+        }
+        batch.set(firestore.collection(collection).document(documentId), data);
+        written++;
+        if (++batchSize == BATCH_SIZE) {
+            commit();
+        }
+    }
+
+    @Override
+    public void flush() throws ExecutionException, InterruptedException {
+        if (batch != null) {
+            commit();
+        }
+        while (!inFlight.isEmpty()) {
+            Tasks.await(inFlight.removeFirst());
+        }
+    }
+
+    /**
+     * Documents written so far (committed or pending)
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    private void commit() throws ExecutionException, InterruptedException {
+        inFlight.addLast(batch.commit());
+        batch = null;
+        batchSize = 0;
+        if (inFlight.size() >= maxInFlight) {
+            Tasks.await(inFlight.removeFirst());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.mustafa.guardianai.data.synthetic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memory Sink
+ * Keeps generated documents in memory, by collection and in write order
+ *
+ * For CPU-only benchmarks (parsing, aggregation, the alert pipeline) that need the data
+ * but not a database. Thread-safe.
+ */
+public class MemorySink implements DocumentSink {
+    private final Map<String, LinkedHashMap<String, Map<String, Object>>> collections = new HashMap<>();
+
+    @Override
+    public synchronized void write(String collection, String documentId, Map<String, Object> data) {
+        LinkedHashMap<String, Map<String, Object>> documents = collections.get(collection);
+        if (documents == null) {
+            documents = new LinkedHashMap<>();
+            collections.put(collection, documents);
+        }
+        documents.put(documentId, data);
+    }
+
+    @Override
+    public void flush() {
+        // Nothing buffered
+    }
+
+    public synchronized List<Map<String, Object>> getDocuments(String collection) {
+        LinkedHashMap<String, Map<String, Object>> documents = collections.get(collection);
+        return documents == null ? Collections.emptyList() : new ArrayList<>(documents.values());
+    }
+
+    public synchronized Map<String, Object> getDocument(String collection, String documentId) {
+        LinkedHashMap<String, Map<String, Object>> documents = collections.get(collection);
+        return documents == null ? null : documents.get(documentId);
+    }
+
+    public synchronized int count(String collection) {
+        LinkedHashMap<String, Map<String, Object>> documents = collections.get(collection);
+        return documents == null ? 0 : documents.size();
+    }
+
+    public synchronized void clear() {
+        collections.clear();
+    }
+}
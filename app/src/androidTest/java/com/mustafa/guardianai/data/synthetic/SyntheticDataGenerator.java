@@ -0,0 +1,509 @@
+package com.mustafa.guardianai.data.synthetic;
+
+import com.mustafa.guardianai.data.model.Alert;
+import com.mustafa.guardianai.data.model.ChildProfile;
+import com.mustafa.guardianai.data.model.DashboardSummary;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic Data Generator
+ * Seeded families of child profiles, device pairs, alerts, usage events and dashboard
+ * summaries for benchmarks and load tests
+ *
+ * Documents have the same shape as the ones the app writes (the models' toMap(), and the
+ * device_pairs fields written by QRPairingService). Distributions are skewed the way real
+ * families are: a few children raise most alerts (Zipf), alerts arrive in bursts of one
+ * type and skew towards recent days, and app usage follows a diurnal curve that peaks in
+ * the evening (flatter at weekends). Documents are streamed to a DocumentSink as they are
+ * generated, so a 100k-alert family is never held in memory.
+ *
+ * Output is fully determined by the seed, the base time, the time zone and the arguments,
+ * including document IDs. Each family draws from its own Random keyed by its parent UID,
+ * so a family does not change when others are added or generated in another order.
+ * Not thread-safe; use one generator per thread.
+ */
+public final class SyntheticDataGenerator {
+    public static final String COLLECTION_CHILD_PROFILES = "child_profiles";
+    public static final String COLLECTION_DEVICE_PAIRS = "device_pairs";
+    public static final String COLLECTION_ALERTS = "alerts";
+    public static final String COLLECTION_DASHBOARD_SUMMARIES = "dashboard_summaries";
+    // App usage sessions; synthetic only, nothing in the app reads them yet
+    public static final String COLLECTION_USAGE_EVENTS = "usage_events";
+
+    // 2026-01-01T00:00:00Z, a fixed base time for runs that must be comparable across days
+    public static final long DEFAULT_BASE_TIME_MILLIS = 1_767_225_600_000L;
+
+    private static final long SECOND = 1000L;
+    private static final long HOUR = 60 * 60 * SECOND;
+    private static final long DAY = 24 * HOUR;
+
+    // Relative app usage per hour of day
+    private static final double[] WEEKDAY_USAGE = {
+            0.20, 0.10, 0.05, 0.05, 0.05, 0.10, 0.40, 0.90, 0.60, 0.30, 0.30, 0.40,
+            0.60, 0.40, 0.40, 1.20, 1.80, 2.00, 1.80, 2.20, 2.40, 2.00, 1.20, 0.50};
+    private static final double[] WEEKEND_USAGE = {
+            0.30, 0.15, 0.05, 0.05, 0.05, 0.05, 0.10, 0.30, 0.80, 1.30, 1.50, 1.50,
+            1.40, 1.40, 1.50, 1.60, 1.70, 1.80, 1.80, 2.00, 2.10, 1.90, 1.30, 0.60};
+    private static final double[] WEEKDAY_USAGE_CDF = cumulative(WEEKDAY_USAGE);
+    private static final double[] WEEKEND_USAGE_CDF = cumulative(WEEKEND_USAGE);
+
+    private static final Alert.AlertType[] ALERT_TYPES = {
+            Alert.AlertType.TIME_LIMIT_REACHED,
+            Alert.AlertType.NEW_APP_INSTALL,
+            Alert.AlertType.LOW_BATTERY,
+            Alert.AlertType.GEO_FENCE_BREACH,
+            Alert.AlertType.INAPPROPRIATE_CONTENT,
+            Alert.AlertType.WEEKLY_REPORT
+    };
+    private static final double[] ALERT_TYPE_CDF = cumulative(new double[]{0.35, 0.20, 0.15, 0.15, 0.10, 0.05});
+
+    // Ordered by popularity; picked with a Zipf distribution
+    private static final String[] PACKAGES = {
+            "com.google.android.youtube",
+            "com.zhiliaoapp.musically",
+            "com.instagram.android",
+            "com.roblox.client",
+            "com.whatsapp",
+            "com.android.chrome",
+            "com.snapchat.android",
+            "com.mojang.minecraftpe",
+            "com.spotify.music",
+            "com.netflix.mediaclient",
+            "com.discord",
+            "com.google.android.apps.classroom"
+    };
+    private static final double[] PACKAGE_CDF = zipf(PACKAGES.length, 1.1);
+
+    private static final String[] NAMES = {
+            "Ali", "Sara", "Omar", "Aisha", "Noah", "Maya", "Yusuf", "Lina", "Adam", "Zara",
+            "Ibrahim", "Hana", "Leo", "Amira", "Sami", "Nora"
+    };
+
+    private final long seed;
+    private final long nowMillis;
+    private int alertDays = 30;
+    private int usageDays = 7;
+    private double meanBurstSize = 4.0;
+    private double childSkew = 1.2;
+
+    /**
+     * @param nowMillis Base time; every generated timestamp is at or before it, e.g.
+     *                  DEFAULT_BASE_TIME_MILLIS
+     */
+    public SyntheticDataGenerator(long seed, long nowMillis) {
+        this.seed = seed;
+        this.nowMillis = nowMillis;
+    }
+
+    /**
+     * Days back that alerts are spread over
+     */
+    public SyntheticDataGenerator alertDays(int alertDays) {
+        this.alertDays = Math.max(1, alertDays);
+        return this;
+    }
+
+    /**
+     * Days of usage events per child (0 writes none; today's screen time is still set)
+     */
+    public SyntheticDataGenerator usageDays(int usageDays) {
+        this.usageDays = Math.max(0, usageDays);
+        return this;
+    }
+
+    /**
+     * Mean number of alerts per burst (1 for no bursts)
+     */
+    public SyntheticDataGenerator meanBurstSize(double meanBurstSize) {
+        this.meanBurstSize = Math.max(1.0, meanBurstSize);
+        return this;
+    }
+
+    /**
+     * Zipf exponent of alerts per child (0 for an even spread)
+     */
+    public SyntheticDataGenerator childSkew(double childSkew) {
+        this.childSkew = Math.max(0.0, childSkew);
+        return this;
+    }
+
+    /**
+     * What was generated for one parent
+     */
+    public static class Family {
+        private final String parentUid;
+        private final List<String> profileIds = new ArrayList<>();
+        private final List<String> childUids = new ArrayList<>();
+        private final List<String> pairIds = new ArrayList<>();
+        private int alerts;
+        private int unreadAlerts;
+        private int usageEvents;
+        private DashboardSummary summary;
+
+        Family(String parentUid) {
+            this.parentUid = parentUid;
+        }
+
+        public String getParentUid() {
+            return parentUid;
+        }
+
+        public List<String> getProfileIds() {
+            return new ArrayList<>(profileIds);
+        }
+
+        public List<String> getChildUids() {
+            return new ArrayList<>(childUids);
+        }
+
+        public List<String> getPairIds() {
+            return new ArrayList<>(pairIds);
+        }
+
+        public int getAlerts() {
+            return alerts;
+        }
+
+        public int getUnreadAlerts() {
+            return unreadAlerts;
+        }
+
+        public int getUsageEvents() {
+            return usageEvents;
+        }
+
+        public DashboardSummary getSummary() {
+            return summary;
+        }
+
+        /**
+         * Documents written for this family
+         */
+        public int getDocuments() {
+            return profileIds.size() + pairIds.size() + alerts + usageEvents + 1;
+        }
+    }
+
+    /**
+     * Generate one parent with a fixed size; the caller flushes the sink
+     * @param parentUid Parent UID; also the prefix of every document ID
+     * @param children At least 1
+     * @param alerts Alert documents to write
+     */
+    public Family generateFamily(String parentUid, int children, int alerts, DocumentSink sink) throws Exception {
+        if (children < 1) {
+            throw new IllegalArgumentException("A family needs at least one child");
+        }
+        Random random = familyRandom(parentUid, 0);
+        Family family = new Family(parentUid);
+        long totalScreenTime = 0;
+
+        for (int i = 0; i < children; i++) {
+            String profileId = parentUid + "-child-" + i;
+            String childUid = profileId + "-uid";
+            int age = 6 + random.nextInt(12);
+            ChildProfile profile = new ChildProfile(profileId, childUid, parentUid,
+                    NAMES[random.nextInt(NAMES.length)], age);
+            profile.setDeviceName("Device " + (i + 1));
+            profile.setDeviceType(random.nextDouble() < 0.8 ? "Android" : "iOS");
+            // Younger children get tighter limits
+            profile.setScreenTimeLimit((age < 10 ? 2 : age < 14 ? 3 : 4) * 60 * 60L);
+            long createdAt = nowMillis - (long) (random.nextDouble() * 180 * DAY);
+            profile.setCreatedAt(createdAt);
+
+            long[] lastSession = new long[1];
+            long screenTimeToday = generateUsage(family, profileId, childUid, age, random, sink, lastSession);
+            profile.setScreenTimeToday(screenTimeToday);
+            profile.calculateScreenTimePercentage();
+            long lastSeen = lastSession[0] > 0 ? lastSession[0] : nowMillis - (long) (random.nextDouble() * DAY);
+            profile.setLastSeen(lastSeen);
+            profile.setOnline(nowMillis - lastSeen < 5 * 60 * SECOND);
+            profile.setUpdatedAt(lastSeen);
+            totalScreenTime += screenTimeToday;
+
+            String pairId = parentUid + "-pair-" + i;
+            Map<String, Object> pairData = new HashMap<>();
+            pairData.put("pairId", pairId);
+            pairData.put("parentUid", parentUid);
+            pairData.put("childUid", childUid);
+            pairData.put("parentDeviceId", parentUid);
+            pairData.put("childDeviceId", profileId + "-device");
+            pairData.put("pairedAt", createdAt);
+            pairData.put("isActive", random.nextDouble() < 0.95);
+
+            sink.write(COLLECTION_CHILD_PROFILES, profileId, profile.toMap());
+            sink.write(COLLECTION_DEVICE_PAIRS, pairId, pairData);
+            family.profileIds.add(profileId);
+            family.childUids.add(childUid);
+            family.pairIds.add(pairId);
+        }
+
+        generateAlerts(family, alerts, random, sink);
+
+        DashboardSummary summary = new DashboardSummary(parentUid);
+        summary.setTotalDevices(children);
+        summary.setTotalAlerts(family.alerts);
+        summary.setUnreadAlerts(family.unreadAlerts);
+        summary.setTotalScreenTime(totalScreenTime);
+        summary.setLastUpdated(nowMillis);
+        sink.write(COLLECTION_DASHBOARD_SUMMARIES, parentUid, summary.toMap());
+        family.summary = summary;
+        return family;
+    }
+
+    /**
+     * Generate many parents with skewed sizes: most have one to three children and a few
+     * dozen alerts, a small tail has hundreds of children; the caller flushes the sink
+     * @param prefix Parent UIDs are prefix + "-" + index
+     */
+    public List<Family> generateFamilies(String prefix, int families, DocumentSink sink) throws Exception {
+        List<Family> generated = new ArrayList<>(families);
+        for (int i = 0; i < families; i++) {
+            String parentUid = prefix + "-" + i;
+            Random sizing = familyRandom(parentUid, 1);
+            int children;
+            if (sizing.nextDouble() < 0.01) {
+                // Schools and clinics managing many devices
+                children = 20 + sizing.nextInt(481);
+            } else {
+                // Geometric, p = 0.5, capped at 12
+                children = 1;
+                while (children < 12 && sizing.nextBoolean()) {
+                    children++;
+                }
+            }
+            // Log-normal alerts per child, median 40
+            int alerts = 0;
+            for (int c = 0; c < children; c++) {
+                alerts += (int) Math.round(40 * Math.exp(sizing.nextGaussian()));
+            }
+            generated.add(generateFamily(parentUid, children, alerts, sink));
+        }
+        return generated;
+    }
+
+    /**
+     * Usage sessions for one child; writes events for usageDays days
+     * @param lastSession Receives the end of the latest session (0 if none)
+     * @return Today's screen time in seconds
+     */
+    private long generateUsage(Family family, String profileId, String childUid, int age, Random random,
+                               DocumentSink sink, long[] lastSession) throws Exception {
+        double medianSeconds = (age < 10 ? 1.5 : age < 14 ? 3.0 : 4.5) * 60 * 60;
+        long todayStart = startOfDay(nowMillis);
+        long screenTimeToday = 0;
+        int days = Math.max(1, usageDays);
+        Calendar calendar = Calendar.getInstance();
+
+        for (int d = 0; d < days; d++) {
+            long dayStart = todayStart - d * DAY;
+            calendar.setTimeInMillis(dayStart);
+            int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+            boolean weekend = dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY;
+            double[] hourly = weekend ? WEEKEND_USAGE_CDF : WEEKDAY_USAGE_CDF;
+
+            long remaining = Math.round(medianSeconds * (weekend ? 1.3 : 1.0)
+                    * Math.exp(0.5 * random.nextGaussian()));
+            int session = 0;
+            while (remaining > 0) {
+                // Log-normal sessions, median 4 minutes
+                long duration = Math.min(remaining, Math.max(30, Math.round(240 * Math.exp(0.9 * random.nextGaussian()))));
+                remaining -= duration;
+                long startedAt = dayStart + pick(hourly, random) * HOUR + (long) (random.nextDouble() * HOUR);
+                long endedAt = startedAt + duration * SECOND;
+                if (endedAt > nowMillis) {
+                    // Later today; has not happened yet
+                    continue;
+                }
+                if (d == 0) {
+                    screenTimeToday += duration;
+                }
+                lastSession[0] = Math.max(lastSession[0], endedAt);
+
+                if (usageDays > 0) {
+                    String eventId = profileId + "-usage-" + d + "-" + session++;
+                    Map<String, Object> event = new HashMap<>();
+                    event.put("eventId", eventId);
+                    event.put("parentUid", family.parentUid);
+                    event.put("childUid", childUid);
+                    event.put("packageName", PACKAGES[pick(PACKAGE_CDF, random)]);
+                    event.put("startedAt", startedAt);
+                    event.put("durationSeconds", duration);
+                    sink.write(COLLECTION_USAGE_EVENTS, eventId, event);
+                    family.usageEvents++;
+                }
+            }
+        }
+        return screenTimeToday;
+    }
+
+    /**
+     * Alerts in bursts: one child and mostly one type per burst, seconds to minutes apart
+     */
+    private void generateAlerts(Family family, int alerts, Random random, DocumentSink sink) throws Exception {
+        int children = family.childUids.size();
+        // Zipf weights over a shuffled child order, so the busiest child is not always the first
+        double[] childCdf = zipf(children, childSkew);
+        int[] childOrder = new int[children];
+        for (int i = 0; i < children; i++) {
+            childOrder[i] = i;
+        }
+        for (int i = children - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = childOrder[i];
+            childOrder[i] = childOrder[j];
+            childOrder[j] = swap;
+        }
+
+        long todayStart = startOfDay(nowMillis);
+        Calendar calendar = Calendar.getInstance();
+        int written = 0;
+        while (written < alerts) {
+            String childUid = family.childUids.get(childOrder[pick(childCdf, random)]);
+            Alert.AlertType type = ALERT_TYPES[pick(ALERT_TYPE_CDF, random)];
+
+            // Burst start: exponential age (recent days are busier), hour from the usage curve
+            int ageDays = (int) Math.min(alertDays - 1, -Math.log(1 - random.nextDouble()) * alertDays / 4.0);
+            long dayStart = todayStart - ageDays * DAY;
+            calendar.setTimeInMillis(dayStart);
+            int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+            double[] hourly = dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY
+                    ? WEEKEND_USAGE_CDF : WEEKDAY_USAGE_CDF;
+            long time = dayStart + pick(hourly, random) * HOUR + (long) (random.nextDouble() * HOUR);
+
+            // Geometric burst size with the configured mean
+            int burst = 1;
+            while (random.nextDouble() < 1 - 1 / meanBurstSize) {
+                burst++;
+            }
+            burst = Math.min(burst, alerts - written);
+
+            for (int b = 0; b < burst; b++) {
+                if (b > 0) {
+                    // Exponential gaps, mean 90 seconds; occasionally a different type
+                    time += (long) (-Math.log(1 - random.nextDouble()) * 90 * SECOND);
+                    if (random.nextDouble() < 0.2) {
+                        type = ALERT_TYPES[pick(ALERT_TYPE_CDF, random)];
+                    }
+                }
+                // Bursts drawn for later today move to yesterday
+                long createdAt = time > nowMillis ? time - DAY : time;
+                String alertId = family.parentUid + "-alert-" + written;
+                Alert alert = new Alert(alertId, family.parentUid, childUid, type,
+                        titleFor(type), messageFor(type), severityFor(type, random));
+                alert.setCreatedAt(createdAt);
+                alert.setLastOccurredAt(createdAt);
+                // Older alerts have mostly been read
+                long age = nowMillis - createdAt;
+                double readChance = age < DAY ? 0.3 : age < 7 * DAY ? 0.7 : 0.95;
+                boolean read = random.nextDouble() < readChance;
+                alert.setRead(read);
+                if (read && type == Alert.AlertType.GEO_FENCE_BREACH) {
+                    alert.setResolved(true);
+                    alert.setResolvedAt(createdAt + (long) (random.nextDouble() * HOUR));
+                }
+                sink.write(COLLECTION_ALERTS, alertId, alert.toMap());
+                written++;
+                family.alerts++;
+                if (!read) {
+                    family.unreadAlerts++;
+                }
+            }
+        }
+    }
+
+    private Random familyRandom(String parentUid, int stream) {
+        return new Random(seed * 1_000_003L + parentUid.hashCode() * 31L + stream);
+    }
+
+    private static long startOfDay(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    private static String titleFor(Alert.AlertType type) {
+        switch (type) {
+            case GEO_FENCE_BREACH:
+                return "Left safe zone";
+            case TIME_LIMIT_REACHED:
+                return "Screen time limit reached";
+            case NEW_APP_INSTALL:
+                return "New app installed";
+            case LOW_BATTERY:
+                return "Low battery";
+            case WEEKLY_REPORT:
+                return "Weekly report ready";
+            default:
+                return "Content flagged";
+        }
+    }
+
+    private static String messageFor(Alert.AlertType type) {
+        switch (type) {
+            case GEO_FENCE_BREACH:
+                return "The device left a safe zone";
+            case TIME_LIMIT_REACHED:
+                return "The daily screen time limit has been reached";
+            case NEW_APP_INSTALL:
+                return "An app was installed and is waiting for review";
+            case LOW_BATTERY:
+                return "Battery is below 15%";
+            case WEEKLY_REPORT:
+                return "This week's activity summary is available";
+            default:
+                return "Potentially inappropriate content was detected";
+        }
+    }
+
+    private static Alert.AlertSeverity severityFor(Alert.AlertType type, Random random) {
+        switch (type) {
+            case GEO_FENCE_BREACH:
+                return Alert.AlertSeverity.HIGH;
+            case INAPPROPRIATE_CONTENT:
+                return random.nextBoolean() ? Alert.AlertSeverity.HIGH : Alert.AlertSeverity.MEDIUM;
+            case TIME_LIMIT_REACHED:
+                return Alert.AlertSeverity.MEDIUM;
+            default:
+                return Alert.AlertSeverity.LOW;
+        }
+    }
+
+    // Index drawn from a cumulative distribution
+    private static int pick(double[] cdf, Random random) {
+        double target = random.nextDouble() * cdf[cdf.length - 1];
+        int index = Arrays.binarySearch(cdf, target);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return Math.min(index, cdf.length - 1);
+    }
+
+    private static double[] zipf(int n, double exponent) {
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, exponent);
+        }
+        return cumulative(weights);
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cdf = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum;
+        }
+        return cdf;
+    }
+}
@@ -0,0 +1,386 @@
+package com.mustafa.guardianai.network;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.mustafa.guardianai.benchmark.FirebaseEmulators;
+import com.mustafa.guardianai.benchmark.LatencySamples;
+import com.mustafa.guardianai.data.synthetic.FirestoreBatchSink;
+import com.mustafa.guardianai.data.synthetic.SyntheticDataGenerator;
+import com.mustafa.guardianai.trace.FirestoreMeter;
+import com.mustafa.guardianai.trace.Tracer;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Firestore Load Harness
+ * Runs the dashboard, profile and pairing paths against the Firebase emulators at growing
+ * data sizes and reports latency and billed reads per operation
+ *
+ * Each point (children x alerts) gets its own parent from SyntheticDataGenerator, so the
+ * curves show how every query path scales with the data behind one family. The services
+ * run on the FirebaseEmulators app. Reads come from the Tracer spans of each call, metered
+ * into a FirestoreMeter of the run's own, so the app's session and daily totals stay clean.
+ *
+ * Skipped when the Firestore emulator is not reachable.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FirestoreLoadHarness {
+    private static final String TAG = "FirestoreLoadHarness";
+    private static final long CALL_TIMEOUT_SECONDS = 120;
+
+    @Test
+    public void queryPaths() throws Exception {
+        Config config = new Config();
+        Assume.assumeTrue("Firestore emulator not running",
+                FirebaseEmulators.isReachable(config.emulatorHost, config.firestorePort));
+        run(InstrumentationRegistry.getInstrumentation().getTargetContext(), config);
+    }
+
+    /**
+     * Load parameters
+     */
+    public static class Config {
+        String emulatorHost = FirebaseEmulators.DEFAULT_HOST;
+        int firestorePort = FirebaseEmulators.DEFAULT_FIRESTORE_PORT;
+        int authPort = FirebaseEmulators.DEFAULT_AUTH_PORT;
+        // {children, alerts} per point: a children sweep, then an alerts sweep
+        List<int[]> points = new ArrayList<>(Arrays.asList(
+                new int[]{1, 1_000}, new int[]{10, 1_000}, new int[]{100, 1_000}, new int[]{500, 1_000},
+                new int[]{10, 100}, new int[]{10, 10_000}, new int[]{10, 100_000}));
+        int iterations = 10;
+        int warmupIterations = 2;
+        boolean clearEmulator = true;
+        long seed = 42L;
+        long baseTimeMillis = SyntheticDataGenerator.DEFAULT_BASE_TIME_MILLIS;
+
+        public Config emulator(String host, int firestorePort, int authPort) {
+            this.emulatorHost = host;
+            this.firestorePort = firestorePort;
+            this.authPort = authPort;
+            return this;
+        }
+
+        /**
+         * Replace the default points
+         * @param points {children, alerts} pairs
+         */
+        public Config points(int[]... points) {
+            this.points = new ArrayList<>(Arrays.asList(points));
+            return this;
+        }
+
+        public Config iterations(int iterations) {
+            this.iterations = iterations;
+            return this;
+        }
+
+        public Config warmupIterations(int warmupIterations) {
+            this.warmupIterations = warmupIterations;
+            return this;
+        }
+
+        /**
+         * Delete all emulator documents and accounts before the run
+         */
+        public Config clearEmulator(boolean clearEmulator) {
+            this.clearEmulator = clearEmulator;
+            return this;
+        }
+
+        public Config seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Time the seeded data is generated relative to (see SyntheticDataGenerator)
+         */
+        public Config baseTimeMillis(long baseTimeMillis) {
+            this.baseTimeMillis = baseTimeMillis;
+            return this;
+        }
+    }
+
+    /**
+     * One operation measured at one point
+     */
+    public static class Measurement {
+        private final String operation;
+        private final int children;
+        private final int alerts;
+        private final int calls;
+        private final int failures;
+        private final double[] latencyMillis;
+        private final double readsPerCall;
+
+        Measurement(String operation, int children, int alerts, int calls, int failures,
+                    double[] latencyMillis, double readsPerCall) {
+            this.operation = operation;
+            this.children = children;
+            this.alerts = alerts;
+            this.calls = calls;
+            this.failures = failures;
+            this.latencyMillis = latencyMillis;
+            this.readsPerCall = readsPerCall;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public int getChildren() {
+            return children;
+        }
+
+        public int getAlerts() {
+            return alerts;
+        }
+
+        public int getCalls() {
+            return calls;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        // {p50, p95, max} in milliseconds
+        public double[] getLatencyMillis() {
+            return latencyMillis.clone();
+        }
+
+        public double getReadsPerCall() {
+            return readsPerCall;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%-22s children=%-4d alerts=%-6d calls=%d failed=%d p50=%.1fms p95=%.1fms max=%.1fms reads=%.1f",
+                    operation, children, alerts, calls, failures,
+                    latencyMillis[0], latencyMillis[1], latencyMillis[2], readsPerCall);
+        }
+    }
+
+    /**
+     * Load test result
+     */
+    public static class Report {
+        private final List<Measurement> measurements;
+        private final double elapsedSeconds;
+
+        Report(List<Measurement> measurements, double elapsedSeconds) {
+            this.measurements = measurements;
+            this.elapsedSeconds = elapsedSeconds;
+        }
+
+        public List<Measurement> getMeasurements() {
+            return new ArrayList<>(measurements);
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedSeconds;
+        }
+
+        /**
+         * One row per operation and point, for plotting the scaling curves
+         */
+        public void writeCsv(Writer writer) throws IOException {
+            writer.write("operation,children,alerts,calls,failures,p50_ms,p95_ms,max_ms,reads_per_call\n");
+            for (Measurement m : measurements) {
+                writer.write(String.format(Locale.US, "%s,%d,%d,%d,%d,%.2f,%.2f,%.2f,%.1f\n",
+                        m.operation, m.children, m.alerts, m.calls, m.failures,
+                        m.latencyMillis[0], m.latencyMillis[1], m.latencyMillis[2], m.readsPerCall));
+            }
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            for (Measurement m : measurements) {
+                report.append(m).append('\n');
+            }
+            return report.append(String.format(Locale.US, "elapsed=%.1fs", elapsedSeconds)).toString();
+        }
+    }
+
+    // A service call under measurement
+    private interface Operation {
+        ServiceCall<?> start();
+    }
+
+    // Untimed work before each call
+    private interface Setup {
+        void run() throws Exception;
+    }
+
+    /**
+     * Run the load test (blocks until every point has been seeded and measured)
+     */
+    public static Report run(Context context, Config config) throws Exception {
+        FirebaseApp app = FirebaseEmulators.app(context, config.emulatorHost, config.firestorePort,
+                config.authPort);
+        FirebaseFirestore firestore = FirebaseFirestore.getInstance(app);
+        if (config.clearEmulator) {
+            FirebaseEmulators.clear(app, config.emulatorHost, config.firestorePort, config.authPort);
+        }
+
+        FirestoreMeter meter = FirestoreMeter.create();
+        FirestoreMeter appMeter = Tracer.getInstance().setMeter(meter);
+        try {
+            return runPoints(config, app, firestore, meter);
+        } finally {
+            Tracer.getInstance().setMeter(appMeter);
+        }
+    }
+
+    private static Report runPoints(Config config, FirebaseApp app, FirebaseFirestore firestore,
+                                    FirestoreMeter meter) throws Exception {
+        DashboardService dashboardService = new DashboardService(firestore);
+        ChildProfileService childProfileService = new ChildProfileService(firestore);
+        QRPairingService pairingService = new QRPairingService(FirebaseAuth.getInstance(app), firestore);
+
+        // Usage events are not read by any measured path, so none are written
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(config.seed, config.baseTimeMillis)
+                .usageDays(0);
+        FirestoreBatchSink sink = new FirestoreBatchSink(firestore);
+        Random random = new Random(config.seed);
+        List<Measurement> measurements = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int[] point : config.points) {
+            int children = point[0];
+            int alerts = point[1];
+            long seedStart = System.nanoTime();
+            SyntheticDataGenerator.Family family = generator.generateFamily(
+                    "load-parent-" + children + "x" + alerts, children, alerts, sink);
+            sink.flush();
+            Log.d(TAG, "Seeded " + children + " children, " + alerts + " alerts in "
+                    + (System.nanoTime() - seedStart) / 1_000_000 + "ms");
+
+            String parentUid = family.getParentUid();
+            List<String> profileIds = family.getProfileIds();
+            // Drop the stored summary first so it is recomputed from profiles and alerts
+            measurements.add(measure(config, meter, "dashboard.summary.cold", children, alerts,
+                    () -> Tasks.await(firestore.collection(SyntheticDataGenerator.COLLECTION_DASHBOARD_SUMMARIES)
+                            .document(parentUid).delete()),
+                    () -> dashboardService.getDashboardSummary(parentUid)));
+            measurements.add(measure(config, meter, "dashboard.summary.warm", children, alerts,
+                    () -> dashboardService.getDashboardSummary(parentUid)));
+            measurements.add(measure(config, meter, "alerts.all", children, alerts,
+                    () -> dashboardService.getAllAlerts(parentUid)));
+            measurements.add(measure(config, meter, "alerts.unread", children, alerts,
+                    () -> dashboardService.getUnreadAlerts(parentUid)));
+            measurements.add(measure(config, meter, "profiles.byParent", children, alerts,
+                    () -> childProfileService.getChildProfilesByParent(parentUid)));
+            measurements.add(measure(config, meter, "profiles.get", children, alerts,
+                    () -> childProfileService.getChildProfile(
+                            profileIds.get(random.nextInt(profileIds.size())))));
+            measurements.add(measure(config, meter, "pairing", children, alerts,
+                    () -> pairingService.generatePairingQR(parentUid, parentUid + "@load.test")
+                            .then(pairingService::processPairing)));
+        }
+
+        Report report = new Report(measurements, (System.nanoTime() - start) / 1e9);
+        Log.d(TAG, report.toString());
+        return report;
+    }
+
+    private static Measurement measure(Config config, FirestoreMeter meter, String operation,
+                                       int children, int alerts, Operation call)
+            throws InterruptedException {
+        return measure(config, meter, operation, children, alerts, null, call);
+    }
+
+    private static Measurement measure(Config config, FirestoreMeter meter, String operation,
+                                       int children, int alerts, Setup setup, Operation call)
+            throws InterruptedException {
+        for (int i = 0; i < config.warmupIterations; i++) {
+            try {
+                if (setup != null) {
+                    setup.run();
+                }
+                await(call.start());
+            } catch (Exception e) {
+                Log.w(TAG, operation + " warmup failed: " + e.getMessage());
+            }
+        }
+
+        LatencySamples samples = new LatencySamples(config.iterations);
+        int failures = 0;
+        long reads = 0;
+        for (int i = 0; i < config.iterations; i++) {
+            try {
+                if (setup != null) {
+                    setup.run();
+                }
+                long readsBefore = sessionReads(meter);
+                long callStart = System.nanoTime();
+                await(call.start());
+                samples.add(System.nanoTime() - callStart);
+                reads += sessionReads(meter) - readsBefore;
+            } catch (Exception e) {
+                failures++;
+                Log.w(TAG, operation + " failed: " + e.getMessage());
+            }
+        }
+
+        int completed = samples.size();
+        double[] latencyMillis = {
+                samples.percentileMillis(0.50),
+                samples.percentileMillis(0.95),
+                samples.maxMillis()
+        };
+        return new Measurement(operation, children, alerts, config.iterations, failures, latencyMillis,
+                completed == 0 ? 0d : (double) reads / completed);
+    }
+
+    private static long sessionReads(FirestoreMeter meter) {
+        long reads = 0;
+        for (FirestoreMeter.Feature feature : FirestoreMeter.Feature.values()) {
+            reads += meter.getSessionUsage(feature).getReads();
+        }
+        return reads;
+    }
+
+    private static <T> T await(ServiceCall<T> call) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        call.observe(value -> {
+            result.set(value);
+            done.countDown();
+        }, exception -> {
+            error.set(exception);
+            done.countDown();
+        });
+        if (!done.await(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            call.cancel();
+            throw new TimeoutException("Call did not complete in " + CALL_TIMEOUT_SECONDS + "s");
+        }
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return result.get();
+    }
+}
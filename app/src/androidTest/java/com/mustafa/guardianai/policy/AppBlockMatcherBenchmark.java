@@ -0,0 +1,185 @@
+package com.mustafa.guardianai.policy;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.mustafa.guardianai.benchmark.LatencySamples;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * App Block Matcher Benchmark
+ * Lookup latency of the compiled trie against a linear scan of the same rules (p50/p99)
+ *
+ * Rules are synthetic package names from a fixed seed: mostly exact packages, some
+ * "vendor.*" prefixes. Queries mix exact hits, prefix hits and misses. Samples are per
+ * batch of lookups, reported per lookup.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AppBlockMatcherBenchmark {
+    private static final String TAG = "AppBlockMatcherBenchmark";
+
+    private static final long SEED = 26L;
+    private static final int BATCH = 1000;
+
+    @Test
+    public void matchLatency() {
+        run(10_000, 20, 200);
+    }
+
+    /**
+     * Benchmark result
+     */
+    public static class Report {
+        private final int rules;
+        private final double buildMillis;
+        private final double trieP50Nanos;
+        private final double trieP99Nanos;
+        private final double linearP50Nanos;
+        private final double linearP99Nanos;
+
+        Report(int rules, double buildMillis, double trieP50Nanos, double trieP99Nanos,
+               double linearP50Nanos, double linearP99Nanos) {
+            this.rules = rules;
+            this.buildMillis = buildMillis;
+            this.trieP50Nanos = trieP50Nanos;
+            this.trieP99Nanos = trieP99Nanos;
+            this.linearP50Nanos = linearP50Nanos;
+            this.linearP99Nanos = linearP99Nanos;
+        }
+
+        public int getRules() {
+            return rules;
+        }
+
+        public double getBuildMillis() {
+            return buildMillis;
+        }
+
+        public double getTrieP50Nanos() {
+            return trieP50Nanos;
+        }
+
+        public double getTrieP99Nanos() {
+            return trieP99Nanos;
+        }
+
+        public double getLinearP50Nanos() {
+            return linearP50Nanos;
+        }
+
+        public double getLinearP99Nanos() {
+            return linearP99Nanos;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "rules=%d build=%.1fms trie p50=%.0fns p99=%.0fns linear p50=%.0fns p99=%.0fns"
+                            + " (per lookup)",
+                    rules, buildMillis, trieP50Nanos, trieP99Nanos, linearP50Nanos, linearP99Nanos);
+        }
+    }
+
+    /**
+     * Run the benchmark
+     * @param ruleCount Number of package rules
+     * @param warmupBatches Batches per path before measuring
+     * @param measuredBatches Batches per path to measure
+     */
+    public static Report run(int ruleCount, int warmupBatches, int measuredBatches) {
+        Random random = new Random(SEED);
+        String[] patterns = new String[ruleCount];
+        AppBlockMatcher.Builder builder = new AppBlockMatcher.Builder();
+        for (int i = 0; i < ruleCount; i++) {
+            // One in ten rules covers a whole vendor; allow-exceptions are mixed in
+            patterns[i] = i % 10 == 0 ? "com.vendor" + i + ".*" : packageName(random, i);
+            builder.addRule(patterns[i],
+                    i % 7 == 0 ? AppBlockMatcher.ACTION_ALLOW : AppBlockMatcher.ACTION_BLOCK);
+        }
+
+        long start = System.nanoTime();
+        AppBlockMatcher matcher = builder.build();
+        double buildMillis = (System.nanoTime() - start) / 1e6;
+
+        String[] queries = new String[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            int rule = random.nextInt(ruleCount);
+            switch (i % 3) {
+                case 0:
+                    queries[i] = patterns[rule].endsWith("*")
+                            ? patterns[rule].substring(0, patterns[rule].length() - 1) + "app"
+                            : patterns[rule];
+                    break;
+                case 1:
+                    queries[i] = "com.vendor" + (rule - rule % 10) + ".game" + i;
+                    break;
+                default:
+                    queries[i] = packageName(random, ruleCount + i);
+                    break;
+            }
+        }
+
+        // Both paths must agree before their timings mean anything
+        for (String query : queries) {
+            Assert.assertEquals("Mismatch for " + query, linearMatch(patterns, query),
+                    matcher.matchPackage(query));
+        }
+
+        LatencySamples trie = new LatencySamples(measuredBatches);
+        LatencySamples linear = new LatencySamples(measuredBatches);
+        int sink = 0;
+        for (int i = 0; i < warmupBatches + measuredBatches; i++) {
+            start = System.nanoTime();
+            for (String query : queries) {
+                sink += matcher.matchPackage(query);
+            }
+            long trieNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String query : queries) {
+                sink += linearMatch(patterns, query);
+            }
+            long linearNanos = System.nanoTime() - start;
+
+            if (i >= warmupBatches) {
+                trie.add(trieNanos);
+                linear.add(linearNanos);
+            }
+        }
+
+        Report report = new Report(ruleCount, buildMillis,
+                trie.percentileNanos(0.50) / (double) BATCH, trie.percentileNanos(0.99) / (double) BATCH,
+                linear.percentileNanos(0.50) / (double) BATCH, linear.percentileNanos(0.99) / (double) BATCH);
+        Log.d(TAG, report + " sink=" + sink);
+        return report;
+    }
+
+    // What the matcher replaces: scan every rule and keep the most specific match
+    private static int linearMatch(String[] patterns, String packageName) {
+        int best = AppBlockMatcher.NO_MATCH;
+        int bestLength = -1;
+        for (int i = 0; i < patterns.length; i++) {
+            String pattern = patterns[i];
+            if (pattern.endsWith("*")) {
+                int length = pattern.length() - 1;
+                if (length > bestLength && packageName.regionMatches(0, pattern, 0, length)) {
+                    best = i;
+                    bestLength = length;
+                }
+            } else if (pattern.equals(packageName)) {
+                return i;
+            }
+        }
+        return best;
+    }
+
+    private static String packageName(Random random, int index) {
+        String[] tlds = {"com", "org", "net", "io"};
+        return tlds[random.nextInt(tlds.length)] + ".dev" + random.nextInt(500) + ".app" + index;
+    }
+}
@@ -0,0 +1,288 @@
+package com.mustafa.guardianai.push;
+
+import android.util.Log;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Fake FCM Server
+ * In-process stand-in for the FCM HTTP v1 send endpoint, bound to 127.0.0.1
+ *
+ * Implements POST /v1/projects/{projectId}/messages:send:
+ * - 401 UNAUTHENTICATED without a Bearer token
+ * - 400 INVALID_ARGUMENT unless the message has exactly one of token/topic/condition
+ *   and every data value is a string
+ * - 404 UNREGISTERED for tokens starting with UNREGISTERED_TOKEN_PREFIX
+ * - 200 {"name": "projects/{projectId}/messages/{n}"} otherwise, after notifying the
+ *   DeliveryListener
+ *
+ * HTTP/1.1 keep-alive is supported so clients can reuse connections under load.
+ * Used by the instrumented push load harness.
+ */
+public class FakeFcmServer implements Closeable {
+    private static final String TAG = "FakeFcmServer";
+
+    public static final String UNREGISTERED_TOKEN_PREFIX = "unregistered-";
+    private static final Pattern SEND_PATH = Pattern.compile("^/v1/projects/([^/]+)/messages:send$");
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    /**
+     * Called on a server thread for every accepted message
+     */
+    public interface DeliveryListener {
+        void onDelivered(String target, JSONObject data, long receivedAtNanos);
+    }
+
+    private final ServerSocket serverSocket;
+    private final DeliveryListener listener;
+    private final ExecutorService connectionExecutor = Executors.newCachedThreadPool();
+    private final AtomicLong messageCounter = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private volatile boolean running = true;
+
+    private FakeFcmServer(ServerSocket serverSocket, DeliveryListener listener) {
+        this.serverSocket = serverSocket;
+        this.listener = listener;
+    }
+
+    /**
+     * Start a server on an ephemeral loopback port
+     */
+    public static FakeFcmServer start(DeliveryListener listener) throws IOException {
+        ServerSocket socket = new ServerSocket(0, 128, InetAddress.getByName("127.0.0.1"));
+        FakeFcmServer server = new FakeFcmServer(socket, listener);
+        Thread acceptThread = new Thread(server::acceptLoop, TAG);
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        Log.d(TAG, "Listening on " + server.getBaseUrl());
+        return server;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        connectionExecutor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connectionExecutor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    Log.e(TAG, "Accept failed: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    // Serve requests on one connection until the client closes it
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             InputStream in = new BufferedInputStream(s.getInputStream());
+             OutputStream out = s.getOutputStream()) {
+            while (running) {
+                String requestLine = readLine(in);
+                if (requestLine == null || requestLine.isEmpty()) {
+                    return;
+                }
+                int contentLength = 0;
+                boolean keepAlive = true;
+                String authorization = null;
+                String header;
+                while ((header = readLine(in)) != null && !header.isEmpty()) {
+                    int colon = header.indexOf(':');
+                    if (colon <= 0) {
+                        continue;
+                    }
+                    String name = header.substring(0, colon).trim().toLowerCase(Locale.US);
+                    String value = header.substring(colon + 1).trim();
+                    if (name.equals("content-length")) {
+                        contentLength = Integer.parseInt(value);
+                    } else if (name.equals("connection")) {
+                        keepAlive = !value.equalsIgnoreCase("close");
+                    } else if (name.equals("authorization")) {
+                        authorization = value;
+                    }
+                }
+                if (contentLength > MAX_BODY_BYTES) {
+                    writeResponse(out, 413, error(413, "INVALID_ARGUMENT", "Request too large"), false);
+                    return;
+                }
+                byte[] body = readBody(in, contentLength);
+
+                requestCount.incrementAndGet();
+                String[] parts = requestLine.split(" ");
+                Response response = handle(parts.length > 1 ? parts[0] : "", parts.length > 1 ? parts[1] : "",
+                        authorization, body);
+                if (response.status != 200) {
+                    rejectedCount.incrementAndGet();
+                }
+                writeResponse(out, response.status, response.body, keepAlive);
+                if (!keepAlive) {
+                    return;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Client went away
+        }
+    }
+
+    private Response handle(String method, String path, String authorization, byte[] body) {
+        Matcher matcher = SEND_PATH.matcher(path);
+        if (!matcher.matches()) {
+            return new Response(404, error(404, "NOT_FOUND", "Unknown path " + path));
+        }
+        if (!method.equals("POST")) {
+            return new Response(405, error(405, "INVALID_ARGUMENT", "Use POST"));
+        }
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return new Response(401, error(401, "UNAUTHENTICATED", "Missing bearer token"));
+        }
+
+        try {
+            JSONObject message = new JSONObject(new String(body, StandardCharsets.UTF_8))
+                    .optJSONObject("message");
+            if (message == null) {
+                return new Response(400, error(400, "INVALID_ARGUMENT", "Missing message"));
+            }
+            int targets = (message.has("token") ? 1 : 0) + (message.has("topic") ? 1 : 0)
+                    + (message.has("condition") ? 1 : 0);
+            if (targets != 1) {
+                return new Response(400, error(400, "INVALID_ARGUMENT",
+                        "Exactly one of token, topic or condition is required"));
+            }
+            JSONObject data = message.optJSONObject("data");
+            if (data != null) {
+                Iterator<String> keys = data.keys();
+                while (keys.hasNext()) {
+                    if (!(data.get(keys.next()) instanceof String)) {
+                        return new Response(400, error(400, "INVALID_ARGUMENT", "Data values must be strings"));
+                    }
+                }
+            }
+            String token = message.optString("token", null);
+            if (token != null && token.startsWith(UNREGISTERED_TOKEN_PREFIX)) {
+                return new Response(404, error(404, "UNREGISTERED", "Requested entity was not found."));
+            }
+
+            long receivedAt = System.nanoTime();
+            if (listener != null) {
+                String target = token != null ? token
+                        : message.has("topic") ? "/topics/" + message.getString("topic")
+                        : message.getString("condition");
+                listener.onDelivered(target, data != null ? data : new JSONObject(), receivedAt);
+            }
+            String name = "projects/" + matcher.group(1) + "/messages/" + messageCounter.incrementAndGet();
+            return new Response(200, new JSONObject().put("name", name).toString());
+        } catch (JSONException e) {
+            return new Response(400, error(400, "INVALID_ARGUMENT", "Invalid JSON payload"));
+        }
+    }
+
+    private static String error(int code, String status, String message) {
+        try {
+            return new JSONObject().put("error", new JSONObject()
+                    .put("code", code)
+                    .put("message", message)
+                    .put("status", status)).toString();
+        } catch (JSONException e) {
+            return "{}";
+        }
+    }
+
+    private static void writeResponse(OutputStream out, int status, String body, boolean keepAlive)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        String head = "HTTP/1.1 " + status + " " + reason(status) + "\r\n"
+                + "Content-Type: application/json; charset=UTF-8\r\n"
+                + "Content-Length: " + bytes.length + "\r\n"
+                + "Connection: " + (keepAlive ? "keep-alive" : "close") + "\r\n\r\n";
+        out.write(head.getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+        out.flush();
+    }
+
+    private static String reason(int status) {
+        switch (status) {
+            case 200: return "OK";
+            case 400: return "Bad Request";
+            case 401: return "Unauthorized";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 413: return "Payload Too Large";
+            default: return "Error";
+        }
+    }
+
+    // Read one CRLF-terminated line; null at end of stream
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+            }
+            line.write(c);
+        }
+        return line.size() > 0 ? line.toString("US-ASCII") : null;
+    }
+
+    private static byte[] readBody(InputStream in, int length) throws IOException {
+        byte[] body = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = in.read(body, offset, length - offset);
+            if (read == -1) {
+                throw new IOException("Unexpected end of body");
+            }
+            offset += read;
+        }
+        return body;
+    }
+
+    private static class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.mustafa.guardianai.push;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * FCM v1 Client
+ * Minimal sender for the FCM HTTP v1 send endpoint (messages:send)
+ *
+ * Sends data-only messages to a single registration token. The base URL is configurable
+ * so the same code can target FakeFcmServer offline. Thread-safe; HttpURLConnection
+ * reuses keep-alive connections across calls.
+ */
+public class FcmV1Client {
+    public static final String DEFAULT_BASE_URL = "https://fcm.googleapis.com";
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    private final String sendUrl;
+    private final String accessToken;
+
+    /**
+     * Error response from the send endpoint
+     */
+    public static class SendException extends IOException {
+        private final int httpStatus;
+        private final String status;
+
+        public SendException(int httpStatus, String status, String message) {
+            super(httpStatus + " " + status + ": " + message);
+            this.httpStatus = httpStatus;
+            this.status = status;
+        }
+
+        public int getHttpStatus() {
+            return httpStatus;
+        }
+
+        // e.g. INVALID_ARGUMENT, UNREGISTERED, QUOTA_EXCEEDED
+        public String getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * @param baseUrl Server root, e.g. DEFAULT_BASE_URL or FakeFcmServer.getBaseUrl()
+     * @param projectId Firebase project ID
+     * @param accessToken OAuth2 bearer token
+     */
+    public FcmV1Client(String baseUrl, String projectId, String accessToken) {
+        this.sendUrl = baseUrl + "/v1/projects/" + projectId + "/messages:send";
+        this.accessToken = accessToken;
+    }
+
+    /**
+     * Send a high-priority data message
+     * @param token Registration token
+     * @param data Data payload (values must be strings per the FCM contract)
+     * @return Message name returned by the server
+     */
+    public String send(String token, Map<String, String> data) throws IOException {
+        byte[] body;
+        try {
+            JSONObject message = new JSONObject();
+            message.put("token", token);
+            message.put("data", new JSONObject(data));
+            message.put("android", new JSONObject().put("priority", "high"));
+            body = new JSONObject().put("message", message).toString().getBytes(StandardCharsets.UTF_8);
+        } catch (JSONException e) {
+            throw new IOException("Failed to encode message", e);
+        }
+
+        // No disconnect() afterwards; that would close the keep-alive connection
+        HttpURLConnection connection = (HttpURLConnection) new URL(sendUrl).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Authorization", "Bearer " + accessToken);
+        connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+
+        int code = connection.getResponseCode();
+        InputStream in = code < 400 ? connection.getInputStream() : connection.getErrorStream();
+        String response = in != null ? readFully(in) : "";
+        try {
+            JSONObject json = new JSONObject(response.isEmpty() ? "{}" : response);
+            if (code == HttpURLConnection.HTTP_OK) {
+                return json.getString("name");
+            }
+            JSONObject error = json.optJSONObject("error");
+            throw new SendException(code,
+                    error != null ? error.optString("status", "UNKNOWN") : "UNKNOWN",
+                    error != null ? error.optString("message") : response);
+        } catch (JSONException e) {
+            throw new SendException(code, "UNKNOWN", response);
+        }
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[1024];
+            int read;
+            while ((read = input.read(chunk)) != -1) {
+                buffer.write(chunk, 0, read);
+            }
+            return buffer.toString("UTF-8");
+        }
+    }
+}
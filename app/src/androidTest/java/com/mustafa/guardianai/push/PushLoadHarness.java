@@ -0,0 +1,463 @@
+package com.mustafa.guardianai.push;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.mustafa.guardianai.alerts.AlertCoalescer;
+import com.mustafa.guardianai.alerts.AlertDispatchQueue;
+import com.mustafa.guardianai.benchmark.FirebaseEmulators;
+import com.mustafa.guardianai.benchmark.LatencySamples;
+import com.mustafa.guardianai.data.model.Alert;
+import com.mustafa.guardianai.network.AlertService;
+import com.mustafa.guardianai.network.ServiceCall;
+import com.mustafa.guardianai.trace.FirestoreMeter;
+import com.mustafa.guardianai.trace.Tracer;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Push Load Harness
+ * Fires synthetic alerts through the child-side alert pipeline and measures push fan-out
+ * to FakeFcmServer
+ *
+ * Pipeline under test: producer -> AlertCoalescer -> AlertDispatchQueue -> AlertService,
+ * writing to the Firestore emulator (FirebaseEmulators). A listener on the alerts
+ * collection stands in for the backend: once a write is committed it pushes every HIGH
+ * alert, and every digest once per parent, to each parent device through FcmV1Client.
+ * The queue's digest timers are hours long, so flushDigest() is called every digestMillis.
+ *
+ * Latency runs from the alerts write (AlertService.createAlert or writeDigest being
+ * called) to the fake server receiving the push; for digests, from the digest write.
+ * Firestore usage goes to a meter of the run's own. Skipped when the Firestore emulator
+ * is not reachable.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PushLoadHarness {
+    private static final String TAG = "PushLoadHarness";
+    private static final String PROJECT_ID = "guardian-load-test";
+    private static final String QUEUE_PREFS_NAME = "GuardianAI_push_load_queue";
+    private static final String COLLECTION_ALERTS = "alerts";
+    private static final int WARMUP_PUSHES = 200;
+    private static final long DRAIN_TIMEOUT_MILLIS = 60_000L;
+
+    private static final Alert.AlertType[] TYPES = {
+            Alert.AlertType.GEO_FENCE_BREACH,
+            Alert.AlertType.TIME_LIMIT_REACHED,
+            Alert.AlertType.NEW_APP_INSTALL,
+            Alert.AlertType.LOW_BATTERY,
+            Alert.AlertType.INAPPROPRIATE_CONTENT
+    };
+
+    @Test
+    public void alertFanout() throws Exception {
+        Config config = new Config();
+        Assume.assumeTrue("Firestore emulator not running",
+                FirebaseEmulators.isReachable(config.emulatorHost, config.firestorePort));
+        run(InstrumentationRegistry.getInstrumentation().getTargetContext(), config);
+    }
+
+    /**
+     * Load parameters
+     */
+    public static class Config {
+        String emulatorHost = FirebaseEmulators.DEFAULT_HOST;
+        int firestorePort = FirebaseEmulators.DEFAULT_FIRESTORE_PORT;
+        int authPort = FirebaseEmulators.DEFAULT_AUTH_PORT;
+        boolean clearEmulator = true;
+        int alertsPerSecond = 200;
+        long durationMillis = 10_000L;
+        int children = 50;
+        int devicesPerParent = 2;
+        int senderThreads = 16;
+        long digestMillis = 1_000L;
+        int keysPerType = 8;
+        long seed = 42L;
+
+        public Config emulator(String host, int firestorePort, int authPort) {
+            this.emulatorHost = host;
+            this.firestorePort = firestorePort;
+            this.authPort = authPort;
+            return this;
+        }
+
+        /**
+         * Delete all emulator documents and accounts before the run
+         */
+        public Config clearEmulator(boolean clearEmulator) {
+            this.clearEmulator = clearEmulator;
+            return this;
+        }
+
+        public Config alertsPerSecond(int alertsPerSecond) {
+            this.alertsPerSecond = alertsPerSecond;
+            return this;
+        }
+
+        public Config durationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+            return this;
+        }
+
+        public Config children(int children) {
+            this.children = children;
+            return this;
+        }
+
+        public Config devicesPerParent(int devicesPerParent) {
+            this.devicesPerParent = devicesPerParent;
+            return this;
+        }
+
+        public Config senderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+            return this;
+        }
+
+        public Config digestMillis(long digestMillis) {
+            this.digestMillis = digestMillis;
+            return this;
+        }
+
+        public Config keysPerType(int keysPerType) {
+            this.keysPerType = keysPerType;
+            return this;
+        }
+
+        public Config seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+    }
+
+    /**
+     * Load test result
+     */
+    public static class Report {
+        private final long submitted;
+        private final long written;
+        private final long merged;
+        private final long rateLimited;
+        private final long stored;
+        private final long pushesSent;
+        private final long pushesDelivered;
+        private final long pushFailures;
+        private final double elapsedSeconds;
+        private final double[] highLatencyMillis;
+        private final double[] digestLatencyMillis;
+
+        Report(long submitted, long written, long merged, long rateLimited, long stored,
+               long pushesSent, long pushesDelivered, long pushFailures, double elapsedSeconds,
+               double[] highLatencyMillis, double[] digestLatencyMillis) {
+            this.submitted = submitted;
+            this.written = written;
+            this.merged = merged;
+            this.rateLimited = rateLimited;
+            this.stored = stored;
+            this.pushesSent = pushesSent;
+            this.pushesDelivered = pushesDelivered;
+            this.pushFailures = pushFailures;
+            this.elapsedSeconds = elapsedSeconds;
+            this.highLatencyMillis = highLatencyMillis;
+            this.digestLatencyMillis = digestLatencyMillis;
+        }
+
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        public long getWritten() {
+            return written;
+        }
+
+        public long getMerged() {
+            return merged;
+        }
+
+        public long getRateLimited() {
+            return rateLimited;
+        }
+
+        // Alert documents committed to Firestore
+        public long getStored() {
+            return stored;
+        }
+
+        public long getPushesSent() {
+            return pushesSent;
+        }
+
+        public long getPushesDelivered() {
+            return pushesDelivered;
+        }
+
+        public long getPushFailures() {
+            return pushFailures;
+        }
+
+        public double getAchievedAlertsPerSecond() {
+            return elapsedSeconds > 0 ? submitted / elapsedSeconds : 0d;
+        }
+
+        // {p50, p99, max} in milliseconds
+        public double[] getHighLatencyMillis() {
+            return highLatencyMillis.clone();
+        }
+
+        public double[] getDigestLatencyMillis() {
+            return digestLatencyMillis.clone();
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "submitted=%d (%.0f/s) written=%d merged=%d rateLimited=%d stored=%d pushes=%d"
+                            + " delivered=%d failed=%d high p50=%.2fms p99=%.2fms max=%.2fms"
+                            + " digest p50=%.1fms p99=%.1fms max=%.1fms",
+                    submitted, getAchievedAlertsPerSecond(), written, merged, rateLimited, stored,
+                    pushesSent, pushesDelivered, pushFailures,
+                    highLatencyMillis[0], highLatencyMillis[1], highLatencyMillis[2],
+                    digestLatencyMillis[0], digestLatencyMillis[1], digestLatencyMillis[2]);
+        }
+    }
+
+    // AlertService that notes when each alert's write was issued
+    private static class TimedAlertService extends AlertService {
+        final Map<String, Long> writeStartNanos = new ConcurrentHashMap<>();
+
+        TimedAlertService(FirebaseFirestore firestore) {
+            super(firestore);
+        }
+
+        @Override
+        public ServiceCall<Void> createAlert(Alert alert) {
+            writeStartNanos.putIfAbsent(alert.getAlertId(), System.nanoTime());
+            return super.createAlert(alert);
+        }
+
+        @Override
+        public ServiceCall<Void> writeDigest(String digestId, List<Alert> alerts,
+                                             List<CountUpdate> countUpdates) {
+            long now = System.nanoTime();
+            for (Alert alert : alerts) {
+                // A HIGH alert that failed and fell back to the digest keeps its first write time
+                writeStartNanos.putIfAbsent(alert.getAlertId(), now);
+            }
+            return super.writeDigest(digestId, alerts, countUpdates);
+        }
+    }
+
+    /**
+     * Run the load test (blocks for about durationMillis plus the drain)
+     */
+    public static Report run(Context context, Config config) throws Exception {
+        FirebaseApp app = FirebaseEmulators.app(context, config.emulatorHost, config.firestorePort,
+                config.authPort);
+        if (config.clearEmulator) {
+            FirebaseEmulators.clear(app, config.emulatorHost, config.firestorePort, config.authPort);
+        }
+        context.deleteSharedPreferences(QUEUE_PREFS_NAME);
+
+        FirestoreMeter appMeter = Tracer.getInstance().setMeter(FirestoreMeter.create());
+        try {
+            return runPipeline(context, config, FirebaseFirestore.getInstance(app));
+        } finally {
+            Tracer.getInstance().setMeter(appMeter);
+            context.deleteSharedPreferences(QUEUE_PREFS_NAME);
+        }
+    }
+
+    private static Report runPipeline(Context context, Config config, FirebaseFirestore firestore)
+            throws IOException, InterruptedException {
+        LatencySamples highLatency = new LatencySamples();
+        LatencySamples digestLatency = new LatencySamples();
+        AtomicLong delivered = new AtomicLong();
+        AtomicLong sent = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+
+        FakeFcmServer server = FakeFcmServer.start((target, data, receivedAtNanos) -> {
+            if (data.has("warmup")) {
+                return;
+            }
+            long writtenAt = Long.parseLong(data.optString("writtenAt", "0"));
+            (data.has("digestId") ? digestLatency : highLatency).add(receivedAtNanos - writtenAt);
+            delivered.incrementAndGet();
+        });
+        FcmV1Client client = new FcmV1Client(server.getBaseUrl(), PROJECT_ID, "load-test-token");
+        ExecutorService senders = Executors.newFixedThreadPool(config.senderThreads);
+        ScheduledExecutorService digestTimer = Executors.newSingleThreadScheduledExecutor();
+
+        // Warm up JIT, server threads and keep-alive connections outside the measurement
+        for (int i = 0; i < WARMUP_PUSHES; i++) {
+            client.send("token-warmup", Collections.singletonMap("warmup", "1"));
+        }
+
+        // Backend stand-in: push once per committed HIGH alert and once per parent digest
+        TimedAlertService alertService = new TimedAlertService(firestore);
+        Set<String> stored = ConcurrentHashMap.newKeySet();
+        Set<String> pushedDigests = ConcurrentHashMap.newKeySet();
+        ListenerRegistration backend = firestore.collection(COLLECTION_ALERTS)
+                .addSnapshotListener(MetadataChanges.INCLUDE, (snapshot, error) -> {
+                    if (error != null || snapshot == null) {
+                        Log.e(TAG, "Alerts listener failed", error);
+                        return;
+                    }
+                    Map<String, Long> digests = new HashMap<>();
+                    for (DocumentChange change : snapshot.getDocumentChanges()) {
+                        DocumentSnapshot document = change.getDocument();
+                        if (document.getMetadata().hasPendingWrites() || !stored.add(document.getId())) {
+                            // Not committed yet, or already handled (count updates)
+                            continue;
+                        }
+                        String parentUid = document.getString("parentUid");
+                        Long writtenAt = alertService.writeStartNanos.get(document.getId());
+                        if (parentUid == null || writtenAt == null) {
+                            continue;
+                        }
+                        String digestId = document.getString("digestId");
+                        if (digestId == null) {
+                            Map<String, String> data = new HashMap<>();
+                            data.put("alertId", document.getId());
+                            data.put("writtenAt", String.valueOf(writtenAt));
+                            push(client, senders, config, parentUid, data, sent, failures);
+                        } else {
+                            digests.merge(parentUid + "|" + digestId, writtenAt, Math::min);
+                        }
+                    }
+                    for (Map.Entry<String, Long> digest : digests.entrySet()) {
+                        // A digest committed across two snapshots is still pushed once
+                        if (!pushedDigests.add(digest.getKey())) {
+                            continue;
+                        }
+                        String[] parts = digest.getKey().split("\\|", 2);
+                        Map<String, String> data = new HashMap<>();
+                        data.put("digestId", parts[1]);
+                        data.put("writtenAt", String.valueOf(digest.getValue()));
+                        push(client, senders, config, parts[0], data, sent, failures);
+                    }
+                });
+
+        AlertDispatchQueue queue = new AlertDispatchQueue(context, alertService, QUEUE_PREFS_NAME);
+        AlertCoalescer coalescer = new AlertCoalescer(queue);
+        digestTimer.scheduleAtFixedRate(queue::flushDigest, config.digestMillis, config.digestMillis,
+                TimeUnit.MILLISECONDS);
+
+        // Paced producer
+        Random random = new Random(config.seed);
+        long intervalNanos = 1_000_000_000L / Math.max(1, config.alertsPerSecond);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(config.durationMillis);
+        long submitted = 0;
+        while (true) {
+            long next = start + submitted * intervalNanos;
+            if (next >= end) {
+                break;
+            }
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int child = random.nextInt(config.children);
+            Alert.AlertType type = TYPES[random.nextInt(TYPES.length)];
+            Alert alert = new Alert("alert-" + submitted, "parent-" + child, "child-" + child, type,
+                    "Load test", "Synthetic alert", severityFor(type, random));
+            coalescer.submit(alert, String.valueOf(random.nextInt(config.keysPerType)));
+            submitted++;
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        // Drain: count updates, the last digests, their commits and the pushes they trigger
+        coalescer.flush();
+        long written = coalescer.getMetrics().getWritten();
+        long drainDeadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        while ((queue.getPendingCount() > 0 || stored.size() < written)
+                && System.currentTimeMillis() < drainDeadline) {
+            Thread.sleep(config.digestMillis);
+        }
+        digestTimer.shutdown();
+        digestTimer.awaitTermination(5, TimeUnit.SECONDS);
+        backend.remove();
+        senders.shutdown();
+        senders.awaitTermination(60, TimeUnit.SECONDS);
+        server.close();
+
+        AlertCoalescer.Metrics metrics = coalescer.getMetrics();
+        Report report = new Report(
+                submitted,
+                metrics.getWritten(),
+                metrics.getMerged(),
+                metrics.getRateLimited(),
+                stored.size(),
+                sent.get(),
+                delivered.get(),
+                failures.get(),
+                elapsedSeconds,
+                summaryMillis(highLatency),
+                summaryMillis(digestLatency)
+        );
+        Log.d(TAG, report.toString());
+        return report;
+    }
+
+    // One push to every device of a parent
+    private static void push(FcmV1Client client, ExecutorService senders, Config config,
+                             String parentUid, Map<String, String> data, AtomicLong sent,
+                             AtomicLong failures) {
+        for (int d = 0; d < config.devicesPerParent; d++) {
+            String token = "token-" + parentUid + "-" + d;
+            sent.incrementAndGet();
+            senders.execute(() -> {
+                try {
+                    client.send(token, data);
+                } catch (IOException e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private static double[] summaryMillis(LatencySamples samples) {
+        return new double[]{
+                samples.percentileMillis(0.50),
+                samples.percentileMillis(0.99),
+                samples.maxMillis()
+        };
+    }
+
+    private static Alert.AlertSeverity severityFor(Alert.AlertType type, Random random) {
+        switch (type) {
+            case GEO_FENCE_BREACH:
+                return Alert.AlertSeverity.HIGH;
+            case INAPPROPRIATE_CONTENT:
+                return random.nextBoolean() ? Alert.AlertSeverity.HIGH : Alert.AlertSeverity.MEDIUM;
+            case TIME_LIMIT_REACHED:
+                return Alert.AlertSeverity.MEDIUM;
+            default:
+                return Alert.AlertSeverity.LOW;
+        }
+    }
+}
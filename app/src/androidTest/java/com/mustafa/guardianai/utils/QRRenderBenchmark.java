@@ -0,0 +1,144 @@
+package com.mustafa.guardianai.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.mustafa.guardianai.benchmark.LatencySamples;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * QR Render Benchmark
+ * Compares per-pixel setPixel rendering with QRCodeGenerator's bulk row rendering (p50/p99)
+ */
+@RunWith(AndroidJUnit4.class)
+public class QRRenderBenchmark {
+    private static final String TAG = "QRRenderBenchmark";
+
+    // Same shape as a pairing payload
+    private static final String PAYLOAD = "PAIR:3f2b9c1e-6d4a-4b8e-9f10-2a7c5e8d1b34";
+
+    @Test
+    public void renderLatency() {
+        run(PAYLOAD, 512, 10, 100);
+    }
+
+    /**
+     * Benchmark result
+     */
+    public static class Report {
+        private final int size;
+        private final double perPixelP50Millis;
+        private final double perPixelP99Millis;
+        private final double bulkP50Millis;
+        private final double bulkP99Millis;
+
+        Report(int size, double perPixelP50Millis, double perPixelP99Millis,
+               double bulkP50Millis, double bulkP99Millis) {
+            this.size = size;
+            this.perPixelP50Millis = perPixelP50Millis;
+            this.perPixelP99Millis = perPixelP99Millis;
+            this.bulkP50Millis = bulkP50Millis;
+            this.bulkP99Millis = bulkP99Millis;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public double getPerPixelP50Millis() {
+            return perPixelP50Millis;
+        }
+
+        public double getPerPixelP99Millis() {
+            return perPixelP99Millis;
+        }
+
+        public double getBulkP50Millis() {
+            return bulkP50Millis;
+        }
+
+        public double getBulkP99Millis() {
+            return bulkP99Millis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "size=%dpx per-pixel p50=%.2fms p99=%.2fms bulk p50=%.2fms p99=%.2fms",
+                    size, perPixelP50Millis, perPixelP99Millis, bulkP50Millis, bulkP99Millis);
+        }
+    }
+
+    /**
+     * Run the benchmark (encode + render, end to end)
+     * @param payload Text to encode, e.g. a pairing payload
+     * @param size Bitmap width and height in pixels
+     * @param warmupRuns Runs per path before measuring
+     * @param measuredRuns Runs per path to measure
+     */
+    public static Report run(String payload, int size, int warmupRuns, int measuredRuns) {
+        LatencySamples perPixel = new LatencySamples(measuredRuns);
+        LatencySamples bulk = new LatencySamples(measuredRuns);
+
+        for (int i = 0; i < warmupRuns + measuredRuns; i++) {
+            long start = System.nanoTime();
+            Bitmap legacy = generatePerPixel(payload, size);
+            long perPixelNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Bitmap current = QRCodeGenerator.generateQRCode(payload, size, size);
+            long bulkNanos = System.nanoTime() - start;
+
+            if (legacy != null) {
+                legacy.recycle();
+            }
+            if (current != null) {
+                current.recycle();
+            }
+            if (i >= warmupRuns) {
+                perPixel.add(perPixelNanos);
+                bulk.add(bulkNanos);
+            }
+        }
+
+        Report report = new Report(size,
+                perPixel.percentileMillis(0.50), perPixel.percentileMillis(0.99),
+                bulk.percentileMillis(0.50), bulk.percentileMillis(0.99));
+        Log.d(TAG, report.toString());
+        return report;
+    }
+
+    // The previous implementation: full-size matrix and one setPixel call per pixel
+    private static Bitmap generatePerPixel(String text, int size) {
+        try {
+            Map<EncodeHintType, Object> hints = new HashMap<>();
+            hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M);
+            hints.put(EncodeHintType.MARGIN, 1);
+            BitMatrix bitMatrix = new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, size, size, hints);
+
+            Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.RGB_565);
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    bitmap.setPixel(x, y, bitMatrix.get(x, y) ? Color.BLACK : Color.WHITE);
+                }
+            }
+            return bitmap;
+        } catch (WriterException e) {
+            return null;
+        }
+    }
+}
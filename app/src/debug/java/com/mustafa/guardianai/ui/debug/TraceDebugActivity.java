@@ -0,0 +1,83 @@
+package com.mustafa.guardianai.ui.debug;
+
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.widget.Toast;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.FileProvider;
+import com.mustafa.guardianai.databinding.ActivityTraceDebugBinding;
+import com.mustafa.guardianai.trace.FirestoreMeter;
+import com.mustafa.guardianai.trace.Tracer;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+
+/**
+ * Trace Debug Activity
+ * Shows per-operation latency percentiles, documents and bytes recorded by Tracer,
+ * after Firestore reads and writes per feature against their budgets (FirestoreMeter)
+ *
+ * Export writes the stats and the recent spans as two CSV files and opens the share
+ * sheet. Debug builds only; reachable from Settings (long-press the version).
+ */
+public class TraceDebugActivity extends AppCompatActivity {
+    private ActivityTraceDebugBinding binding;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        binding = ActivityTraceDebugBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        binding.btnBack.setOnClickListener(v -> finish());
+        binding.btnRefresh.setOnClickListener(v -> showStats());
+        binding.btnReset.setOnClickListener(v -> {
+            Tracer.getInstance().reset();
+            showStats();
+        });
+        binding.btnExport.setOnClickListener(v -> exportCsv());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showStats();
+    }
+
+    private void showStats() {
+        String usage = FirestoreMeter.getInstance().formatReport(7);
+        String summary = Tracer.getInstance().formatSummary();
+        binding.tvStats.setText(usage + "\n" + (summary.isEmpty() ? "No spans recorded yet" : summary));
+    }
+
+    private void exportCsv() {
+        File directory = new File(getCacheDir(), "traces");
+        directory.mkdirs();
+        long now = System.currentTimeMillis();
+        File statsFile = new File(directory, "trace-stats-" + now + ".csv");
+        File spansFile = new File(directory, "trace-spans-" + now + ".csv");
+
+        try (Writer statsWriter = new FileWriter(statsFile);
+             Writer spansWriter = new FileWriter(spansFile)) {
+            Tracer.getInstance().writeStatsCsv(statsWriter);
+            Tracer.getInstance().writeSpansCsv(spansWriter);
+        } catch (IOException e) {
+            Toast.makeText(this, "Export failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            return;
+        }
+
+        String authority = getPackageName() + ".fileprovider";
+        ArrayList<Uri> uris = new ArrayList<>();
+        uris.add(FileProvider.getUriForFile(this, authority, statsFile));
+        uris.add(FileProvider.getUriForFile(this, authority, spansFile));
+
+        Intent share = new Intent(Intent.ACTION_SEND_MULTIPLE);
+        share.setType("text/csv");
+        share.putParcelableArrayListExtra(Intent.EXTRA_STREAM, uris);
+        share.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        startActivity(Intent.createChooser(share, "Export traces"));
+    }
+}
@@ -1,14 +1,18 @@
 package com.mustafa.guardianai;
 
 import android.app.Application;
+import android.content.pm.ApplicationInfo;
 import android.util.Log;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.auth.FirebaseAuth;
+import com.mustafa.guardianai.network.PairingTokenCleanupWorker;
+import com.mustafa.guardianai.trace.FirestoreMeter;
+import com.mustafa.guardianai.trace.Tracer;
 
 /**
  * Application class
- * Initializes Firebase and other app-wide components
+ * Initializes Firebase and other app-wide components (see ServiceRegistry)
  */
 public class GuardianAIApplication extends Application {
     private static final String TAG = "GuardianAIApp";
@@ -16,6 +20,17 @@ public class GuardianAIApplication extends Application {
     @Override
     public void onCreate() {
         super.onCreate();
+
+        // App-scoped services; created lazily, so this is safe before Firebase is up
+        ServiceRegistry.init(this);
+
+        // Keep daily Firestore read/write totals for the trace debug screen
+        FirestoreMeter.getInstance().attach(this);
+        // Document byte estimates cost main-thread time; only debuggable builds pay for them
+        boolean debuggable = (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        Tracer.getInstance().setMeasureBytes(debuggable);
+        // Report every read past a feature budget while developing
+        FirestoreMeter.getInstance().setStrict(debuggable);
         
         // Initialize Firebase
         // This ensures Firebase is initialized before any Firebase calls
@@ -37,10 +52,27 @@ public class GuardianAIApplication extends Application {
             // Firebase Auth automatically persists user sessions across app restarts
             FirebaseAuth auth = FirebaseAuth.getInstance();
             Log.d(TAG, "Firebase Auth initialized - sessions will persist automatically");
-            
+
+            // Periodic cleanup of expired pairing tokens
+            PairingTokenCleanupWorker.schedule(this);
+
+            // Send alert digests a previous process queued but could not deliver
+            if (auth.getCurrentUser() != null) {
+                ServiceRegistry.getInstance().getAlertDispatchQueue();
+            }
+
         } catch (Exception e) {
             Log.e(TAG, "Firebase initialization failed: " + e.getMessage(), e);
         }
     }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // In the background the process may be killed without warning
+            FirestoreMeter.getInstance().flush();
+        }
+    }
 }
 
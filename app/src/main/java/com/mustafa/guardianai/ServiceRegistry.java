@@ -0,0 +1,189 @@
+package com.mustafa.guardianai;
+
+import android.app.Application;
+import android.content.Context;
+import com.mustafa.guardianai.alerts.AlertCoalescer;
+import com.mustafa.guardianai.alerts.AlertDispatchQueue;
+import com.mustafa.guardianai.data.repository.InvalidationTracker;
+import com.mustafa.guardianai.image.ImageLoader;
+import com.mustafa.guardianai.image.ThumbnailLoader;
+import com.mustafa.guardianai.network.AlertService;
+import com.mustafa.guardianai.network.AuthService;
+import com.mustafa.guardianai.network.ChildProfileService;
+import com.mustafa.guardianai.network.DashboardService;
+import com.mustafa.guardianai.network.FCMTokenService;
+import com.mustafa.guardianai.network.LocationService;
+import com.mustafa.guardianai.network.QRPairingService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service Registry
+ * App-scoped owner of the network services, shared executors and caches
+ *
+ * Initialized in GuardianAIApplication.onCreate. Screens, ViewModels and workers take
+ * their services from here instead of constructing their own, so whatever a service
+ * accumulates (caches, in-flight guards, metrics) is shared across the app. Services
+ * are created on first use, after Firebase has been initialized.
+ */
+public final class ServiceRegistry {
+    private static volatile ServiceRegistry instance;
+
+    private final Context appContext;
+    // Serial worker for local file writes (e.g. the profile picture)
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    // Image downloads and decodes, shared by ImageLoader and ThumbnailLoader
+    private final ExecutorService imageExecutor = Executors.newFixedThreadPool(3);
+    // Short CPU-bound jobs started by screens (e.g. QR rendering)
+    private final ExecutorService computeExecutor = Executors.newFixedThreadPool(2);
+    // ContentClassifier.classifyAsync; its tasks block while waiting for an interpreter
+    private final ExecutorService classifierExecutor = Executors.newFixedThreadPool(2);
+
+    private AuthService authService;
+    private DashboardService dashboardService;
+    private ChildProfileService childProfileService;
+    private QRPairingService qrPairingService;
+    private AlertService alertService;
+    private AlertCoalescer alertCoalescer;
+    private AlertDispatchQueue alertDispatchQueue;
+    private LocationService locationService;
+    private FCMTokenService fcmTokenService;
+    private ImageLoader imageLoader;
+    private ThumbnailLoader thumbnailLoader;
+
+    /**
+     * Create the registry; call once from Application.onCreate
+     */
+    public static void init(Application application) {
+        if (instance == null) {
+            synchronized (ServiceRegistry.class) {
+                if (instance == null) {
+                    instance = new ServiceRegistry(application);
+                }
+            }
+        }
+    }
+
+    public static ServiceRegistry getInstance() {
+        ServiceRegistry registry = instance;
+        if (registry == null) {
+            throw new IllegalStateException("ServiceRegistry.init has not been called");
+        }
+        return registry;
+    }
+
+    private ServiceRegistry(Application application) {
+        this.appContext = application.getApplicationContext();
+    }
+
+    public synchronized AuthService getAuthService() {
+        if (authService == null) {
+            authService = new AuthService();
+        }
+        return authService;
+    }
+
+    public synchronized DashboardService getDashboardService() {
+        if (dashboardService == null) {
+            dashboardService = new DashboardService();
+        }
+        return dashboardService;
+    }
+
+    public synchronized ChildProfileService getChildProfileService() {
+        if (childProfileService == null) {
+            childProfileService = new ChildProfileService();
+        }
+        return childProfileService;
+    }
+
+    public synchronized QRPairingService getQRPairingService() {
+        if (qrPairingService == null) {
+            qrPairingService = new QRPairingService();
+        }
+        return qrPairingService;
+    }
+
+    public synchronized AlertService getAlertService() {
+        if (alertService == null) {
+            alertService = new AlertService();
+        }
+        return alertService;
+    }
+
+    /**
+     * Entry point for alerts raised on the child device: repeats are merged and each type is
+     * rate limited before anything reaches the dispatch queue
+     */
+    public synchronized AlertCoalescer getAlertCoalescer() {
+        if (alertCoalescer == null) {
+            alertCoalescer = new AlertCoalescer(getAlertDispatchQueue());
+        }
+        return alertCoalescer;
+    }
+
+    /**
+     * Persistent digest queue in front of AlertService; creating it restores and schedules
+     * whatever a previous process left queued
+     */
+    public synchronized AlertDispatchQueue getAlertDispatchQueue() {
+        if (alertDispatchQueue == null) {
+            alertDispatchQueue = new AlertDispatchQueue(appContext, getAlertService());
+        }
+        return alertDispatchQueue;
+    }
+
+    public synchronized LocationService getLocationService() {
+        if (locationService == null) {
+            locationService = new LocationService();
+        }
+        return locationService;
+    }
+
+    public synchronized FCMTokenService getFCMTokenService() {
+        if (fcmTokenService == null) {
+            fcmTokenService = new FCMTokenService(appContext);
+        }
+        return fcmTokenService;
+    }
+
+    public InvalidationTracker getInvalidationTracker() {
+        return InvalidationTracker.getInstance();
+    }
+
+    public synchronized ImageLoader getImageLoader() {
+        if (imageLoader == null) {
+            imageLoader = new ImageLoader(appContext, imageExecutor);
+        }
+        return imageLoader;
+    }
+
+    public synchronized ThumbnailLoader getThumbnailLoader() {
+        if (thumbnailLoader == null) {
+            thumbnailLoader = new ThumbnailLoader(getImageLoader(), imageExecutor);
+        }
+        return thumbnailLoader;
+    }
+
+    /**
+     * Single background thread for local file work; tasks run in submission order
+     */
+    public ExecutorService getDiskExecutor() {
+        return diskExecutor;
+    }
+
+    /**
+     * Small pool for CPU-bound work off the main thread; tasks may run concurrently
+     */
+    public ExecutorService getComputeExecutor() {
+        return computeExecutor;
+    }
+
+    /**
+     * Pool for ContentClassifier.classifyAsync, kept apart so blocked classifications do not
+     * hold up other work
+     */
+    public ExecutorService getClassifierExecutor() {
+        return classifierExecutor;
+    }
+}
@@ -0,0 +1,71 @@
+package com.mustafa.guardianai.ai;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Classification Cache
+ * LRU map from content hash to classification result
+ *
+ * Chat apps repeat the same notification text (group messages, re-posts), so a repeated
+ * sample costs one hash plus one map lookup instead of an inference. Thread-safe.
+ */
+public class ClassificationCache {
+    public static final int DEFAULT_CAPACITY = 2048;
+
+    private final LinkedHashMap<Long, ContentClassifier.Result> entries;
+    private long hits;
+    private long misses;
+
+    public ClassificationCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ClassificationCache(int capacity) {
+        this.entries = new LinkedHashMap<Long, ContentClassifier.Result>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ContentClassifier.Result> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get a cached result
+     * @return Result, or null on a miss
+     */
+    public synchronized ContentClassifier.Result get(long contentHash) {
+        ContentClassifier.Result result = entries.get(contentHash);
+        if (result != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return result;
+    }
+
+    public synchronized void put(long contentHash, ContentClassifier.Result result) {
+        entries.put(contentHash, result);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total > 0 ? hits / (double) total : 0d;
+    }
+}
@@ -0,0 +1,406 @@
+package com.mustafa.guardianai.ai;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+import com.mustafa.guardianai.data.model.Alert;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import org.tensorflow.lite.DataType;
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
+
+/**
+ * Content Classifier
+ * On-device TFLite classification of text/notification content for risky material
+ *
+ * Model contract (assets/content_classifier.tflite):
+ * - Input 0:  int32 [batch, SEQUENCE_LENGTH] token IDs (0 = padding)
+ * - Output 0: float32 or quantized uint8 [batch, labels] scores
+ * - Vocabulary (assets/content_classifier_vocab.txt): one token per line, token i has ID i + 1
+ *
+ * Interpreters are pooled and each owns pre-allocated direct input/output buffers, so
+ * steady-state inference does not allocate. Runs on CPU only (NNAPI disabled) for
+ * predictable latency across devices.
+ *
+ * Samples are looked up in a ClassificationCache by content hash first; only misses are
+ * tokenized and run through the model.
+ */
+public class ContentClassifier {
+    private static final String TAG = "ContentClassifier";
+
+    public static final String MODEL_ASSET = "content_classifier.tflite";
+    public static final String LABELS_ASSET = "content_classifier_labels.txt";
+    public static final String VOCAB_ASSET = "content_classifier_vocab.txt";
+
+    public static final int SEQUENCE_LENGTH = 64;
+    // Token ID range of the model's embedding, padding included; the vocabulary must be smaller
+    public static final int VOCAB_SIZE = 20000;
+    public static final int MAX_BATCH_SIZE = 8;
+    public static final float DEFAULT_THRESHOLD = 0.8f;
+
+    // Label 0 is always the "safe" class
+    private static final String[] DEFAULT_LABELS = {
+            "SAFE", "BULLYING", "ADULT", "VIOLENCE", "SELF_HARM", "DRUGS"
+    };
+
+    private final BlockingQueue<PooledInterpreter> pool;
+    private final List<PooledInterpreter> allInterpreters = new ArrayList<>();
+    private final Executor executor;
+    private final String[] labels;
+    private final float threshold;
+    private final HashedTokenizer tokenizer;
+    private final ClassificationCache cache;
+
+    /**
+     * Classification result for one sample
+     */
+    public static class Result {
+        private final int labelIndex;
+        private final String label;
+        private final float score;
+
+        public Result(int labelIndex, String label, float score) {
+            this.labelIndex = labelIndex;
+            this.label = label;
+            this.score = score;
+        }
+
+        public int getLabelIndex() {
+            return labelIndex;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public float getScore() {
+            return score;
+        }
+
+        // Label 0 is the safe class
+        public boolean isRisky(float threshold) {
+            return labelIndex != 0 && score >= threshold;
+        }
+    }
+
+    /**
+     * Callback interface for asynchronous classification
+     */
+    public interface ClassificationCallback {
+        void onSuccess(List<Result> results);
+        void onFailure(Exception exception);
+    }
+
+    /**
+     * Interpreter with its own pre-allocated tensors and buffers
+     */
+    private static class PooledInterpreter {
+        final Interpreter interpreter;
+        final ByteBuffer input;
+        final ByteBuffer output;
+        final boolean quantizedOutput;
+        final float outputScale;
+        final int outputZeroPoint;
+
+        PooledInterpreter(Interpreter interpreter, int labelCount) throws IOException {
+            this.interpreter = interpreter;
+            interpreter.resizeInput(0, new int[]{MAX_BATCH_SIZE, SEQUENCE_LENGTH});
+            interpreter.allocateTensors();
+
+            Tensor outputTensor = interpreter.getOutputTensor(0);
+            int[] shape = outputTensor.shape();
+            if (shape.length != 2 || shape[0] != MAX_BATCH_SIZE || shape[1] != labelCount) {
+                // Scores would be read past the buffer or attributed to the wrong labels
+                throw new IOException("Model output shape " + Arrays.toString(shape)
+                        + " does not match [" + MAX_BATCH_SIZE + ", " + labelCount + "] ("
+                        + labelCount + " labels in " + LABELS_ASSET + ")");
+            }
+            quantizedOutput = outputTensor.dataType() == DataType.UINT8;
+            outputScale = outputTensor.quantizationParams().getScale();
+            outputZeroPoint = outputTensor.quantizationParams().getZeroPoint();
+
+            int outputBytes = quantizedOutput ? 1 : 4;
+            input = ByteBuffer.allocateDirect(MAX_BATCH_SIZE * SEQUENCE_LENGTH * 4)
+                    .order(ByteOrder.nativeOrder());
+            output = ByteBuffer.allocateDirect(MAX_BATCH_SIZE * labelCount * outputBytes)
+                    .order(ByteOrder.nativeOrder());
+        }
+
+        float score(int sample, int label, int labelCount) {
+            int index = sample * labelCount + label;
+            if (quantizedOutput) {
+                return ((output.get(index) & 0xFF) - outputZeroPoint) * outputScale;
+            }
+            return output.getFloat(index * 4);
+        }
+    }
+
+    private ContentClassifier(List<PooledInterpreter> interpreters, String[] labels, float threshold,
+                              HashedTokenizer tokenizer, ClassificationCache cache, Executor executor) {
+        this.pool = new ArrayBlockingQueue<>(interpreters.size());
+        this.pool.addAll(interpreters);
+        this.allInterpreters.addAll(interpreters);
+        this.executor = executor;
+        this.labels = labels;
+        this.threshold = threshold;
+        this.tokenizer = tokenizer;
+        this.cache = cache;
+    }
+
+    /**
+     * Load the model from assets and create an interpreter pool
+     * Call off the main thread; model loading reads and maps the asset file
+     * @param context Context for asset access
+     * @param poolSize Number of interpreters (parallel inferences)
+     * @param threadsPerInterpreter CPU threads per interpreter
+     * @param executor Runs classifyAsync, e.g. ServiceRegistry.getClassifierExecutor(); not
+     *                 shut down by close()
+     * @throws IOException if the model or vocabulary asset is missing or unreadable, the
+     *                     vocabulary is empty or too large for VOCAB_SIZE, or the model's
+     *                     output shape does not match the labels
+     * @throws IllegalArgumentException if poolSize or threadsPerInterpreter is not positive
+     */
+    public static ContentClassifier create(Context context, int poolSize, int threadsPerInterpreter,
+                                           Executor executor) throws IOException {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("poolSize must be at least 1, was " + poolSize);
+        }
+        if (threadsPerInterpreter <= 0) {
+            throw new IllegalArgumentException("threadsPerInterpreter must be at least 1, was "
+                    + threadsPerInterpreter);
+        }
+        HashedTokenizer tokenizer = loadTokenizer(context);
+        MappedByteBuffer model = loadModel(context);
+        String[] labels = loadLabels(context);
+
+        List<PooledInterpreter> interpreters = new ArrayList<>();
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                Interpreter.Options options = new Interpreter.Options();
+                options.setNumThreads(threadsPerInterpreter);
+                options.setUseNNAPI(false);
+                Interpreter interpreter = new Interpreter(model, options);
+                try {
+                    interpreters.add(new PooledInterpreter(interpreter, labels.length));
+                } catch (IOException | RuntimeException e) {
+                    interpreter.close();
+                    throw e;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            for (PooledInterpreter pooled : interpreters) {
+                pooled.interpreter.close();
+            }
+            throw e;
+        }
+        Log.d(TAG, "Content classifier ready with " + poolSize + " interpreters");
+        return new ContentClassifier(interpreters, labels, DEFAULT_THRESHOLD, tokenizer,
+                new ClassificationCache(), executor);
+    }
+
+    /**
+     * Classify samples on the calling thread (blocks while waiting for an interpreter)
+     * @param samples Text samples
+     * @return One result per sample, in order
+     */
+    public List<Result> classify(List<? extends CharSequence> samples) throws InterruptedException {
+        int count = samples.size();
+        Result[] results = new Result[count];
+        long[] hashes = new long[count];
+
+        // Serve repeats from the cache; collect misses for inference
+        List<CharSequence> misses = new ArrayList<>();
+        int[] missIndices = new int[count];
+        int missCount = 0;
+        for (int i = 0; i < count; i++) {
+            hashes[i] = HashedTokenizer.contentHash(samples.get(i));
+            results[i] = cache.get(hashes[i]);
+            if (results[i] == null) {
+                missIndices[missCount++] = i;
+                misses.add(samples.get(i));
+            }
+        }
+
+        if (missCount > 0) {
+            List<Result> inferred = new ArrayList<>(missCount);
+            PooledInterpreter pooled = pool.take();
+            try {
+                for (int start = 0; start < missCount; start += MAX_BATCH_SIZE) {
+                    int batch = Math.min(MAX_BATCH_SIZE, missCount - start);
+                    runBatch(pooled, misses, start, batch, inferred);
+                }
+            } finally {
+                pool.put(pooled);
+            }
+            for (int m = 0; m < missCount; m++) {
+                int i = missIndices[m];
+                results[i] = inferred.get(m);
+                cache.put(hashes[i], results[i]);
+            }
+        }
+
+        List<Result> ordered = new ArrayList<>(count);
+        for (Result result : results) {
+            ordered.add(result);
+        }
+        return ordered;
+    }
+
+    /**
+     * Classify samples on the classifier's executor
+     * @param samples Text samples
+     * @param callback Callback for result (invoked on a classifier thread)
+     */
+    public void classifyAsync(List<? extends CharSequence> samples, ClassificationCallback callback) {
+        executor.execute(() -> {
+            try {
+                callback.onSuccess(classify(samples));
+            } catch (Exception e) {
+                Log.e(TAG, "Classification failed: " + e.getMessage(), e);
+                callback.onFailure(e);
+            }
+        });
+    }
+
+    /**
+     * Create an alert for a risky result
+     * @return Alert, or null if the result is below the threshold
+     */
+    public Alert createAlert(Result result, String parentUid, String childUid, String sourceApp) {
+        if (!result.isRisky(threshold)) {
+            return null;
+        }
+        String category = result.getLabel().replace('_', ' ').toLowerCase(Locale.US);
+        String source = sourceApp != null && !sourceApp.isEmpty() ? " in " + sourceApp : "";
+        return new Alert(
+                UUID.randomUUID().toString(),
+                parentUid,
+                childUid,
+                Alert.AlertType.INAPPROPRIATE_CONTENT,
+                "Inappropriate content detected",
+                "Possible " + category + " content" + source,
+                result.getScore() >= 0.95f ? Alert.AlertSeverity.HIGH : Alert.AlertSeverity.MEDIUM
+        );
+    }
+
+    public float getThreshold() {
+        return threshold;
+    }
+
+    public String[] getLabels() {
+        return labels.clone();
+    }
+
+    public ClassificationCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Release interpreters; the classifier cannot be used afterwards
+     */
+    public void close() {
+        for (PooledInterpreter pooled : allInterpreters) {
+            pooled.interpreter.close();
+        }
+        pool.clear();
+    }
+
+    private void runBatch(PooledInterpreter pooled, List<? extends CharSequence> samples,
+                          int start, int batch, List<Result> results) {
+        ByteBuffer input = pooled.input;
+        input.clear();
+        for (int s = 0; s < MAX_BATCH_SIZE; s++) {
+            if (s < batch) {
+                tokenizer.tokenize(samples.get(start + s), input, SEQUENCE_LENGTH);
+            } else {
+                // Pad unused batch rows
+                for (int t = 0; t < SEQUENCE_LENGTH; t++) {
+                    input.putInt(0);
+                }
+            }
+        }
+        input.rewind();
+        pooled.output.clear();
+
+        pooled.interpreter.run(input, pooled.output);
+
+        int labelCount = labels.length;
+        for (int s = 0; s < batch; s++) {
+            int best = 0;
+            float bestScore = pooled.score(s, 0, labelCount);
+            for (int l = 1; l < labelCount; l++) {
+                float score = pooled.score(s, l, labelCount);
+                if (score > bestScore) {
+                    best = l;
+                    bestScore = score;
+                }
+            }
+            results.add(new Result(best, labels[best], bestScore));
+        }
+    }
+
+    private static MappedByteBuffer loadModel(Context context) throws IOException {
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(MODEL_ASSET);
+             FileInputStream inputStream = new FileInputStream(descriptor.getFileDescriptor())) {
+            FileChannel channel = inputStream.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getDeclaredLength());
+        }
+    }
+
+    // The model was trained on vocabulary IDs; hashed buckets alone would give meaningless scores
+    private static HashedTokenizer loadTokenizer(Context context) throws IOException {
+        InputStream vocabulary;
+        try {
+            vocabulary = context.getAssets().open(VOCAB_ASSET);
+        } catch (IOException e) {
+            throw new IOException("Vocabulary asset " + VOCAB_ASSET + " not found", e);
+        }
+        HashedTokenizer tokenizer;
+        try (InputStream inputStream = vocabulary) {
+            tokenizer = HashedTokenizer.fromVocabulary(inputStream, VOCAB_SIZE);
+        } catch (IOException e) {
+            // e.g. a vocabulary of VOCAB_SIZE - 1 or more tokens; IDs must stay below VOCAB_SIZE
+            throw new IOException("Unusable vocabulary " + VOCAB_ASSET + ": " + e.getMessage(), e);
+        }
+        if (tokenizer.getVocabularySize() == 0) {
+            throw new IOException("Vocabulary asset " + VOCAB_ASSET + " is empty");
+        }
+        return tokenizer;
+    }
+
+    private static String[] loadLabels(Context context) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(context.getAssets().open(LABELS_ASSET)))) {
+            List<String> labels = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    labels.add(line.trim());
+                }
+            }
+            if (!labels.isEmpty()) {
+                return labels.toArray(new String[0]);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Labels asset not found, using default labels");
+        }
+        return DEFAULT_LABELS.clone();
+    }
+}
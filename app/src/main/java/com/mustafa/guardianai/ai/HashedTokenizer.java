@@ -0,0 +1,251 @@
+package com.mustafa.guardianai.ai;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Hashed Tokenizer
+ * Turns text into model token IDs without creating substrings
+ *
+ * Tokens are lower-cased runs of letters/digits. Each token is reduced to a 64-bit hash
+ * while scanning the CharSequence, then looked up in a primitive open-addressing table
+ * built from the model vocabulary. Without a vocabulary, or for tokens not in it, the
+ * hash is folded into bucket IDs above the vocabulary range (hashing trick).
+ * Vocabulary entries are normalized the same way: case and surrounding punctuation are
+ * ignored, and entries spanning several letter/digit runs (which tokenize never produces)
+ * keep their ID but never match.
+ *
+ * ID 0 is padding. Instances are immutable and thread-safe.
+ */
+public final class HashedTokenizer {
+    public static final int PAD_ID = 0;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long EMPTY_KEY = 0L;
+
+    private final long[] vocabKeys;
+    private final int[] vocabIds;
+    private final int vocabMask;
+    private final int vocabSize;
+    private final int idRange;
+
+    /**
+     * Tokenizer with no vocabulary (pure hashing trick)
+     * @param idRange Total number of token IDs, including padding
+     */
+    public HashedTokenizer(int idRange) {
+        this(new String[0], idRange);
+    }
+
+    /**
+     * Tokenizer with a vocabulary
+     * @param vocabulary Tokens in ID order; vocabulary[i] gets ID i + 1
+     * @param idRange Total number of token IDs, including padding; must exceed vocabulary size
+     */
+    public HashedTokenizer(String[] vocabulary, int idRange) {
+        if (idRange <= vocabulary.length + 1) {
+            throw new IllegalArgumentException("idRange must leave room for hashed buckets");
+        }
+        int tableSize = 2;
+        while (tableSize < vocabulary.length * 2) {
+            tableSize <<= 1;
+        }
+        this.vocabKeys = new long[tableSize];
+        this.vocabIds = new int[tableSize];
+        this.vocabMask = tableSize - 1;
+        this.vocabSize = vocabulary.length;
+        this.idRange = idRange;
+
+        for (int i = 0; i < vocabulary.length; i++) {
+            long key = vocabularyKey(vocabulary[i]);
+            if (key == EMPTY_KEY) {
+                continue;
+            }
+            int slot = mix(key) & vocabMask;
+            while (vocabKeys[slot] != EMPTY_KEY && vocabKeys[slot] != key) {
+                slot = (slot + 1) & vocabMask;
+            }
+            if (vocabKeys[slot] == EMPTY_KEY) {
+                vocabKeys[slot] = key;
+                vocabIds[slot] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Load a vocabulary file (one token per line)
+     * @param idRange Total number of token IDs, including padding (the model's embedding rows)
+     * @throws IOException If reading fails or the file has too many tokens for idRange
+     */
+    public static HashedTokenizer fromVocabulary(InputStream inputStream, int idRange) throws IOException {
+        String[] tokens = new String[1024];
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String token = line.trim();
+                if (token.isEmpty()) {
+                    continue;
+                }
+                if (count == tokens.length) {
+                    tokens = Arrays.copyOf(tokens, count * 2);
+                }
+                tokens[count++] = token;
+            }
+        }
+        if (idRange <= count + 1) {
+            throw new IOException("Vocabulary has " + count + " tokens, idRange " + idRange
+                    + " needs at least one more for hashed buckets");
+        }
+        return new HashedTokenizer(Arrays.copyOf(tokens, count), idRange);
+    }
+
+    /**
+     * Tokenize into an int array, padding with PAD_ID
+     * @return Number of real tokens written
+     */
+    public int tokenize(CharSequence text, int[] out) {
+        int written = 0;
+        int length = text != null ? text.length() : 0;
+        long hash = FNV_OFFSET;
+        boolean inToken = false;
+        for (int i = 0; i <= length && written < out.length; i++) {
+            char c = i < length ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                hash = (hash ^ c) * FNV_PRIME;
+                inToken = true;
+            } else if (inToken) {
+                out[written++] = idFor(hash);
+                hash = FNV_OFFSET;
+                inToken = false;
+            }
+        }
+        int tokens = written;
+        while (written < out.length) {
+            out[written++] = PAD_ID;
+        }
+        return tokens;
+    }
+
+    /**
+     * Tokenize straight into a model input buffer as sequenceLength int32 values
+     * @return Number of real tokens written
+     */
+    public int tokenize(CharSequence text, ByteBuffer out, int sequenceLength) {
+        int written = 0;
+        int length = text != null ? text.length() : 0;
+        long hash = FNV_OFFSET;
+        boolean inToken = false;
+        for (int i = 0; i <= length && written < sequenceLength; i++) {
+            char c = i < length ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                hash = (hash ^ c) * FNV_PRIME;
+                inToken = true;
+            } else if (inToken) {
+                out.putInt(idFor(hash));
+                written++;
+                hash = FNV_OFFSET;
+                inToken = false;
+            }
+        }
+        int tokens = written;
+        while (written < sequenceLength) {
+            out.putInt(PAD_ID);
+            written++;
+        }
+        return tokens;
+    }
+
+    /**
+     * 64-bit hash of the normalized content, used as the classification cache key
+     * Whitespace and punctuation runs are collapsed so trivially different copies share a key
+     */
+    public static long contentHash(CharSequence text) {
+        long hash = FNV_OFFSET;
+        if (text == null) {
+            return hash;
+        }
+        boolean pendingSeparator = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSeparator) {
+                    hash = (hash ^ ' ') * FNV_PRIME;
+                    pendingSeparator = false;
+                }
+                hash = (hash ^ c) * FNV_PRIME;
+            } else {
+                pendingSeparator = hash != FNV_OFFSET;
+            }
+        }
+        return hash;
+    }
+
+    public int getVocabularySize() {
+        return vocabSize;
+    }
+
+    public int getIdRange() {
+        return idRange;
+    }
+
+    private int idFor(long tokenHash) {
+        if (vocabSize > 0) {
+            int slot = mix(tokenHash) & vocabMask;
+            while (true) {
+                long key = vocabKeys[slot];
+                if (key == tokenHash) {
+                    return vocabIds[slot];
+                }
+                if (key == EMPTY_KEY) {
+                    break;
+                }
+                slot = (slot + 1) & vocabMask;
+            }
+        }
+        // Out-of-vocabulary: hash into the bucket range after the vocabulary
+        int buckets = idRange - vocabSize - 1;
+        return vocabSize + 1 + (int) ((tokenHash >>> 1) % buckets);
+    }
+
+    // Hash of a vocabulary entry as tokenize would compute it, or EMPTY_KEY if tokenize
+    // cannot produce the entry as a single token
+    private static long vocabularyKey(String token) {
+        int start = 0;
+        int end = token.length();
+        while (start < end && !isTokenChar(token.charAt(start))) {
+            start++;
+        }
+        while (end > start && !isTokenChar(token.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return EMPTY_KEY;
+        }
+        long hash = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            char c = Character.toLowerCase(token.charAt(i));
+            if (!Character.isLetterOrDigit(c)) {
+                return EMPTY_KEY;
+            }
+            hash = (hash ^ c) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(Character.toLowerCase(c));
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
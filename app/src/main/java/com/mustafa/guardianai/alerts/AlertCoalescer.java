@@ -0,0 +1,324 @@
+package com.mustafa.guardianai.alerts;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.mustafa.guardianai.data.model.Alert;
+import com.mustafa.guardianai.network.AlertService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Alert Coalescer
+ * Child-side deduplication and rate limiting in front of the 'alerts' collection
+ *
+ * - Alerts with the same (childUid, AlertType, key) inside the type's sliding window are
+ *   merged into the first alert's count instead of creating a new document
+ * - A merge run is capped at MAX_SPAN_WINDOWS windows so a steady repeat still produces
+ *   a fresh alert now and then
+ * - Each (childUid, AlertType) may create at most maxPerHour alerts; extra alerts are
+ *   merged into the most recent alert of that type
+ * - Count updates are written at most once per FLUSH_INTERVAL_MILLIS; a flush is also
+ *   scheduled on the main looper (at most FLUSH_INTERVAL_MILLIS or the type's window
+ *   ahead), so merged counts reach Firestore even if no further alert arrives
+ * - Flushes drop entries whose window has passed and rate windows idle for an hour
+ *
+ * The key identifies "the same thing" for a producer, e.g. fence ID plus direction for
+ * geofence alerts or the package name for new installs. Thread-safe. Producers use the
+ * app-wide instance from ServiceRegistry.getAlertCoalescer() so limits apply across them.
+ */
+public class AlertCoalescer {
+    private static final String TAG = "AlertCoalescer";
+
+    public static final long FLUSH_INTERVAL_MILLIS = 5 * 60 * 1000L;
+    public static final int MAX_SPAN_WINDOWS = 6;
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    private static final long MINUTE_MILLIS = 60 * 1000L;
+
+    /**
+     * Result of submitting an alert
+     */
+    public enum Outcome {
+        WRITTEN,
+        MERGED,
+        RATE_LIMITED
+    }
+
+    /**
+     * Destination for new alerts and count updates
+     */
+    public interface Sink {
+        void write(Alert alert);
+        void updateCount(String alertId, int count, long lastOccurredAt);
+    }
+
+    /**
+     * Counters for alerts written vs. merged vs. suppressed
+     */
+    public static class Metrics {
+        private long written;
+        private long merged;
+        private long rateLimited;
+        private long countUpdates;
+
+        public long getWritten() {
+            return written;
+        }
+
+        public long getMerged() {
+            return merged;
+        }
+
+        public long getRateLimited() {
+            return rateLimited;
+        }
+
+        public long getCountUpdates() {
+            return countUpdates;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "written=" + written + " merged=" + merged + " rateLimited=" + rateLimited
+                    + " countUpdates=" + countUpdates;
+        }
+    }
+
+    // One written alert and the repeats merged into it
+    private static class Entry {
+        final String dedupKey;
+        final String alertId;
+        final Alert.AlertType type;
+        final long firstSeen;
+        long lastSeen;
+        int count = 1;
+        boolean dirty;
+
+        Entry(String dedupKey, String alertId, Alert.AlertType type, long now) {
+            this.dedupKey = dedupKey;
+            this.alertId = alertId;
+            this.type = type;
+            this.firstSeen = now;
+            this.lastSeen = now;
+        }
+    }
+
+    // Sliding one-hour log of alert creations for one (childUid, AlertType)
+    private static class RateWindow {
+        final long[] times;
+        int head;
+        int size;
+        Entry latest;
+
+        RateWindow(int capacity) {
+            this.times = new long[Math.max(1, capacity)];
+        }
+
+        boolean tryAcquire(long now) {
+            prune(now);
+            if (size == times.length) {
+                return false;
+            }
+            times[(head + size) % times.length] = now;
+            size++;
+            return true;
+        }
+
+        // No creation within the last hour, so a fresh window behaves the same
+        boolean isIdle(long now) {
+            prune(now);
+            return size == 0;
+        }
+
+        private void prune(long now) {
+            while (size > 0 && times[head] <= now - HOUR_MILLIS) {
+                head = (head + 1) % times.length;
+                size--;
+            }
+        }
+    }
+
+    private final Sink sink;
+    private final long[] windowMillis = new long[Alert.AlertType.values().length];
+    private final int[] maxPerHour = new int[Alert.AlertType.values().length];
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, RateWindow> rates = new HashMap<>();
+    private final Metrics metrics = new Metrics();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+    private long lastFlushAt;
+    // Time the posted flush is due (submit/flush time base), 0 if none is posted
+    private long flushDueAt;
+
+    public AlertCoalescer(Sink sink) {
+        this.sink = sink;
+        setPolicy(Alert.AlertType.GEO_FENCE_BREACH, 5 * MINUTE_MILLIS, 20);
+        setPolicy(Alert.AlertType.TIME_LIMIT_REACHED, 30 * MINUTE_MILLIS, 4);
+        setPolicy(Alert.AlertType.NEW_APP_INSTALL, 10 * MINUTE_MILLIS, 10);
+        setPolicy(Alert.AlertType.LOW_BATTERY, 60 * MINUTE_MILLIS, 2);
+        setPolicy(Alert.AlertType.WEEKLY_REPORT, 24 * 60 * MINUTE_MILLIS, 1);
+        setPolicy(Alert.AlertType.INAPPROPRIATE_CONTENT, 10 * MINUTE_MILLIS, 6);
+        setPolicy(Alert.AlertType.UNKNOWN, 15 * MINUTE_MILLIS, 10);
+    }
+
+    /**
+     * Sink writing straight to Firestore through AlertService
+     */
+    public static Sink serviceSink(AlertService alertService) {
+        // Firestore retries queued writes itself when offline; other failures are only logged
+        Consumer<Exception> logFailure = exception -> Log.w(TAG, "Alert write failed: " + exception.getMessage());
+        return new Sink() {
+            @Override
+            public void write(Alert alert) {
+                alertService.createAlert(alert).observe(result -> { }, logFailure);
+            }
+
+            @Override
+            public void updateCount(String alertId, int count, long lastOccurredAt) {
+                alertService.updateOccurrences(alertId, count, lastOccurredAt).observe(result -> { }, logFailure);
+            }
+        };
+    }
+
+    /**
+     * Override the dedup window and hourly limit for a type
+     * @param windowMillis Repeats within this time of the previous occurrence are merged
+     * @param maxPerHour Maximum new alerts per child per hour
+     */
+    public synchronized void setPolicy(Alert.AlertType type, long windowMillis, int maxPerHour) {
+        this.windowMillis[type.ordinal()] = windowMillis;
+        this.maxPerHour[type.ordinal()] = maxPerHour;
+        // Rate windows are sized per limit; rebuild lazily
+        Iterator<Map.Entry<String, RateWindow>> it = rates.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey().endsWith("|" + type.name())) {
+                it.remove();
+            }
+        }
+    }
+
+    public Outcome submit(Alert alert, String key) {
+        return submit(alert, key, System.currentTimeMillis());
+    }
+
+    /**
+     * Submit an alert from a producer
+     * @param alert Alert with alertId, childUid and type set
+     * @param key Producer-specific identity of the event (may be null)
+     * @param now Current time
+     */
+    public synchronized Outcome submit(Alert alert, String key, long now) {
+        Alert.AlertType type = alert.getType() != null ? alert.getType() : Alert.AlertType.UNKNOWN;
+        int t = type.ordinal();
+        String dedupKey = alert.getChildUid() + "|" + type.name() + "|" + (key != null ? key : "");
+
+        Outcome outcome;
+        Entry entry = entries.get(dedupKey);
+        if (entry != null && now - entry.lastSeen <= windowMillis[t]
+                && now - entry.firstSeen <= windowMillis[t] * MAX_SPAN_WINDOWS) {
+            merge(entry, now);
+            metrics.merged++;
+            outcome = Outcome.MERGED;
+        } else {
+            String rateKey = alert.getChildUid() + "|" + type.name();
+            RateWindow rate = rates.get(rateKey);
+            if (rate == null) {
+                rate = new RateWindow(maxPerHour[t]);
+                rates.put(rateKey, rate);
+            }
+            if (rate.tryAcquire(now)) {
+                alert.setDedupKey(dedupKey);
+                alert.setCount(1);
+                alert.setLastOccurredAt(now);
+                sink.write(alert);
+                entry = new Entry(dedupKey, alert.getAlertId(), type, now);
+                entries.put(dedupKey, entry);
+                scheduleFlush(now, now + windowMillis[t] + 1);
+                rate.latest = entry;
+                metrics.written++;
+                outcome = Outcome.WRITTEN;
+            } else {
+                // Over the limit: fold into the latest alert of this type so the count stays accurate
+                if (rate.latest != null) {
+                    merge(rate.latest, now);
+                    entries.putIfAbsent(rate.latest.dedupKey, rate.latest);
+                }
+                metrics.rateLimited++;
+                outcome = Outcome.RATE_LIMITED;
+            }
+        }
+
+        if (now - lastFlushAt >= FLUSH_INTERVAL_MILLIS) {
+            flush(now);
+        }
+        return outcome;
+    }
+
+    public void flush() {
+        flush(System.currentTimeMillis());
+    }
+
+    /**
+     * Write pending count updates, drop entries whose window has passed and idle rate windows
+     */
+    public synchronized void flush(long now) {
+        lastFlushAt = now;
+        handler.removeCallbacks(flushRunnable);
+        flushDueAt = 0;
+
+        long nextExpiry = Long.MAX_VALUE;
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.dirty) {
+                sink.updateCount(entry.alertId, entry.count, entry.lastSeen);
+                entry.dirty = false;
+                metrics.countUpdates++;
+            }
+            long expiresAt = entry.lastSeen + windowMillis[entry.type.ordinal()];
+            if (now > expiresAt) {
+                it.remove();
+            } else {
+                nextExpiry = Math.min(nextExpiry, expiresAt + 1);
+            }
+        }
+
+        Iterator<RateWindow> rateIt = rates.values().iterator();
+        while (rateIt.hasNext()) {
+            if (rateIt.next().isIdle(now)) {
+                rateIt.remove();
+            }
+        }
+
+        if (nextExpiry != Long.MAX_VALUE) {
+            // Come back to evict the remaining entries once their windows close
+            scheduleFlush(now, nextExpiry);
+        }
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    private void merge(Entry entry, long now) {
+        entry.count++;
+        entry.lastSeen = Math.max(entry.lastSeen, now);
+        entry.dirty = true;
+        // Once the window closes the count is final; do not wait longer than the flush interval
+        scheduleFlush(now, now + Math.min(FLUSH_INTERVAL_MILLIS, windowMillis[entry.type.ordinal()] + 1));
+    }
+
+    // Post a flush due at dueAt unless an earlier one is already posted
+    private void scheduleFlush(long now, long dueAt) {
+        if (flushDueAt != 0 && flushDueAt <= dueAt) {
+            return;
+        }
+        handler.removeCallbacks(flushRunnable);
+        flushDueAt = dueAt;
+        handler.postDelayed(flushRunnable, Math.max(0L, dueAt - now));
+    }
+}
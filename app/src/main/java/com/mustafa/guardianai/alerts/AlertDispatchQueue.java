@@ -0,0 +1,326 @@
+package com.mustafa.guardianai.alerts;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.mustafa.guardianai.data.model.Alert;
+import com.mustafa.guardianai.network.AlertService;
+import com.mustafa.guardianai.network.ServiceCall;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Alert Dispatch Queue
+ * Severity-aware sink for the alert coalescer on the child device
+ *
+ * - HIGH alerts are written immediately
+ * - MEDIUM and LOW alerts wait in a queue and go out together as one batched digest,
+ *   MEDIUM after at most MEDIUM_DIGEST_DELAY_MILLIS and LOW after LOW_DIGEST_DELAY_MILLIS
+ * - Count updates from the coalescer are folded into queued alerts, or ride along with
+ *   the next digest
+ * - The queue is persisted to SharedPreferences, so a digest survives process death and
+ *   is sent on the next start (ServiceRegistry creates it when the app starts signed in)
+ * - A digest that fails transiently is retried with exponential backoff. One rejected for
+ *   good (permission, missing document, invalid data) is split in halves until the offending
+ *   item is alone, and that item is dropped so it cannot block the rest of the queue
+ */
+public class AlertDispatchQueue implements AlertCoalescer.Sink {
+    private static final String TAG = "AlertDispatchQueue";
+    private static final String PREFS_NAME = "GuardianAI_alert_queue";
+    private static final String KEY_ALERTS = "alerts";
+    private static final String KEY_COUNTS = "counts";
+
+    public static final long MEDIUM_DIGEST_DELAY_MILLIS = 15 * 60 * 1000L;
+    public static final long LOW_DIGEST_DELAY_MILLIS = 60 * 60 * 1000L;
+    // Firestore allows 500 writes per batch
+    public static final int MAX_DIGEST_WRITES = 450;
+    private static final long RETRY_DELAY_MILLIS = 5 * 60 * 1000L;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60 * 60 * 1000L;
+
+    private final SharedPreferences prefs;
+    private final AlertService alertService;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable digestRunnable = this::flushDigest;
+
+    private final List<Alert> pending = new ArrayList<>();
+    private final Map<String, AlertService.CountUpdate> countUpdates = new LinkedHashMap<>();
+    private final Set<String> inFlight = new HashSet<>();
+    private boolean digestInFlight = false;
+    // Digest size while isolating a permanently failing item
+    private int digestLimit = MAX_DIGEST_WRITES;
+    private int failedAttempts = 0;
+
+    public AlertDispatchQueue(Context context, AlertService alertService) {
+        this(context, alertService, PREFS_NAME);
+    }
+
+    /**
+     * @param prefsName Preferences file the queue is persisted to, e.g. a separate one for
+     *                  a load harness so it does not mix with the app's queue
+     */
+    public AlertDispatchQueue(Context context, AlertService alertService, String prefsName) {
+        this.prefs = context.getApplicationContext().getSharedPreferences(prefsName, Context.MODE_PRIVATE);
+        this.alertService = alertService;
+        restore();
+        scheduleDigest();
+    }
+
+    @Override
+    public void write(Alert alert) {
+        if (alert.getSeverity() == Alert.AlertSeverity.HIGH) {
+            // A failure here is not an offline one (Firestore queues those); fall back to the digest
+            alertService.createAlert(alert).observe(result -> { }, exception -> enqueue(alert));
+            return;
+        }
+        enqueue(alert);
+    }
+
+    @Override
+    public synchronized void updateCount(String alertId, int count, long lastOccurredAt) {
+        Alert queued = inFlight.contains(alertId) ? null : findPending(alertId);
+        if (queued != null) {
+            queued.setCount(count);
+            queued.setLastOccurredAt(lastOccurredAt);
+        } else {
+            countUpdates.put(alertId, new AlertService.CountUpdate(alertId, count, lastOccurredAt));
+        }
+        persist();
+        scheduleDigest();
+    }
+
+    /**
+     * Send everything queued now, e.g. when the child app is about to stop monitoring
+     */
+    public synchronized void flushDigest() {
+        handler.removeCallbacks(digestRunnable);
+        if (digestInFlight || (pending.isEmpty() && countUpdates.isEmpty())) {
+            return;
+        }
+
+        final List<Alert> alerts = new ArrayList<>();
+        for (Alert alert : pending) {
+            if (alerts.size() == digestLimit) {
+                break;
+            }
+            alerts.add(alert);
+            inFlight.add(alert.getAlertId());
+        }
+        final List<AlertService.CountUpdate> updates = new ArrayList<>();
+        for (AlertService.CountUpdate update : countUpdates.values()) {
+            if (alerts.size() + updates.size() == digestLimit) {
+                break;
+            }
+            updates.add(update);
+        }
+        digestInFlight = true;
+
+        String digestId = UUID.randomUUID().toString();
+        alertService.writeDigest(digestId, alerts, updates).observe(new ServiceCall.Callback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                synchronized (AlertDispatchQueue.this) {
+                    pending.removeAll(alerts);
+                    for (AlertService.CountUpdate update : updates) {
+                        // Keep newer updates that arrived while the digest was in flight
+                        countUpdates.remove(update.getAlertId(), update);
+                    }
+                    digestLimit = MAX_DIGEST_WRITES;
+                    failedAttempts = 0;
+                    finishDigest(alerts);
+                    scheduleDigest();
+                }
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                synchronized (AlertDispatchQueue.this) {
+                    if (!isPermanent(exception)) {
+                        finishDigest(alerts);
+                        long delay = Math.min(RETRY_DELAY_MILLIS << Math.min(failedAttempts, 10),
+                                MAX_RETRY_DELAY_MILLIS);
+                        failedAttempts++;
+                        handler.postDelayed(digestRunnable, delay);
+                        return;
+                    }
+                    int size = alerts.size() + updates.size();
+                    if (size > 1) {
+                        // The batch is atomic; narrow it down to find the rejected write
+                        digestLimit = (size + 1) / 2;
+                    } else {
+                        dropRejected(alerts, updates, exception);
+                    }
+                    finishDigest(alerts);
+                    handler.post(digestRunnable);
+                }
+            }
+        });
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size() + countUpdates.size();
+    }
+
+    private synchronized void enqueue(Alert alert) {
+        pending.add(alert);
+        persist();
+        if (pending.size() + countUpdates.size() >= MAX_DIGEST_WRITES) {
+            flushDigest();
+        } else {
+            scheduleDigest();
+        }
+    }
+
+    // Dead-letter the single write of a digest that failed permanently
+    private void dropRejected(List<Alert> alerts, List<AlertService.CountUpdate> updates,
+                              Exception exception) {
+        for (Alert alert : alerts) {
+            pending.remove(alert);
+            Log.e(TAG, "Dropping alert " + alert.getAlertId() + " (" + alert.getType()
+                    + "), rejected: " + exception.getMessage());
+        }
+        for (AlertService.CountUpdate update : updates) {
+            countUpdates.remove(update.getAlertId(), update);
+            Log.e(TAG, "Dropping count update for " + update.getAlertId()
+                    + ", rejected: " + exception.getMessage());
+        }
+        digestLimit = MAX_DIGEST_WRITES;
+    }
+
+    // Errors that retrying the same write cannot fix; everything else is treated as transient
+    private static boolean isPermanent(Exception exception) {
+        if (!(exception instanceof FirebaseFirestoreException)) {
+            return false;
+        }
+        switch (((FirebaseFirestoreException) exception).getCode()) {
+            case PERMISSION_DENIED:
+            case NOT_FOUND:
+            case INVALID_ARGUMENT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void finishDigest(List<Alert> alerts) {
+        for (Alert alert : alerts) {
+            inFlight.remove(alert.getAlertId());
+        }
+        digestInFlight = false;
+        persist();
+    }
+
+    // Post the digest for the earliest deadline among queued items
+    private void scheduleDigest() {
+        handler.removeCallbacks(digestRunnable);
+        if (digestInFlight || (pending.isEmpty() && countUpdates.isEmpty())) {
+            return;
+        }
+        long due = Long.MAX_VALUE;
+        for (Alert alert : pending) {
+            long delay = alert.getSeverity() == Alert.AlertSeverity.LOW
+                    ? LOW_DIGEST_DELAY_MILLIS : MEDIUM_DIGEST_DELAY_MILLIS;
+            due = Math.min(due, alert.getCreatedAt() + delay);
+        }
+        for (AlertService.CountUpdate update : countUpdates.values()) {
+            due = Math.min(due, update.getLastOccurredAt() + LOW_DIGEST_DELAY_MILLIS);
+        }
+        handler.postDelayed(digestRunnable, Math.max(0L, due - System.currentTimeMillis()));
+    }
+
+    private Alert findPending(String alertId) {
+        for (Alert alert : pending) {
+            if (alertId.equals(alert.getAlertId())) {
+                return alert;
+            }
+        }
+        return null;
+    }
+
+    private void persist() {
+        try {
+            JSONArray alerts = new JSONArray();
+            for (Alert alert : pending) {
+                alerts.put(alertToJson(alert));
+            }
+            JSONArray counts = new JSONArray();
+            for (AlertService.CountUpdate update : countUpdates.values()) {
+                JSONObject json = new JSONObject();
+                json.put("alertId", update.getAlertId());
+                json.put("count", update.getCount());
+                json.put("lastOccurredAt", update.getLastOccurredAt());
+                counts.put(json);
+            }
+            prefs.edit()
+                    .putString(KEY_ALERTS, alerts.toString())
+                    .putString(KEY_COUNTS, counts.toString())
+                    .apply();
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to persist alert queue: " + e.getMessage(), e);
+        }
+    }
+
+    private synchronized void restore() {
+        try {
+            JSONArray alerts = new JSONArray(prefs.getString(KEY_ALERTS, "[]"));
+            for (int i = 0; i < alerts.length(); i++) {
+                pending.add(jsonToAlert(alerts.getJSONObject(i)));
+            }
+            JSONArray counts = new JSONArray(prefs.getString(KEY_COUNTS, "[]"));
+            for (int i = 0; i < counts.length(); i++) {
+                JSONObject json = counts.getJSONObject(i);
+                String alertId = json.getString("alertId");
+                countUpdates.put(alertId, new AlertService.CountUpdate(alertId,
+                        json.getInt("count"), json.getLong("lastOccurredAt")));
+            }
+            if (!pending.isEmpty() || !countUpdates.isEmpty()) {
+                Log.d(TAG, "Restored " + pending.size() + " queued alerts");
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to restore alert queue: " + e.getMessage(), e);
+            pending.clear();
+            countUpdates.clear();
+        }
+    }
+
+    // Stored form of a queued alert: every field of Alert.toMap()
+    static JSONObject alertToJson(Alert alert) {
+        return new JSONObject(alert.toMap());
+    }
+
+    // Inverse of alertToJson; a restored alert must be written exactly as it was queued
+    static Alert jsonToAlert(JSONObject json) {
+        Alert alert = new Alert();
+        alert.setAlertId(getString(json, "alertId"));
+        alert.setParentUid(getString(json, "parentUid"));
+        alert.setChildUid(getString(json, "childUid"));
+        alert.setType(Alert.parseType(getString(json, "type")));
+        alert.setTitle(getString(json, "title"));
+        alert.setMessage(getString(json, "message"));
+        alert.setSeverity(Alert.parseSeverity(getString(json, "severity")));
+        alert.setRead(json.optBoolean("isRead"));
+        // setResolved stamps resolvedAt when unset, so the stored time is applied after it
+        alert.setResolved(json.optBoolean("isResolved"));
+        alert.setResolvedAt(json.optLong("resolvedAt"));
+        alert.setCreatedAt(json.optLong("createdAt"));
+        alert.setDedupKey(getString(json, "dedupKey"));
+        alert.setCount(json.optInt("count", 1));
+        alert.setLastOccurredAt(json.optLong("lastOccurredAt"));
+        return alert;
+    }
+
+    // optString turns JSONObject.NULL into "null"; a stored null must stay null
+    private static String getString(JSONObject json, String name) {
+        return json.isNull(name) ? null : json.optString(name);
+    }
+}
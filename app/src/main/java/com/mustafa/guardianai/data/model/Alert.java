@@ -15,6 +15,7 @@ public class Alert {
         NEW_APP_INSTALL,
         LOW_BATTERY,
         WEEKLY_REPORT,
+        INAPPROPRIATE_CONTENT,
         UNKNOWN
     }
 
@@ -35,12 +36,16 @@ public class Alert {
     private boolean isResolved;
     private long createdAt;
     private long resolvedAt;
+    private String dedupKey;
+    private int count;
+    private long lastOccurredAt;
 
     // Default constructor required for Firestore
     public Alert() {
         this.createdAt = System.currentTimeMillis();
         this.isRead = false;
         this.isResolved = false;
+        this.count = 1;
     }
 
     public Alert(String alertId, String parentUid, String childUid, AlertType type, 
@@ -53,8 +58,10 @@ public class Alert {
         this.message = message;
         this.severity = severity;
         this.createdAt = System.currentTimeMillis();
+        this.lastOccurredAt = createdAt;
         this.isRead = false;
         this.isResolved = false;
+        this.count = 1;
     }
 
     // Convert to Firestore Map
@@ -71,6 +78,9 @@ public class Alert {
         map.put("isResolved", isResolved);
         map.put("createdAt", createdAt);
         map.put("resolvedAt", resolvedAt);
+        map.put("dedupKey", dedupKey);
+        map.put("count", count);
+        map.put("lastOccurredAt", lastOccurredAt);
         return map;
     }
 
@@ -202,13 +212,28 @@ public class Alert {
     public void setResolvedAt(long resolvedAt) {
         this.resolvedAt = resolvedAt;
     }
-}
-
-
-
 
+    public String getDedupKey() {
+        return dedupKey;
+    }
 
+    public void setDedupKey(String dedupKey) {
+        this.dedupKey = dedupKey;
+    }
 
+    public int getCount() {
+        return count;
+    }
 
+    public void setCount(int count) {
+        this.count = count;
+    }
 
+    public long getLastOccurredAt() {
+        return lastOccurredAt;
+    }
 
+    public void setLastOccurredAt(long lastOccurredAt) {
+        this.lastOccurredAt = lastOccurredAt;
+    }
+}
@@ -0,0 +1,171 @@
+package com.mustafa.guardianai.data.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Geo Fence Model
+ * Parent-defined circular zone for a child (home, school, restricted area)
+ * Stored in Firestore 'geofences' collection
+ */
+public class GeoFence {
+    public enum ZoneType {
+        SAFE_ZONE,       // Breach when the child leaves
+        RESTRICTED_ZONE  // Breach when the child enters
+    }
+
+    private String fenceId;
+    private String parentUid;
+    private String childUid;
+    private String name;
+    private double latitude;
+    private double longitude;
+    private float radiusMeters;
+    private ZoneType zoneType;
+    private boolean isActive;
+    private long createdAt;
+    private long updatedAt;
+
+    // Default constructor required for Firestore
+    public GeoFence() {
+        this.createdAt = System.currentTimeMillis();
+        this.updatedAt = System.currentTimeMillis();
+        this.zoneType = ZoneType.SAFE_ZONE;
+        this.isActive = true;
+    }
+
+    public GeoFence(String fenceId, String parentUid, String childUid, String name,
+                    double latitude, double longitude, float radiusMeters, ZoneType zoneType) {
+        this.fenceId = fenceId;
+        this.parentUid = parentUid;
+        this.childUid = childUid;
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radiusMeters = radiusMeters;
+        this.zoneType = zoneType;
+        this.isActive = true;
+        this.createdAt = System.currentTimeMillis();
+        this.updatedAt = System.currentTimeMillis();
+    }
+
+    // Convert to Firestore Map
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("fenceId", fenceId);
+        map.put("parentUid", parentUid);
+        map.put("childUid", childUid);
+        map.put("name", name);
+        map.put("latitude", latitude);
+        map.put("longitude", longitude);
+        map.put("radiusMeters", radiusMeters);
+        map.put("zoneType", zoneType != null ? zoneType.name() : ZoneType.SAFE_ZONE.name());
+        map.put("isActive", isActive);
+        map.put("createdAt", createdAt);
+        map.put("updatedAt", updatedAt);
+        return map;
+    }
+
+    // Parse ZoneType from string (for Firestore)
+    public static ZoneType parseZoneType(String zoneTypeString) {
+        try {
+            return ZoneType.valueOf(zoneTypeString);
+        } catch (Exception e) {
+            return ZoneType.SAFE_ZONE;
+        }
+    }
+
+    // Check if a transition into (entered = true) or out of the zone is a breach
+    public boolean isBreach(boolean entered) {
+        return zoneType == ZoneType.RESTRICTED_ZONE ? entered : !entered;
+    }
+
+    // Getters and Setters
+    public String getFenceId() {
+        return fenceId;
+    }
+
+    public void setFenceId(String fenceId) {
+        this.fenceId = fenceId;
+    }
+
+    public String getParentUid() {
+        return parentUid;
+    }
+
+    public void setParentUid(String parentUid) {
+        this.parentUid = parentUid;
+    }
+
+    public String getChildUid() {
+        return childUid;
+    }
+
+    public void setChildUid(String childUid) {
+        this.childUid = childUid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    public float getRadiusMeters() {
+        return radiusMeters;
+    }
+
+    public void setRadiusMeters(float radiusMeters) {
+        this.radiusMeters = radiusMeters;
+    }
+
+    public ZoneType getZoneType() {
+        return zoneType;
+    }
+
+    public void setZoneType(ZoneType zoneType) {
+        this.zoneType = zoneType;
+    }
+
+    public boolean isActive() {
+        return isActive;
+    }
+
+    public void setActive(boolean active) {
+        isActive = active;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
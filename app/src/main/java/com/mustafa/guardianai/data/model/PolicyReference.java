@@ -12,6 +12,11 @@ import java.util.Map;
  * in modules 4 (App Usage & Screen Time) and 5 (App Access Control & Blocking)
  */
 public class PolicyReference {
+    // Policy types
+    public static final String TYPE_SCREEN_TIME = "SCREEN_TIME";
+    public static final String TYPE_APP_BLOCKING = "APP_BLOCKING";
+    public static final String TYPE_LOCATION = "LOCATION";
+
     private String policyId;
     private String parentUid;
     private String childUid;
@@ -0,0 +1,141 @@
+package com.mustafa.guardianai.data.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Schedule Window Model
+ * A recurring blocked time window (e.g., bedtime 21:00-07:00 on weekdays)
+ * Linked to a SCREEN_TIME PolicyReference through policyId
+ *
+ * Times are minutes from local midnight in the child's timezone.
+ * If endMinute <= startMinute the window ends on the following day.
+ */
+public class ScheduleWindow {
+    // Day-of-week bits (bit index = Calendar.DAY_OF_WEEK - 1)
+    public static final int SUNDAY = 1;
+    public static final int MONDAY = 1 << 1;
+    public static final int TUESDAY = 1 << 2;
+    public static final int WEDNESDAY = 1 << 3;
+    public static final int THURSDAY = 1 << 4;
+    public static final int FRIDAY = 1 << 5;
+    public static final int SATURDAY = 1 << 6;
+    public static final int WEEKDAYS = MONDAY | TUESDAY | WEDNESDAY | THURSDAY | FRIDAY;
+    public static final int WEEKENDS = SATURDAY | SUNDAY;
+    public static final int EVERY_DAY = WEEKDAYS | WEEKENDS;
+
+    private String windowId;
+    private String policyId;
+    private String childUid;
+    private String label; // "Bedtime", "School hours", etc.
+    private int daysOfWeek; // Bit mask of days the window starts on
+    private int startMinute; // 0-1439
+    private int endMinute; // 0-1439
+    private boolean isActive;
+
+    // Default constructor required for Firestore
+    public ScheduleWindow() {
+        this.isActive = true;
+    }
+
+    public ScheduleWindow(String windowId, String policyId, String childUid, String label,
+                          int daysOfWeek, int startMinute, int endMinute) {
+        this.windowId = windowId;
+        this.policyId = policyId;
+        this.childUid = childUid;
+        this.label = label;
+        this.daysOfWeek = daysOfWeek;
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+        this.isActive = true;
+    }
+
+    // Convert to Firestore Map
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("windowId", windowId);
+        map.put("policyId", policyId);
+        map.put("childUid", childUid);
+        map.put("label", label);
+        map.put("daysOfWeek", daysOfWeek);
+        map.put("startMinute", startMinute);
+        map.put("endMinute", endMinute);
+        map.put("isActive", isActive);
+        return map;
+    }
+
+    // Check if the window starts on a Calendar.DAY_OF_WEEK value
+    public boolean startsOn(int calendarDayOfWeek) {
+        return (daysOfWeek & (1 << (calendarDayOfWeek - 1))) != 0;
+    }
+
+    // Check if the window crosses midnight
+    public boolean crossesMidnight() {
+        return endMinute <= startMinute;
+    }
+
+    // Getters and Setters
+    public String getWindowId() {
+        return windowId;
+    }
+
+    public void setWindowId(String windowId) {
+        this.windowId = windowId;
+    }
+
+    public String getPolicyId() {
+        return policyId;
+    }
+
+    public void setPolicyId(String policyId) {
+        this.policyId = policyId;
+    }
+
+    public String getChildUid() {
+        return childUid;
+    }
+
+    public void setChildUid(String childUid) {
+        this.childUid = childUid;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public int getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public void setDaysOfWeek(int daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    public void setStartMinute(int startMinute) {
+        this.startMinute = startMinute;
+    }
+
+    public int getEndMinute() {
+        return endMinute;
+    }
+
+    public void setEndMinute(int endMinute) {
+        this.endMinute = endMinute;
+    }
+
+    public boolean isActive() {
+        return isActive;
+    }
+
+    public void setActive(boolean active) {
+        isActive = active;
+    }
+}
@@ -0,0 +1,137 @@
+package com.mustafa.guardianai.data.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Invalidation Tracker
+ * App-wide record of which cached entities changed remotely, fed by FCM data messages
+ *
+ * Screens remember the version they loaded and reload only when the tracker has moved
+ * past it, or when their data is older than MAX_STALE_MILLIS in case a push was missed.
+ * Profile changes reach the dashboard through its profiles listener, whose first snapshot
+ * after reattaching covers everything missed in the background, so only versions are kept.
+ */
+public final class InvalidationTracker {
+    public static final long MAX_STALE_MILLIS = 10 * 60 * 1000L;
+
+    public enum Entity {
+        PROFILE,
+        ALERT,
+        SUMMARY
+    }
+
+    /**
+     * Notified on the main thread when an entity is invalidated
+     */
+    public interface Listener {
+        void onInvalidated(Entity entity, String entityId);
+    }
+
+    private static volatile InvalidationTracker instance;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private long profilesVersion;
+    private long alertsVersion;
+    private long summaryVersion;
+    private long remoteSummaryVersion;
+
+    private InvalidationTracker() {
+    }
+
+    public static InvalidationTracker getInstance() {
+        if (instance == null) {
+            synchronized (InvalidationTracker.class) {
+                if (instance == null) {
+                    instance = new InvalidationTracker();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Mark a child profile as changed
+     * @param profileId Profile ID, or null if any profile may have changed
+     */
+    public void invalidateProfile(String profileId) {
+        synchronized (this) {
+            profilesVersion++;
+        }
+        notifyListeners(Entity.PROFILE, profileId);
+    }
+
+    /**
+     * Mark alerts as changed; the unread count in the summary changes with them
+     * @param alertId Alert ID (may be null)
+     */
+    public void invalidateAlert(String alertId) {
+        synchronized (this) {
+            alertsVersion++;
+            summaryVersion++;
+        }
+        notifyListeners(Entity.ALERT, alertId);
+    }
+
+    /**
+     * Record the server-side summary version; older or repeated versions are ignored
+     */
+    public void onSummaryVersion(long version) {
+        synchronized (this) {
+            if (version <= remoteSummaryVersion) {
+                return;
+            }
+            remoteSummaryVersion = version;
+            summaryVersion++;
+        }
+        notifyListeners(Entity.SUMMARY, null);
+    }
+
+    /**
+     * Invalidate everything, e.g. when FCM reports deleted messages
+     */
+    public void invalidateAll() {
+        synchronized (this) {
+            profilesVersion++;
+            alertsVersion++;
+            summaryVersion++;
+        }
+        notifyListeners(Entity.PROFILE, null);
+        notifyListeners(Entity.ALERT, null);
+        notifyListeners(Entity.SUMMARY, null);
+    }
+
+    public synchronized long getProfilesVersion() {
+        return profilesVersion;
+    }
+
+    public synchronized long getAlertsVersion() {
+        return alertsVersion;
+    }
+
+    public synchronized long getSummaryVersion() {
+        return summaryVersion;
+    }
+
+    private void notifyListeners(Entity entity, String entityId) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        mainHandler.post(() -> {
+            for (Listener listener : listeners) {
+                listener.onInvalidated(entity, entityId);
+            }
+        });
+    }
+}
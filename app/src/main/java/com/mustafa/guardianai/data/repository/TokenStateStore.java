@@ -0,0 +1,97 @@
+package com.mustafa.guardianai.data.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+/**
+ * Token State Store
+ * Remembers what FCM token this install last wrote to Firestore
+ *
+ * Only a SHA-256 hash of (uid, token) is kept, so the token itself is not stored twice.
+ * A write is needed when the hash changes or the last write is older than
+ * REFRESH_INTERVAL_MILLIS (keeps updatedAt fresh for server-side cleanup).
+ */
+public class TokenStateStore {
+    private static final String PREFS_NAME = "GuardianAI_fcm_token";
+    private static final String KEY_DEVICE_ID = "deviceId";
+    private static final String KEY_TOKEN_HASH = "tokenHash";
+    private static final String KEY_WRITTEN_AT = "writtenAt";
+    private static final String KEY_LEGACY_CLEARED = "legacyCleared";
+
+    public static final long REFRESH_INTERVAL_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    private final SharedPreferences prefs;
+
+    public TokenStateStore(Context context) {
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Stable per-install ID used as the device document ID
+     */
+    public synchronized String getDeviceId() {
+        String deviceId = prefs.getString(KEY_DEVICE_ID, null);
+        if (deviceId == null) {
+            deviceId = UUID.randomUUID().toString();
+            prefs.edit().putString(KEY_DEVICE_ID, deviceId).apply();
+        }
+        return deviceId;
+    }
+
+    /**
+     * Check whether (uid, token) still has to be written
+     */
+    public boolean needsWrite(String uid, String token, long now) {
+        String stored = prefs.getString(KEY_TOKEN_HASH, null);
+        long writtenAt = prefs.getLong(KEY_WRITTEN_AT, 0L);
+        return !hash(uid, token).equals(stored) || now - writtenAt > REFRESH_INTERVAL_MILLIS;
+    }
+
+    public void markWritten(String uid, String token, long now) {
+        prefs.edit()
+                .putString(KEY_TOKEN_HASH, hash(uid, token))
+                .putLong(KEY_WRITTEN_AT, now)
+                .apply();
+    }
+
+    /**
+     * Whether the old single fcm_tokens/{uid} document was already removed for this user
+     */
+    public boolean isLegacyCleared(String uid) {
+        return uid.equals(prefs.getString(KEY_LEGACY_CLEARED, null));
+    }
+
+    public void markLegacyCleared(String uid) {
+        prefs.edit().putString(KEY_LEGACY_CLEARED, uid).apply();
+    }
+
+    /**
+     * Forget the written token (logout); the device ID is kept
+     */
+    public void clear() {
+        prefs.edit()
+                .remove(KEY_TOKEN_HASH)
+                .remove(KEY_WRITTEN_AT)
+                .apply();
+    }
+
+    public static String hash(String uid, String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest((uid + ":" + token).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is always available on Android
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.mustafa.guardianai.image;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bitmap Decoder
+ * Decodes images close to a target size instead of at full resolution
+ *
+ * Call off the main thread.
+ */
+public final class BitmapDecoder {
+
+    private BitmapDecoder() {
+    }
+
+    /**
+     * Decode a file, subsampled so both sides stay at least the requested size
+     * @return Bitmap, or null if the file is not a decodable image
+     */
+    public static Bitmap decodeSampled(File file, int reqWidth, int reqHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        return BitmapFactory.decodeFile(file.getPath(), options);
+    }
+
+    /**
+     * Decode a picked or captured photo into an upright square of the given size
+     * Bounds are read first and the pixels are decoded with inSampleSize, so the
+     * full-resolution image is never allocated; EXIF rotation/flip and the center crop are
+     * applied in one transform.
+     * @return Bitmap of size x size, or null if the content is not a decodable image
+     */
+    public static Bitmap decodeSquare(ContentResolver resolver, Uri uri, int size) throws IOException {
+        // Pass 1: bounds only
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, uri)) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int orientation;
+        try (InputStream in = open(resolver, uri)) {
+            orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            // Not every source carries EXIF (e.g. PNG from the gallery)
+            orientation = ExifInterface.ORIENTATION_NORMAL;
+        }
+
+        // Pass 2: subsampled pixels; the short side must stay >= size for the crop
+        int shortSide = Math.min(options.outWidth, options.outHeight);
+        options.inSampleSize = calculateInSampleSize(shortSide, shortSide, size, size);
+        options.inJustDecodeBounds = false;
+        Bitmap sampled;
+        try (InputStream in = open(resolver, uri)) {
+            sampled = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (sampled == null) {
+            return null;
+        }
+
+        // Center square of the sampled image, scaled to size and made upright
+        int side = Math.min(sampled.getWidth(), sampled.getHeight());
+        Matrix matrix = orientationMatrix(orientation);
+        float scale = (float) size / side;
+        matrix.postScale(scale, scale);
+        Bitmap square = Bitmap.createBitmap(sampled,
+                (sampled.getWidth() - side) / 2, (sampled.getHeight() - side) / 2, side, side, matrix, true);
+        if (square != sampled) {
+            sampled.recycle();
+        }
+        return square;
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) {
+            throw new IOException("Cannot open " + uri);
+        }
+        return in;
+    }
+
+    private static Matrix orientationMatrix(int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.setScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.setRotate(-90);
+                break;
+            default:
+                break;
+        }
+        return matrix;
+    }
+
+    /**
+     * Largest power of two that keeps both sides at or above the requested size
+     */
+    public static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        if (reqWidth <= 0 || reqHeight <= 0) {
+            return inSampleSize;
+        }
+        while (width / (inSampleSize * 2) >= reqWidth && height / (inSampleSize * 2) >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+}
@@ -0,0 +1,76 @@
+package com.mustafa.guardianai.image;
+
+import android.graphics.Bitmap;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bitmap Pool
+ * Bounded set of mutable bitmaps handed back to BitmapFactory as inBitmap
+ *
+ * Reusing allocations keeps list scrolling from producing a steady stream of large
+ * garbage objects. Thread-safe.
+ */
+public class BitmapPool {
+    private final long maxBytes;
+    private final List<Bitmap> bitmaps = new ArrayList<>();
+    private long totalBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    public BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Take the smallest pooled bitmap that can hold at least requiredBytes
+     * @return Bitmap, or null if none fits
+     */
+    public synchronized Bitmap get(int requiredBytes) {
+        int best = -1;
+        for (int i = 0; i < bitmaps.size(); i++) {
+            int bytes = bitmaps.get(i).getAllocationByteCount();
+            if (bytes >= requiredBytes && (best < 0 || bytes < bitmaps.get(best).getAllocationByteCount())) {
+                best = i;
+            }
+        }
+        if (best < 0) {
+            misses++;
+            return null;
+        }
+        hits++;
+        Bitmap bitmap = bitmaps.remove(best);
+        totalBytes -= bitmap.getAllocationByteCount();
+        return bitmap;
+    }
+
+    /**
+     * Return a bitmap that is no longer displayed or cached; recycled if it cannot be kept
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        int bytes = bitmap.getAllocationByteCount();
+        if (!bitmap.isMutable() || bytes > maxBytes) {
+            bitmap.recycle();
+            return;
+        }
+        // Make room by dropping the oldest entries
+        while (totalBytes + bytes > maxBytes && !bitmaps.isEmpty()) {
+            Bitmap eldest = bitmaps.remove(0);
+            totalBytes -= eldest.getAllocationByteCount();
+            eldest.recycle();
+        }
+        bitmaps.add(bitmap);
+        totalBytes += bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,158 @@
+package com.mustafa.guardianai.image;
+
+import android.util.Log;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Disk LRU Image Cache
+ * File-backed cache of encoded images, evicting least recently used files over a byte budget
+ *
+ * One file per key (SHA-1 of the key). Recency survives restarts through the file's
+ * last-modified time. Thread-safe.
+ */
+public class DiskLruImageCache {
+    private static final String TAG = "DiskLruImageCache";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxBytes;
+    // File name -> size, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+    private boolean initialized = false;
+
+    public DiskLruImageCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return Cached file, or null on a miss
+     */
+    public synchronized File get(String key) {
+        initialize();
+        String name = fileName(key);
+        if (entries.get(name) == null) {
+            return null;
+        }
+        File file = new File(directory, name);
+        if (!file.exists()) {
+            totalBytes -= entries.remove(name);
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    /**
+     * Store a stream under key, replacing any previous entry
+     * @return Cached file
+     */
+    public File put(String key, InputStream in) throws IOException {
+        synchronized (this) {
+            initialize();
+        }
+        // Write outside the lock; the rename below publishes the file atomically
+        File temp = File.createTempFile("image", TEMP_SUFFIX, directory);
+        try (OutputStream out = new FileOutputStream(temp)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+
+        synchronized (this) {
+            String name = fileName(key);
+            File file = new File(directory, name);
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                throw new IOException("Failed to publish cache file " + name);
+            }
+            Long previous = entries.put(name, file.length());
+            totalBytes += file.length() - (previous != null ? previous : 0);
+            trimToSize();
+            return file;
+        }
+    }
+
+    public synchronized void remove(String key) {
+        initialize();
+        String name = fileName(key);
+        Long size = entries.remove(name);
+        if (size != null) {
+            totalBytes -= size;
+            new File(directory, name).delete();
+        }
+    }
+
+    public synchronized long getSizeBytes() {
+        initialize();
+        return totalBytes;
+    }
+
+    private void initialize() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.e(TAG, "Failed to create cache directory " + directory);
+            return;
+        }
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        // Oldest first so insertion order matches recency
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_SUFFIX)) {
+                // Left over from an interrupted put
+                file.delete();
+                continue;
+            }
+            entries.put(file.getName(), file.length());
+            totalBytes += file.length();
+        }
+        trimToSize();
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            new File(directory, eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    static String fileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-1 is always available on Android
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+}
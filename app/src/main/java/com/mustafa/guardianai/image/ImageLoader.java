@@ -0,0 +1,176 @@
+package com.mustafa.guardianai.image;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import androidx.annotation.DrawableRes;
+import com.mustafa.guardianai.R;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.Executor;
+
+/**
+ * Image Loader
+ * Loads local files and remote URLs into ImageViews, decoded at the view's size
+ *
+ * Two cache levels: decoded bitmaps in memory (keyed by source and target size) and
+ * downloaded bytes in a DiskLruImageCache. Decoding runs on the executor passed in (the
+ * registry's image executor); only the latest request bound to a view is delivered to it.
+ * Get the app's instance from ServiceRegistry.
+ */
+public class ImageLoader {
+    private static final String TAG = "ImageLoader";
+    private static final long DISK_CACHE_BYTES = 20L * 1024 * 1024;
+    private static final int TIMEOUT_MILLIS = 15_000;
+    private static final int FALLBACK_SIZE_PX = 256;
+
+    private final LruCache<String, Bitmap> memoryCache;
+    private final DiskLruImageCache diskCache;
+    private final Executor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * @param executor Runs downloads and decodes; should allow a few in parallel
+     */
+    public ImageLoader(Context context, Executor executor) {
+        this.executor = executor;
+        // 1/8 of the heap for decoded bitmaps, measured in KB
+        int maxKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+        memoryCache = new LruCache<String, Bitmap>(maxKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+        diskCache = new DiskLruImageCache(new File(context.getCacheDir(), "images"), DISK_CACHE_BYTES);
+    }
+
+    /**
+     * Load a local image file; a missing file shows the placeholder
+     * @param placeholderResId Shown until the image is ready, 0 to keep the current drawable
+     */
+    public void load(File file, ImageView view, @DrawableRes int placeholderResId) {
+        if (file == null || !file.exists()) {
+            clear(view, placeholderResId);
+            return;
+        }
+        // lastModified in the key, so replacing the file never serves a stale bitmap
+        load(new Request("file:" + file.getPath() + "#" + file.lastModified(), file, null),
+                view, placeholderResId);
+    }
+
+    /**
+     * Load a remote image, downloading it into the disk cache on first use
+     * @param placeholderResId Shown until the image is ready, 0 to keep the current drawable
+     */
+    public void load(String url, ImageView view, @DrawableRes int placeholderResId) {
+        if (url == null || url.isEmpty()) {
+            clear(view, placeholderResId);
+            return;
+        }
+        load(new Request(url, null, url), view, placeholderResId);
+    }
+
+    /**
+     * Forget the request bound to a view and show the placeholder
+     */
+    public void clear(ImageView view, @DrawableRes int placeholderResId) {
+        view.setTag(R.id.image_loader_request, null);
+        if (placeholderResId != 0) {
+            view.setImageResource(placeholderResId);
+        }
+    }
+
+    private void load(Request request, ImageView view, int placeholderResId) {
+        int[] size = targetSize(view);
+        String key = request.source + "@" + size[0] + "x" + size[1];
+        view.setTag(R.id.image_loader_request, key);
+
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return;
+        }
+        if (placeholderResId != 0) {
+            view.setImageResource(placeholderResId);
+        }
+
+        executor.execute(() -> {
+            Bitmap bitmap = decode(request, size[0], size[1]);
+            if (bitmap != null) {
+                memoryCache.put(key, bitmap);
+            }
+            mainHandler.post(() -> {
+                if (bitmap != null && key.equals(view.getTag(R.id.image_loader_request))) {
+                    view.setImageBitmap(bitmap);
+                }
+            });
+        });
+    }
+
+    private Bitmap decode(Request request, int width, int height) {
+        try {
+            File file = request.file != null ? request.file : fetch(request.url);
+            return BitmapDecoder.decodeSampled(file, width, height);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to load " + request.source + ": " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    // Downloaded file for url, from the disk cache when present (worker thread; shared with ThumbnailLoader)
+    File fetch(String url) throws IOException {
+        File cached = diskCache.get(url);
+        if (cached != null) {
+            return cached;
+        }
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        try {
+            int code = connection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + code);
+            }
+            try (InputStream in = connection.getInputStream()) {
+                return diskCache.put(url, in);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    // Measured size, else the fixed layout size, else a fallback
+    private static int[] targetSize(ImageView view) {
+        int width = view.getWidth();
+        int height = view.getHeight();
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (width <= 0 && params != null) {
+            width = params.width;
+        }
+        if (height <= 0 && params != null) {
+            height = params.height;
+        }
+        return new int[]{width > 0 ? width : FALLBACK_SIZE_PX, height > 0 ? height : FALLBACK_SIZE_PX};
+    }
+
+    private static class Request {
+        final String source;
+        final File file;
+        final String url;
+
+        Request(String source, File file, String url) {
+            this.source = source;
+            this.file = file;
+            this.url = url;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mustafa.guardianai.image;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Base64;
+import android.util.Log;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Profile Picture Store
+ * Keeps the parent's profile picture as a JPEG file in app storage
+ *
+ * Older versions stored it as Base64 in SharedPreferences; that value is moved to the
+ * file on first access. Every method may touch the disk, so call them off the main thread
+ * (screens use getFileAsync with the registry's disk executor).
+ */
+public final class ProfilePictureStore {
+    private static final String TAG = "ProfilePictureStore";
+    private static final String PREFS_NAME = "GuardianAI";
+    private static final String LEGACY_PREF_KEY = "parent_profile_picture";
+    private static final String FILE_NAME = "parent_profile_picture.jpg";
+    private static final int JPEG_QUALITY = 80;
+
+    private ProfilePictureStore() {
+    }
+
+    /**
+     * Resolve the picture file on executor and deliver it on the main thread
+     */
+    public static void getFileAsync(Context context, Executor executor, Consumer<File> callback) {
+        Context appContext = context.getApplicationContext();
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        executor.execute(() -> {
+            File file = getFile(appContext);
+            mainHandler.post(() -> callback.accept(file));
+        });
+    }
+
+    /**
+     * @return Picture file (may not exist)
+     */
+    public static synchronized File getFile(Context context) {
+        File file = new File(context.getFilesDir(), FILE_NAME);
+        migrateLegacy(context, file);
+        return file;
+    }
+
+    public static synchronized void save(Context context, Bitmap bitmap) throws IOException {
+        File file = getFile(context);
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Failed to save profile picture");
+        }
+    }
+
+    public static synchronized void delete(Context context) {
+        getFile(context).delete();
+    }
+
+    private static void migrateLegacy(Context context, File file) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String base64Image = prefs.getString(LEGACY_PREF_KEY, null);
+        if (base64Image == null) {
+            return;
+        }
+        if (!base64Image.isEmpty()) {
+            try (OutputStream out = new FileOutputStream(file)) {
+                out.write(Base64.decode(base64Image, Base64.DEFAULT));
+            } catch (IOException | IllegalArgumentException e) {
+                Log.e(TAG, "Failed to migrate profile picture: " + e.getMessage(), e);
+                return;
+            }
+        }
+        prefs.edit().remove(LEGACY_PREF_KEY).apply();
+    }
+}
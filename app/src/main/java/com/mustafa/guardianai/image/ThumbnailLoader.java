@@ -0,0 +1,204 @@
+package com.mustafa.guardianai.image;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+import androidx.annotation.DrawableRes;
+import com.mustafa.guardianai.R;
+import java.io.File;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Thumbnail Loader
+ * Avatar thumbnails for RecyclerView rows, decoded into pooled bitmaps
+ *
+ * The placeholder is shown first; the decode reuses a BitmapPool allocation (inBitmap)
+ * and can be cancelled when the row is recycled. A thumbnail goes back to the pool only
+ * once it is neither cached nor shown by any view. Call from the main thread.
+ * Get the app's instance from ServiceRegistry.
+ */
+public class ThumbnailLoader {
+    private static final String TAG = "ThumbnailLoader";
+    private static final long POOL_BYTES = 4L * 1024 * 1024;
+    private static final int CACHE_KB = 4 * 1024;
+    private static final int FALLBACK_SIZE_PX = 160;
+    private static final int BYTES_PER_PIXEL = 4; // ARGB_8888
+
+    private final ImageLoader imageLoader;
+    private final BitmapPool pool = new BitmapPool(POOL_BYTES);
+    private final LruCache<String, Bitmap> cache;
+    // Views currently showing each thumbnail (main thread only)
+    private final Map<Bitmap, Integer> displayCounts = new IdentityHashMap<>();
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * @param imageLoader Fetches remote images into its disk cache
+     * @param executor Runs fetches and decodes; submitted tasks are cancelled on recycle
+     */
+    public ThumbnailLoader(ImageLoader imageLoader, ExecutorService executor) {
+        this.imageLoader = imageLoader;
+        this.executor = executor;
+        cache = new LruCache<String, Bitmap>(CACHE_KB) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount() / 1024;
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                if (!displayCounts.containsKey(oldValue)) {
+                    pool.put(oldValue);
+                }
+            }
+        };
+    }
+
+    /**
+     * Show the placeholder, then the thumbnail for url once decoded
+     */
+    public void load(String url, ImageView view, @DrawableRes int placeholderResId) {
+        cancel(view, placeholderResId);
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+
+        int width = targetSize(view.getWidth(), view.getLayoutParams() != null ? view.getLayoutParams().width : 0);
+        int height = targetSize(view.getHeight(), view.getLayoutParams() != null ? view.getLayoutParams().height : 0);
+        String key = url + "@" + width + "x" + height;
+
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            bind(view, cached);
+            return;
+        }
+
+        view.setTag(R.id.image_loader_request, key);
+        Future<?> task = executor.submit(() -> {
+            Bitmap bitmap = decode(url, width, height);
+            if (bitmap == null) {
+                return;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                pool.put(bitmap);
+                return;
+            }
+            mainHandler.post(() -> deliver(key, bitmap, view));
+        });
+        view.setTag(R.id.image_loader_task, task);
+    }
+
+    /**
+     * Cancel any pending request for a view and release its thumbnail (e.g. onViewRecycled)
+     */
+    public void cancel(ImageView view, @DrawableRes int placeholderResId) {
+        Object task = view.getTag(R.id.image_loader_task);
+        if (task instanceof Future) {
+            ((Future<?>) task).cancel(true);
+        }
+        view.setTag(R.id.image_loader_task, null);
+        view.setTag(R.id.image_loader_request, null);
+
+        Object shown = view.getTag(R.id.image_loader_bitmap);
+        view.setTag(R.id.image_loader_bitmap, null);
+        // Detach before the bitmap can be reused
+        if (placeholderResId != 0) {
+            view.setImageResource(placeholderResId);
+        } else {
+            view.setImageDrawable(null);
+        }
+        if (shown instanceof Bitmap) {
+            release((Bitmap) shown);
+        }
+    }
+
+    public BitmapPool getPool() {
+        return pool;
+    }
+
+    private void deliver(String key, Bitmap bitmap, ImageView view) {
+        Bitmap existing = cache.get(key);
+        if (existing != null) {
+            // A concurrent request decoded the same thumbnail first
+            pool.put(bitmap);
+            bitmap = existing;
+        } else {
+            cache.put(key, bitmap);
+        }
+        if (key.equals(view.getTag(R.id.image_loader_request))) {
+            view.setTag(R.id.image_loader_task, null);
+            view.setTag(R.id.image_loader_request, null);
+            bind(view, bitmap);
+        }
+    }
+
+    private void bind(ImageView view, Bitmap bitmap) {
+        view.setTag(R.id.image_loader_bitmap, bitmap);
+        Integer count = displayCounts.get(bitmap);
+        displayCounts.put(bitmap, count != null ? count + 1 : 1);
+        view.setImageBitmap(bitmap);
+    }
+
+    private void release(Bitmap bitmap) {
+        Integer count = displayCounts.get(bitmap);
+        if (count == null || count <= 1) {
+            displayCounts.remove(bitmap);
+            if (!cache.snapshot().containsValue(bitmap)) {
+                pool.put(bitmap);
+            }
+        } else {
+            displayCounts.put(bitmap, count - 1);
+        }
+    }
+
+    // Worker thread
+    private Bitmap decode(String url, int width, int height) {
+        try {
+            File file = imageLoader.fetch(url);
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(file.getPath(), options);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return null;
+            }
+            options.inSampleSize = BitmapDecoder.calculateInSampleSize(
+                    options.outWidth, options.outHeight, width, height);
+            options.inJustDecodeBounds = false;
+            options.inMutable = true;
+            int sampledWidth = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+            int sampledHeight = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+            options.inBitmap = pool.get(sampledWidth * sampledHeight * BYTES_PER_PIXEL);
+
+            try {
+                return BitmapFactory.decodeFile(file.getPath(), options);
+            } catch (IllegalArgumentException e) {
+                // Pooled bitmap was not usable for this image; decode into a fresh one
+                pool.put(options.inBitmap);
+                options.inBitmap = null;
+                return BitmapFactory.decodeFile(file.getPath(), options);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to load thumbnail " + url + ": " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static int targetSize(int measured, int layout) {
+        if (measured > 0) {
+            return measured;
+        }
+        return layout > 0 ? layout : FALLBACK_SIZE_PX;
+    }
+}
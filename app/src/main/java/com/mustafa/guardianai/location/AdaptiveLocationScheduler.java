@@ -0,0 +1,343 @@
+package com.mustafa.guardianai.location;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import com.mustafa.guardianai.network.LocationService;
+import com.mustafa.guardianai.network.ServiceCall;
+
+/**
+ * Adaptive Location Scheduler
+ * Child-side location pipeline feeding the geofence engine and uploading batched segments
+ *
+ * - Fix interval and provider adapt to motion state and distance to the nearest fence edge
+ * - Fixes closer than MIN_DISPLACEMENT_METERS to the last kept point are not buffered
+ * - Buffered fixes are uploaded as one encoded polyline per UPLOAD_INTERVAL_MILLIS, on a
+ *   timer, so a stationary child with long fix intervals still uploads on time
+ * - Metrics track fixes taken vs. buffered vs. uploaded
+ *
+ * Must be started and stopped from the looper thread passed in (usually the main thread).
+ */
+public class AdaptiveLocationScheduler implements LocationListener {
+    private static final String TAG = "AdaptiveLocation";
+
+    public static final long UPLOAD_INTERVAL_MILLIS = 5 * 60 * 1000L;
+    public static final float MIN_DISPLACEMENT_METERS = 20f;
+    private static final int MAX_BUFFERED_FIXES = 512;
+
+    private final Context context;
+    private final LocationManager locationManager;
+    private final LocationService locationService;
+    private final GeofenceEngine geofenceEngine;
+    private final String childUid;
+    private final Looper looper;
+    private final Handler handler;
+    private final Runnable flushRunnable = this::flush;
+    private String profileId;
+
+    // Buffered fixes for the current segment
+    private final double[] bufferLat = new double[MAX_BUFFERED_FIXES];
+    private final double[] bufferLng = new double[MAX_BUFFERED_FIXES];
+    private final long[] bufferTime = new long[MAX_BUFFERED_FIXES];
+    private int bufferCount = 0;
+    private long lastUploadAt;
+
+    // Current plan
+    private boolean running = false;
+    private String currentProvider;
+    private long currentIntervalMillis;
+    // Last buffered point (displacement filter) and last accepted fix (speed estimate)
+    private Location lastFix;
+    private Location lastReceived;
+
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * Fix interval and accuracy chosen for the next samples
+     */
+    static final class Plan {
+        final LocationSamplingPolicy.MotionState motion;
+        final long intervalMillis;
+        final LocationSamplingPolicy.Accuracy accuracy;
+
+        Plan(LocationSamplingPolicy.MotionState motion, long intervalMillis,
+             LocationSamplingPolicy.Accuracy accuracy) {
+            this.motion = motion;
+            this.intervalMillis = intervalMillis;
+            this.accuracy = accuracy;
+        }
+    }
+
+    /**
+     * Counters for fixes taken vs. uploaded
+     */
+    public static class Metrics {
+        private long fixesTaken;
+        private long fixesRejected;
+        private long fixesBuffered;
+        private long fixesUploaded;
+        private long segmentsUploaded;
+        private long uploadFailures;
+        private long planChanges;
+
+        public long getFixesTaken() {
+            return fixesTaken;
+        }
+
+        public long getFixesRejected() {
+            return fixesRejected;
+        }
+
+        public long getFixesBuffered() {
+            return fixesBuffered;
+        }
+
+        public long getFixesUploaded() {
+            return fixesUploaded;
+        }
+
+        public long getSegmentsUploaded() {
+            return segmentsUploaded;
+        }
+
+        public long getUploadFailures() {
+            return uploadFailures;
+        }
+
+        public long getPlanChanges() {
+            return planChanges;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "taken=" + fixesTaken + " rejected=" + fixesRejected + " buffered=" + fixesBuffered
+                    + " uploaded=" + fixesUploaded + " segments=" + segmentsUploaded
+                    + " failures=" + uploadFailures + " planChanges=" + planChanges;
+        }
+    }
+
+    public AdaptiveLocationScheduler(Context context, String childUid, String profileId,
+                                     GeofenceEngine geofenceEngine, LocationService locationService,
+                                     Looper looper) {
+        this.context = context.getApplicationContext();
+        this.locationManager = (LocationManager) this.context.getSystemService(Context.LOCATION_SERVICE);
+        this.childUid = childUid;
+        this.profileId = profileId;
+        this.geofenceEngine = geofenceEngine;
+        this.locationService = locationService;
+        this.looper = looper;
+        this.handler = new Handler(looper);
+    }
+
+    /**
+     * Start sampling with an initial stationary plan
+     * @return false if location permission is missing
+     */
+    public boolean start() {
+        if (!hasLocationPermission()) {
+            Log.w(TAG, "Location permission not granted");
+            return false;
+        }
+        running = true;
+        lastUploadAt = System.currentTimeMillis();
+        handler.postDelayed(flushRunnable, UPLOAD_INTERVAL_MILLIS);
+        // No position yet, so no fence distance either
+        applyPlan(planFor(null, 0f, 0d, 0d));
+        return true;
+    }
+
+    /**
+     * Stop sampling and upload whatever is buffered
+     */
+    public void stop() {
+        running = false;
+        locationManager.removeUpdates(this);
+        currentProvider = null;
+        flush();
+        handler.removeCallbacks(flushRunnable);
+        lastReceived = null;
+    }
+
+    public void setProfileId(String profileId) {
+        this.profileId = profileId;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void onLocationChanged(@NonNull Location location) {
+        metrics.fixesTaken++;
+
+        if (location.hasAccuracy() && location.getAccuracy() > GeofenceEngine.DEFAULT_MAX_ACCURACY_METERS) {
+            metrics.fixesRejected++;
+            return;
+        }
+
+        float speed = estimateSpeed(location);
+        lastReceived = location;
+        double latitude = location.getLatitude();
+        double longitude = location.getLongitude();
+        long time = location.getTime();
+
+        if (geofenceEngine != null) {
+            geofenceEngine.onLocationFix(latitude, longitude,
+                    location.hasAccuracy() ? location.getAccuracy() : 0f, time);
+        }
+
+        // Only keep points that actually moved
+        if (bufferCount == 0 || lastFix == null
+                || location.distanceTo(lastFix) >= Math.max(MIN_DISPLACEMENT_METERS, location.getAccuracy())) {
+            if (bufferCount == MAX_BUFFERED_FIXES) {
+                flush();
+            }
+            bufferLat[bufferCount] = latitude;
+            bufferLng[bufferCount] = longitude;
+            bufferTime[bufferCount] = time;
+            bufferCount++;
+            metrics.fixesBuffered++;
+            lastFix = location;
+        }
+
+        if (System.currentTimeMillis() - lastUploadAt >= UPLOAD_INTERVAL_MILLIS) {
+            flush();
+        }
+
+        if (running) {
+            applyPlan(planFor(geofenceEngine, speed, latitude, longitude));
+        }
+    }
+
+    @Override
+    public void onStatusChanged(String provider, int status, Bundle extras) {
+        // Required before API 29
+    }
+
+    @Override
+    public void onProviderEnabled(@NonNull String provider) {
+    }
+
+    @Override
+    public void onProviderDisabled(@NonNull String provider) {
+        Log.w(TAG, "Location provider disabled: " + provider);
+    }
+
+    /**
+     * Upload buffered fixes as one encoded segment and restart the upload timer
+     */
+    private void flush() {
+        lastUploadAt = System.currentTimeMillis();
+        handler.removeCallbacks(flushRunnable);
+        if (running) {
+            handler.postDelayed(flushRunnable, UPLOAD_INTERVAL_MILLIS);
+        }
+        if (bufferCount == 0) {
+            return;
+        }
+
+        final int count = bufferCount;
+        String polyline = PolylineEncoder.encode(bufferLat, bufferLng, count);
+        long startedAt = bufferTime[0];
+        long endedAt = bufferTime[count - 1];
+        double lastLat = bufferLat[count - 1];
+        double lastLng = bufferLng[count - 1];
+        bufferCount = 0;
+
+        locationService.uploadSegment(childUid, profileId, polyline, count, startedAt, endedAt,
+                lastLat, lastLng).observe(new ServiceCall.Callback<Void>() {
+                    @Override
+                    public void onSuccess(Void result) {
+                        metrics.fixesUploaded += count;
+                        metrics.segmentsUploaded++;
+                    }
+
+                    @Override
+                    public void onFailure(Exception exception) {
+                        // Firestore retries queued writes itself when offline
+                        metrics.uploadFailures++;
+                    }
+                });
+    }
+
+    /**
+     * Plan for a fix from its speed and the distance to the nearest fence edge
+     * @param engine Fences to plan around (null, or no fences, plans on motion alone)
+     */
+    static Plan planFor(GeofenceEngine engine, float speed, double latitude, double longitude) {
+        LocationSamplingPolicy.MotionState motion = LocationSamplingPolicy.classify(speed);
+        double distanceToEdge = engine != null
+                ? engine.distanceToNearestEdge(latitude, longitude)
+                : Double.MAX_VALUE;
+        return new Plan(motion, LocationSamplingPolicy.intervalMillis(motion, speed, distanceToEdge),
+                LocationSamplingPolicy.accuracy(motion, distanceToEdge));
+    }
+
+    private void applyPlan(Plan plan) {
+        long interval = plan.intervalMillis;
+        LocationSamplingPolicy.MotionState motion = plan.motion;
+        String provider = providerFor(plan.accuracy);
+
+        // Avoid re-registering for small interval changes
+        if (provider.equals(currentProvider)
+                && Math.abs(interval - currentIntervalMillis) < currentIntervalMillis / 4) {
+            return;
+        }
+        if (!hasLocationPermission()) {
+            return;
+        }
+
+        try {
+            locationManager.removeUpdates(this);
+            locationManager.requestLocationUpdates(provider, interval, 0f, this, looper);
+            currentProvider = provider;
+            currentIntervalMillis = interval;
+            metrics.planChanges++;
+            Log.d(TAG, "Sampling plan: " + provider + " every " + interval / 1000 + "s (" + motion + ")");
+        } catch (SecurityException | IllegalArgumentException e) {
+            Log.e(TAG, "Failed to request location updates: " + e.getMessage(), e);
+        }
+    }
+
+    private String providerFor(LocationSamplingPolicy.Accuracy accuracy) {
+        // LOW still uses the network provider (passive alone may never deliver a fix);
+        // the longer interval is what saves power there
+        if (accuracy == LocationSamplingPolicy.Accuracy.HIGH
+                && locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER)) {
+            return LocationManager.GPS_PROVIDER;
+        }
+        if (locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER)) {
+            return LocationManager.NETWORK_PROVIDER;
+        }
+        return LocationManager.PASSIVE_PROVIDER;
+    }
+
+    private float estimateSpeed(Location location) {
+        if (location.hasSpeed()) {
+            return location.getSpeed();
+        }
+        // From the previous fix, not the last buffered point: that one can be minutes old
+        if (lastReceived != null && location.getTime() > lastReceived.getTime()) {
+            float seconds = (location.getTime() - lastReceived.getTime()) / 1000f;
+            return location.distanceTo(lastReceived) / seconds;
+        }
+        return 0f;
+    }
+
+    private boolean hasLocationPermission() {
+        return ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED
+                || ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_COARSE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+}
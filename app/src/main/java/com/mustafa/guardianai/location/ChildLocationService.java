@@ -0,0 +1,154 @@
+package com.mustafa.guardianai.location;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ServiceInfo;
+import android.os.Build;
+import android.os.IBinder;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.ServiceCompat;
+import androidx.core.content.ContextCompat;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.mustafa.guardianai.ServiceRegistry;
+import com.mustafa.guardianai.data.model.Alert;
+import com.mustafa.guardianai.data.model.GeoFence;
+
+/**
+ * Child Location Service
+ * Foreground service (type location) running the AdaptiveLocationScheduler on the child device
+ *
+ * Started from ChildDashboardActivity once location permission is granted, so it keeps
+ * sampling after the screen is left; stopped on logout. The signed-in child's profile is
+ * looked up once so segment uploads also update its last known position. The child's
+ * geofences are (re)loaded on every start, so opening the dashboard picks up fences the
+ * parent changed. Confirmed breaches go through the app's AlertCoalescer.
+ */
+public class ChildLocationService extends Service {
+    private static final String TAG = "ChildLocationService";
+    private static final String CHANNEL_ID = "child_location";
+    private static final int NOTIFICATION_ID = 1001;
+
+    private AdaptiveLocationScheduler scheduler;
+    private GeofenceEngine geofenceEngine;
+    // Used in breach alert messages once the profile lookup completes
+    private String childName;
+
+    /**
+     * Start sampling; call while the app is in the foreground with location permission
+     */
+    public static void start(Context context) {
+        ContextCompat.startForegroundService(context, new Intent(context, ChildLocationService.class));
+    }
+
+    /**
+     * Stop sampling; buffered fixes are uploaded first, so call before signing out
+     */
+    public static void stop(Context context) {
+        context.stopService(new Intent(context, ChildLocationService.class));
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        try {
+            ServiceCompat.startForeground(this, NOTIFICATION_ID, buildNotification(),
+                    Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                            ? ServiceInfo.FOREGROUND_SERVICE_TYPE_LOCATION : 0);
+        } catch (SecurityException | IllegalStateException e) {
+            // Permission revoked, or started while the app was not in the foreground
+            Log.w(TAG, "Cannot run in the foreground: " + e.getMessage());
+            stopSelf();
+            return START_NOT_STICKY;
+        }
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            Log.w(TAG, "No child signed in, not sampling location");
+            stopSelf();
+            return START_NOT_STICKY;
+        }
+        String childUid = user.getUid();
+        ServiceRegistry registry = ServiceRegistry.getInstance();
+
+        if (scheduler == null) {
+            geofenceEngine = new GeofenceEngine(this::onFenceTransition);
+            scheduler = new AdaptiveLocationScheduler(this, childUid, null, geofenceEngine,
+                    registry.getLocationService(), Looper.getMainLooper());
+            if (!scheduler.start()) {
+                scheduler = null;
+                geofenceEngine = null;
+                stopSelf();
+                return START_NOT_STICKY;
+            }
+
+            registry.getChildProfileService().getChildProfileByUid(childUid)
+                    .observe(profile -> {
+                        if (scheduler != null && profile != null) {
+                            scheduler.setProfileId(profile.getProfileId());
+                            childName = profile.getName();
+                        }
+                    }, e -> Log.w(TAG, "Child profile lookup failed: " + e.getMessage()));
+        }
+
+        // Callbacks run on the main thread, the same looper that feeds the engine fixes
+        registry.getLocationService().getGeofencesForChild(childUid)
+                .observe(fences -> {
+                    if (geofenceEngine != null) {
+                        geofenceEngine.setFences(fences);
+                    }
+                }, e -> Log.w(TAG, "Geofence load failed, keeping current fences: " + e.getMessage()));
+        // Not restarted by the system: a background restart may not start location
+        // services; the dashboard starts it again when opened
+        return START_NOT_STICKY;
+    }
+
+    @Override
+    public void onDestroy() {
+        if (scheduler != null) {
+            scheduler.stop();
+            Log.d(TAG, "Location sampling stopped: " + scheduler.getMetrics());
+            scheduler = null;
+        }
+        geofenceEngine = null;
+        // Monitoring stops here (usually before logout); hand queued alerts to Firestore first
+        ServiceRegistry.getInstance().getAlertDispatchQueue().flushDigest();
+        super.onDestroy();
+    }
+
+    // Confirmed transitions that breach a fence become alerts; the coalescer merges repeats
+    // of the same fence and direction and enforces the hourly limit
+    private void onFenceTransition(GeoFence fence, boolean entered, boolean isBreach, long timeMillis) {
+        if (!isBreach) {
+            return;
+        }
+        Alert alert = GeofenceEngine.createBreachAlert(fence, childName, entered);
+        ServiceRegistry.getInstance().getAlertCoalescer()
+                .submit(alert, fence.getFenceId() + (entered ? ":enter" : ":exit"));
+    }
+
+    @Nullable
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+
+    private Notification buildNotification() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "Location monitoring",
+                    NotificationManager.IMPORTANCE_LOW);
+            getSystemService(NotificationManager.class).createNotificationChannel(channel);
+        }
+        return new NotificationCompat.Builder(this, CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_menu_mylocation)
+                .setContentTitle("Guardian AI")
+                .setContentText("Sharing location with your parent")
+                .setOngoing(true)
+                .build();
+    }
+}
@@ -0,0 +1,295 @@
+package com.mustafa.guardianai.location;
+
+import com.mustafa.guardianai.data.model.Alert;
+import com.mustafa.guardianai.data.model.GeoFence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Geofence Engine
+ * Child-side evaluation of location fixes against parent-defined zones
+ *
+ * - Zones are indexed in a uniform lat/lng grid, so a fix only checks zones near it
+ * - A hysteresis band around each edge stops GPS jitter from flapping the state; it is
+ *   at most half the radius, so small fences can still be entered
+ * - A new state must hold for the dwell time before it is confirmed
+ * - The listener is only called on confirmed transitions, so alerts and Firestore
+ *   writes scale with breaches rather than with fixes
+ *
+ * Not thread-safe; feed fixes from a single location callback thread.
+ */
+public class GeofenceEngine {
+    public static final float DEFAULT_HYSTERESIS_METERS = 25f;
+    public static final long DEFAULT_DWELL_MILLIS = 60 * 1000L;
+    public static final float DEFAULT_MAX_ACCURACY_METERS = 150f;
+
+    private static final double METERS_PER_DEGREE = 111_320d;
+    private static final double EARTH_RADIUS_METERS = 6_371_000d;
+    private static final double CELL_SIZE_DEGREES = 0.01d; // ~1.1 km
+
+    private static final int STATE_UNKNOWN = 0;
+    private static final int STATE_INSIDE = 1;
+    private static final int STATE_OUTSIDE = 2;
+
+    /**
+     * Listener for confirmed zone transitions
+     */
+    public interface TransitionListener {
+        void onTransition(GeoFence fence, boolean entered, boolean isBreach, long timeMillis);
+    }
+
+    private final float hysteresisMeters;
+    private final long dwellMillis;
+    private final float maxAccuracyMeters;
+    private final TransitionListener listener;
+
+    private GeoFence[] fences = new GeoFence[0];
+    private Map<Long, int[]> grid = new HashMap<>();
+
+    // Per-fence state, indexed like fences
+    private float[] bands = new float[0];
+    private int[] states = new int[0];
+    private int[] pendingStates = new int[0];
+    private long[] pendingSince = new long[0];
+
+    // Scratch buffer of fence indices evaluated for the current fix
+    private int[] candidates = new int[0];
+    private boolean[] candidateMarks = new boolean[0];
+
+    public GeofenceEngine(TransitionListener listener) {
+        this(DEFAULT_HYSTERESIS_METERS, DEFAULT_DWELL_MILLIS, DEFAULT_MAX_ACCURACY_METERS, listener);
+    }
+
+    public GeofenceEngine(float hysteresisMeters, long dwellMillis, float maxAccuracyMeters,
+                          TransitionListener listener) {
+        this.hysteresisMeters = hysteresisMeters;
+        this.dwellMillis = dwellMillis;
+        this.maxAccuracyMeters = maxAccuracyMeters;
+        this.listener = listener;
+    }
+
+    /**
+     * Replace the zone set
+     * Confirmed states are kept for fences whose IDs are unchanged
+     */
+    public void setFences(List<GeoFence> newFences) {
+        List<GeoFence> active = new ArrayList<>();
+        for (GeoFence fence : newFences) {
+            if (fence.isActive() && fence.getRadiusMeters() > 0) {
+                active.add(fence);
+            }
+        }
+
+        Map<String, Integer> oldStates = new HashMap<>();
+        for (int i = 0; i < fences.length; i++) {
+            oldStates.put(fences[i].getFenceId(), states[i]);
+        }
+
+        int count = active.size();
+        fences = active.toArray(new GeoFence[0]);
+        bands = new float[count];
+        states = new int[count];
+        pendingStates = new int[count];
+        pendingSince = new long[count];
+        candidates = new int[count];
+        candidateMarks = new boolean[count];
+
+        Map<Long, List<Integer>> cells = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            GeoFence fence = fences[i];
+            Integer previous = oldStates.get(fence.getFenceId());
+            states[i] = previous != null ? previous : STATE_UNKNOWN;
+            // A band wider than the radius would make the inside unreachable
+            bands[i] = (float) Math.min(hysteresisMeters, fence.getRadiusMeters() / 2d);
+
+            // Register the fence in every cell its outer hysteresis edge touches
+            double reach = fence.getRadiusMeters() + bands[i] + maxAccuracyMeters;
+            double latDelta = reach / METERS_PER_DEGREE;
+            double lngDelta = reach / (METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(fence.getLatitude()))));
+            long minRow = cellIndex(fence.getLatitude() - latDelta);
+            long maxRow = cellIndex(fence.getLatitude() + latDelta);
+            long minCol = cellIndex(fence.getLongitude() - lngDelta);
+            long maxCol = cellIndex(fence.getLongitude() + lngDelta);
+            for (long row = minRow; row <= maxRow; row++) {
+                for (long col = minCol; col <= maxCol; col++) {
+                    cells.computeIfAbsent(cellKey(row, col), k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        Map<Long, int[]> compiled = new HashMap<>(cells.size() * 2);
+        for (Map.Entry<Long, List<Integer>> entry : cells.entrySet()) {
+            List<Integer> list = entry.getValue();
+            int[] indices = new int[list.size()];
+            for (int k = 0; k < indices.length; k++) {
+                indices[k] = list.get(k);
+            }
+            compiled.put(entry.getKey(), indices);
+        }
+        grid = compiled;
+    }
+
+    /**
+     * Evaluate a location fix
+     * @param latitude Fix latitude
+     * @param longitude Fix longitude
+     * @param accuracyMeters Horizontal accuracy (68% radius)
+     * @param timeMillis Fix time
+     * @return Number of confirmed transitions reported to the listener
+     */
+    public int onLocationFix(double latitude, double longitude, float accuracyMeters, long timeMillis) {
+        if (accuracyMeters > maxAccuracyMeters || fences.length == 0) {
+            return 0;
+        }
+
+        int candidateCount = collectCandidates(latitude, longitude);
+        int transitions = 0;
+
+        for (int c = 0; c < candidateCount; c++) {
+            int i = candidates[c];
+            candidateMarks[i] = false;
+            GeoFence fence = fences[i];
+            double distance = distanceMeters(latitude, longitude, fence.getLatitude(), fence.getLongitude());
+
+            int observed;
+            if (distance <= fence.getRadiusMeters() - bands[i]) {
+                observed = STATE_INSIDE;
+            } else if (distance >= fence.getRadiusMeters() + bands[i] + accuracyMeters) {
+                observed = STATE_OUTSIDE;
+            } else {
+                // Inside the hysteresis band: keep the current state
+                pendingStates[i] = STATE_UNKNOWN;
+                continue;
+            }
+
+            if (states[i] == STATE_UNKNOWN) {
+                // First determination is a baseline, not a transition
+                states[i] = observed;
+                pendingStates[i] = STATE_UNKNOWN;
+                continue;
+            }
+
+            if (observed == states[i]) {
+                pendingStates[i] = STATE_UNKNOWN;
+                continue;
+            }
+
+            if (pendingStates[i] != observed) {
+                pendingStates[i] = observed;
+                pendingSince[i] = timeMillis;
+            }
+
+            if (timeMillis - pendingSince[i] >= dwellMillis) {
+                states[i] = observed;
+                pendingStates[i] = STATE_UNKNOWN;
+                boolean entered = observed == STATE_INSIDE;
+                transitions++;
+                if (listener != null) {
+                    listener.onTransition(fence, entered, fence.isBreach(entered), timeMillis);
+                }
+            }
+        }
+        return transitions;
+    }
+
+    /**
+     * Distance from a point to the nearest fence edge (Double.MAX_VALUE when no fences)
+     * Used by the location scheduler to decide how often to sample
+     */
+    public double distanceToNearestEdge(double latitude, double longitude) {
+        double nearest = Double.MAX_VALUE;
+        for (GeoFence fence : fences) {
+            double distance = distanceMeters(latitude, longitude, fence.getLatitude(), fence.getLongitude());
+            nearest = Math.min(nearest, Math.abs(distance - fence.getRadiusMeters()));
+        }
+        return nearest;
+    }
+
+    /**
+     * Check whether the child is confirmed inside a fence
+     */
+    public boolean isInside(String fenceId) {
+        for (int i = 0; i < fences.length; i++) {
+            if (fences[i].getFenceId() != null && fences[i].getFenceId().equals(fenceId)) {
+                return states[i] == STATE_INSIDE;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reset all confirmed states (e.g., after location permission was revoked)
+     */
+    public void reset() {
+        Arrays.fill(states, STATE_UNKNOWN);
+        Arrays.fill(pendingStates, STATE_UNKNOWN);
+    }
+
+    /**
+     * Create a GEO_FENCE_BREACH alert for a confirmed transition
+     */
+    public static Alert createBreachAlert(GeoFence fence, String childName, boolean entered) {
+        String who = childName != null && !childName.isEmpty() ? childName : "Your child";
+        String zone = fence.getName() != null ? fence.getName() : "a zone";
+        String message = entered ? who + " entered " + zone : who + " left " + zone;
+        return new Alert(
+                UUID.randomUUID().toString(),
+                fence.getParentUid(),
+                fence.getChildUid(),
+                Alert.AlertType.GEO_FENCE_BREACH,
+                "Geofence alert",
+                message,
+                Alert.AlertSeverity.HIGH
+        );
+    }
+
+    // Gather fences near the fix plus every fence currently confirmed inside
+    private int collectCandidates(double latitude, double longitude) {
+        int count = 0;
+        int[] nearby = grid.get(cellKey(cellIndex(latitude), cellIndex(longitude)));
+        if (nearby != null) {
+            for (int i : nearby) {
+                if (!candidateMarks[i]) {
+                    candidateMarks[i] = true;
+                    candidates[count++] = i;
+                }
+            }
+        }
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == STATE_UNKNOWN && !candidateMarks[i]) {
+                // Not in any nearby cell, so the fix is beyond the fence's outer edge
+                states[i] = STATE_OUTSIDE;
+                continue;
+            }
+            if ((states[i] == STATE_INSIDE || pendingStates[i] != STATE_UNKNOWN) && !candidateMarks[i]) {
+                candidateMarks[i] = true;
+                candidates[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    private static long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Haversine distance in meters
+     */
+    static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1d, Math.sqrt(a)));
+    }
+}
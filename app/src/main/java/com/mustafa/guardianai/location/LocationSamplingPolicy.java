@@ -0,0 +1,100 @@
+package com.mustafa.guardianai.location;
+
+/**
+ * Location Sampling Policy
+ * Decides how often and how accurately to sample location
+ *
+ * The base plan comes from the motion state. Near a geofence edge the interval is
+ * shortened so a crossing is seen within roughly half the travel time to the edge.
+ * Far from every fence the interval is stretched to save battery.
+ */
+public final class LocationSamplingPolicy {
+    public enum MotionState {
+        STATIONARY,
+        WALKING,
+        DRIVING
+    }
+
+    public enum Accuracy {
+        HIGH,     // GPS
+        BALANCED, // Network
+        LOW       // Passive / coarse
+    }
+
+    public static final float WALKING_SPEED_MPS = 0.5f;
+    public static final float DRIVING_SPEED_MPS = 3.0f;
+
+    public static final long MIN_INTERVAL_MILLIS = 10 * 1000L;
+    public static final long MAX_INTERVAL_MILLIS = 15 * 60 * 1000L;
+
+    private static final double NEAR_EDGE_METERS = 250d;
+    private static final double FAR_FROM_EDGE_METERS = 5000d;
+
+    private LocationSamplingPolicy() {
+    }
+
+    /**
+     * Classify motion from speed in meters per second
+     */
+    public static MotionState classify(float speedMps) {
+        if (speedMps >= DRIVING_SPEED_MPS) {
+            return MotionState.DRIVING;
+        } else if (speedMps >= WALKING_SPEED_MPS) {
+            return MotionState.WALKING;
+        }
+        return MotionState.STATIONARY;
+    }
+
+    /**
+     * Sampling interval for the current state
+     * @param motion Current motion state
+     * @param speedMps Current speed in meters per second
+     * @param distanceToEdgeMeters Distance to the nearest geofence edge (Double.MAX_VALUE if none)
+     */
+    public static long intervalMillis(MotionState motion, float speedMps, double distanceToEdgeMeters) {
+        long interval;
+        switch (motion) {
+            case DRIVING:
+                interval = 20 * 1000L;
+                break;
+            case WALKING:
+                interval = 60 * 1000L;
+                break;
+            default:
+                interval = 5 * 60 * 1000L;
+                break;
+        }
+
+        if (distanceToEdgeMeters < Double.MAX_VALUE) {
+            if (speedMps > 0.1f) {
+                // Sample at least twice before the edge can be reached
+                long timeToEdge = (long) (distanceToEdgeMeters / speedMps * 1000d);
+                interval = Math.min(interval, timeToEdge / 2);
+            }
+            if (distanceToEdgeMeters > FAR_FROM_EDGE_METERS) {
+                interval *= 2;
+            }
+        } else {
+            interval *= 2;
+        }
+
+        return Math.max(MIN_INTERVAL_MILLIS, Math.min(MAX_INTERVAL_MILLIS, interval));
+    }
+
+    /**
+     * Accuracy for the current state
+     */
+    public static Accuracy accuracy(MotionState motion, double distanceToEdgeMeters) {
+        if (distanceToEdgeMeters < NEAR_EDGE_METERS) {
+            return Accuracy.HIGH;
+        }
+        switch (motion) {
+            case DRIVING:
+                return Accuracy.HIGH;
+            case WALKING:
+                return Accuracy.BALANCED;
+            default:
+                return Accuracy.LOW;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.mustafa.guardianai.location;
+
+/**
+ * Polyline Encoder
+ * Encodes coordinates with the Encoded Polyline Algorithm (1e-5 degree precision)
+ * so a whole batch of fixes uploads as one short string instead of one document per fix
+ */
+public final class PolylineEncoder {
+
+    private PolylineEncoder() {
+    }
+
+    /**
+     * Encode coordinate arrays
+     * @param latitudes Latitudes in degrees
+     * @param longitudes Longitudes in degrees
+     * @param count Number of points to encode from the start of the arrays
+     * @return Encoded polyline string
+     */
+    public static String encode(double[] latitudes, double[] longitudes, int count) {
+        StringBuilder out = new StringBuilder(count * 8);
+        long previousLat = 0;
+        long previousLng = 0;
+        for (int i = 0; i < count; i++) {
+            long lat = Math.round(latitudes[i] * 1e5);
+            long lng = Math.round(longitudes[i] * 1e5);
+            encodeValue(lat - previousLat, out);
+            encodeValue(lng - previousLng, out);
+            previousLat = lat;
+            previousLng = lng;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Decode a polyline into interleaved [lat0, lng0, lat1, lng1, ...]
+     */
+    public static double[] decode(String encoded) {
+        double[] points = new double[encoded.length() * 2];
+        int count = 0;
+        int index = 0;
+        long lat = 0;
+        long lng = 0;
+        long[] result = new long[1];
+        while (index < encoded.length()) {
+            index = decodeValue(encoded, index, result);
+            lat += result[0];
+            index = decodeValue(encoded, index, result);
+            lng += result[0];
+            points[count++] = lat / 1e5;
+            points[count++] = lng / 1e5;
+        }
+        double[] trimmed = new double[count];
+        System.arraycopy(points, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    private static void encodeValue(long value, StringBuilder out) {
+        long shifted = value < 0 ? ~(value << 1) : value << 1;
+        while (shifted >= 0x20) {
+            out.append((char) ((0x20 | (shifted & 0x1f)) + 63));
+            shifted >>= 5;
+        }
+        out.append((char) (shifted + 63));
+    }
+
+    private static int decodeValue(String encoded, int index, long[] result) {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = encoded.charAt(index++) - 63;
+            value |= (long) (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        result[0] = (value & 1) != 0 ? ~(value >> 1) : value >> 1;
+        return index;
+    }
+}
@@ -0,0 +1,123 @@
+package com.mustafa.guardianai.network;
+
+import android.util.Log;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+import com.mustafa.guardianai.data.model.Alert;
+import com.mustafa.guardianai.trace.Tracer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alert Service
+ * Writes alerts raised on the child device to the 'alerts' collection
+ */
+public class AlertService {
+    private static final String TAG = "AlertService";
+    private static final String COLLECTION_ALERTS = "alerts";
+
+    private final FirebaseFirestore firestore;
+    private final Tracer tracer = Tracer.getInstance();
+
+    public AlertService() {
+        this(FirebaseFirestore.getInstance());
+    }
+
+    // Non-default instance, e.g. one pointed at the emulator (PushLoadHarness)
+    public AlertService(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+    }
+
+    /**
+     * Pending repeat-count update for an alert that was already written
+     */
+    public static class CountUpdate {
+        private final String alertId;
+        private final int count;
+        private final long lastOccurredAt;
+
+        public CountUpdate(String alertId, int count, long lastOccurredAt) {
+            this.alertId = alertId;
+            this.count = count;
+            this.lastOccurredAt = lastOccurredAt;
+        }
+
+        public String getAlertId() {
+            return alertId;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getLastOccurredAt() {
+            return lastOccurredAt;
+        }
+    }
+
+    /**
+     * Write a new alert document
+     * @param alert Alert to write (alertId is used as the document ID)
+     * @return Call completing when the alert is stored
+     */
+    public ServiceCall<Void> createAlert(Alert alert) {
+        return ServiceCall.fromTask(tracer.track("alerts.create", firestore.collection(COLLECTION_ALERTS)
+                .document(alert.getAlertId())
+                .set(alert.toMap()), 0, 1, 0)
+                .addOnSuccessListener(aVoid -> {
+                    Log.d(TAG, "Alert created: " + alert.getType());
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to create alert: " + e.getMessage(), e)));
+    }
+
+    /**
+     * Update the repeat count of an alert
+     * Merged rather than updated, so a count that overtakes its alert does not fail
+     * @param alertId Alert document ID
+     * @param count Total number of occurrences merged into the alert
+     * @param lastOccurredAt Time of the latest occurrence
+     * @return Call completing when the count is stored
+     */
+    public ServiceCall<Void> updateOccurrences(String alertId, int count, long lastOccurredAt) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("count", count);
+        updates.put("lastOccurredAt", lastOccurredAt);
+
+        return ServiceCall.fromTask(tracer.track("alerts.updateCount", firestore.collection(COLLECTION_ALERTS)
+                .document(alertId)
+                .set(updates, SetOptions.merge()), 0, 1, 0)
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to update alert count: " + e.getMessage(), e)));
+    }
+
+    /**
+     * Write a digest of queued alerts and count updates in a single batch commit
+     * Every alert carries the digestId so the parent can be notified once per digest
+     * @param digestId Digest identifier
+     * @param alerts New alerts to create
+     * @param countUpdates Count updates for alerts written earlier
+     * @return Call completing when the batch is committed
+     */
+    public ServiceCall<Void> writeDigest(String digestId, List<Alert> alerts, List<CountUpdate> countUpdates) {
+        WriteBatch batch = firestore.batch();
+        for (Alert alert : alerts) {
+            Map<String, Object> data = alert.toMap();
+            data.put("digestId", digestId);
+            batch.set(firestore.collection(COLLECTION_ALERTS).document(alert.getAlertId()), data);
+        }
+        for (CountUpdate update : countUpdates) {
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("count", update.getCount());
+            updates.put("lastOccurredAt", update.getLastOccurredAt());
+            batch.set(firestore.collection(COLLECTION_ALERTS).document(update.getAlertId()), updates,
+                    SetOptions.merge());
+        }
+
+        return ServiceCall.fromTask(tracer.track("alerts.digest.write", batch.commit(), 0,
+                alerts.size() + countUpdates.size(), 0)
+                .addOnSuccessListener(aVoid -> Log.d(TAG, "Digest " + digestId + " written: "
+                        + alerts.size() + " alerts, " + countUpdates.size() + " count updates"))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to write alert digest: " + e.getMessage(), e)));
+    }
+}
@@ -10,6 +10,7 @@ import com.google.firebase.auth.UserProfileChangeRequest;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.mustafa.guardianai.data.model.User;
 import com.mustafa.guardianai.data.model.UserRole;
+import com.mustafa.guardianai.trace.Tracer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -18,10 +19,12 @@ import java.util.concurrent.ExecutionException;
 /**
  * Authentication service
  * Handles user authentication, registration, and email verification
+ * Auth and Firestore calls are traced (see Tracer).
  */
 public class AuthService {
     private final FirebaseAuth auth;
     private final FirebaseFirestore firestore;
+    private final Tracer tracer = Tracer.getInstance();
 
     public AuthService() {
         this.auth = FirebaseAuth.getInstance();
@@ -44,170 +47,125 @@ public class AuthService {
 
     /**
      * Register a new parent user
+     * The call completes as soon as the account exists; the user document is written in
+     * the background so the UI does not wait for it.
      * @param email User email
      * @param password User password
      * @param displayName Optional display name
-     * @param callback Callback for result
+     * @return Call completing with the new user's UID
      */
-    public void registerParent(String email, String password, String displayName, 
-                               AuthCallback callback) {
+    public ServiceCall<String> registerParent(String email, String password, String displayName) {
         // Verify Firebase is initialized
         try {
             com.google.firebase.FirebaseApp.getInstance();
         } catch (Exception e) {
-            callback.onFailure(new Exception("Firebase not initialized. Please check your configuration.", e));
-            return;
+            return ServiceCall.failure(new Exception("Firebase not initialized. Please check your configuration.", e));
         }
-        
-        auth.createUserWithEmailAndPassword(email, password)
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        FirebaseUser user = task.getResult().getUser();
-                        if (user == null) {
-                            callback.onFailure(new Exception("User creation failed"));
-                            return;
-                        }
 
-                        // Update display name if provided
-                        if (displayName != null && !displayName.trim().isEmpty()) {
-                            UserProfileChangeRequest profileUpdates = 
-                                    new UserProfileChangeRequest.Builder()
-                                    .setDisplayName(displayName)
-                                    .build();
-                            user.updateProfile(profileUpdates);
-                        }
-
-                        // Send email verification
-                        user.sendEmailVerification();
+        return ServiceCall.fromTask(tracer.track("auth.register", auth.createUserWithEmailAndPassword(email, password)))
+                .mapError(AuthService::describeAuthError)
+                .map(authResult -> {
+                    FirebaseUser user = authResult.getUser();
+                    if (user == null) {
+                        throw new Exception("User creation failed");
+                    }
 
-                        // Get device ID - use a Context from the activity/service that calls this
-                        // For now, we'll get it from the Firebase app context
-                        String deviceId = "unknown";
-                        try {
-                            deviceId = Settings.Secure.getString(
-                                    auth.getApp().getApplicationContext().getContentResolver(),
-                                    Settings.Secure.ANDROID_ID
-                            );
-                        } catch (Exception e) {
-                            // Fallback if device ID cannot be retrieved
-                            deviceId = java.util.UUID.randomUUID().toString();
-                        }
+                    // Update display name if provided
+                    if (displayName != null && !displayName.trim().isEmpty()) {
+                        UserProfileChangeRequest profileUpdates =
+                                new UserProfileChangeRequest.Builder()
+                                .setDisplayName(displayName)
+                                .build();
+                        user.updateProfile(profileUpdates);
+                    }
 
-                        // Call success callback immediately after user creation
-                        // This ensures UI updates quickly
-                        callback.onSuccess(user.getUid());
+                    // Send email verification
+                    user.sendEmailVerification();
 
-                        // Create user document in Firestore (in background)
-                        // This doesn't block the UI
-                        User userData = new User(
-                                user.getUid(),
-                                user.getEmail() != null ? user.getEmail() : email,
-                                displayName != null ? displayName : user.getDisplayName(),
-                                UserRole.PARENT,
-                                null,
-                                deviceId,
-                                false
+                    // Get device ID - use a Context from the activity/service that calls this
+                    // For now, we'll get it from the Firebase app context
+                    String deviceId = "unknown";
+                    try {
+                        deviceId = Settings.Secure.getString(
+                                auth.getApp().getApplicationContext().getContentResolver(),
+                                Settings.Secure.ANDROID_ID
                         );
-
-                        firestore.collection("users")
-                                .document(user.getUid())
-                                .set(userData)
-                                .addOnFailureListener(e -> {
-                                    // Log error but don't block UI
-                                    android.util.Log.e("AuthService", "Failed to save user data to Firestore: " + e.getMessage());
-                                });
-                    } else {
-                        Exception exception = task.getException();
-                        if (exception != null) {
-                            String errorMessage = exception.getMessage();
-                            // Provide more helpful error messages
-                            if (errorMessage != null && errorMessage.contains("CONFIGURATION_NOT_FOUND")) {
-                                callback.onFailure(new Exception(
-                                    "Firebase Authentication is not enabled. " +
-                                    "Please enable Email/Password authentication in Firebase Console: " +
-                                    "https://console.firebase.google.com/project/guardian-ai-edfa6/authentication/providers"
-                                ));
-                            } else {
-                                callback.onFailure(exception);
-                            }
-                        } else {
-                            callback.onFailure(new Exception("Unknown error during registration"));
-                        }
+                    } catch (Exception e) {
+                        // Fallback if device ID cannot be retrieved
+                        deviceId = java.util.UUID.randomUUID().toString();
                     }
+
+                    // Create user document in Firestore (in background)
+                    // This doesn't block the UI
+                    User userData = new User(
+                            user.getUid(),
+                            user.getEmail() != null ? user.getEmail() : email,
+                            displayName != null ? displayName : user.getDisplayName(),
+                            UserRole.PARENT,
+                            null,
+                            deviceId,
+                            false
+                    );
+
+                    tracer.track("users.create", firestore.collection("users")
+                            .document(user.getUid())
+                            .set(userData), 0, 1, 0)
+                            .addOnFailureListener(e -> {
+                                // Log error but don't block UI
+                                android.util.Log.e("AuthService", "Failed to save user data to Firestore: " + e.getMessage());
+                            });
+                    return user.getUid();
                 });
     }
 
     /**
      * Login with email and password
+     * Traced as one "auth.login" span covering sign-in plus the role lookup.
      * @param email User email
      * @param password User password
-     * @param callback Callback for result
+     * @return Call completing with the user's role
      */
-    public void login(String email, String password, LoginCallback callback) {
+    public ServiceCall<UserRole> login(String email, String password) {
         // Verify Firebase is initialized
         try {
             com.google.firebase.FirebaseApp.getInstance();
         } catch (Exception e) {
-            callback.onFailure(new Exception("Firebase not initialized. Please check your configuration.", e));
-            return;
+            return ServiceCall.failure(new Exception("Firebase not initialized. Please check your configuration.", e));
         }
-        
-        auth.signInWithEmailAndPassword(email, password)
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        FirebaseUser user = task.getResult().getUser();
-                        if (user == null) {
-                            callback.onFailure(new Exception("Login failed"));
-                            return;
-                        }
 
-                        // Get user data from Firestore to determine role
-                        firestore.collection("users")
-                                .document(user.getUid())
-                                .get()
-                                .addOnSuccessListener(documentSnapshot -> {
-                                    User userData = documentSnapshot.toObject(User.class);
-                                    if (userData == null || userData.getRole() == null) {
-                                        callback.onFailure(new Exception("User role not found"));
-                                        return;
-                                    }
-                                    callback.onSuccess(userData.getRole());
-                                })
-                                .addOnFailureListener(callback::onFailure);
-                    } else {
-                        Exception exception = task.getException();
-                        if (exception != null) {
-                            String errorMessage = exception.getMessage();
-                            // Provide more helpful error messages
-                            if (errorMessage != null && errorMessage.contains("CONFIGURATION_NOT_FOUND")) {
-                                callback.onFailure(new Exception(
-                                    "Firebase Authentication is not enabled. " +
-                                    "Please enable Email/Password authentication in Firebase Console: " +
-                                    "https://console.firebase.google.com/project/guardian-ai-edfa6/authentication/providers"
-                                ));
-                            } else {
-                                callback.onFailure(exception);
-                            }
-                        } else {
-                            callback.onFailure(new Exception("Unknown error during login"));
-                        }
+        return tracer.trace("auth.login", ServiceCall.fromTask(tracer.track("auth.signIn",
+                        auth.signInWithEmailAndPassword(email, password)))
+                .mapError(AuthService::describeAuthError)
+                .then(authResult -> {
+                    FirebaseUser user = authResult.getUser();
+                    if (user == null) {
+                        return ServiceCall.<UserRole>failure(new Exception("Login failed"));
                     }
-                });
+
+                    // Get user data from Firestore to determine role
+                    return ServiceCall.fromTask(tracer.track("users.get", firestore.collection("users")
+                                    .document(user.getUid())
+                                    .get()))
+                            .map(documentSnapshot -> {
+                                User userData = documentSnapshot.toObject(User.class);
+                                if (userData == null || userData.getRole() == null) {
+                                    throw new Exception("User role not found");
+                                }
+                                return userData.getRole();
+                            });
+                }));
     }
 
     /**
      * Send email verification
      */
-    public void sendEmailVerification(SimpleCallback callback) {
+    public ServiceCall<Void> sendEmailVerification() {
         FirebaseUser user = auth.getCurrentUser();
         if (user == null) {
-            callback.onFailure(new Exception("No user logged in"));
-            return;
+            return ServiceCall.failure(new Exception("No user logged in"));
         }
 
-        user.sendEmailVerification()
-                .addOnSuccessListener(aVoid -> callback.onSuccess())
-                .addOnFailureListener(callback::onFailure);
+        return ServiceCall.fromTask(user.sendEmailVerification());
     }
 
     /**
@@ -221,16 +179,13 @@ public class AuthService {
     /**
      * Reload user to get latest email verification status
      */
-    public void reloadUser(SimpleCallback callback) {
+    public ServiceCall<Void> reloadUser() {
         FirebaseUser user = auth.getCurrentUser();
         if (user == null) {
-            callback.onFailure(new Exception("No user logged in"));
-            return;
+            return ServiceCall.failure(new Exception("No user logged in"));
         }
 
-        user.reload()
-                .addOnSuccessListener(aVoid -> callback.onSuccess())
-                .addOnFailureListener(callback::onFailure);
+        return ServiceCall.fromTask(tracer.track("auth.reload", user.reload()));
     }
 
     /**
@@ -243,40 +198,29 @@ public class AuthService {
     /**
      * Get user data from Firestore
      */
-    public void getUserData(String uid, UserDataCallback callback) {
-        firestore.collection("users")
-                .document(uid)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
+    public ServiceCall<User> getUserData(String uid) {
+        return ServiceCall.fromTask(tracer.track("users.get", firestore.collection("users")
+                        .document(uid)
+                        .get()))
+                .map(documentSnapshot -> {
                     User user = documentSnapshot.toObject(User.class);
                     if (user == null) {
-                        callback.onFailure(new Exception("User data not found"));
-                        return;
+                        throw new Exception("User data not found");
                     }
-                    callback.onSuccess(user);
-                })
-                .addOnFailureListener(callback::onFailure);
-    }
-
-    // Callback interfaces
-    public interface AuthCallback {
-        void onSuccess(String uid);
-        void onFailure(Exception exception);
-    }
-
-    public interface LoginCallback {
-        void onSuccess(UserRole role);
-        void onFailure(Exception exception);
-    }
-
-    public interface SimpleCallback {
-        void onSuccess();
-        void onFailure(Exception exception);
+                    return user;
+                });
     }
 
-    public interface UserDataCallback {
-        void onSuccess(User user);
-        void onFailure(Exception exception);
+    // Provide more helpful error messages for sign-in/sign-up failures
+    private static Exception describeAuthError(Exception exception) {
+        String errorMessage = exception.getMessage();
+        if (errorMessage != null && errorMessage.contains("CONFIGURATION_NOT_FOUND")) {
+            return new Exception(
+                "Firebase Authentication is not enabled. " +
+                "Please enable Email/Password authentication in Firebase Console: " +
+                "https://console.firebase.google.com/project/guardian-ai-edfa6/authentication/providers"
+            );
+        }
+        return exception;
     }
 }
-
@@ -0,0 +1,114 @@
+package com.mustafa.guardianai.network;
+
+import com.google.firebase.firestore.ListenerRegistration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Call Scope
+ * Cancellation token for the service calls and listeners owned by a ViewModel or view
+ *
+ * Calls leave the scope when they complete. cancel() cancels the pending calls (dropping
+ * their callbacks and skipping result parsing) and removes the listeners; the scope then
+ * stays closed and anything tracked afterwards is cancelled immediately.
+ */
+public final class CallScope {
+    private final Set<ServiceCall<?>> calls = new LinkedHashSet<>();
+    private final Map<String, ServiceCall<?>> keyedCalls = new HashMap<>();
+    private final List<ListenerRegistration> listeners = new ArrayList<>();
+    private boolean cancelled = false;
+
+    /**
+     * Cancel the call together with the scope
+     */
+    public <T> ServiceCall<T> track(ServiceCall<T> call) {
+        boolean closed;
+        synchronized (this) {
+            closed = cancelled;
+            if (!closed) {
+                calls.add(call);
+            }
+        }
+        if (closed) {
+            call.cancel();
+            return call;
+        }
+        call.observe(result -> untrack(call), exception -> untrack(call));
+        call.onCancel(() -> untrack(call));
+        return call;
+    }
+
+    /**
+     * Track a call that supersedes the pending call with the same key, e.g. a reload
+     */
+    public <T> ServiceCall<T> track(String key, ServiceCall<T> call) {
+        ServiceCall<?> previous;
+        synchronized (this) {
+            previous = cancelled ? null : keyedCalls.put(key, call);
+        }
+        if (previous != null && previous != call) {
+            previous.cancel();
+        }
+        return track(call);
+    }
+
+    /**
+     * Remove the listener together with the scope
+     */
+    public ListenerRegistration track(ListenerRegistration registration) {
+        synchronized (this) {
+            if (!cancelled) {
+                listeners.add(registration);
+                return registration;
+            }
+        }
+        registration.remove();
+        return registration;
+    }
+
+    /**
+     * Cancel all pending calls and remove all listeners; the scope cannot be reused
+     */
+    public void cancel() {
+        List<ServiceCall<?>> pending;
+        List<ListenerRegistration> registrations;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            pending = new ArrayList<>(calls);
+            registrations = new ArrayList<>(listeners);
+            calls.clear();
+            keyedCalls.clear();
+            listeners.clear();
+        }
+        // Outside the lock: cancel hooks may call back into untrack
+        for (ServiceCall<?> call : pending) {
+            call.cancel();
+        }
+        for (ListenerRegistration registration : registrations) {
+            registration.remove();
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Number of calls still pending (for diagnostics)
+     */
+    public synchronized int getPendingCount() {
+        return calls.size();
+    }
+
+    private synchronized void untrack(ServiceCall<?> call) {
+        calls.remove(call);
+        keyedCalls.values().remove(call);
+    }
+}
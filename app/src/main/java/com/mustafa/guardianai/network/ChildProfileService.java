@@ -5,6 +5,7 @@ import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.mustafa.guardianai.data.model.ChildProfile;
+import com.mustafa.guardianai.trace.Tracer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -12,6 +13,7 @@ import java.util.UUID;
 /**
  * Child Profile Service
  * Handles CRUD operations for child profiles in Firestore
+ * Every Firestore call is traced (see Tracer).
  */
 public class ChildProfileService {
     private static final String TAG = "ChildProfileService";
@@ -19,33 +21,15 @@ public class ChildProfileService {
     private static final String COLLECTION_DEVICE_PAIRS = "device_pairs";
     
     private final FirebaseFirestore firestore;
+    private final Tracer tracer = Tracer.getInstance();
 
     public ChildProfileService() {
-        this.firestore = FirebaseFirestore.getInstance();
+        this(FirebaseFirestore.getInstance());
     }
 
-    /**
-     * Callback interface for child profile operations
-     */
-    public interface ChildProfileCallback {
-        void onSuccess(ChildProfile profile);
-        void onFailure(Exception exception);
-    }
-
-    /**
-     * Callback interface for list operations
-     */
-    public interface ChildProfileListCallback {
-        void onSuccess(List<ChildProfile> profiles);
-        void onFailure(Exception exception);
-    }
-
-    /**
-     * Callback interface for simple operations
-     */
-    public interface SimpleCallback {
-        void onSuccess();
-        void onFailure(Exception exception);
+    // Non-default instance, e.g. one pointed at the emulator (FirestoreLoadHarness)
+    ChildProfileService(FirebaseFirestore firestore) {
+        this.firestore = firestore;
     }
 
     /**
@@ -56,100 +40,78 @@ public class ChildProfileService {
      * @param age Child's age
      * @param deviceName Device name (e.g., "iPhone 13")
      * @param deviceType Device type ("iOS" or "Android")
-     * @param callback Callback for result
+     * @return Call completing with the stored profile
      */
-    public void createChildProfile(String parentUid, String childUid, String name, int age,
-                                   String deviceName, String deviceType, ChildProfileCallback callback) {
-        try {
-            String profileId = UUID.randomUUID().toString();
-            ChildProfile profile = new ChildProfile(profileId, childUid, parentUid, name, age);
-            profile.setDeviceName(deviceName);
-            profile.setDeviceType(deviceType);
-            profile.setUpdatedAt(System.currentTimeMillis());
+    public ServiceCall<ChildProfile> createChildProfile(String parentUid, String childUid, String name, int age,
+                                                        String deviceName, String deviceType) {
+        String profileId = UUID.randomUUID().toString();
+        ChildProfile profile = new ChildProfile(profileId, childUid, parentUid, name, age);
+        profile.setDeviceName(deviceName);
+        profile.setDeviceType(deviceType);
+        profile.setUpdatedAt(System.currentTimeMillis());
 
-            firestore.collection(COLLECTION_CHILD_PROFILES)
-                    .document(profileId)
-                    .set(profile.toMap())
-                    .addOnSuccessListener(aVoid -> {
-                        Log.d(TAG, "Child profile created: " + profileId);
-                        callback.onSuccess(profile);
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Failed to create child profile: " + e.getMessage(), e);
-                        callback.onFailure(e);
-                    });
-        } catch (Exception e) {
-            Log.e(TAG, "Error creating child profile: " + e.getMessage(), e);
-            callback.onFailure(e);
-        }
+        return ServiceCall.fromTask(tracer.track("profiles.create", firestore.collection(COLLECTION_CHILD_PROFILES)
+                        .document(profileId)
+                        .set(profile.toMap()), 0, 1, 0)
+                        .addOnFailureListener(e ->
+                                Log.e(TAG, "Failed to create child profile: " + e.getMessage(), e)))
+                .map(aVoid -> {
+                    Log.d(TAG, "Child profile created: " + profileId);
+                    return profile;
+                });
     }
 
     /**
      * Get a child profile by profile ID
      * @param profileId Profile ID
-     * @param callback Callback for result
+     * @return Call completing with the profile
      */
-    public void getChildProfile(String profileId, ChildProfileCallback callback) {
-        firestore.collection(COLLECTION_CHILD_PROFILES)
-                .document(profileId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        ChildProfile profile = documentToChildProfile(documentSnapshot);
-                        if (profile != null) {
-                            callback.onSuccess(profile);
-                        } else {
-                            callback.onFailure(new Exception("Failed to parse child profile"));
-                        }
-                    } else {
-                        callback.onFailure(new Exception("Child profile not found"));
+    public ServiceCall<ChildProfile> getChildProfile(String profileId) {
+        return ServiceCall.fromTask(tracer.track("profiles.get", firestore.collection(COLLECTION_CHILD_PROFILES)
+                        .document(profileId)
+                        .get())
+                        .addOnFailureListener(e ->
+                                Log.e(TAG, "Failed to get child profile: " + e.getMessage(), e)))
+                .map(documentSnapshot -> {
+                    if (!documentSnapshot.exists()) {
+                        throw new Exception("Child profile not found");
                     }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to get child profile: " + e.getMessage(), e);
-                    callback.onFailure(e);
+                    return requireProfile(documentSnapshot);
                 });
     }
 
     /**
      * Get a child profile by child UID
      * @param childUid Child's Firebase UID
-     * @param callback Callback for result
+     * @return Call completing with the profile
      */
-    public void getChildProfileByUid(String childUid, ChildProfileCallback callback) {
-        firestore.collection(COLLECTION_CHILD_PROFILES)
-                .whereEqualTo("childUid", childUid)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (!querySnapshot.isEmpty()) {
-                        DocumentSnapshot doc = querySnapshot.getDocuments().get(0);
-                        ChildProfile profile = documentToChildProfile(doc);
-                        if (profile != null) {
-                            callback.onSuccess(profile);
-                        } else {
-                            callback.onFailure(new Exception("Failed to parse child profile"));
-                        }
-                    } else {
-                        callback.onFailure(new Exception("Child profile not found"));
+    public ServiceCall<ChildProfile> getChildProfileByUid(String childUid) {
+        return ServiceCall.fromTask(tracer.track("profiles.byChild.query", firestore.collection(COLLECTION_CHILD_PROFILES)
+                        .whereEqualTo("childUid", childUid)
+                        .limit(1)
+                        .get())
+                        .addOnFailureListener(e ->
+                                Log.e(TAG, "Failed to get child profile by UID: " + e.getMessage(), e)))
+                .map(querySnapshot -> {
+                    if (querySnapshot.isEmpty()) {
+                        throw new Exception("Child profile not found");
                     }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to get child profile by UID: " + e.getMessage(), e);
-                    callback.onFailure(e);
+                    return requireProfile(querySnapshot.getDocuments().get(0));
                 });
     }
 
     /**
      * Get all child profiles for a parent
      * @param parentUid Parent's Firebase UID
-     * @param callback Callback for result
+     * @return Call completing with the profiles
      */
-    public void getChildProfilesByParent(String parentUid, ChildProfileListCallback callback) {
-        firestore.collection(COLLECTION_CHILD_PROFILES)
-                .whereEqualTo("parentUid", parentUid)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
+    public ServiceCall<List<ChildProfile>> getChildProfilesByParent(String parentUid) {
+        return ServiceCall.fromTask(tracer.track("profiles.byParent.query", firestore.collection(COLLECTION_CHILD_PROFILES)
+                        .whereEqualTo("parentUid", parentUid)
+                        .get())
+                        .addOnFailureListener(e ->
+                                Log.e(TAG, "Failed to get child profiles: " + e.getMessage(), e)))
+                .map(querySnapshot -> {
                     List<ChildProfile> profiles = new ArrayList<>();
                     for (QueryDocumentSnapshot document : querySnapshot) {
                         ChildProfile profile = documentToChildProfile(document);
@@ -158,126 +120,98 @@ public class ChildProfileService {
                         }
                     }
                     Log.d(TAG, "Retrieved " + profiles.size() + " child profiles for parent: " + parentUid);
-                    callback.onSuccess(profiles);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to get child profiles: " + e.getMessage(), e);
-                    callback.onFailure(e);
+                    return profiles;
                 });
     }
 
+    private ChildProfile requireProfile(DocumentSnapshot document) throws Exception {
+        ChildProfile profile = documentToChildProfile(document);
+        if (profile == null) {
+            throw new Exception("Failed to parse child profile");
+        }
+        return profile;
+    }
+
     /**
      * Update a child profile
      * @param profile Updated child profile
-     * @param callback Callback for result
+     * @return Call completing when the profile is stored
      */
-    public void updateChildProfile(ChildProfile profile, SimpleCallback callback) {
+    public ServiceCall<Void> updateChildProfile(ChildProfile profile) {
         if (profile.getProfileId() == null || profile.getProfileId().isEmpty()) {
-            callback.onFailure(new Exception("Profile ID is required"));
-            return;
+            return ServiceCall.failure(new Exception("Profile ID is required"));
         }
 
         profile.setUpdatedAt(System.currentTimeMillis());
 
-        firestore.collection(COLLECTION_CHILD_PROFILES)
+        return ServiceCall.fromTask(tracer.track("profiles.update", firestore.collection(COLLECTION_CHILD_PROFILES)
                 .document(profile.getProfileId())
-                .set(profile.toMap())
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Child profile updated: " + profile.getProfileId());
-                    callback.onSuccess();
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to update child profile: " + e.getMessage(), e);
-                    callback.onFailure(e);
-                });
+                .set(profile.toMap()), 0, 1, 0)
+                .addOnSuccessListener(aVoid -> Log.d(TAG, "Child profile updated: " + profile.getProfileId()))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to update child profile: " + e.getMessage(), e)));
     }
 
     /**
      * Delete a child profile
      * Also deletes associated device pairs
      * @param profileId Profile ID to delete
-     * @param callback Callback for result
+     * @return Call completing once the profile is deleted (pair cleanup is best effort)
      */
-    public void deleteChildProfile(String profileId, SimpleCallback callback) {
+    public ServiceCall<Void> deleteChildProfile(String profileId) {
         // First, get the profile to find childUid
-        firestore.collection(COLLECTION_CHILD_PROFILES)
-                .document(profileId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        String childUid = documentSnapshot.getString("childUid");
-                        
-                        // Delete the profile
-                        firestore.collection(COLLECTION_CHILD_PROFILES)
-                                .document(profileId)
-                                .delete()
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d(TAG, "Child profile deleted: " + profileId);
-                                    
-                                    // Delete associated device pairs
-                                    if (childUid != null && !childUid.isEmpty()) {
-                                        deleteDevicePairs(childUid, callback);
-                                    } else {
-                                        callback.onSuccess();
-                                    }
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e(TAG, "Failed to delete child profile: " + e.getMessage(), e);
-                                    callback.onFailure(e);
-                                });
-                    } else {
-                        callback.onFailure(new Exception("Child profile not found"));
+        return ServiceCall.fromTask(tracer.track("profiles.delete.read", firestore.collection(COLLECTION_CHILD_PROFILES)
+                        .document(profileId)
+                        .get())
+                        .addOnFailureListener(e ->
+                                Log.e(TAG, "Failed to get child profile for deletion: " + e.getMessage(), e)))
+                .then(documentSnapshot -> {
+                    if (!documentSnapshot.exists()) {
+                        return ServiceCall.<Void>failure(new Exception("Child profile not found"));
                     }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to get child profile for deletion: " + e.getMessage(), e);
-                    callback.onFailure(e);
+                    String childUid = documentSnapshot.getString("childUid");
+
+                    // Delete the profile, then the associated device pairs
+                    return ServiceCall.fromTask(tracer.track("profiles.delete", firestore.collection(COLLECTION_CHILD_PROFILES)
+                                    .document(profileId)
+                                    .delete(), 0, 0, 1)
+                                    .addOnSuccessListener(aVoid -> Log.d(TAG, "Child profile deleted: " + profileId))
+                                    .addOnFailureListener(e ->
+                                            Log.e(TAG, "Failed to delete child profile: " + e.getMessage(), e)))
+                            .then(aVoid -> childUid != null && !childUid.isEmpty()
+                                    ? deleteDevicePairs(childUid)
+                                    : ServiceCall.<Void>success(null));
                 });
     }
 
     /**
      * Delete device pairs associated with a child UID
+     * Failures are logged and swallowed; the profile is already gone at this point.
      * @param childUid Child's Firebase UID
-     * @param callback Callback for result
      */
-    private void deleteDevicePairs(String childUid, SimpleCallback callback) {
-        firestore.collection(COLLECTION_DEVICE_PAIRS)
-                .whereEqualTo("childUid", childUid)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (querySnapshot.isEmpty()) {
-                        callback.onSuccess();
-                        return;
-                    }
-
-                    // Delete all pairs
-                    int totalPairs = querySnapshot.size();
-                    final int[] deletedCount = {0};
-                    
+    private ServiceCall<Void> deleteDevicePairs(String childUid) {
+        return ServiceCall.fromTask(tracer.track("pairs.byChild.query", firestore.collection(COLLECTION_DEVICE_PAIRS)
+                        .whereEqualTo("childUid", childUid)
+                        .get()))
+                .then(querySnapshot -> {
+                    // Delete all pairs; one failing does not stop the others
+                    List<ServiceCall<Void>> deletes = new ArrayList<>();
                     for (QueryDocumentSnapshot document : querySnapshot) {
-                        document.getReference()
-                                .delete()
-                                .addOnSuccessListener(aVoid -> {
-                                    deletedCount[0]++;
-                                    if (deletedCount[0] == totalPairs) {
-                                        Log.d(TAG, "Deleted " + totalPairs + " device pairs for child: " + childUid);
-                                        callback.onSuccess();
-                                    }
-                                })
-                                .addOnFailureListener(e -> {
+                        deletes.add(ServiceCall.fromTask(tracer.track("pairs.delete", document.getReference()
+                                        .delete(), 0, 0, 1))
+                                .recover(e -> {
                                     Log.e(TAG, "Failed to delete device pair: " + e.getMessage(), e);
-                                    // Continue deleting others even if one fails
-                                    deletedCount[0]++;
-                                    if (deletedCount[0] == totalPairs) {
-                                        callback.onSuccess(); // Still call success if most are deleted
-                                    }
-                                });
+                                    return null;
+                                }));
                     }
+                    return ServiceCall.all(deletes).map(done -> {
+                        Log.d(TAG, "Deleted " + done.size() + " device pairs for child: " + childUid);
+                        return (Void) null;
+                    });
                 })
-                .addOnFailureListener(e -> {
+                .recover(e -> {
                     Log.e(TAG, "Failed to query device pairs: " + e.getMessage(), e);
                     // Don't fail the whole operation if we can't delete pairs
-                    callback.onSuccess();
+                    return null;
                 });
     }
 
@@ -358,7 +292,7 @@ public class ChildProfileService {
  * - Updating existing child profiles.
  * - Deleting a child profile, and on deletion, also removing any device-pair documents associated with that child.
  * 
- * It uses callback interfaces (ChildProfileCallback, ChildProfileListCallback, and SimpleCallback) to notify callers of asynchronous success or failure results for database operations.
+ * Every operation returns a ServiceCall that completes with the result or the failure of the underlying Firestore calls.
  *
  * Parsing between Firestore DocumentSnapshot objects and ChildProfile instances is handled by a helper method within the class.
  *
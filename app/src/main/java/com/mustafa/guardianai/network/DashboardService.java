@@ -4,14 +4,21 @@ import android.util.Log;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 import com.mustafa.guardianai.data.model.Alert;
 import com.mustafa.guardianai.data.model.ChildProfile;
 import com.mustafa.guardianai.data.model.DashboardSummary;
+import com.mustafa.guardianai.trace.Tracer;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Dashboard Service
  * Handles fetching and aggregating dashboard data
+ *
+ * One-shot Firestore calls are traced (see Tracer); snapshot listener deliveries are only metered.
  */
 public class DashboardService {
     private static final String TAG = "DashboardService";
@@ -20,147 +27,125 @@ public class DashboardService {
     private static final String COLLECTION_ALERTS = "alerts";
     
     private final FirebaseFirestore firestore;
+    private final Tracer tracer = Tracer.getInstance();
 
     public DashboardService() {
-        this.firestore = FirebaseFirestore.getInstance();
+        this(FirebaseFirestore.getInstance());
     }
 
-    /**
-     * Callback interface for dashboard summary
-     */
-    public interface DashboardSummaryCallback {
-        void onSuccess(DashboardSummary summary);
-        void onFailure(Exception exception);
-    }
-
-    /**
-     * Callback interface for alerts
-     */
-    public interface AlertsCallback {
-        void onSuccess(List<Alert> alerts);
-        void onFailure(Exception exception);
+    // Non-default instance, e.g. one pointed at the emulator (FirestoreLoadHarness)
+    DashboardService(FirebaseFirestore firestore) {
+        this.firestore = firestore;
     }
 
     /**
      * Get or create dashboard summary for a parent
      * @param parentUid Parent's Firebase UID
-     * @param callback Callback for result
+     * @return Call completing with the summary
      */
-    public void getDashboardSummary(String parentUid, DashboardSummaryCallback callback) {
-        firestore.collection(COLLECTION_DASHBOARD_SUMMARIES)
-                .document(parentUid)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        DashboardSummary summary = documentToDashboardSummary(documentSnapshot);
-                        if (summary != null) {
-                            callback.onSuccess(summary);
-                        } else {
-                            // If parsing fails, create a new summary
-                            createDefaultSummary(parentUid, callback);
-                        }
-                    } else {
-                        // Create default summary if it doesn't exist
-                        createDefaultSummary(parentUid, callback);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to get dashboard summary: " + e.getMessage(), e);
-                    callback.onFailure(e);
-                });
+    public ServiceCall<DashboardSummary> getDashboardSummary(String parentUid) {
+        return tracer.trace("dashboard.summary", ServiceCall.fromTask(tracer.track("dashboard.summary.read",
+                        firestore.collection(COLLECTION_DASHBOARD_SUMMARIES)
+                                .document(parentUid)
+                                .get())
+                        .addOnFailureListener(e ->
+                                Log.e(TAG, "Failed to get dashboard summary: " + e.getMessage(), e)))
+                .then(documentSnapshot -> {
+                    DashboardSummary summary = documentSnapshot.exists()
+                            ? documentToDashboardSummary(documentSnapshot) : null;
+                    // Create a default summary if it doesn't exist or parsing fails
+                    return summary != null ? ServiceCall.success(summary) : createDefaultSummary(parentUid);
+                }));
     }
 
     /**
      * Create a default dashboard summary
      * @param parentUid Parent's Firebase UID
-     * @param callback Callback for result
      */
-    private void createDefaultSummary(String parentUid, DashboardSummaryCallback callback) {
+    private ServiceCall<DashboardSummary> createDefaultSummary(String parentUid) {
         DashboardSummary summary = new DashboardSummary(parentUid);
         
         // Calculate summary from child profiles and alerts
-        calculateSummaryFromData(parentUid, summary, callback);
+        return calculateSummaryFromData(parentUid, summary);
     }
 
     /**
      * Calculate summary by aggregating data from child profiles and alerts
+     * The two queries are independent and run concurrently; if either fails, the summary
+     * is still saved with default values for that part.
      * @param parentUid Parent's Firebase UID
      * @param summary Dashboard summary to update
-     * @param callback Callback for result
      */
-    private void calculateSummaryFromData(String parentUid, DashboardSummary summary, 
-                                          DashboardSummaryCallback callback) {
-        // Get child profiles count
-        firestore.collection(COLLECTION_CHILD_PROFILES)
-                .whereEqualTo("parentUid", parentUid)
-                .get()
-                .addOnSuccessListener(profilesSnapshot -> {
-                    int deviceCount = profilesSnapshot.size();
-                    summary.setTotalDevices(deviceCount);
-                    
-                    // Calculate total screen time
-                    long totalScreenTime = 0;
-                    for (com.google.firebase.firestore.QueryDocumentSnapshot doc : profilesSnapshot) {
-                        Long screenTime = doc.getLong("screenTimeToday");
-                        if (screenTime != null) {
-                            totalScreenTime += screenTime;
-                        }
-                    }
-                    summary.setTotalScreenTime(totalScreenTime);
-                    
-                    // Get alerts count
-                    firestore.collection(COLLECTION_ALERTS)
-                            .whereEqualTo("parentUid", parentUid)
-                            .get()
-                            .addOnSuccessListener(alertsSnapshot -> {
-                                int totalAlerts = alertsSnapshot.size();
-                                summary.setTotalAlerts(totalAlerts);
-                                
-                                // Count unread alerts
-                                int unreadCount = 0;
-                                for (com.google.firebase.firestore.QueryDocumentSnapshot doc : alertsSnapshot) {
-                                    Boolean isRead = doc.getBoolean("isRead");
-                                    if (isRead != null && !isRead) {
-                                        unreadCount++;
-                                    }
-                                }
-                                summary.setUnreadAlerts(unreadCount);
-                                
-                                // Save summary to Firestore
-                                saveSummary(summary, callback);
-                            })
-                            .addOnFailureListener(e -> {
-                                Log.e(TAG, "Failed to get alerts: " + e.getMessage(), e);
-                                // Still return summary even if alerts fail
-                                saveSummary(summary, callback);
-                            });
-                })
-                .addOnFailureListener(e -> {
+    private ServiceCall<DashboardSummary> calculateSummaryFromData(String parentUid, DashboardSummary summary) {
+        ServiceCall<QuerySnapshot> profiles = ServiceCall.fromTask(tracer.track("dashboard.profiles.query",
+                        firestore.collection(COLLECTION_CHILD_PROFILES)
+                                .whereEqualTo("parentUid", parentUid)
+                                .get()))
+                .recover(e -> {
                     Log.e(TAG, "Failed to get child profiles: " + e.getMessage(), e);
-                    // Still return summary with default values
-                    saveSummary(summary, callback);
+                    return null;
                 });
+        ServiceCall<QuerySnapshot> alerts = ServiceCall.fromTask(tracer.track("dashboard.alerts.query",
+                        firestore.collection(COLLECTION_ALERTS)
+                                .whereEqualTo("parentUid", parentUid)
+                                .get()))
+                .recover(e -> {
+                    Log.e(TAG, "Failed to get alerts: " + e.getMessage(), e);
+                    return null;
+                });
+
+        return ServiceCall.both(profiles, alerts, (profilesSnapshot, alertsSnapshot) -> {
+            if (profilesSnapshot != null) {
+                summary.setTotalDevices(profilesSnapshot.size());
+                
+                // Calculate total screen time
+                long totalScreenTime = 0;
+                for (QueryDocumentSnapshot doc : profilesSnapshot) {
+                    Long screenTime = doc.getLong("screenTimeToday");
+                    if (screenTime != null) {
+                        totalScreenTime += screenTime;
+                    }
+                }
+                summary.setTotalScreenTime(totalScreenTime);
+            }
+
+            if (alertsSnapshot != null) {
+                summary.setTotalAlerts(alertsSnapshot.size());
+                
+                // Count unread alerts
+                int unreadCount = 0;
+                for (QueryDocumentSnapshot doc : alertsSnapshot) {
+                    Boolean isRead = doc.getBoolean("isRead");
+                    if (isRead != null && !isRead) {
+                        unreadCount++;
+                    }
+                }
+                summary.setUnreadAlerts(unreadCount);
+            }
+            return summary;
+        }).then(this::saveSummary);
     }
 
     /**
      * Save dashboard summary to Firestore
      * @param summary Dashboard summary to save
-     * @param callback Callback for result
+     * @return Call completing with the summary, even if the save fails
      */
-    private void saveSummary(DashboardSummary summary, DashboardSummaryCallback callback) {
+    private ServiceCall<DashboardSummary> saveSummary(DashboardSummary summary) {
         summary.setLastUpdated(System.currentTimeMillis());
         
-        firestore.collection(COLLECTION_DASHBOARD_SUMMARIES)
-                .document(summary.getParentUid())
-                .set(summary.toMap())
-                .addOnSuccessListener(aVoid -> {
+        return ServiceCall.fromTask(tracer.track("dashboard.summary.write",
+                        firestore.collection(COLLECTION_DASHBOARD_SUMMARIES)
+                                .document(summary.getParentUid())
+                                .set(summary.toMap()), 0, 1, 0))
+                .map(aVoid -> {
                     Log.d(TAG, "Dashboard summary saved for: " + summary.getParentUid());
-                    callback.onSuccess(summary);
+                    return summary;
                 })
-                .addOnFailureListener(e -> {
+                .recover(e -> {
                     Log.e(TAG, "Failed to save dashboard summary: " + e.getMessage(), e);
                     // Still return summary even if save fails
-                    callback.onSuccess(summary);
+                    return summary;
                 });
     }
 
@@ -171,7 +156,7 @@ public class DashboardService {
      * @return ListenerRegistration to remove listener later
      */
     public ListenerRegistration listenToDashboardSummary(String parentUid, 
-                                                         DashboardSummaryCallback callback) {
+                                                         ServiceCall.Callback<DashboardSummary> callback) {
         return firestore.collection(COLLECTION_DASHBOARD_SUMMARIES)
                 .document(parentUid)
                 .addSnapshotListener((documentSnapshot, e) -> {
@@ -181,6 +166,7 @@ public class DashboardService {
                         return;
                     }
 
+                    tracer.trackSnapshot("dashboard.summary.listen", documentSnapshot);
                     if (documentSnapshot != null && documentSnapshot.exists()) {
                         DashboardSummary summary = documentToDashboardSummary(documentSnapshot);
                         if (summary != null) {
@@ -197,7 +183,7 @@ public class DashboardService {
      * @return ListenerRegistration to remove listener later
      */
     public ListenerRegistration listenToChildProfiles(String parentUid,
-                                                       com.mustafa.guardianai.network.ChildProfileService.ChildProfileListCallback callback) {
+                                                       ServiceCall.Callback<java.util.List<ChildProfile>> callback) {
         return firestore.collection(COLLECTION_CHILD_PROFILES)
                 .whereEqualTo("parentUid", parentUid)
                 .addSnapshotListener((querySnapshot, e) -> {
@@ -207,6 +193,7 @@ public class DashboardService {
                         return;
                     }
 
+                    tracer.trackSnapshot("dashboard.profiles.listen", querySnapshot);
                     if (querySnapshot != null) {
                         java.util.List<ChildProfile> profiles = new java.util.ArrayList<>();
                         for (com.google.firebase.firestore.QueryDocumentSnapshot document : querySnapshot) {
@@ -223,55 +210,41 @@ public class DashboardService {
     /**
      * Get unread alerts for a parent
      * @param parentUid Parent's Firebase UID
-     * @param callback Callback for result
+     * @return Call completing with up to 10 alerts, newest first
      */
-    public void getUnreadAlerts(String parentUid, AlertsCallback callback) {
-        firestore.collection(COLLECTION_ALERTS)
+    public ServiceCall<List<Alert>> getUnreadAlerts(String parentUid) {
+        return queryAlerts("alerts.unread.query", firestore.collection(COLLECTION_ALERTS)
                 .whereEqualTo("parentUid", parentUid)
                 .whereEqualTo("isRead", false)
-                .orderBy("createdAt", com.google.firebase.firestore.Query.Direction.DESCENDING)
-                .limit(10)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    java.util.List<Alert> alerts = new java.util.ArrayList<>();
-                    for (com.google.firebase.firestore.QueryDocumentSnapshot document : querySnapshot) {
-                        Alert alert = documentToAlert(document);
-                        if (alert != null) {
-                            alerts.add(alert);
-                        }
-                    }
-                    callback.onSuccess(alerts);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to get alerts: " + e.getMessage(), e);
-                    callback.onFailure(e);
-                });
+                .orderBy("createdAt", Query.Direction.DESCENDING)
+                .limit(10));
     }
 
     /**
      * Get all alerts for a parent
      * @param parentUid Parent's Firebase UID
-     * @param callback Callback for result
+     * @return Call completing with up to 50 alerts, newest first
      */
-    public void getAllAlerts(String parentUid, AlertsCallback callback) {
-        firestore.collection(COLLECTION_ALERTS)
+    public ServiceCall<List<Alert>> getAllAlerts(String parentUid) {
+        return queryAlerts("alerts.all.query", firestore.collection(COLLECTION_ALERTS)
                 .whereEqualTo("parentUid", parentUid)
-                .orderBy("createdAt", com.google.firebase.firestore.Query.Direction.DESCENDING)
-                .limit(50)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    java.util.List<Alert> alerts = new java.util.ArrayList<>();
-                    for (com.google.firebase.firestore.QueryDocumentSnapshot document : querySnapshot) {
+                .orderBy("createdAt", Query.Direction.DESCENDING)
+                .limit(50));
+    }
+
+    // Parsing is skipped if the call is cancelled before the snapshot arrives
+    private ServiceCall<List<Alert>> queryAlerts(String operation, Query query) {
+        return ServiceCall.fromTask(tracer.track(operation, query.get())
+                        .addOnFailureListener(e -> Log.e(TAG, "Failed to get alerts: " + e.getMessage(), e)))
+                .map(querySnapshot -> {
+                    List<Alert> alerts = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : querySnapshot) {
                         Alert alert = documentToAlert(document);
                         if (alert != null) {
                             alerts.add(alert);
                         }
                     }
-                    callback.onSuccess(alerts);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to get alerts: " + e.getMessage(), e);
-                    callback.onFailure(e);
+                    return alerts;
                 });
     }
 
@@ -423,6 +396,18 @@ public class DashboardService {
                 alert.setResolvedAt(resolvedAt);
             }
             
+            alert.setDedupKey(document.getString("dedupKey"));
+            
+            Long count = document.getLong("count");
+            if (count != null) {
+                alert.setCount(count.intValue());
+            }
+            
+            Long lastOccurredAt = document.getLong("lastOccurredAt");
+            if (lastOccurredAt != null) {
+                alert.setLastOccurredAt(lastOccurredAt);
+            }
+            
             return alert;
         } catch (Exception e) {
             Log.e(TAG, "Error parsing alert: " + e.getMessage(), e);
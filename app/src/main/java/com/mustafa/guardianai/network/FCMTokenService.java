@@ -1,16 +1,23 @@
 package com.mustafa.guardianai.network;
 
+import android.content.Context;
+import android.os.Build;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
 import com.google.firebase.messaging.FirebaseMessaging;
+import com.mustafa.guardianai.data.repository.TokenStateStore;
+import com.mustafa.guardianai.trace.Tracer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * FCM Token Service
@@ -18,21 +25,31 @@ import java.util.Map;
  * 
  * This service:
  * - Retrieves FCM token from Firebase
- * - Stores token in Firestore linked to user UID
- * - Updates token when it refreshes
- * 
- * Note: Notification logic will be implemented in future modules
+ * - Stores token in Firestore linked to user UID, one document per device:
+ *   fcm_tokens/{uid}/devices/{deviceId}
+ * - Updates token when it refreshes (via GuardianMessagingService)
+ * - Skips the write when the token is unchanged since the last successful write
  */
 public class FCMTokenService {
     private static final String TAG = "FCMTokenService";
     private static final String COLLECTION_TOKENS = "fcm_tokens";
+    private static final String SUBCOLLECTION_DEVICES = "devices";
+    // How long logout waits for the token delete before signing out anyway
+    public static final long LOGOUT_TIMEOUT_MILLIS = 5000;
+
+    // Hash of the write currently in flight; initializeToken (main thread) and onNewToken
+    // (messaging service thread) can race at login
+    private final AtomicReference<String> inFlightHash = new AtomicReference<>();
     
     private final FirebaseFirestore firestore;
     private final FirebaseAuth auth;
+    private final TokenStateStore tokenStateStore;
+    private final Tracer tracer = Tracer.getInstance();
 
-    public FCMTokenService() {
+    public FCMTokenService(Context context) {
         this.firestore = FirebaseFirestore.getInstance();
         this.auth = FirebaseAuth.getInstance();
+        this.tokenStateStore = new TokenStateStore(context);
     }
 
     /**
@@ -40,8 +57,7 @@ public class FCMTokenService {
      * Call this after user login to register/update token
      * 
      * Note: Firebase automatically refreshes tokens. This method gets the current token
-     * and saves it. For token refresh handling, implement a FirebaseMessagingService
-     * in future modules when notification logic is needed.
+     * and saves it; refreshed tokens arrive through onNewToken.
      */
     public void initializeToken() {
         FirebaseUser user = auth.getCurrentUser();
@@ -62,7 +78,7 @@ public class FCMTokenService {
 
                         // Get new FCM registration token
                         String token = task.getResult();
-                        Log.d(TAG, "FCM Token retrieved: " + token);
+                        Log.d(TAG, "FCM Token retrieved");
                         
                         // Save token to Firestore
                         saveTokenToFirestore(user.getUid(), token);
@@ -71,22 +87,60 @@ public class FCMTokenService {
     }
 
     /**
-     * Save FCM token to Firestore
+     * Handle a refreshed token from GuardianMessagingService
+     * @param token New FCM registration token
+     */
+    public void onNewToken(String token) {
+        FirebaseUser user = auth.getCurrentUser();
+        if (user == null) {
+            // Saved by initializeToken after the next login
+            return;
+        }
+        saveTokenToFirestore(user.getUid(), token);
+    }
+
+    /**
+     * Save FCM token to Firestore, unless this device already wrote the same token
      */
     private void saveTokenToFirestore(String uid, String token) {
+        long now = System.currentTimeMillis();
+        if (!tokenStateStore.needsWrite(uid, token, now)) {
+            Log.d(TAG, "FCM token unchanged, skipping write");
+            return;
+        }
+        String hash = TokenStateStore.hash(uid, token);
+        if (hash.equals(inFlightHash.getAndSet(hash))) {
+            return;
+        }
+
+        String deviceId = tokenStateStore.getDeviceId();
         Map<String, Object> tokenData = new HashMap<>();
         tokenData.put("uid", uid);
+        tokenData.put("deviceId", deviceId);
         tokenData.put("token", token);
-        tokenData.put("updatedAt", System.currentTimeMillis());
+        tokenData.put("updatedAt", now);
         tokenData.put("platform", "Android");
+        tokenData.put("model", Build.MODEL);
 
-        firestore.collection(COLLECTION_TOKENS)
-                .document(uid)
-                .set(tokenData)
+        WriteBatch batch = firestore.batch();
+        batch.set(deviceDocument(uid, deviceId), tokenData);
+        boolean clearLegacy = !tokenStateStore.isLegacyCleared(uid);
+        if (clearLegacy) {
+            // Old single-document layout; deleting it leaves the devices sub-collection intact
+            batch.delete(firestore.collection(COLLECTION_TOKENS).document(uid));
+        }
+
+        tracer.track("fcm.token.write", batch.commit(), 0, 1, clearLegacy ? 1 : 0)
                 .addOnCompleteListener(new OnCompleteListener<Void>() {
                     @Override
                     public void onComplete(@NonNull Task<Void> task) {
+                        // A newer token's write may have replaced this one meanwhile
+                        inFlightHash.compareAndSet(hash, null);
                         if (task.isSuccessful()) {
+                            tokenStateStore.markWritten(uid, token, now);
+                            if (clearLegacy) {
+                                tokenStateStore.markLegacyCleared(uid);
+                            }
                             Log.d(TAG, "FCM token saved successfully");
                         } else {
                             Log.e(TAG, "Failed to save FCM token", task.getException());
@@ -96,27 +150,30 @@ public class FCMTokenService {
     }
 
     /**
-     * Delete FCM token from Firestore (call on logout)
+     * Delete this device's FCM token from Firestore (call on logout, before signing out)
+     *
+     * The delete needs the user's credentials, so sign out once the call completes; it only
+     * completes when the server acknowledges, so bound the wait with withDeadline
+     * (e.g. LOGOUT_TIMEOUT_MILLIS) when offline logout must still go through.
+     * @return Call completing when the token document is deleted (at once if nobody is signed in)
      */
-    public void deleteToken() {
+    public ServiceCall<Void> deleteToken() {
         FirebaseUser user = auth.getCurrentUser();
         if (user == null) {
-            return;
+            return ServiceCall.success(null);
         }
+        tokenStateStore.clear();
 
-        firestore.collection(COLLECTION_TOKENS)
-                .document(user.getUid())
-                .delete()
-                .addOnCompleteListener(new OnCompleteListener<Void>() {
-                    @Override
-                    public void onComplete(@NonNull Task<Void> task) {
-                        if (task.isSuccessful()) {
-                            Log.d(TAG, "FCM token deleted successfully");
-                        } else {
-                            Log.e(TAG, "Failed to delete FCM token", task.getException());
-                        }
-                    }
-                });
+        return ServiceCall.fromTask(tracer.track("fcm.token.delete",
+                deviceDocument(user.getUid(), tokenStateStore.getDeviceId()).delete(), 0, 0, 1))
+                .observe(result -> Log.d(TAG, "FCM token deleted successfully"),
+                        exception -> Log.e(TAG, "Failed to delete FCM token", exception));
     }
-}
 
+    private DocumentReference deviceDocument(String uid, String deviceId) {
+        return firestore.collection(COLLECTION_TOKENS)
+                .document(uid)
+                .collection(SUBCOLLECTION_DEVICES)
+                .document(deviceId);
+    }
+}
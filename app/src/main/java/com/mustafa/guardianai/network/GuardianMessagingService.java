@@ -0,0 +1,80 @@
+package com.mustafa.guardianai.network;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.google.firebase.messaging.FirebaseMessagingService;
+import com.google.firebase.messaging.RemoteMessage;
+import com.mustafa.guardianai.ServiceRegistry;
+import com.mustafa.guardianai.data.repository.InvalidationTracker;
+import java.util.Map;
+
+/**
+ * Guardian Messaging Service
+ * Receives FCM data messages carrying changed-entity hints and invalidates local caches
+ *
+ * Data message keys (all optional):
+ * - profileId: a child profile changed
+ * - alertId: an alert was created or updated
+ * - summaryVersion: lastUpdated of the parent's dashboard summary
+ * - invalidate: "all" to drop every cache
+ */
+public class GuardianMessagingService extends FirebaseMessagingService {
+    private static final String TAG = "GuardianMessaging";
+
+    public static final String KEY_PROFILE_ID = "profileId";
+    public static final String KEY_ALERT_ID = "alertId";
+    public static final String KEY_SUMMARY_VERSION = "summaryVersion";
+    public static final String KEY_INVALIDATE = "invalidate";
+
+    @Override
+    public void onMessageReceived(@NonNull RemoteMessage message) {
+        Map<String, String> data = message.getData();
+        if (data.isEmpty()) {
+            return;
+        }
+        applyHints(data);
+    }
+
+    @Override
+    public void onDeletedMessages() {
+        // Some hints were dropped by FCM; nothing cached can be trusted
+        Log.w(TAG, "FCM messages deleted, invalidating all caches");
+        InvalidationTracker.getInstance().invalidateAll();
+    }
+
+    @Override
+    public void onNewToken(@NonNull String token) {
+        ServiceRegistry.getInstance().getFCMTokenService().onNewToken(token);
+    }
+
+    /**
+     * Apply the hints in one data message to the invalidation tracker
+     */
+    static void applyHints(Map<String, String> data) {
+        InvalidationTracker tracker = InvalidationTracker.getInstance();
+
+        if ("all".equals(data.get(KEY_INVALIDATE))) {
+            tracker.invalidateAll();
+            return;
+        }
+
+        String profileId = data.get(KEY_PROFILE_ID);
+        if (profileId != null && !profileId.isEmpty()) {
+            tracker.invalidateProfile(profileId);
+        }
+
+        String alertId = data.get(KEY_ALERT_ID);
+        if (alertId != null && !alertId.isEmpty()) {
+            tracker.invalidateAlert(alertId);
+        }
+
+        String summaryVersion = data.get(KEY_SUMMARY_VERSION);
+        if (summaryVersion != null) {
+            try {
+                tracker.onSummaryVersion(Long.parseLong(summaryVersion));
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Invalid summary version: " + summaryVersion);
+            }
+        }
+    }
+}
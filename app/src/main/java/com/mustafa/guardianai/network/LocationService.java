@@ -0,0 +1,131 @@
+package com.mustafa.guardianai.network;
+
+import android.util.Log;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.WriteBatch;
+import com.mustafa.guardianai.data.model.GeoFence;
+import com.mustafa.guardianai.trace.Tracer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Location Service
+ * Uploads batched location segments from the child device and reads its geofences
+ *
+ * Each upload is a single WriteBatch: one 'location_segments' document holding the
+ * encoded polyline for the interval, plus currentLocation/lastSeen on the child profile.
+ */
+public class LocationService {
+    private static final String TAG = "LocationService";
+    private static final String COLLECTION_LOCATION_SEGMENTS = "location_segments";
+    private static final String COLLECTION_CHILD_PROFILES = "child_profiles";
+    private static final String COLLECTION_GEOFENCES = "geofences";
+
+    private final FirebaseFirestore firestore;
+    private final Tracer tracer = Tracer.getInstance();
+
+    public LocationService() {
+        this.firestore = FirebaseFirestore.getInstance();
+    }
+
+    /**
+     * Upload one location segment
+     * @param childUid Child's Firebase UID
+     * @param profileId Child profile ID to update with the latest position (may be null)
+     * @param polyline Encoded polyline of the segment
+     * @param pointCount Number of points in the polyline
+     * @param startedAt Time of the first point
+     * @param endedAt Time of the last point
+     * @param lastLatitude Latitude of the last point
+     * @param lastLongitude Longitude of the last point
+     * @return Call completing when the batch is committed
+     */
+    public ServiceCall<Void> uploadSegment(String childUid, String profileId, String polyline, int pointCount,
+                                           long startedAt, long endedAt, double lastLatitude,
+                                           double lastLongitude) {
+        String segmentId = UUID.randomUUID().toString();
+        Map<String, Object> segment = new HashMap<>();
+        segment.put("segmentId", segmentId);
+        segment.put("childUid", childUid);
+        segment.put("polyline", polyline);
+        segment.put("pointCount", pointCount);
+        segment.put("startedAt", startedAt);
+        segment.put("endedAt", endedAt);
+        segment.put("createdAt", System.currentTimeMillis());
+
+        WriteBatch batch = firestore.batch();
+        batch.set(firestore.collection(COLLECTION_LOCATION_SEGMENTS).document(segmentId), segment);
+        int writes = 1;
+
+        if (profileId != null && !profileId.isEmpty()) {
+            Map<String, Object> profileUpdate = new HashMap<>();
+            profileUpdate.put("currentLocation", formatLocation(lastLatitude, lastLongitude));
+            profileUpdate.put("lastSeen", endedAt);
+            profileUpdate.put("updatedAt", System.currentTimeMillis());
+            batch.update(firestore.collection(COLLECTION_CHILD_PROFILES).document(profileId), profileUpdate);
+            writes++;
+        }
+
+        return ServiceCall.fromTask(tracer.track("location.segment.write", batch.commit(), 0, writes, 0)
+                .addOnSuccessListener(aVoid -> Log.d(TAG, "Uploaded location segment with "
+                        + pointCount + " points"))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to upload location segment: "
+                        + e.getMessage(), e)));
+    }
+
+    /**
+     * Get the geofences a parent defined for a child (inactive ones included)
+     * @param childUid Child's Firebase UID
+     * @return Call completing with the fences
+     */
+    public ServiceCall<List<GeoFence>> getGeofencesForChild(String childUid) {
+        return ServiceCall.fromTask(tracer.track("location.fences.query", firestore.collection(COLLECTION_GEOFENCES)
+                        .whereEqualTo("childUid", childUid)
+                        .get())
+                        .addOnFailureListener(e ->
+                                Log.e(TAG, "Failed to get geofences: " + e.getMessage(), e)))
+                .map(querySnapshot -> {
+                    List<GeoFence> fences = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : querySnapshot) {
+                        fences.add(documentToGeoFence(document));
+                    }
+                    Log.d(TAG, "Retrieved " + fences.size() + " geofences for child: " + childUid);
+                    return fences;
+                });
+    }
+
+    private static GeoFence documentToGeoFence(DocumentSnapshot document) {
+        GeoFence fence = new GeoFence();
+        String fenceId = document.getString("fenceId");
+        fence.setFenceId(fenceId != null ? fenceId : document.getId());
+        fence.setParentUid(document.getString("parentUid"));
+        fence.setChildUid(document.getString("childUid"));
+        fence.setName(document.getString("name"));
+
+        Double latitude = document.getDouble("latitude");
+        Double longitude = document.getDouble("longitude");
+        Double radius = document.getDouble("radiusMeters");
+        fence.setLatitude(latitude != null ? latitude : 0d);
+        fence.setLongitude(longitude != null ? longitude : 0d);
+        // A fence without a radius is skipped by GeofenceEngine
+        fence.setRadiusMeters(radius != null ? radius.floatValue() : 0f);
+        fence.setZoneType(GeoFence.parseZoneType(document.getString("zoneType")));
+
+        Boolean isActive = document.getBoolean("isActive");
+        fence.setActive(isActive == null || isActive);
+        return fence;
+    }
+
+    /**
+     * Format a position for ChildProfile.currentLocation ("lat,lng")
+     */
+    public static String formatLocation(double latitude, double longitude) {
+        return String.format(Locale.US, "%.5f,%.5f", latitude, longitude);
+    }
+}
@@ -0,0 +1,119 @@
+package com.mustafa.guardianai.network;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.mustafa.guardianai.ServiceRegistry;
+import com.mustafa.guardianai.data.model.UserRole;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pairing Token Cleanup Worker
+ * Periodically deletes expired pairing_tokens so the collection and its expiry query stay small
+ *
+ * Runs on every install but only does work for a signed-in parent (anonymous child accounts
+ * are skipped without a read), and only on the tokens that parent created. Transient failures are retried; rejected queries (rules, missing
+ * index) fail the run instead of retrying forever.
+ */
+public class PairingTokenCleanupWorker extends Worker {
+    private static final String TAG = "PairingTokenCleanup";
+    private static final String UNIQUE_WORK_NAME = "pairing_token_cleanup";
+    private static final long INTERVAL_HOURS = 6;
+    private static final long TIMEOUT_MINUTES = 5;
+
+    public PairingTokenCleanupWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedule the periodic cleanup (keeps an existing schedule)
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                PairingTokenCleanupWorker.class, INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                UNIQUE_WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        // Children sign in anonymously when pairing and never create tokens
+        if (user == null || user.isAnonymous()) {
+            return Result.success();
+        }
+
+        // Firestore callbacks arrive on the main thread; this worker thread just waits
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+
+        String uid = user.getUid();
+        ServiceRegistry registry = ServiceRegistry.getInstance();
+        registry.getAuthService().getUserData(uid)
+                .then(userData -> userData.getRole() == UserRole.PARENT
+                        ? registry.getQRPairingService().cleanupExpiredTokens(uid)
+                        : ServiceCall.success(0))
+                .observe(new ServiceCall.Callback<Integer>() {
+                    @Override
+                    public void onSuccess(Integer deletedCount) {
+                        Log.d(TAG, "Deleted " + deletedCount + " expired pairing tokens");
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void onFailure(Exception exception) {
+                        failure.set(exception);
+                        done.countDown();
+                    }
+                });
+
+        try {
+            if (!done.await(TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                Log.e(TAG, "Cleanup timed out");
+                return Result.retry();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+
+        Exception exception = failure.get();
+        if (exception != null) {
+            Log.e(TAG, "Cleanup failed: " + exception.getMessage(), exception);
+            return isPermanent(exception) ? Result.failure() : Result.retry();
+        }
+        return Result.success();
+    }
+
+    // Rejections that a retry of the same query cannot fix
+    private static boolean isPermanent(Exception exception) {
+        if (!(exception instanceof FirebaseFirestoreException)) {
+            return false;
+        }
+        switch (((FirebaseFirestoreException) exception).getCode()) {
+            case PERMISSION_DENIED:
+            case FAILED_PRECONDITION:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -1,37 +1,65 @@
 package com.mustafa.guardianai.network;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.provider.Settings;
+import android.util.Log;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.auth.AuthResult;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
 import com.mustafa.guardianai.data.model.QRPairingData;
 import com.mustafa.guardianai.data.model.User;
 import com.mustafa.guardianai.data.model.UserRole;
+import com.mustafa.guardianai.trace.Tracer;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * QR Pairing Service
  * Handles secure password-less pairing of child devices via QR code
+ * Auth and Firestore calls are traced (see Tracer).
  */
 public class QRPairingService {
+    private static final String TAG = "QRPairingService";
+    private static final String COLLECTION_PAIRING_TOKENS = "pairing_tokens";
+    private static final String COLLECTION_USERS = "users";
+    private static final String COLLECTION_DEVICE_PAIRS = "device_pairs";
+
     private final FirebaseAuth auth;
     private final FirebaseFirestore firestore;
+    private final Tracer tracer = Tracer.getInstance();
     private static final long PAIRING_EXPIRY_TIME = 10 * 60 * 1000L; // 10 minutes
+    // Deletes per WriteBatch (Firestore allows up to 500 writes per batch)
+    private static final int CLEANUP_PAGE_SIZE = 400;
 
     public QRPairingService() {
-        this.auth = FirebaseAuth.getInstance();
-        this.firestore = FirebaseFirestore.getInstance();
+        this(FirebaseAuth.getInstance(), FirebaseFirestore.getInstance());
+    }
+
+    // Non-default instances, e.g. ones pointed at the emulators (FirestoreLoadHarness)
+    QRPairingService(FirebaseAuth auth, FirebaseFirestore firestore) {
+        this.auth = auth;
+        this.firestore = firestore;
     }
 
     /**
      * Generate QR pairing data for parent device
      * This creates a temporary pairing token that child can scan
+     * @return Call completing with the stored pairing data
      */
-    public void generatePairingQR(String parentUid, String parentEmail, QRPairingCallback callback) {
+    public ServiceCall<QRPairingData> generatePairingQR(String parentUid, String parentEmail) {
         String pairToken = UUID.randomUUID().toString();
         long expiresAt = System.currentTimeMillis() + PAIRING_EXPIRY_TIME;
 
@@ -43,157 +71,226 @@ public class QRPairingService {
         );
 
         // Store pairing token in Firestore with expiration
-        firestore.collection("pairing_tokens")
-                .document(pairToken)
-                .set(pairingData)
-                .addOnSuccessListener(aVoid -> callback.onSuccess(pairingData))
-                .addOnFailureListener(callback::onFailure);
+        return ServiceCall.fromTask(tracer.track("pairing.token.create", firestore.collection(COLLECTION_PAIRING_TOKENS)
+                        .document(pairToken)
+                        .set(pairingData), 0, 1, 0))
+                .map(aVoid -> pairingData);
     }
 
     /**
      * Validate and process QR pairing data from child device
      * Automatically creates child account using anonymous authentication
+     *
+     * After the anonymous sign-in, the token check, token delete, child user write and
+     * device pair write run in one transaction, so pairing either fully succeeds or
+     * leaves no trace (the anonymous account is deleted again on failure). Cancelling the
+     * call before the transaction starts skips it and deletes the anonymous account as
+     * soon as the sign-in completes; once started, the transaction decides as above.
      * @param qrData QR pairing data scanned by child
-     * @param callback Callback for result
+     * @return Call completing when pairing is committed
      */
-    public void processPairing(QRPairingData qrData, SimpleCallback callback) {
+    public ServiceCall<Void> processPairing(QRPairingData qrData) {
         // Validate expiration
         if (System.currentTimeMillis() > qrData.getExpiresAt()) {
-            callback.onFailure(new Exception("Pairing token has expired"));
-            return;
+            return ServiceCall.failure(new Exception("Pairing token has expired"));
         }
 
-        // Verify token exists in Firestore
-        firestore.collection("pairing_tokens")
-                .document(qrData.getPairToken())
-                .get()
-                .addOnSuccessListener(tokenDoc -> {
-                    if (!tokenDoc.exists()) {
-                        callback.onFailure(new Exception("Invalid pairing token"));
-                        return;
+        StepTimer timer = new StepTimer();
+
+        // Check if user is already logged in (sign out first if needed)
+        FirebaseUser currentUser = auth.getCurrentUser();
+        if (currentUser != null) {
+            // Sign out any existing user (child should not have email/password login)
+            auth.signOut();
+        }
+
+        // Create anonymous child account automatically
+        Task<AuthResult> signIn = tracer.track("auth.signInAnonymously", auth.signInAnonymously());
+        // Claimed by whichever comes first: the transaction or the cancellation cleanup
+        AtomicBoolean claimed = new AtomicBoolean();
+        ServiceCall<Void> call = tracer.trace("pairing.process", ServiceCall.fromTask(signIn)
+                .mapError(e -> new Exception("Failed to create child account: " + e.getMessage(), e))
+                .map(authResult -> {
+                    timer.step("signIn");
+                    FirebaseUser childUser = authResult.getUser();
+                    if (childUser == null) {
+                        throw new Exception("Failed to create child account");
                     }
+                    return childUser;
+                })
+                .then(childUser -> {
+                    if (!claimed.compareAndSet(false, true)) {
+                        return ServiceCall.failure(new CancellationException("Pairing cancelled"));
+                    }
+                    return commitPairing(qrData, childUser, timer);
+                }));
+        // Sign-in cannot be aborted; drop the account it creates if nothing will use it
+        call.onCancel(() -> signIn.addOnSuccessListener(authResult -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            Log.d(TAG, "Pairing cancelled, removing the anonymous account");
+            FirebaseUser childUser = authResult.getUser();
+            if (childUser != null) {
+                childUser.delete();
+            }
+            auth.signOut();
+        }));
+        return call;
+    }
 
+    /**
+     * Consume the token and create the user and pair documents atomically
+     */
+    private ServiceCall<Void> commitPairing(QRPairingData qrData, FirebaseUser childUser, StepTimer timer) {
+        // Get device ID
+        Context context = auth.getApp().getApplicationContext();
+        String childDeviceId = Settings.Secure.getString(
+                context.getContentResolver(),
+                Settings.Secure.ANDROID_ID
+        );
+        final String finalChildDeviceId = (childDeviceId == null || childDeviceId.isEmpty())
+                ? UUID.randomUUID().toString()
+                : childDeviceId;
+
+        DocumentReference tokenRef = firestore.collection(COLLECTION_PAIRING_TOKENS)
+                .document(qrData.getPairToken());
+        DocumentReference userRef = firestore.collection(COLLECTION_USERS)
+                .document(childUser.getUid());
+        String pairId = UUID.randomUUID().toString();
+        DocumentReference pairRef = firestore.collection(COLLECTION_DEVICE_PAIRS)
+                .document(pairId);
+
+        Task<Void> transactionTask = tracer.track("pairing.commit", firestore.<Void>runTransaction(transaction -> {
+                    // Verify token exists and is still valid; the delete below consumes it,
+                    // so a concurrent scan of the same token fails the transaction
+                    DocumentSnapshot tokenDoc = transaction.get(tokenRef);
+                    if (!tokenDoc.exists()) {
+                        throw new FirebaseFirestoreException("Invalid pairing token",
+                                FirebaseFirestoreException.Code.NOT_FOUND);
+                    }
                     QRPairingData storedData = tokenDoc.toObject(QRPairingData.class);
                     if (storedData == null) {
-                        callback.onFailure(new Exception("Invalid pairing data"));
-                        return;
+                        throw new FirebaseFirestoreException("Invalid pairing data",
+                                FirebaseFirestoreException.Code.INVALID_ARGUMENT);
                     }
-
                     // Verify parent UID matches
                     if (!storedData.getParentUid().equals(qrData.getParentUid())) {
-                        callback.onFailure(new Exception("Pairing token mismatch"));
-                        return;
+                        throw new FirebaseFirestoreException("Pairing token mismatch",
+                                FirebaseFirestoreException.Code.PERMISSION_DENIED);
                     }
-
-                    // Check if user is already logged in (sign out first if needed)
-                    FirebaseUser currentUser = auth.getCurrentUser();
-                    if (currentUser != null) {
-                        // Sign out any existing user (child should not have email/password login)
-                        auth.signOut();
+                    if (System.currentTimeMillis() > storedData.getExpiresAt()) {
+                        throw new FirebaseFirestoreException("Pairing token has expired",
+                                FirebaseFirestoreException.Code.FAILED_PRECONDITION);
                     }
 
-                    // Create anonymous child account automatically
-                    auth.signInAnonymously()
-                            .addOnSuccessListener(authResult -> {
-                                FirebaseUser childUser = authResult.getUser();
-                                if (childUser == null) {
-                                    callback.onFailure(new Exception("Failed to create child account"));
-                                    return;
-                                }
+                    // Create child user document in Firestore
+                    User childUserData = new User(
+                            childUser.getUid(),
+                            "", // Child accounts don't have email
+                            "Child Device", // Default display name
+                            UserRole.CHILD,
+                            qrData.getParentUid(),
+                            finalChildDeviceId,
+                            false // Child accounts don't need email verification
+                    );
 
-                                // Get device ID
-                                Context context = auth.getApp().getApplicationContext();
-                                String childDeviceId = Settings.Secure.getString(
-                                        context.getContentResolver(),
-                                        Settings.Secure.ANDROID_ID
-                                );
-                                // Make it effectively final for lambda
-                                final String finalChildDeviceId = (childDeviceId == null || childDeviceId.isEmpty()) 
-                                        ? UUID.randomUUID().toString() 
-                                        : childDeviceId;
-
-                                // Create child user document in Firestore
-                                User childUserData = new User(
-                                        childUser.getUid(),
-                                        "", // Child accounts don't have email
-                                        "Child Device", // Default display name
-                                        UserRole.CHILD,
-                                        qrData.getParentUid(),
-                                        finalChildDeviceId,
-                                        false // Child accounts don't need email verification
-                                );
-
-                                firestore.collection("users")
-                                        .document(childUser.getUid())
-                                        .set(childUserData)
-                                        .addOnSuccessListener(aVoid -> {
-                                            // Create device pair document
-                                            String pairId = UUID.randomUUID().toString();
-                                            Map<String, Object> pairData = new HashMap<>();
-                                            pairData.put("pairId", pairId);
-                                            pairData.put("parentUid", qrData.getParentUid());
-                                            pairData.put("childUid", childUser.getUid());
-                                            pairData.put("parentDeviceId", storedData.getParentUid());
-                                            pairData.put("childDeviceId", finalChildDeviceId);
-                                            pairData.put("pairedAt", System.currentTimeMillis());
-                                            pairData.put("isActive", true);
-
-                                            firestore.collection("device_pairs")
-                                                    .document(pairId)
-                                                    .set(pairData)
-                                                    .addOnSuccessListener(aVoid1 -> {
-                                                        // Delete used pairing token
-                                                        firestore.collection("pairing_tokens")
-                                                                .document(qrData.getPairToken())
-                                                                .delete()
-                                                                .addOnSuccessListener(aVoid2 -> 
-                                                                        callback.onSuccess())
-                                                                .addOnFailureListener(callback::onFailure);
-                                                    })
-                                                    .addOnFailureListener(callback::onFailure);
-                                        })
-                                        .addOnFailureListener(callback::onFailure);
-                            })
-                            .addOnFailureListener(e -> {
-                                callback.onFailure(new Exception("Failed to create child account: " + e.getMessage()));
-                            });
+                    // Create device pair document
+                    Map<String, Object> pairData = new HashMap<>();
+                    pairData.put("pairId", pairId);
+                    pairData.put("parentUid", qrData.getParentUid());
+                    pairData.put("childUid", childUser.getUid());
+                    pairData.put("parentDeviceId", storedData.getParentUid());
+                    pairData.put("childDeviceId", finalChildDeviceId);
+                    pairData.put("pairedAt", System.currentTimeMillis());
+                    pairData.put("isActive", true);
+
+                    transaction.set(userRef, childUserData);
+                    transaction.set(pairRef, pairData);
+                    // Delete used pairing token
+                    transaction.delete(tokenRef);
+                    return null;
+                }), 1, 2, 1)
+                .addOnSuccessListener(result -> {
+                    timer.step("transaction");
+                    Log.d(TAG, "Pairing completed: " + timer);
                 })
-                .addOnFailureListener(callback::onFailure);
+                .addOnFailureListener(e -> {
+                    timer.step("transaction");
+                    Log.e(TAG, "Pairing failed (" + timer + "): " + e.getMessage(), e);
+                    // Nothing was written; drop the orphaned anonymous account.
+                    // Runs even if the caller has cancelled the call.
+                    childUser.delete();
+                    auth.signOut();
+                });
+        return ServiceCall.fromTask(transactionTask);
     }
 
     /**
-     * Clean up expired pairing tokens (can be called periodically)
+     * Clean up a parent's expired pairing tokens (scheduled by PairingTokenCleanupWorker)
+     * Pages through expired tokens in expiresAt order and deletes each page with one
+     * WriteBatch; the count only includes batches that committed. Needs the composite
+     * index (parentUid, expiresAt) on pairing_tokens.
+     * @param parentUid UID of the parent whose tokens are deleted
+     * @return Call completing with the number of deleted tokens
      */
-    public void cleanupExpiredTokens(CleanupCallback callback) {
-        long now = System.currentTimeMillis();
-        firestore.collection("pairing_tokens")
+    public ServiceCall<Integer> cleanupExpiredTokens(String parentUid) {
+        return cleanupPage(parentUid, System.currentTimeMillis(), null, 0);
+    }
+
+    private ServiceCall<Integer> cleanupPage(String parentUid, long now, DocumentSnapshot cursor,
+                                             int deletedSoFar) {
+        Query query = firestore.collection(COLLECTION_PAIRING_TOKENS)
+                .whereEqualTo("parentUid", parentUid)
                 .whereLessThan("expiresAt", now)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    int count = querySnapshot.size();
-                    // Delete all expired tokens
-                    for (com.google.firebase.firestore.QueryDocumentSnapshot doc : querySnapshot) {
-                        doc.getReference().delete();
+                .orderBy("expiresAt")
+                .limit(CLEANUP_PAGE_SIZE);
+        if (cursor != null) {
+            query = query.startAfter(cursor);
+        }
+
+        return ServiceCall.fromTask(tracer.track("pairing.cleanup.query", query.get()))
+                .then(querySnapshot -> {
+                    List<DocumentSnapshot> docs = querySnapshot.getDocuments();
+                    if (docs.isEmpty()) {
+                        return ServiceCall.success(deletedSoFar);
                     }
-                    callback.onSuccess(count);
-                })
-                .addOnFailureListener(callback::onFailure);
-    }
 
-    // Callback interfaces
-    public interface QRPairingCallback {
-        void onSuccess(QRPairingData pairingData);
-        void onFailure(Exception exception);
+                    WriteBatch batch = firestore.batch();
+                    for (DocumentSnapshot doc : docs) {
+                        batch.delete(doc.getReference());
+                    }
+                    return ServiceCall.fromTask(tracer.track("pairing.cleanup.delete", batch.commit(), 0, 0, docs.size())
+                                    .addOnFailureListener(e -> Log.e(TAG, "Failed to delete expired tokens after "
+                                            + deletedSoFar + ": " + e.getMessage(), e)))
+                            .then(aVoid -> {
+                                int deleted = deletedSoFar + docs.size();
+                                if (docs.size() < CLEANUP_PAGE_SIZE) {
+                                    return ServiceCall.success(deleted);
+                                }
+                                return cleanupPage(parentUid, now, docs.get(docs.size() - 1), deleted);
+                            });
+                });
     }
 
-    public interface SimpleCallback {
-        void onSuccess();
-        void onFailure(Exception exception);
-    }
+    /**
+     * Elapsed time per pairing step, for the log
+     */
+    private static class StepTimer {
+        private final StringBuilder steps = new StringBuilder();
+        private final long startMillis = SystemClock.elapsedRealtime();
+        private long lastMillis = startMillis;
+
+        void step(String name) {
+            long now = SystemClock.elapsedRealtime();
+            steps.append(name).append('=').append(now - lastMillis).append("ms ");
+            lastMillis = now;
+        }
 
-    public interface CleanupCallback {
-        void onSuccess(int deletedCount);
-        void onFailure(Exception exception);
+        @Override
+        public String toString() {
+            return steps + "total=" + (lastMillis - startMillis) + "ms";
+        }
     }
 }
 
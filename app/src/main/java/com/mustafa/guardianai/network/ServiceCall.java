@@ -0,0 +1,521 @@
+package com.mustafa.guardianai.network;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.FirebaseNetworkException;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Service Call
+ * Cancellable result of an asynchronous service operation
+ *
+ * A call completes once with a value or an exception, or is cancelled; after cancellation
+ * no callback runs and pending transforms are skipped. Callbacks run on the thread that
+ * completes the call (the main thread for Firebase tasks). Cancelling a derived call
+ * (map, then, recover, mapError, withDeadline) detaches it from the call it depends on, which
+ * is cancelled once nothing else observes it; all, both and retry cancel their inputs.
+ */
+public final class ServiceCall<T> {
+    private static final String TAG = "ServiceCall";
+
+    /**
+     * Result callback, also used for snapshot listeners
+     */
+    public interface Callback<T> {
+        void onSuccess(T result);
+        void onFailure(Exception exception);
+    }
+
+    public interface Transform<A, B> {
+        B apply(A value) throws Exception;
+    }
+
+    public interface Continuation<A, B> {
+        ServiceCall<B> apply(A value);
+    }
+
+    public interface Factory<T> {
+        ServiceCall<T> create();
+    }
+
+    public interface Combiner<A, B, R> {
+        R combine(A first, B second) throws Exception;
+    }
+
+    private enum State { PENDING, SUCCEEDED, FAILED, CANCELLED }
+
+    private static volatile Handler mainHandler;
+
+    private State state = State.PENDING;
+    private T value;
+    private Exception error;
+    private List<Callback<? super T>> callbacks = new ArrayList<>(1);
+    private List<Runnable> cancelHooks = new ArrayList<>(1);
+
+    // ---- Producers ----
+
+    public static <T> ServiceCall<T> success(T value) {
+        ServiceCall<T> call = new ServiceCall<>();
+        call.succeed(value);
+        return call;
+    }
+
+    public static <T> ServiceCall<T> failure(Exception exception) {
+        ServiceCall<T> call = new ServiceCall<>();
+        call.fail(exception);
+        return call;
+    }
+
+    /**
+     * Adapt a Firebase Task; Tasks cannot be aborted, so cancelling drops the result
+     */
+    public static <T> ServiceCall<T> fromTask(Task<T> task) {
+        ServiceCall<T> call = new ServiceCall<>();
+        task.addOnCompleteListener(completed -> {
+            if (completed.isSuccessful()) {
+                call.succeed(completed.getResult());
+            } else if (completed.isCanceled()) {
+                // Fail rather than cancel so dependent calls still complete
+                call.fail(new CancellationException("Task cancelled"));
+            } else {
+                call.fail(completed.getException() != null
+                        ? completed.getException() : new Exception("Task failed"));
+            }
+        });
+        return call;
+    }
+
+    /**
+     * Complete with a value
+     * @return false if the call was already complete or cancelled
+     */
+    public boolean succeed(T result) {
+        return complete(State.SUCCEEDED, result, null);
+    }
+
+    /**
+     * Complete with an exception
+     * @return false if the call was already complete or cancelled
+     */
+    public boolean fail(Exception exception) {
+        return complete(State.FAILED, null, exception);
+    }
+
+    // ---- Consumers ----
+
+    /**
+     * Register a callback; runs immediately if the call has already completed
+     */
+    public ServiceCall<T> observe(Callback<? super T> callback) {
+        State current;
+        synchronized (this) {
+            if (state == State.PENDING) {
+                callbacks.add(callback);
+                return this;
+            }
+            current = state;
+        }
+        dispatch(callback, current);
+        return this;
+    }
+
+    public ServiceCall<T> observe(Consumer<? super T> onSuccess, Consumer<Exception> onFailure) {
+        return observe(new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                onSuccess.accept(result);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                onFailure.accept(exception);
+            }
+        });
+    }
+
+    /**
+     * Cancel the call; callbacks are dropped and cancel hooks run
+     * @return false if the call had already completed
+     */
+    public boolean cancel() {
+        List<Runnable> hooks;
+        synchronized (this) {
+            if (state != State.PENDING) {
+                return false;
+            }
+            hooks = markCancelled();
+        }
+        for (Runnable hook : hooks) {
+            hook.run();
+        }
+        return true;
+    }
+
+    /**
+     * Run when the call is cancelled (immediately if it already was), e.g. to stop upstream work
+     */
+    public ServiceCall<T> onCancel(Runnable hook) {
+        synchronized (this) {
+            if (state == State.PENDING) {
+                cancelHooks.add(hook);
+                return this;
+            }
+            if (state != State.CANCELLED) {
+                return this;
+            }
+        }
+        hook.run();
+        return this;
+    }
+
+    public synchronized boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    public synchronized boolean isDone() {
+        return state != State.PENDING;
+    }
+
+    // ---- Combinators ----
+
+    /**
+     * Transform the value; skipped if the result call was cancelled first
+     */
+    public <R> ServiceCall<R> map(Transform<? super T, ? extends R> transform) {
+        ServiceCall<R> derived = new ServiceCall<>();
+        observeFor(derived, new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                if (derived.isCancelled()) {
+                    return;
+                }
+                try {
+                    derived.succeed(transform.apply(result));
+                } catch (Exception e) {
+                    derived.fail(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                derived.fail(exception);
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * Start a dependent call once this one succeeds
+     */
+    public <R> ServiceCall<R> then(Continuation<? super T, R> next) {
+        ServiceCall<R> derived = new ServiceCall<>();
+        observeFor(derived, new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                if (derived.isCancelled()) {
+                    return;
+                }
+                ServiceCall<R> stage;
+                try {
+                    stage = next.apply(result);
+                } catch (RuntimeException e) {
+                    derived.fail(e);
+                    return;
+                }
+                derived.onCancel(stage::cancel);
+                stage.observe(derived.completer());
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                derived.fail(exception);
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * Replace a failure with a value (or a different exception, by throwing)
+     */
+    public ServiceCall<T> recover(Transform<Exception, ? extends T> fallback) {
+        ServiceCall<T> derived = new ServiceCall<>();
+        observeFor(derived, new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                derived.succeed(result);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                try {
+                    derived.succeed(fallback.apply(exception));
+                } catch (Exception e) {
+                    derived.fail(e);
+                }
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * Replace a failure with a different exception (e.g. a user-facing message)
+     */
+    public ServiceCall<T> mapError(Transform<Exception, ? extends Exception> transform) {
+        ServiceCall<T> derived = new ServiceCall<>();
+        observeFor(derived, new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                derived.succeed(result);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                Exception mapped;
+                try {
+                    mapped = transform.apply(exception);
+                } catch (Exception e) {
+                    mapped = e;
+                }
+                derived.fail(mapped != null ? mapped : exception);
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * Fail with TimeoutException and cancel this call if it has not completed in time
+     */
+    public ServiceCall<T> withDeadline(long timeoutMillis) {
+        ServiceCall<T> derived = new ServiceCall<>();
+        Runnable timeout = () -> {
+            if (!derived.isDone()) {
+                // Stop upstream work before anyone observes the timeout
+                cancel();
+                derived.fail(new TimeoutException("Timed out after " + timeoutMillis + "ms"));
+            }
+        };
+        derived.onCancel(() -> mainHandler().removeCallbacks(timeout));
+        observeFor(derived, new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                mainHandler().removeCallbacks(timeout);
+                derived.succeed(result);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                mainHandler().removeCallbacks(timeout);
+                derived.fail(exception);
+            }
+        });
+        mainHandler().postDelayed(timeout, timeoutMillis);
+        return derived;
+    }
+
+    /**
+     * Run calls concurrently and collect their values in order; the first failure cancels the rest
+     */
+    public static <T> ServiceCall<List<T>> all(List<ServiceCall<T>> calls) {
+        if (calls.isEmpty()) {
+            return success(Collections.emptyList());
+        }
+        ServiceCall<List<T>> joined = new ServiceCall<>();
+        @SuppressWarnings("unchecked")
+        T[] results = (T[]) new Object[calls.size()];
+        AtomicInteger remaining = new AtomicInteger(calls.size());
+        Runnable cancelAll = () -> {
+            for (ServiceCall<T> call : calls) {
+                call.cancel();
+            }
+        };
+        joined.onCancel(cancelAll);
+
+        for (int i = 0; i < calls.size(); i++) {
+            final int index = i;
+            calls.get(i).observe(new Callback<T>() {
+                @Override
+                public void onSuccess(T result) {
+                    results[index] = result;
+                    if (remaining.decrementAndGet() == 0) {
+                        joined.succeed(Arrays.asList(results));
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception exception) {
+                    if (!joined.isDone()) {
+                        cancelAll.run();
+                        joined.fail(exception);
+                    }
+                }
+            });
+        }
+        return joined;
+    }
+
+    /**
+     * Run two calls of different types concurrently and combine their values
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, R> ServiceCall<R> both(ServiceCall<A> first, ServiceCall<B> second,
+                                                Combiner<? super A, ? super B, ? extends R> combiner) {
+        List<ServiceCall<Object>> calls = Arrays.asList((ServiceCall<Object>) first, (ServiceCall<Object>) second);
+        return all(calls).map(values -> combiner.combine((A) values.get(0), (B) values.get(1)));
+    }
+
+    /**
+     * Retry transient failures with exponential backoff
+     * @param attempt Creates a fresh call per attempt
+     * @param maxAttempts Total attempts, including the first
+     * @param initialBackoffMillis Delay before the second attempt; doubles afterwards
+     */
+    public static <T> ServiceCall<T> retry(Factory<T> attempt, int maxAttempts, long initialBackoffMillis) {
+        ServiceCall<T> result = new ServiceCall<>();
+        runAttempt(result, attempt, 1, maxAttempts, initialBackoffMillis);
+        return result;
+    }
+
+    /**
+     * Failures worth retrying: network loss, timeouts and retryable Firestore codes
+     */
+    public static boolean isTransient(Exception exception) {
+        if (exception instanceof FirebaseNetworkException || exception instanceof TimeoutException) {
+            return true;
+        }
+        if (exception instanceof FirebaseFirestoreException) {
+            switch (((FirebaseFirestoreException) exception).getCode()) {
+                case UNAVAILABLE:
+                case DEADLINE_EXCEEDED:
+                case ABORTED:
+                case RESOURCE_EXHAUSTED:
+                case INTERNAL:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    // ---- Internals ----
+
+    private static <T> void runAttempt(ServiceCall<T> result, Factory<T> factory, int attempt,
+                                       int maxAttempts, long backoffMillis) {
+        if (result.isCancelled()) {
+            return;
+        }
+        ServiceCall<T> call = factory.create();
+        result.onCancel(call::cancel);
+        call.observe(new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.succeed(value);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                if (attempt < maxAttempts && isTransient(exception)) {
+                    Log.d(TAG, "Attempt " + attempt + " failed, retrying in " + backoffMillis + "ms: "
+                            + exception.getMessage());
+                    mainHandler().postDelayed(() -> runAttempt(result, factory, attempt + 1,
+                            maxAttempts, backoffMillis * 2), backoffMillis);
+                } else {
+                    result.fail(exception);
+                }
+            }
+        });
+    }
+
+    // Observe on behalf of a derived call; cancelling it removes the callback again
+    private void observeFor(ServiceCall<?> derived, Callback<? super T> callback) {
+        observe(callback);
+        derived.onCancel(() -> detach(callback));
+    }
+
+    // Other derived calls or observers may share this call, so it is only cancelled
+    // once the last callback is gone
+    private void detach(Callback<? super T> callback) {
+        List<Runnable> hooks;
+        synchronized (this) {
+            if (state != State.PENDING || !callbacks.remove(callback) || !callbacks.isEmpty()) {
+                return;
+            }
+            hooks = markCancelled();
+        }
+        for (Runnable hook : hooks) {
+            hook.run();
+        }
+    }
+
+    // Caller holds the lock; returns the cancel hooks to run outside it
+    private List<Runnable> markCancelled() {
+        List<Runnable> hooks = cancelHooks;
+        state = State.CANCELLED;
+        callbacks = null;
+        cancelHooks = null;
+        return hooks;
+    }
+
+    private Callback<T> completer() {
+        return new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                succeed(result);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                fail(exception);
+            }
+        };
+    }
+
+    private boolean complete(State newState, T result, Exception exception) {
+        List<Callback<? super T>> toNotify;
+        synchronized (this) {
+            if (state != State.PENDING) {
+                return false;
+            }
+            state = newState;
+            value = result;
+            error = exception;
+            toNotify = callbacks;
+            callbacks = null;
+            cancelHooks = null;
+        }
+        for (Callback<? super T> callback : toNotify) {
+            dispatch(callback, newState);
+        }
+        return true;
+    }
+
+    private void dispatch(Callback<? super T> callback, State completedState) {
+        if (completedState == State.SUCCEEDED) {
+            callback.onSuccess(value);
+        } else if (completedState == State.FAILED) {
+            callback.onFailure(error);
+        }
+        // Cancelled: callbacks are dropped
+    }
+
+    private static Handler mainHandler() {
+        if (mainHandler == null) {
+            synchronized (ServiceCall.class) {
+                if (mainHandler == null) {
+                    mainHandler = new Handler(Looper.getMainLooper());
+                }
+            }
+        }
+        return mainHandler;
+    }
+}
@@ -0,0 +1,326 @@
+package com.mustafa.guardianai.policy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * App Block Matcher
+ * Matches foreground package names against parent-defined APP_BLOCKING rules
+ *
+ * Supported rule patterns:
+ * - Exact:    "com.whatsapp"
+ * - Prefix:   "com.game.*" (any package under com.game.) or "com.game*" (raw prefix)
+ * - Category: addCategoryRule(ApplicationInfo.CATEGORY_GAME, ACTION_BLOCK)
+ *
+ * The most specific rule wins: exact beats prefix, a longer prefix beats a shorter one,
+ * and any package rule beats a category rule. This allows exceptions such as
+ * "com.game.*" blocked but "com.game.mathtutor" allowed.
+ *
+ * The matcher is immutable and backed by primitive arrays only. Build it off the main
+ * thread with Builder.buildAsync(); match() never allocates, so it is safe to call for
+ * every foreground change.
+ */
+public final class AppBlockMatcher {
+    public static final int NO_MATCH = -1;
+
+    public static final int ACTION_BLOCK = 1;
+    public static final int ACTION_ALLOW = 2;
+
+    // Node flags
+    private static final byte FLAG_EXACT = 1;
+    private static final byte FLAG_PREFIX = 2;
+
+    // ApplicationInfo categories start at -1 (CATEGORY_UNDEFINED)
+    private static final int CATEGORY_OFFSET = 1;
+    private static final int MAX_CATEGORIES = 32;
+
+    private static final long EMPTY_KEY = -1L;
+
+    // Edge table: open addressing keyed by (parentNode << 16 | char)
+    private final long[] edgeKeys;
+    private final int[] edgeTargets;
+    private final int edgeMask;
+
+    // Per-node data
+    private final byte[] nodeFlags;
+    private final int[] nodeExactRule;
+    private final int[] nodePrefixRule;
+
+    // Per-rule data
+    private final String[] rulePatterns;
+    private final int[] ruleActions;
+
+    // Category rule per (category + CATEGORY_OFFSET)
+    private final int[] categoryRules;
+
+    private AppBlockMatcher(long[] edgeKeys, int[] edgeTargets, byte[] nodeFlags,
+                            int[] nodeExactRule, int[] nodePrefixRule,
+                            String[] rulePatterns, int[] ruleActions, int[] categoryRules) {
+        this.edgeKeys = edgeKeys;
+        this.edgeTargets = edgeTargets;
+        this.edgeMask = edgeKeys.length - 1;
+        this.nodeFlags = nodeFlags;
+        this.nodeExactRule = nodeExactRule;
+        this.nodePrefixRule = nodePrefixRule;
+        this.rulePatterns = rulePatterns;
+        this.ruleActions = ruleActions;
+        this.categoryRules = categoryRules;
+    }
+
+    /**
+     * Find the most specific rule for a package
+     * @param packageName Foreground package name
+     * @param category ApplicationInfo.category of the package (-1 if unknown)
+     * @return Rule index, or NO_MATCH
+     */
+    public int match(CharSequence packageName, int category) {
+        int packageRule = matchPackage(packageName);
+        if (packageRule != NO_MATCH) {
+            return packageRule;
+        }
+        int slot = category + CATEGORY_OFFSET;
+        if (slot >= 0 && slot < categoryRules.length) {
+            return categoryRules[slot];
+        }
+        return NO_MATCH;
+    }
+
+    /**
+     * Find the most specific exact or prefix rule for a package (categories ignored)
+     */
+    public int matchPackage(CharSequence packageName) {
+        if (packageName == null) {
+            return NO_MATCH;
+        }
+
+        int node = 0;
+        int best = (nodeFlags[0] & FLAG_PREFIX) != 0 ? nodePrefixRule[0] : NO_MATCH;
+        int length = packageName.length();
+
+        for (int i = 0; i < length; i++) {
+            node = child(node, packageName.charAt(i));
+            if (node < 0) {
+                return best;
+            }
+            if ((nodeFlags[node] & FLAG_PREFIX) != 0) {
+                best = nodePrefixRule[node];
+            }
+        }
+
+        if ((nodeFlags[node] & FLAG_EXACT) != 0) {
+            return nodeExactRule[node];
+        }
+        return best;
+    }
+
+    /**
+     * Check if a package should be blocked
+     */
+    public boolean isBlocked(CharSequence packageName, int category) {
+        int rule = match(packageName, category);
+        return rule != NO_MATCH && ruleActions[rule] == ACTION_BLOCK;
+    }
+
+    public int getRuleAction(int ruleIndex) {
+        return ruleActions[ruleIndex];
+    }
+
+    public String getRulePattern(int ruleIndex) {
+        return rulePatterns[ruleIndex];
+    }
+
+    public int getRuleCount() {
+        return rulePatterns.length;
+    }
+
+    private int child(int node, char c) {
+        long key = ((long) node << 16) | c;
+        int slot = hash(key) & edgeMask;
+        while (true) {
+            long current = edgeKeys[slot];
+            if (current == key) {
+                return edgeTargets[slot];
+            }
+            if (current == EMPTY_KEY) {
+                return -1;
+            }
+            slot = (slot + 1) & edgeMask;
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Callback interface for asynchronous builds
+     */
+    public interface BuildCallback {
+        void onSuccess(AppBlockMatcher matcher);
+        void onFailure(Exception exception);
+    }
+
+    /**
+     * Builder for AppBlockMatcher
+     * Not thread-safe; collect rules and then call build() or buildAsync()
+     */
+    public static final class Builder {
+        private final List<String> patterns = new ArrayList<>();
+        private final List<Integer> actions = new ArrayList<>();
+        private final int[] categoryRules;
+
+        public Builder() {
+            categoryRules = new int[MAX_CATEGORIES];
+            Arrays.fill(categoryRules, NO_MATCH);
+        }
+
+        /**
+         * Add a package rule
+         * @param pattern Exact package name, or a prefix ending with "*"
+         * @param action ACTION_BLOCK or ACTION_ALLOW
+         */
+        public Builder addRule(String pattern, int action) {
+            if (pattern == null || pattern.trim().isEmpty()) {
+                throw new IllegalArgumentException("Rule pattern cannot be empty");
+            }
+            String trimmed = pattern.trim();
+            int star = trimmed.indexOf('*');
+            if (star >= 0 && star != trimmed.length() - 1) {
+                throw new IllegalArgumentException("Wildcard is only supported at the end: " + pattern);
+            }
+            patterns.add(trimmed);
+            actions.add(action);
+            return this;
+        }
+
+        /**
+         * Add a category rule
+         * @param category ApplicationInfo.CATEGORY_* value
+         * @param action ACTION_BLOCK or ACTION_ALLOW
+         */
+        public Builder addCategoryRule(int category, int action) {
+            int slot = category + CATEGORY_OFFSET;
+            if (slot < 0 || slot >= MAX_CATEGORIES) {
+                throw new IllegalArgumentException("Unsupported category: " + category);
+            }
+            patterns.add("category:" + category);
+            actions.add(action);
+            categoryRules[slot] = patterns.size() - 1;
+            return this;
+        }
+
+        /**
+         * Compile rules into an immutable matcher
+         * Do not call on the main thread for large rule sets
+         */
+        public AppBlockMatcher build() {
+            int ruleCount = patterns.size();
+            String[] rulePatterns = patterns.toArray(new String[0]);
+            int[] ruleActions = new int[ruleCount];
+
+            // Build with a map-backed trie, then compact into primitive arrays
+            Map<Long, Integer> edges = new HashMap<>();
+            int nodeCapacity = 16;
+            byte[] flags = new byte[nodeCapacity];
+            int[] exactRule = new int[nodeCapacity];
+            int[] prefixRule = new int[nodeCapacity];
+            Arrays.fill(exactRule, NO_MATCH);
+            Arrays.fill(prefixRule, NO_MATCH);
+            int nodeCount = 1;
+
+            for (int r = 0; r < ruleCount; r++) {
+                ruleActions[r] = actions.get(r);
+                String pattern = rulePatterns[r];
+                if (pattern.startsWith("category:")) {
+                    continue;
+                }
+
+                boolean prefix = pattern.endsWith("*");
+                int end = prefix ? pattern.length() - 1 : pattern.length();
+
+                int node = 0;
+                for (int i = 0; i < end; i++) {
+                    long key = ((long) node << 16) | pattern.charAt(i);
+                    Integer next = edges.get(key);
+                    if (next == null) {
+                        if (nodeCount == nodeCapacity) {
+                            nodeCapacity *= 2;
+                            flags = Arrays.copyOf(flags, nodeCapacity);
+                            exactRule = grow(exactRule, nodeCapacity);
+                            prefixRule = grow(prefixRule, nodeCapacity);
+                        }
+                        next = nodeCount++;
+                        edges.put(key, next);
+                    }
+                    node = next;
+                }
+
+                // Later rules for the same pattern replace earlier ones
+                if (prefix) {
+                    flags[node] |= FLAG_PREFIX;
+                    prefixRule[node] = r;
+                } else {
+                    flags[node] |= FLAG_EXACT;
+                    exactRule[node] = r;
+                }
+            }
+
+            // Size the edge table for a load factor of at most 0.5
+            int tableSize = 2;
+            while (tableSize < edges.size() * 2) {
+                tableSize <<= 1;
+            }
+            long[] edgeKeys = new long[tableSize];
+            int[] edgeTargets = new int[tableSize];
+            Arrays.fill(edgeKeys, EMPTY_KEY);
+            int mask = tableSize - 1;
+            for (Map.Entry<Long, Integer> entry : edges.entrySet()) {
+                long key = entry.getKey();
+                int slot = hash(key) & mask;
+                while (edgeKeys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                edgeKeys[slot] = key;
+                edgeTargets[slot] = entry.getValue();
+            }
+
+            return new AppBlockMatcher(
+                    edgeKeys,
+                    edgeTargets,
+                    Arrays.copyOf(flags, nodeCount),
+                    Arrays.copyOf(exactRule, nodeCount),
+                    Arrays.copyOf(prefixRule, nodeCount),
+                    rulePatterns,
+                    ruleActions,
+                    categoryRules.clone()
+            );
+        }
+
+        /**
+         * Compile rules on the given executor
+         * @param executor Background executor
+         * @param callback Callback for result (invoked on the executor thread)
+         */
+        public void buildAsync(Executor executor, BuildCallback callback) {
+            executor.execute(() -> {
+                try {
+                    callback.onSuccess(build());
+                } catch (Exception e) {
+                    callback.onFailure(e);
+                }
+            });
+        }
+
+        private static int[] grow(int[] array, int capacity) {
+            int oldLength = array.length;
+            int[] grown = Arrays.copyOf(array, capacity);
+            Arrays.fill(grown, oldLength, capacity, NO_MATCH);
+            return grown;
+        }
+    }
+}
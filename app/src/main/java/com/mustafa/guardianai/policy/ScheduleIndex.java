@@ -0,0 +1,185 @@
+package com.mustafa.guardianai.policy;
+
+import com.mustafa.guardianai.data.model.ScheduleWindow;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Schedule Index
+ * Compiled view of a child's recurring blocked windows (bedtime, school hours)
+ *
+ * Windows are expanded into absolute [start, end) intervals over a fixed horizon using the
+ * child's timezone, so DST shifts are resolved at compile time. Overlapping intervals are
+ * merged and stored in two sorted long arrays, which makes isBlocked() and
+ * getNextTransition() simple binary searches.
+ *
+ * The enforcement service should sleep until getNextTransition() instead of polling, and
+ * recompile when it passes getValidUntil() or when the windows change.
+ */
+public final class ScheduleIndex {
+    public static final int DEFAULT_HORIZON_DAYS = 8;
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long validFrom;
+    private final long validUntil;
+
+    private ScheduleIndex(long[] starts, long[] ends, long validFrom, long validUntil) {
+        this.starts = starts;
+        this.ends = ends;
+        this.validFrom = validFrom;
+        this.validUntil = validUntil;
+    }
+
+    /**
+     * Compile windows with the default horizon
+     * @param windows Recurring windows for one child (inactive windows are skipped)
+     * @param timeZone Child's timezone
+     * @param fromMillis Start of the horizon (usually now)
+     */
+    public static ScheduleIndex compile(List<ScheduleWindow> windows, TimeZone timeZone, long fromMillis) {
+        return compile(windows, timeZone, fromMillis, DEFAULT_HORIZON_DAYS);
+    }
+
+    /**
+     * Compile windows into a sorted, merged interval array
+     * @param windows Recurring windows for one child (inactive windows are skipped)
+     * @param timeZone Child's timezone
+     * @param fromMillis Start of the horizon (usually now)
+     * @param horizonDays Number of days to expand
+     */
+    public static ScheduleIndex compile(List<ScheduleWindow> windows, TimeZone timeZone,
+                                        long fromMillis, int horizonDays) {
+        if (horizonDays <= 0) {
+            throw new IllegalArgumentException("horizonDays must be positive");
+        }
+
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(fromMillis);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        // Start one day early to catch windows that began yesterday and cross midnight
+        calendar.add(Calendar.DAY_OF_MONTH, -1);
+
+        int capacity = Math.max(1, windows.size() * (horizonDays + 1));
+        long[] rawStarts = new long[capacity];
+        long[] rawEnds = new long[capacity];
+        int count = 0;
+
+        for (int day = 0; day <= horizonDays; day++) {
+            int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+            for (ScheduleWindow window : windows) {
+                if (!window.isActive() || !window.startsOn(dayOfWeek)) {
+                    continue;
+                }
+                long start = localMinuteToMillis(calendar, window.getStartMinute(), 0);
+                long end = localMinuteToMillis(calendar, window.getEndMinute(),
+                        window.crossesMidnight() ? 1 : 0);
+                if (end <= start) {
+                    // Possible only when a DST gap swallows the whole window
+                    continue;
+                }
+                rawStarts[count] = start;
+                rawEnds[count] = end;
+                count++;
+            }
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        long validUntil = calendar.getTimeInMillis();
+
+        // Sort intervals by start
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        final long[] sortStarts = rawStarts;
+        Arrays.sort(order, (a, b) -> Long.compare(sortStarts[a], sortStarts[b]));
+
+        // Merge overlapping and touching intervals
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        int merged = 0;
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            if (merged > 0 && rawStarts[i] <= ends[merged - 1]) {
+                ends[merged - 1] = Math.max(ends[merged - 1], rawEnds[i]);
+            } else {
+                starts[merged] = rawStarts[i];
+                ends[merged] = rawEnds[i];
+                merged++;
+            }
+        }
+
+        return new ScheduleIndex(
+                Arrays.copyOf(starts, merged),
+                Arrays.copyOf(ends, merged),
+                fromMillis,
+                validUntil
+        );
+    }
+
+    /**
+     * Check whether a time falls inside any blocked window
+     */
+    public boolean isBlocked(long timeMillis) {
+        int i = floorIndex(timeMillis);
+        return i >= 0 && timeMillis < ends[i];
+    }
+
+    /**
+     * Get the next time the blocked state changes after timeMillis
+     * @return Next boundary, or getValidUntil() if there is none inside the horizon
+     */
+    public long getNextTransition(long timeMillis) {
+        int i = floorIndex(timeMillis);
+        if (i >= 0 && timeMillis < ends[i]) {
+            return ends[i];
+        }
+        int next = i + 1;
+        return next < starts.length ? starts[next] : validUntil;
+    }
+
+    /**
+     * Get milliseconds to sleep until the next transition
+     */
+    public long millisUntilNextTransition(long timeMillis) {
+        return Math.max(0, getNextTransition(timeMillis) - timeMillis);
+    }
+
+    /**
+     * Check whether the index still covers a time (recompile otherwise)
+     */
+    public boolean covers(long timeMillis) {
+        return timeMillis >= validFrom && timeMillis < validUntil;
+    }
+
+    public long getValidFrom() {
+        return validFrom;
+    }
+
+    public long getValidUntil() {
+        return validUntil;
+    }
+
+    public int getIntervalCount() {
+        return starts.length;
+    }
+
+    // Index of the last interval starting at or before timeMillis, or -1
+    private int floorIndex(long timeMillis) {
+        int i = Arrays.binarySearch(starts, timeMillis);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private static long localMinuteToMillis(Calendar dayStart, int minuteOfDay, int dayOffset) {
+        Calendar c = (Calendar) dayStart.clone();
+        c.add(Calendar.DAY_OF_MONTH, dayOffset);
+        c.set(Calendar.HOUR_OF_DAY, minuteOfDay / 60);
+        c.set(Calendar.MINUTE, minuteOfDay % 60);
+        return c.getTimeInMillis();
+    }
+}
@@ -0,0 +1,98 @@
+package com.mustafa.guardianai.trace;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.QuerySnapshot;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Document Sizes
+ * Estimates Firestore document sizes from snapshots using Firestore's storage size rules
+ *
+ * The SDK does not expose wire sizes; this is the billed storage size, which tracks the
+ * payload closely enough to compare operations and spot regressions.
+ */
+public final class DocumentSizes {
+    private static final int DOCUMENT_OVERHEAD = 32;
+    private static final int NAME_OVERHEAD = 16;
+
+    private DocumentSizes() {
+    }
+
+    public static long of(QuerySnapshot snapshot) {
+        long bytes = 0;
+        for (DocumentSnapshot document : snapshot.getDocuments()) {
+            bytes += of(document);
+        }
+        return bytes;
+    }
+
+    public static long of(DocumentSnapshot snapshot) {
+        if (!snapshot.exists()) {
+            return 0;
+        }
+        return pathSize(snapshot.getReference().getPath()) + mapSize(snapshot.getData()) + DOCUMENT_OVERHEAD;
+    }
+
+    private static long pathSize(String path) {
+        long size = NAME_OVERHEAD;
+        for (String segment : path.split("/")) {
+            size += stringSize(segment);
+        }
+        return size;
+    }
+
+    private static long mapSize(Map<String, Object> map) {
+        if (map == null) {
+            return 0;
+        }
+        long size = 0;
+        for (Map.Entry<String, Object> field : map.entrySet()) {
+            size += stringSize(field.getKey()) + valueSize(field.getValue());
+        }
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long valueSize(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 1;
+        }
+        if (value instanceof Number || value instanceof Timestamp || value instanceof Date) {
+            return 8;
+        }
+        if (value instanceof String) {
+            return stringSize((String) value);
+        }
+        if (value instanceof GeoPoint) {
+            return 16;
+        }
+        if (value instanceof Blob) {
+            return ((Blob) value).toBytes().length;
+        }
+        if (value instanceof DocumentReference) {
+            return pathSize(((DocumentReference) value).getPath());
+        }
+        if (value instanceof List) {
+            long size = 0;
+            for (Object element : (List<Object>) value) {
+                size += valueSize(element);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            return mapSize((Map<String, Object>) value);
+        }
+        return 8;
+    }
+
+    private static long stringSize(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length + 1;
+    }
+}
@@ -0,0 +1,360 @@
+package com.mustafa.guardianai.trace;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import java.util.Calendar;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Firestore Meter
+ * Billed document reads, writes and deletes per feature, with per-session budgets
+ *
+ * Usage arrives from Tracer spans and is attributed to a feature by the operation's area
+ * ("dashboard.summary.read" counts for DASHBOARD). A session is the app process. Crossing
+ * WARN_FRACTION of a budget and then the budget itself logs a warning once; in strict
+ * mode every operation past a budget is logged as an error and counted as an overrun, so
+ * read regressions stand out in debug runs without failing the caller.
+ * Daily totals are kept for DAYS_KEPT days once attach() has been called. They are counted
+ * in memory and written to preferences at most every FLUSH_INTERVAL_MILLIS, and on flush().
+ */
+public final class FirestoreMeter {
+    private static final String TAG = "FirestoreMeter";
+    private static final String PREFS_NAME = "GuardianAI_firestore_usage";
+    private static final String KEY_LAST_DAY = "lastDay";
+    private static final double WARN_FRACTION = 0.8;
+    private static final int DAYS_KEPT = 14;
+    private static final long FLUSH_INTERVAL_MILLIS = 60 * 1000L;
+
+    public enum Feature {
+        DASHBOARD(500, 20),
+        ALERTS(500, 100),
+        PAIRING(50, 20),
+        PROFILES(300, 50),
+        AUTH(50, 10),
+        DEVICE(50, 300),
+        OTHER(200, 50);
+
+        // Default per-session budgets
+        final int readBudget;
+        final int writeBudget;
+
+        Feature(int readBudget, int writeBudget) {
+            this.readBudget = readBudget;
+            this.writeBudget = writeBudget;
+        }
+
+        /**
+         * Feature owning an operation, from its area prefix
+         */
+        public static Feature of(String operation) {
+            int dot = operation.indexOf('.');
+            String area = dot < 0 ? operation : operation.substring(0, dot);
+            switch (area) {
+                case "dashboard":
+                    return DASHBOARD;
+                case "alerts":
+                    return ALERTS;
+                case "pairing":
+                    return PAIRING;
+                case "profiles":
+                case "pairs":
+                    return PROFILES;
+                case "auth":
+                case "users":
+                    return AUTH;
+                case "fcm":
+                case "location":
+                    return DEVICE;
+                default:
+                    return OTHER;
+            }
+        }
+    }
+
+    /**
+     * Reads, writes and deletes for one feature
+     */
+    public static final class Usage {
+        private long reads;
+        private long writes;
+        private long deletes;
+
+        public long getReads() {
+            return reads;
+        }
+
+        public long getWrites() {
+            return writes;
+        }
+
+        public long getDeletes() {
+            return deletes;
+        }
+
+        Usage copy() {
+            Usage usage = new Usage();
+            usage.reads = reads;
+            usage.writes = writes;
+            usage.deletes = deletes;
+            return usage;
+        }
+    }
+
+    private static volatile FirestoreMeter instance;
+
+    private final Map<Feature, Usage> session = new EnumMap<>(Feature.class);
+    private final Map<Feature, Usage> today = new EnumMap<>(Feature.class);
+    private final Map<Feature, int[]> budgets = new EnumMap<>(Feature.class);
+    // Warning level already logged per feature: 0 none, 1 near budget, 2 over budget
+    private final Map<Feature, Integer> warned = new EnumMap<>(Feature.class);
+    private final Map<Feature, Long> overruns = new EnumMap<>(Feature.class);
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+    private SharedPreferences prefs;
+    private String todayKey;
+    private boolean dirty = false;
+    private boolean strict = false;
+
+    private FirestoreMeter() {
+        for (Feature feature : Feature.values()) {
+            session.put(feature, new Usage());
+            today.put(feature, new Usage());
+            budgets.put(feature, new int[]{feature.readBudget, feature.writeBudget});
+            warned.put(feature, 0);
+            overruns.put(feature, 0L);
+        }
+    }
+
+    public static FirestoreMeter getInstance() {
+        if (instance == null) {
+            synchronized (FirestoreMeter.class) {
+                if (instance == null) {
+                    instance = new FirestoreMeter();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Separate session-only meter with default budgets (see Tracer.setMeter)
+     */
+    public static FirestoreMeter create() {
+        return new FirestoreMeter();
+    }
+
+    /**
+     * Persist daily totals (call once from Application.onCreate)
+     */
+    public void attach(Context context) {
+        attach(context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE));
+    }
+
+    // Persist daily totals to the given preferences (unit tests pass an in-memory store)
+    synchronized void attach(SharedPreferences prefs) {
+        this.prefs = prefs;
+        rollOver(dayKey(System.currentTimeMillis()));
+        pruneOldDays();
+    }
+
+    /**
+     * Override the per-session budget of a feature
+     * @param writes Budget for writes plus deletes
+     */
+    public synchronized void setBudget(Feature feature, int reads, int writes) {
+        budgets.put(feature, new int[]{reads, writes});
+        warned.put(feature, 0);
+    }
+
+    /**
+     * Report every operation past a budget, not just the first (debug builds)
+     */
+    public synchronized void setStrict(boolean strict) {
+        this.strict = strict;
+    }
+
+    public synchronized void record(String operation, int reads, int writes, int deletes) {
+        Feature feature = Feature.of(operation);
+        add(session.get(feature), reads, writes, deletes);
+
+        if (prefs != null) {
+            rollOver(dayKey(System.currentTimeMillis()));
+            add(today.get(feature), reads, writes, deletes);
+            if (!dirty) {
+                dirty = true;
+                handler.postDelayed(flushRunnable, FLUSH_INTERVAL_MILLIS);
+            }
+        }
+
+        checkBudget(feature, operation);
+    }
+
+    /**
+     * Write today's pending totals now, e.g. when the app goes to the background
+     */
+    public synchronized void flush() {
+        if (!dirty || prefs == null) {
+            return;
+        }
+        handler.removeCallbacks(flushRunnable);
+        dirty = false;
+        SharedPreferences.Editor editor = prefs.edit();
+        for (Feature feature : Feature.values()) {
+            Usage day = today.get(feature);
+            editor.putLong(key(todayKey, feature, "reads"), day.reads)
+                    .putLong(key(todayKey, feature, "writes"), day.writes)
+                    .putLong(key(todayKey, feature, "deletes"), day.deletes);
+        }
+        editor.apply();
+    }
+
+    public synchronized Usage getSessionUsage(Feature feature) {
+        return session.get(feature).copy();
+    }
+
+    /**
+     * Operations recorded past a budget in strict mode this session
+     */
+    public synchronized long getOverruns(Feature feature) {
+        return overruns.get(feature);
+    }
+
+    /**
+     * Totals for a day
+     * @param dayKey yyyyMMdd
+     */
+    public synchronized Usage getDailyUsage(String dayKey, Feature feature) {
+        if (dayKey.equals(todayKey)) {
+            return today.get(feature).copy();
+        }
+        return load(dayKey, feature);
+    }
+
+    /**
+     * Session usage against budgets, then daily totals for the last days
+     */
+    public synchronized String formatReport(int days) {
+        StringBuilder report = new StringBuilder("Session (reads/budget, writes+deletes/budget)\n");
+        for (Feature feature : Feature.values()) {
+            Usage usage = session.get(feature);
+            int[] budget = budgets.get(feature);
+            report.append(String.format(Locale.US, "  %-9s %5d/%-5d %5d/%d", feature,
+                    usage.reads, budget[0], usage.writes + usage.deletes, budget[1]));
+            long overrun = overruns.get(feature);
+            if (overrun > 0) {
+                report.append(String.format(Locale.US, "  (%d overruns)", overrun));
+            }
+            report.append('\n');
+        }
+        if (prefs == null) {
+            return report.toString();
+        }
+
+        report.append("Daily totals (reads, writes, deletes)\n");
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < days; i++) {
+            String day = dayKey(now - i * 24L * 60 * 60 * 1000);
+            Usage total = new Usage();
+            for (Feature feature : Feature.values()) {
+                Usage usage = getDailyUsage(day, feature);
+                add(total, usage.reads, usage.writes, usage.deletes);
+            }
+            report.append(String.format(Locale.US, "  %s %7d %7d %7d\n", day,
+                    total.reads, total.writes, total.deletes));
+        }
+        return report.toString();
+    }
+
+    private void checkBudget(Feature feature, String operation) {
+        Usage usage = session.get(feature);
+        int[] budget = budgets.get(feature);
+        double fraction = Math.max((double) usage.reads / budget[0],
+                (double) (usage.writes + usage.deletes) / budget[1]);
+        int level = fraction > 1.0 ? 2 : fraction >= WARN_FRACTION ? 1 : 0;
+        // Strict mode reports every operation past the budget, not just the first
+        if (level <= warned.get(feature) && !(level == 2 && strict)) {
+            return;
+        }
+        warned.put(feature, level);
+
+        String message = String.format(Locale.US,
+                "%s %s session budget after %s: reads %d/%d, writes %d/%d",
+                feature, level == 2 ? "exceeded" : "nearing", operation,
+                usage.reads, budget[0], usage.writes + usage.deletes, budget[1]);
+        if (level == 2 && strict) {
+            // Usage arrives from Task listeners, where throwing would only break the caller
+            overruns.put(feature, overruns.get(feature) + 1);
+            Log.e(TAG, message);
+            return;
+        }
+        Log.w(TAG, message);
+    }
+
+    // Start a new day's totals, reporting the previous day once
+    private void rollOver(String dayKey) {
+        if (dayKey.equals(todayKey)) {
+            return;
+        }
+        // The previous day's pending totals go out before its counters are replaced
+        flush();
+        String lastDay = prefs.getString(KEY_LAST_DAY, null);
+        if (lastDay != null && !lastDay.equals(dayKey)) {
+            for (Feature feature : Feature.values()) {
+                Usage usage = load(lastDay, feature);
+                if (usage.reads + usage.writes + usage.deletes > 0) {
+                    Log.i(TAG, "Firestore usage " + lastDay + " " + feature + ": reads=" + usage.reads
+                            + " writes=" + usage.writes + " deletes=" + usage.deletes);
+                }
+            }
+        }
+        todayKey = dayKey;
+        for (Feature feature : Feature.values()) {
+            today.put(feature, load(dayKey, feature));
+        }
+        prefs.edit().putString(KEY_LAST_DAY, dayKey).apply();
+    }
+
+    private void pruneOldDays() {
+        String oldest = dayKey(System.currentTimeMillis() - DAYS_KEPT * 24L * 60 * 60 * 1000);
+        SharedPreferences.Editor editor = prefs.edit();
+        for (String key : prefs.getAll().keySet()) {
+            int slash = key.indexOf('/');
+            if (slash > 0 && key.substring(0, slash).compareTo(oldest) < 0) {
+                editor.remove(key);
+            }
+        }
+        editor.apply();
+    }
+
+    private Usage load(String dayKey, Feature feature) {
+        Usage usage = new Usage();
+        if (prefs != null) {
+            usage.reads = prefs.getLong(key(dayKey, feature, "reads"), 0);
+            usage.writes = prefs.getLong(key(dayKey, feature, "writes"), 0);
+            usage.deletes = prefs.getLong(key(dayKey, feature, "deletes"), 0);
+        }
+        return usage;
+    }
+
+    private static void add(Usage usage, long reads, long writes, long deletes) {
+        usage.reads += reads;
+        usage.writes += writes;
+        usage.deletes += deletes;
+    }
+
+    private static String key(String dayKey, Feature feature, String metric) {
+        return dayKey + "/" + feature.name() + "/" + metric;
+    }
+
+    private static String dayKey(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return String.format(Locale.US, "%04d%02d%02d", calendar.get(Calendar.YEAR),
+                calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH));
+    }
+}
@@ -0,0 +1,92 @@
+package com.mustafa.guardianai.trace;
+
+import java.util.Arrays;
+
+/**
+ * Latency Histogram
+ * Fixed exponential buckets from 0.1ms to ~2 minutes, for percentiles without keeping samples
+ *
+ * Bucket bounds grow by 25%, so a reported percentile is at most 25% above the true
+ * value (and never above the largest sample). Thread-safe.
+ */
+public final class LatencyHistogram {
+    private static final double GROWTH = 1.25;
+    private static final long[] BOUNDS_MICROS = buildBounds(100L, 120_000_000L);
+
+    private final long[] counts = new long[BOUNDS_MICROS.length + 1];
+    private long total;
+    private long sumMicros;
+    private long maxMicros;
+
+    public synchronized void record(long micros) {
+        counts[bucketOf(micros)]++;
+        total++;
+        sumMicros += micros;
+        maxMicros = Math.max(maxMicros, micros);
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile
+     * @param percentile 0-100
+     * @return Microseconds, 0 if nothing was recorded
+     */
+    public synchronized long percentileMicros(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1)) {
+                return i < BOUNDS_MICROS.length ? Math.min(BOUNDS_MICROS[i], maxMicros) : maxMicros;
+            }
+        }
+        return maxMicros;
+    }
+
+    public synchronized long getCount() {
+        return total;
+    }
+
+    public synchronized long getMeanMicros() {
+        return total == 0 ? 0 : sumMicros / total;
+    }
+
+    public synchronized long getMaxMicros() {
+        return maxMicros;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sumMicros = 0;
+        maxMicros = 0;
+    }
+
+    private static int bucketOf(long micros) {
+        // Binary search for the first bound >= micros
+        int low = 0;
+        int high = BOUNDS_MICROS.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BOUNDS_MICROS[mid] < micros) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long[] buildBounds(long first, long last) {
+        int n = (int) Math.ceil(Math.log((double) last / first) / Math.log(GROWTH)) + 1;
+        long[] bounds = new long[n];
+        double bound = first;
+        for (int i = 0; i < n; i++) {
+            bounds[i] = (long) bound;
+            bound *= GROWTH;
+        }
+        return bounds;
+    }
+}
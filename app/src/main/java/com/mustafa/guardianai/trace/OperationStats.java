@@ -0,0 +1,76 @@
+package com.mustafa.guardianai.trace;
+
+import androidx.annotation.NonNull;
+import java.util.Locale;
+
+/**
+ * Operation Stats
+ * Aggregated spans for one traced operation: latency, failures, documents and bytes
+ */
+public final class OperationStats {
+    private final String operation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private long failures;
+    private long cancellations;
+    private long documents;
+    private long bytes;
+
+    OperationStats(String operation) {
+        this.operation = operation;
+    }
+
+    synchronized void record(long micros, boolean success, int documents, long bytes) {
+        latency.record(micros);
+        if (!success) {
+            failures++;
+        }
+        this.documents += documents;
+        this.bytes += bytes;
+    }
+
+    synchronized void recordCancelled() {
+        cancellations++;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    public synchronized long getCancellations() {
+        return cancellations;
+    }
+
+    public synchronized long getDocuments() {
+        return documents;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        long calls = getCalls();
+        return String.format(Locale.US,
+                "%s calls=%d fail=%d cancel=%d p50=%.1fms p95=%.1fms p99=%.1fms docs/call=%.1f bytes/call=%d",
+                operation, calls, failures, cancellations,
+                latency.percentileMicros(50) / 1000.0,
+                latency.percentileMicros(95) / 1000.0,
+                latency.percentileMicros(99) / 1000.0,
+                calls == 0 ? 0.0 : (double) documents / calls,
+                calls == 0 ? 0 : bytes / calls);
+    }
+}
@@ -0,0 +1,341 @@
+package com.mustafa.guardianai.trace;
+
+import androidx.tracing.Trace;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.mustafa.guardianai.network.ServiceCall;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracer
+ * In-process span recorder for service and Firestore operations
+ *
+ * Each span is also an androidx.tracing async section, so it shows up in Perfetto /
+ * system traces under its operation name. Completed spans feed per-operation stats
+ * (latency percentiles, failures, documents and estimated bytes) and a bounded list of
+ * recent spans for CSV export. Operation names are "area.action", e.g. "alerts.query".
+ * Billed reads, writes and deletes of successful spans, and of snapshot listener
+ * deliveries (trackSnapshot), are passed to FirestoreMeter.
+ */
+public final class Tracer {
+    private static final int MAX_RECENT_SPANS = 1000;
+
+    private static volatile Tracer instance;
+
+    private final Map<String, OperationStats> stats = new TreeMap<>();
+    private final ArrayDeque<SpanRecord> recentSpans = new ArrayDeque<>();
+    private final AtomicInteger nextCookie = new AtomicInteger();
+    private volatile boolean measureBytes = false;
+    private volatile FirestoreMeter meter = FirestoreMeter.getInstance();
+
+    private Tracer() {
+    }
+
+    public static Tracer getInstance() {
+        if (instance == null) {
+            synchronized (Tracer.class) {
+                if (instance == null) {
+                    instance = new Tracer();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Estimating bytes walks every field of every returned document on the thread the
+     * task completes on (usually main), so it is off unless enabled, e.g. for debuggable builds
+     */
+    public void setMeasureBytes(boolean measureBytes) {
+        this.measureBytes = measureBytes;
+    }
+
+    /**
+     * Send billed usage to another meter, e.g. a load harness keeping its runs out of the
+     * app's session and daily totals
+     * @return The meter used until now, to restore afterwards
+     */
+    public FirestoreMeter setMeter(FirestoreMeter meter) {
+        FirestoreMeter previous = this.meter;
+        this.meter = meter;
+        return previous;
+    }
+
+    /**
+     * Start a span; it must be ended (or cancelled) exactly once
+     */
+    public Span start(String operation) {
+        return new Span(operation);
+    }
+
+    /**
+     * Trace a Firestore task; documents, reads and bytes are taken from snapshot results
+     * @return The same task
+     */
+    public <T> Task<T> track(String operation, Task<T> task) {
+        return track(operation, task, 0, 0, 0);
+    }
+
+    /**
+     * Trace a Firestore task whose result does not show its usage (writes, batches,
+     * transactions)
+     * @param reads Documents read besides any snapshot result (e.g. transaction gets)
+     * @param writes Documents set or updated
+     * @param deletes Documents deleted
+     * @return The same task
+     */
+    public <T> Task<T> track(String operation, Task<T> task, int reads, int writes, int deletes) {
+        Span span = start(operation).addUsage(reads, writes, deletes);
+        task.addOnCompleteListener(completed -> {
+            if (completed.isCanceled()) {
+                span.cancel();
+            } else if (completed.isSuccessful()) {
+                span.addResult(completed.getResult());
+                span.end(true);
+            } else {
+                span.end(false);
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Meter a snapshot listener delivery. Deliveries answered from the local cache are free;
+     * otherwise each changed document is a read (all results on the first delivery), and an
+     * empty first result still bills one.
+     */
+    public void trackSnapshot(String operation, Object snapshot) {
+        int reads = 0;
+        if (snapshot instanceof QuerySnapshot) {
+            QuerySnapshot querySnapshot = (QuerySnapshot) snapshot;
+            if (!querySnapshot.getMetadata().isFromCache()) {
+                reads = Math.max(1, querySnapshot.getDocumentChanges().size());
+            }
+        } else if (snapshot instanceof DocumentSnapshot) {
+            if (!((DocumentSnapshot) snapshot).getMetadata().isFromCache()) {
+                reads = 1;
+            }
+        }
+        if (reads > 0) {
+            meter.record(operation, reads, 0, 0);
+        }
+    }
+
+    /**
+     * Trace a composite service operation from start to completion
+     * @return The same call
+     */
+    public <T> ServiceCall<T> trace(String operation, ServiceCall<T> call) {
+        Span span = start(operation);
+        call.onCancel(span::cancel);
+        call.observe(result -> span.end(true), exception -> span.end(false));
+        return call;
+    }
+
+    /**
+     * Stats per operation, sorted by name
+     */
+    public synchronized List<OperationStats> getStats() {
+        return new ArrayList<>(stats.values());
+    }
+
+    public synchronized List<SpanRecord> getRecentSpans() {
+        return new ArrayList<>(recentSpans);
+    }
+
+    public synchronized void reset() {
+        stats.clear();
+        recentSpans.clear();
+    }
+
+    /**
+     * One line per operation, for logs and the debug screen
+     */
+    public String formatSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (OperationStats operation : getStats()) {
+            summary.append(operation).append('\n');
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Per-operation stats as CSV
+     */
+    public void writeStatsCsv(Writer writer) throws IOException {
+        writer.write("operation,calls,failures,cancellations,p50_us,p95_us,p99_us,max_us,mean_us,documents,bytes\n");
+        for (OperationStats operation : getStats()) {
+            LatencyHistogram latency = operation.getLatency();
+            writer.write(String.format(Locale.US, "%s,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d\n",
+                    operation.getOperation(), operation.getCalls(), operation.getFailures(),
+                    operation.getCancellations(), latency.percentileMicros(50),
+                    latency.percentileMicros(95), latency.percentileMicros(99),
+                    latency.getMaxMicros(), latency.getMeanMicros(),
+                    operation.getDocuments(), operation.getBytes()));
+        }
+    }
+
+    /**
+     * Recent spans (oldest first) as CSV, for offline analysis
+     */
+    public void writeSpansCsv(Writer writer) throws IOException {
+        writer.write("operation,start_ms,duration_us,outcome,documents,bytes,reads,writes,deletes\n");
+        for (SpanRecord span : getRecentSpans()) {
+            writer.write(String.format(Locale.US, "%s,%d,%d,%s,%d,%d,%d,%d,%d\n",
+                    span.operation, span.startMillis, span.durationMicros,
+                    span.outcome.name().toLowerCase(Locale.US),
+                    span.documents, span.bytes, span.reads, span.writes, span.deletes));
+        }
+    }
+
+    private synchronized void record(SpanRecord span) {
+        OperationStats operation = stats.get(span.operation);
+        if (operation == null) {
+            operation = new OperationStats(span.operation);
+            stats.put(span.operation, operation);
+        }
+        if (span.outcome == Outcome.CANCELLED) {
+            operation.recordCancelled();
+        } else {
+            operation.record(span.durationMicros, span.outcome == Outcome.OK, span.documents, span.bytes);
+        }
+
+        recentSpans.addLast(span);
+        if (recentSpans.size() > MAX_RECENT_SPANS) {
+            recentSpans.removeFirst();
+        }
+    }
+
+    public enum Outcome {
+        OK,
+        ERROR,
+        CANCELLED
+    }
+
+    /**
+     * Running span
+     */
+    public final class Span {
+        private final String operation;
+        private final int cookie;
+        private final long startMillis = System.currentTimeMillis();
+        private final long startNanos = System.nanoTime();
+        private int documents;
+        private long bytes;
+        private int reads;
+        private int writes;
+        private int deletes;
+        private boolean ended;
+
+        private Span(String operation) {
+            this.operation = operation;
+            this.cookie = nextCookie.incrementAndGet();
+            Trace.beginAsyncSection(operation, cookie);
+        }
+
+        public Span addDocuments(int count) {
+            documents += count;
+            return this;
+        }
+
+        public Span addBytes(long count) {
+            bytes += count;
+            return this;
+        }
+
+        /**
+         * Billed document operations
+         */
+        public Span addUsage(int reads, int writes, int deletes) {
+            this.reads += reads;
+            this.writes += writes;
+            this.deletes += deletes;
+            return this;
+        }
+
+        /**
+         * Count documents (and bytes) of a snapshot result; other results are ignored
+         */
+        public Span addResult(Object result) {
+            if (result instanceof QuerySnapshot) {
+                QuerySnapshot snapshot = (QuerySnapshot) result;
+                documents += snapshot.size();
+                // A query returning nothing is still billed one read
+                reads += Math.max(1, snapshot.size());
+                if (measureBytes) {
+                    bytes += DocumentSizes.of(snapshot);
+                }
+            } else if (result instanceof DocumentSnapshot) {
+                DocumentSnapshot snapshot = (DocumentSnapshot) result;
+                // A missing document is still billed as one read
+                documents++;
+                reads++;
+                if (measureBytes) {
+                    bytes += DocumentSizes.of(snapshot);
+                }
+            }
+            return this;
+        }
+
+        public void end(boolean success) {
+            finish(success ? Outcome.OK : Outcome.ERROR);
+        }
+
+        public void cancel() {
+            finish(Outcome.CANCELLED);
+        }
+
+        private void finish(Outcome outcome) {
+            synchronized (this) {
+                if (ended) {
+                    return;
+                }
+                ended = true;
+            }
+            Trace.endAsyncSection(operation, cookie);
+            long durationMicros = (System.nanoTime() - startNanos) / 1000;
+            record(new SpanRecord(operation, startMillis, durationMicros, outcome, documents, bytes,
+                    reads, writes, deletes));
+            if (outcome == Outcome.OK && reads + writes + deletes > 0) {
+                meter.record(operation, reads, writes, deletes);
+            }
+        }
+    }
+
+    /**
+     * Completed span
+     */
+    public static final class SpanRecord {
+        public final String operation;
+        public final long startMillis;
+        public final long durationMicros;
+        public final Outcome outcome;
+        public final int documents;
+        public final long bytes;
+        public final int reads;
+        public final int writes;
+        public final int deletes;
+
+        SpanRecord(String operation, long startMillis, long durationMicros, Outcome outcome,
+                   int documents, long bytes, int reads, int writes, int deletes) {
+            this.operation = operation;
+            this.startMillis = startMillis;
+            this.durationMicros = durationMicros;
+            this.outcome = outcome;
+            this.documents = documents;
+            this.bytes = bytes;
+            this.reads = reads;
+            this.writes = writes;
+            this.deletes = deletes;
+        }
+    }
+}
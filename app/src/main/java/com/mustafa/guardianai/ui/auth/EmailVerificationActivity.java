@@ -9,8 +9,10 @@ import android.widget.EditText;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import com.google.firebase.auth.FirebaseAuth;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.databinding.ActivityEmailVerificationBinding;
 import com.mustafa.guardianai.network.AuthService;
+import com.mustafa.guardianai.network.ServiceCall;
 import com.mustafa.guardianai.ui.parent.ParentDashboardActivity;
 
 import java.util.Timer;
@@ -22,7 +24,7 @@ import java.util.TimerTask;
  */
 public class EmailVerificationActivity extends AppCompatActivity {
     private ActivityEmailVerificationBinding binding;
-    private final AuthService authService = new AuthService();
+    private final AuthService authService = ServiceRegistry.getInstance().getAuthService();
     private final FirebaseAuth auth = FirebaseAuth.getInstance();
     private Timer resendTimer;
     private int resendSeconds = 60;
@@ -107,9 +109,9 @@ public class EmailVerificationActivity extends AppCompatActivity {
         binding.btnVerifyCode.setEnabled(false);
 
         // Reload user to check verification status
-        authService.reloadUser(new AuthService.SimpleCallback() {
+        authService.reloadUser().observe(new ServiceCall.Callback<Void>() {
             @Override
-            public void onSuccess() {
+            public void onSuccess(Void result) {
                 runOnUiThread(() -> {
                     binding.progressBar.setVisibility(View.GONE);
                     binding.btnVerifyCode.setEnabled(true);
@@ -140,9 +142,9 @@ public class EmailVerificationActivity extends AppCompatActivity {
     }
 
     private void resendVerificationCode() {
-        authService.sendEmailVerification(new AuthService.SimpleCallback() {
+        authService.sendEmailVerification().observe(new ServiceCall.Callback<Void>() {
             @Override
-            public void onSuccess() {
+            public void onSuccess(Void result) {
                 runOnUiThread(() -> {
                     Toast.makeText(EmailVerificationActivity.this,
                             "Verification email resent! Please check your inbox.",
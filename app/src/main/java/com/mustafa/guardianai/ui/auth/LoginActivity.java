@@ -6,13 +6,16 @@ import android.view.View;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import com.mustafa.guardianai.R;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.databinding.ActivityLoginBinding;
+import com.mustafa.guardianai.data.model.User;
 import com.mustafa.guardianai.data.model.UserRole;
 import com.mustafa.guardianai.network.AuthService;
 import com.mustafa.guardianai.ui.child.ChildDashboardActivity;
 import com.mustafa.guardianai.ui.parent.ParentDashboardActivity;
 import com.mustafa.guardianai.utils.EmailValidator;
 import com.mustafa.guardianai.utils.PasswordValidator;
+import com.mustafa.guardianai.network.ServiceCall;
 
 /**
  * Login Activity
@@ -20,7 +23,7 @@ import com.mustafa.guardianai.utils.PasswordValidator;
  */
 public class LoginActivity extends AppCompatActivity {
     private ActivityLoginBinding binding;
-    private final AuthService authService = new AuthService();
+    private final AuthService authService = ServiceRegistry.getInstance().getAuthService();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -74,7 +77,7 @@ public class LoginActivity extends AppCompatActivity {
         binding.progressBar.setVisibility(View.VISIBLE);
         binding.btnLogin.setEnabled(false);
 
-        authService.login(email, password, new AuthService.LoginCallback() {
+        authService.login(email, password).observe(new ServiceCall.Callback<UserRole>() {
             @Override
             public void onSuccess(UserRole role) {
                 runOnUiThread(() -> {
@@ -115,7 +118,7 @@ public class LoginActivity extends AppCompatActivity {
         if (authService.isAuthenticated()) {
             com.google.firebase.auth.FirebaseUser user = authService.getCurrentUser();
             if (user != null) {
-                authService.getUserData(user.getUid(), new AuthService.UserDataCallback() {
+                authService.getUserData(user.getUid()).observe(new ServiceCall.Callback<User>() {
                     @Override
                     public void onSuccess(com.mustafa.guardianai.data.model.User user) {
                         runOnUiThread(() -> navigateToDashboard(user.getRole()));
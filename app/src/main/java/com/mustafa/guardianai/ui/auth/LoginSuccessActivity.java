@@ -5,11 +5,14 @@ import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
 import androidx.appcompat.app.AppCompatActivity;
+import com.mustafa.guardianai.ServiceRegistry;
+import com.mustafa.guardianai.data.model.User;
 import com.mustafa.guardianai.databinding.ActivityLoginSuccessBinding;
 import com.mustafa.guardianai.network.AuthService;
 import com.mustafa.guardianai.ui.parent.ParentDashboardActivity;
 import com.mustafa.guardianai.ui.child.ChildDashboardActivity;
 import com.mustafa.guardianai.data.model.UserRole;
+import com.mustafa.guardianai.network.ServiceCall;
 
 /**
  * Login Success Activity
@@ -17,7 +20,7 @@ import com.mustafa.guardianai.data.model.UserRole;
  */
 public class LoginSuccessActivity extends AppCompatActivity {
     private ActivityLoginSuccessBinding binding;
-    private final AuthService authService = new AuthService();
+    private final AuthService authService = ServiceRegistry.getInstance().getAuthService();
     private static final int REDIRECT_DELAY = 2000; // 2 seconds
 
     @Override
@@ -27,6 +30,8 @@ public class LoginSuccessActivity extends AppCompatActivity {
         setContentView(binding.getRoot());
 
         setupUI();
+        // Register this device for push; no-op if the token was already written
+        ServiceRegistry.getInstance().getFCMTokenService().initializeToken();
         autoRedirect();
     }
 
@@ -44,7 +49,7 @@ public class LoginSuccessActivity extends AppCompatActivity {
     private void navigateToDashboard() {
         com.google.firebase.auth.FirebaseUser user = authService.getCurrentUser();
         if (user != null) {
-            authService.getUserData(user.getUid(), new AuthService.UserDataCallback() {
+            authService.getUserData(user.getUid()).observe(new ServiceCall.Callback<User>() {
                 @Override
                 public void onSuccess(com.mustafa.guardianai.data.model.User user) {
                     Intent intent;
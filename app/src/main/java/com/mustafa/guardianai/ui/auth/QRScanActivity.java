@@ -12,10 +12,12 @@ import androidx.core.content.ContextCompat;
 import com.journeyapps.barcodescanner.ScanContract;
 import com.journeyapps.barcodescanner.ScanOptions;
 import androidx.activity.result.ActivityResultLauncher;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.databinding.ActivityQrscanBinding;
 import com.mustafa.guardianai.data.model.QRPairingData;
 import com.mustafa.guardianai.network.QRPairingService;
 import com.mustafa.guardianai.ui.child.ChildDashboardActivity;
+import com.mustafa.guardianai.network.ServiceCall;
 
 /**
  * QR Scan Activity
@@ -24,7 +26,7 @@ import com.mustafa.guardianai.ui.child.ChildDashboardActivity;
  */
 public class QRScanActivity extends AppCompatActivity {
     private ActivityQrscanBinding binding;
-    private final QRPairingService qrPairingService = new QRPairingService();
+    private final QRPairingService qrPairingService = ServiceRegistry.getInstance().getQRPairingService();
 
     private final androidx.activity.result.ActivityResultLauncher<String> requestPermissionLauncher =
             registerForActivityResult(new ActivityResultContracts.RequestPermission(), isGranted -> {
@@ -101,9 +103,9 @@ public class QRScanActivity extends AppCompatActivity {
         }
 
         // Process pairing - this will automatically create child account
-        qrPairingService.processPairing(qrData, new QRPairingService.SimpleCallback() {
+        qrPairingService.processPairing(qrData).observe(new ServiceCall.Callback<Void>() {
             @Override
-            public void onSuccess() {
+            public void onSuccess(Void result) {
                 runOnUiThread(() -> {
                     binding.progressBar.setVisibility(View.GONE);
                     binding.btnCancel.setEnabled(true);
@@ -7,9 +7,11 @@ import android.util.Log;
 import android.view.View;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.databinding.ActivitySignupBinding;
 import com.mustafa.guardianai.data.model.UserRole;
 import com.mustafa.guardianai.network.AuthService;
+import com.mustafa.guardianai.network.ServiceCall;
 import com.mustafa.guardianai.ui.parent.ParentDashboardActivity;
 import com.mustafa.guardianai.utils.EmailValidator;
 import com.mustafa.guardianai.utils.PasswordValidator;
@@ -20,7 +22,7 @@ import com.mustafa.guardianai.utils.PasswordValidator;
  */
 public class SignUpActivity extends AppCompatActivity {
     private ActivitySignupBinding binding;
-    private final AuthService authService = new AuthService();
+    private final AuthService authService = ServiceRegistry.getInstance().getAuthService();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -82,7 +84,7 @@ public class SignUpActivity extends AppCompatActivity {
         binding.btnCreateAccount.setEnabled(false);
 
         // Sign up is only for parent accounts
-        authService.registerParent(email, password, displayName, new AuthService.AuthCallback() {
+        authService.registerParent(email, password, displayName).observe(new ServiceCall.Callback<String>() {
             @Override
             public void onSuccess(String uid) {
                 // Ensure we're on UI thread
@@ -7,8 +7,11 @@ import android.util.Log;
 import android.os.Handler;
 import android.os.Looper;
 import androidx.appcompat.app.AppCompatActivity;
+import com.mustafa.guardianai.ServiceRegistry;
+import com.mustafa.guardianai.data.model.User;
 import com.mustafa.guardianai.databinding.ActivitySplashBinding;
 import com.mustafa.guardianai.network.AuthService;
+import com.mustafa.guardianai.network.ServiceCall;
 
 /**
  * Splash Activity
@@ -16,7 +19,7 @@ import com.mustafa.guardianai.network.AuthService;
  */
 public class SplashActivity extends AppCompatActivity {
     private ActivitySplashBinding binding;
-    private final AuthService authService = new AuthService();
+    private final AuthService authService = ServiceRegistry.getInstance().getAuthService();
     private static final int SPLASH_DURATION = 2000; // 2 seconds
 
     @Override
@@ -55,7 +58,7 @@ public class SplashActivity extends AppCompatActivity {
         if (authService.isAuthenticated()) {
             com.google.firebase.auth.FirebaseUser user = authService.getCurrentUser();
             if (user != null) {
-                authService.getUserData(user.getUid(), new AuthService.UserDataCallback() {
+                authService.getUserData(user.getUid()).observe(new ServiceCall.Callback<User>() {
                     @Override
                     public void onSuccess(com.mustafa.guardianai.data.model.User user) {
                         // User is logged in, navigate to appropriate dashboard
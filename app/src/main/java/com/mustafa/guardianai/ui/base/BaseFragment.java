@@ -6,23 +6,46 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import com.mustafa.guardianai.network.CallScope;
 
 /**
  * Base Fragment for Guardian AI
  * Provides common functionality for all fragments:
  * - Toast message helpers
  * - Common lifecycle handling
+ * - Cancellation of service calls started for the current view
  * 
  * All fragments should extend this class to maintain consistency
  */
 public abstract class BaseFragment extends Fragment {
+    private CallScope viewCalls;
 
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
+        viewCalls = new CallScope();
         setupUI();
     }
 
+    /**
+     * Cancel calls still in flight for the destroyed view
+     */
+    @Override
+    public void onDestroyView() {
+        if (viewCalls != null) {
+            viewCalls.cancel();
+        }
+        super.onDestroyView();
+    }
+
+    /**
+     * Scope for service calls whose results only matter to the current view
+     * (cancelled in onDestroyView)
+     */
+    protected CallScope getViewCalls() {
+        return viewCalls;
+    }
+
     /**
      * Setup UI components - override in child classes
      */
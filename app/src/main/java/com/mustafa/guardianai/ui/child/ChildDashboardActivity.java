@@ -1,20 +1,41 @@
 package com.mustafa.guardianai.ui.child;
 
+import android.Manifest;
 import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
 import android.os.Bundle;
 import android.widget.Toast;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.databinding.ActivityChildDashboardBinding;
+import com.mustafa.guardianai.location.ChildLocationService;
 import com.mustafa.guardianai.network.AuthService;
+import com.mustafa.guardianai.network.FCMTokenService;
 import com.mustafa.guardianai.ui.auth.LoginActivity;
 
 /**
  * Child Dashboard Activity
- * Main dashboard for child users (monitoring will be implemented here)
+ * Main dashboard for child users; starts location monitoring (ChildLocationService)
+ * once location permission is granted
  */
 public class ChildDashboardActivity extends AppCompatActivity {
     private ActivityChildDashboardBinding binding;
-    private final AuthService authService = new AuthService();
+    private final AuthService authService = ServiceRegistry.getInstance().getAuthService();
+
+    private final ActivityResultLauncher<String[]> requestPermissionsLauncher =
+            registerForActivityResult(new ActivityResultContracts.RequestMultiplePermissions(), results -> {
+                if (hasLocationPermission()) {
+                    ChildLocationService.start(this);
+                } else {
+                    Toast.makeText(this,
+                            "Location permission is required for location monitoring",
+                            Toast.LENGTH_LONG).show();
+                }
+            });
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -23,6 +44,18 @@ public class ChildDashboardActivity extends AppCompatActivity {
         setContentView(binding.getRoot());
 
         setupUI();
+        if (!hasLocationPermission()) {
+            requestPermissionsLauncher.launch(requiredPermissions());
+        }
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        // Location services may only be started while the app is visible
+        if (hasLocationPermission()) {
+            ChildLocationService.start(this);
+        }
     }
 
     private void setupUI() {
@@ -30,13 +63,40 @@ public class ChildDashboardActivity extends AppCompatActivity {
         binding.tvWelcome.setText("Welcome, " + (user != null && user.getEmail() != null ? user.getEmail() : "Child"));
 
         binding.btnLogout.setOnClickListener(v -> {
-            authService.logout();
-            startActivity(new Intent(this, LoginActivity.class));
-            finish();
+            // Sign out only after the token delete (or its timeout); it needs the credentials
+            binding.btnLogout.setEnabled(false);
+            // Stopping uploads the buffered location points while still signed in
+            ChildLocationService.stop(this);
+            ServiceRegistry.getInstance().getFCMTokenService().deleteToken()
+                    .withDeadline(FCMTokenService.LOGOUT_TIMEOUT_MILLIS)
+                    .observe(result -> finishLogout(), exception -> finishLogout());
         });
 
         binding.tvStatus.setText("Monitoring active. Guardian AI is protecting your device.");
     }
+
+    private boolean hasLocationPermission() {
+        return ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED
+                || ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_COARSE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+
+    private static String[] requiredPermissions() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            // The monitoring notification is hidden without it, but sampling still works
+            return new String[]{Manifest.permission.ACCESS_FINE_LOCATION,
+                    Manifest.permission.ACCESS_COARSE_LOCATION, Manifest.permission.POST_NOTIFICATIONS};
+        }
+        return new String[]{Manifest.permission.ACCESS_FINE_LOCATION,
+                Manifest.permission.ACCESS_COARSE_LOCATION};
+    }
+
+    private void finishLogout() {
+        authService.logout();
+        startActivity(new Intent(this, LoginActivity.class));
+        finish();
+    }
 }
 
 
@@ -97,7 +97,12 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertViewH
         }
 
         public void bind(Alert alert) {
-            tvAlertTitle.setText(alert.getTitle());
+            // Coalesced repeats are shown as a count on the title
+            String title = alert.getTitle();
+            if (alert.getCount() > 1) {
+                title = title + " (" + alert.getCount() + "x)";
+            }
+            tvAlertTitle.setText(title);
             tvAlertMessage.setText(alert.getMessage());
             tvAlertTime.setText(alert.getTimeAgo());
             
@@ -117,6 +122,8 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertViewH
             switch (type) {
                 case GEO_FENCE_BREACH:
                     return android.R.drawable.ic_dialog_map;
+                case INAPPROPRIATE_CONTENT:
+                    return android.R.drawable.ic_dialog_alert;
                 case TIME_LIMIT_REACHED:
                     return android.R.drawable.ic_menu_recent_history;
                 case NEW_APP_INSTALL:
@@ -133,6 +140,7 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertViewH
         private int getColorForAlertType(Alert.AlertType type) {
             switch (type) {
                 case GEO_FENCE_BREACH:
+                case INAPPROPRIATE_CONTENT:
                     return itemView.getContext().getColor(R.color.status_alert);
                 case TIME_LIMIT_REACHED:
                     return itemView.getContext().getColor(R.color.status_warning);
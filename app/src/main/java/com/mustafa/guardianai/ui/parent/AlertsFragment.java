@@ -9,22 +9,37 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import com.mustafa.guardianai.R;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.data.model.Alert;
+import com.mustafa.guardianai.data.repository.InvalidationTracker;
 import com.mustafa.guardianai.databinding.FragmentAlertsBinding;
 import com.mustafa.guardianai.network.DashboardService;
 import com.mustafa.guardianai.ui.base.BaseFragment;
+import com.mustafa.guardianai.network.ServiceCall;
 import java.util.List;
 
 /**
  * Alerts Fragment
  * Displays notifications and alerts for the parent
  * Uses BaseFragment from Shared Foundation
+ *
+ * Alerts are loaded once and re-read only when an FCM hint invalidates them or the
+ * list is older than InvalidationTracker.MAX_STALE_MILLIS; filters apply locally.
+ * The in-flight load is tied to the view and dropped in onDestroyView.
  */
 public class AlertsFragment extends BaseFragment {
     private FragmentAlertsBinding binding;
     private AlertsAdapter alertsAdapter;
     private DashboardService dashboardService;
     private String currentFilter = "All"; // "All", "Unread", "Resolved"
+    private List<Alert> loadedAlerts;
+    private long loadedAlertsVersion = -1;
+    private long loadedAt;
+    private final InvalidationTracker.Listener invalidationListener = (entity, entityId) -> {
+        if (entity == InvalidationTracker.Entity.ALERT) {
+            loadAlertsIfStale();
+        }
+    };
 
     @Nullable
     @Override
@@ -37,7 +52,7 @@ public class AlertsFragment extends BaseFragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         
-        dashboardService = new DashboardService();
+        dashboardService = ServiceRegistry.getInstance().getDashboardService();
         setupUI();
         loadAlerts();
     }
@@ -78,8 +93,8 @@ public class AlertsFragment extends BaseFragment {
         binding.tvFilterUnread.setTextColor(filter.equals("Unread") ? getResources().getColor(R.color.primary) : getResources().getColor(R.color.text_secondary));
         binding.tvFilterResolved.setTextColor(filter.equals("Resolved") ? getResources().getColor(R.color.primary) : getResources().getColor(R.color.text_secondary));
         
-        // Reload alerts with new filter
-        loadAlerts();
+        // Re-filter the loaded alerts; no need to hit Firestore
+        showFilteredAlerts();
     }
 
     /**
@@ -88,7 +103,7 @@ public class AlertsFragment extends BaseFragment {
     private void loadAlerts() {
         if (!isFragmentAttached()) return;
 
-        com.mustafa.guardianai.network.AuthService authService = new com.mustafa.guardianai.network.AuthService();
+        com.mustafa.guardianai.network.AuthService authService = ServiceRegistry.getInstance().getAuthService();
         var user = authService.getCurrentUser();
         if (user == null) {
             showError("Not authenticated");
@@ -96,30 +111,53 @@ public class AlertsFragment extends BaseFragment {
         }
 
         showLoading(true);
+        loadedAt = System.currentTimeMillis();
+        loadedAlertsVersion = InvalidationTracker.getInstance().getAlertsVersion();
 
-        // Load all alerts (filtering will be done client-side for simplicity)
-        dashboardService.getAllAlerts(user.getUid(), new DashboardService.AlertsCallback() {
+        // Load all alerts (filtering will be done client-side for simplicity).
+        // A newer load supersedes this one; leaving the screen cancels it.
+        getViewCalls().track("alerts", dashboardService.getAllAlerts(user.getUid())).observe(new ServiceCall.Callback<List<Alert>>() {
             @Override
             public void onSuccess(List<Alert> alerts) {
                 if (!isFragmentAttached()) return;
                 
                 showLoading(false);
                 
-                // Filter alerts based on current filter
-                List<Alert> filteredAlerts = filterAlerts(alerts);
-                alertsAdapter.updateAlerts(filteredAlerts);
+                loadedAlerts = alerts;
+                showFilteredAlerts();
             }
 
             @Override
             public void onFailure(Exception exception) {
                 if (!isFragmentAttached()) return;
                 
+                // Retry on next resume
+                loadedAt = 0;
                 showLoading(false);
                 showError("Failed to load alerts: " + exception.getMessage());
             }
         });
     }
 
+    /**
+     * Reload alerts only if they were invalidated or are too old
+     */
+    private void loadAlertsIfStale() {
+        if (loadedAlertsVersion != InvalidationTracker.getInstance().getAlertsVersion()
+                || System.currentTimeMillis() - loadedAt > InvalidationTracker.MAX_STALE_MILLIS) {
+            loadAlerts();
+        }
+    }
+
+    /**
+     * Show the loaded alerts that match the current filter
+     */
+    private void showFilteredAlerts() {
+        if (loadedAlerts != null && alertsAdapter != null) {
+            alertsAdapter.updateAlerts(filterAlerts(loadedAlerts));
+        }
+    }
+
     /**
      * Filter alerts based on current filter selection
      */
@@ -155,8 +193,15 @@ public class AlertsFragment extends BaseFragment {
     @Override
     public void onResume() {
         super.onResume();
-        // Refresh alerts when fragment becomes visible
-        loadAlerts();
+        // Refresh alerts when fragment becomes visible, if anything changed
+        InvalidationTracker.getInstance().addListener(invalidationListener);
+        loadAlertsIfStale();
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        InvalidationTracker.getInstance().removeListener(invalidationListener);
     }
 }
 
@@ -9,6 +9,7 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.progressindicator.CircularProgressIndicator;
 import com.mustafa.guardianai.R;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.data.model.ChildProfile;
 import java.util.ArrayList;
 import java.util.List;
@@ -44,6 +45,14 @@ public class ChildProfileAdapter extends RecyclerView.Adapter<ChildProfileAdapte
         holder.bind(profile);
     }
 
+    @Override
+    public void onViewRecycled(@NonNull ChildProfileViewHolder holder) {
+        super.onViewRecycled(holder);
+        // Cancel a pending thumbnail and return its bitmap to the pool
+        ServiceRegistry.getInstance().getThumbnailLoader()
+                .cancel(holder.ivProfilePicture, android.R.drawable.ic_menu_gallery);
+    }
+
     @Override
     public int getItemCount() {
         return childProfiles.size();
@@ -159,11 +168,9 @@ public class ChildProfileAdapter extends RecyclerView.Adapter<ChildProfileAdapte
                 progressIndicator.setProgress(percentage, true);
             }
 
-            // Load profile picture if available
-            if (profile.getProfilePictureUrl() != null && !profile.getProfilePictureUrl().isEmpty()) {
-                // TODO: Load image from URL using Glide or similar
-                // For now, use default
-            }
+            // Load profile picture if available (placeholder first)
+            ServiceRegistry.getInstance().getThumbnailLoader().load(
+                    profile.getProfilePictureUrl(), ivProfilePicture, android.R.drawable.ic_menu_gallery);
         }
     }
 }
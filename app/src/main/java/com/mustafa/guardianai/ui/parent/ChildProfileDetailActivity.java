@@ -12,6 +12,8 @@ import com.mustafa.guardianai.databinding.ActivityChildProfileDetailBinding;
 /**
  * Child Profile Detail Activity
  * Displays detailed information about a child profile
+ *
+ * Reads run in the ViewModel's CallScope, so finishing the activity cancels them.
  */
 public class ChildProfileDetailActivity extends AppCompatActivity {
     private ActivityChildProfileDetailBinding binding;
@@ -40,8 +42,11 @@ public class ChildProfileDetailActivity extends AppCompatActivity {
         setupUI();
         setupObservers();
         
-        // Load child profile
-        viewModel.loadChildProfile(profileId);
+        // Load child profile; after a configuration change the ViewModel already has it
+        // (or a read in flight that a new load would just supersede)
+        if (viewModel.getChildProfile().getValue() == null) {
+            viewModel.loadChildProfile(profileId);
+        }
     }
 
     private void setupUI() {
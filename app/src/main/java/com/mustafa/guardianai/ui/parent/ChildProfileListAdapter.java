@@ -4,10 +4,12 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageButton;
+import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.mustafa.guardianai.R;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.data.model.ChildProfile;
 import java.util.ArrayList;
 import java.util.List;
@@ -49,6 +51,14 @@ public class ChildProfileListAdapter extends RecyclerView.Adapter<ChildProfileLi
         holder.bind(profile);
     }
 
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        // Cancel a pending thumbnail and return its bitmap to the pool
+        ServiceRegistry.getInstance().getThumbnailLoader()
+                .cancel(holder.ivProfilePicture, android.R.drawable.ic_menu_gallery);
+    }
+
     @Override
     public int getItemCount() {
         return childProfiles.size();
@@ -60,6 +70,7 @@ public class ChildProfileListAdapter extends RecyclerView.Adapter<ChildProfileLi
     }
 
     class ViewHolder extends RecyclerView.ViewHolder {
+        private ImageView ivProfilePicture;
         private TextView tvChildName;
         private TextView tvAge;
         private TextView tvDeviceInfo;
@@ -68,6 +79,7 @@ public class ChildProfileListAdapter extends RecyclerView.Adapter<ChildProfileLi
 
         public ViewHolder(@NonNull View itemView) {
             super(itemView);
+            ivProfilePicture = itemView.findViewById(R.id.ivProfilePicture);
             tvChildName = itemView.findViewById(R.id.tvChildName);
             tvAge = itemView.findViewById(R.id.tvAge);
             tvDeviceInfo = itemView.findViewById(R.id.tvDeviceInfo);
@@ -106,6 +118,10 @@ public class ChildProfileListAdapter extends RecyclerView.Adapter<ChildProfileLi
                 tvStatus.setText("Offline");
                 tvStatus.setTextColor(itemView.getContext().getColor(android.R.color.darker_gray));
             }
+
+            // Avatar thumbnail (placeholder first)
+            ServiceRegistry.getInstance().getThumbnailLoader().load(
+                    profile.getProfilePictureUrl(), ivProfilePicture, android.R.drawable.ic_menu_gallery);
         }
     }
 }
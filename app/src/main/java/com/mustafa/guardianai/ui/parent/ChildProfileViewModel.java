@@ -7,19 +7,26 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.google.firebase.auth.FirebaseAuth;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.data.model.ChildProfile;
+import com.mustafa.guardianai.network.CallScope;
 import com.mustafa.guardianai.network.ChildProfileService;
+import com.mustafa.guardianai.network.ServiceCall;
 import java.util.List;
 
 /**
  * ViewModel for Child Profile Management
  * Handles CRUD operations for child profiles
+ *
+ * Reads are tracked in a CallScope: a reload supersedes the pending one and clearing
+ * the ViewModel cancels whatever is still in flight. Writes always run to completion.
  */
 public class ChildProfileViewModel extends AndroidViewModel {
     private static final String TAG = "ChildProfileViewModel";
     
     private final ChildProfileService childProfileService;
     private final FirebaseAuth auth;
+    private final CallScope calls = new CallScope();
     
     // LiveData for child profiles list
     private final MutableLiveData<List<ChildProfile>> childProfiles = new MutableLiveData<>();
@@ -38,7 +45,7 @@ public class ChildProfileViewModel extends AndroidViewModel {
 
     public ChildProfileViewModel(@NonNull Application application) {
         super(application);
-        this.childProfileService = new ChildProfileService();
+        this.childProfileService = ServiceRegistry.getInstance().getChildProfileService();
         this.auth = FirebaseAuth.getInstance();
     }
 
@@ -54,7 +61,7 @@ public class ChildProfileViewModel extends AndroidViewModel {
 
         isLoading.setValue(true);
         
-        childProfileService.getChildProfilesByParent(parentUid, new ChildProfileService.ChildProfileListCallback() {
+        calls.track("profiles", childProfileService.getChildProfilesByParent(parentUid)).observe(new ServiceCall.Callback<List<ChildProfile>>() {
             @Override
             public void onSuccess(List<ChildProfile> profiles) {
                 childProfiles.postValue(profiles);
@@ -76,7 +83,7 @@ public class ChildProfileViewModel extends AndroidViewModel {
     public void loadChildProfile(String profileId) {
         isLoading.setValue(true);
         
-        childProfileService.getChildProfile(profileId, new ChildProfileService.ChildProfileCallback() {
+        calls.track("profile", childProfileService.getChildProfile(profileId)).observe(new ServiceCall.Callback<ChildProfile>() {
             @Override
             public void onSuccess(ChildProfile profile) {
                 childProfile.postValue(profile);
@@ -98,7 +105,7 @@ public class ChildProfileViewModel extends AndroidViewModel {
     public void loadChildProfileByUid(String childUid) {
         isLoading.setValue(true);
         
-        childProfileService.getChildProfileByUid(childUid, new ChildProfileService.ChildProfileCallback() {
+        calls.track("profile", childProfileService.getChildProfileByUid(childUid)).observe(new ServiceCall.Callback<ChildProfile>() {
             @Override
             public void onSuccess(ChildProfile profile) {
                 childProfile.postValue(profile);
@@ -127,8 +134,8 @@ public class ChildProfileViewModel extends AndroidViewModel {
 
         isLoading.setValue(true);
         
-        childProfileService.createChildProfile(parentUid, childUid, name, age, deviceName, deviceType,
-                new ChildProfileService.ChildProfileCallback() {
+        childProfileService.createChildProfile(parentUid, childUid, name, age, deviceName, deviceType)
+                .observe(new ServiceCall.Callback<ChildProfile>() {
                     @Override
                     public void onSuccess(ChildProfile profile) {
                         operationSuccess.postValue(true);
@@ -153,9 +160,9 @@ public class ChildProfileViewModel extends AndroidViewModel {
     public void updateChildProfile(ChildProfile profile) {
         isLoading.setValue(true);
         
-        childProfileService.updateChildProfile(profile, new ChildProfileService.SimpleCallback() {
+        childProfileService.updateChildProfile(profile).observe(new ServiceCall.Callback<Void>() {
             @Override
-            public void onSuccess() {
+            public void onSuccess(Void result) {
                 operationSuccess.postValue(true);
                 isLoading.postValue(false);
                 // Update the profile in LiveData
@@ -180,9 +187,9 @@ public class ChildProfileViewModel extends AndroidViewModel {
     public void deleteChildProfile(String profileId) {
         isLoading.setValue(true);
         
-        childProfileService.deleteChildProfile(profileId, new ChildProfileService.SimpleCallback() {
+        childProfileService.deleteChildProfile(profileId).observe(new ServiceCall.Callback<Void>() {
             @Override
-            public void onSuccess() {
+            public void onSuccess(Void result) {
                 operationSuccess.postValue(true);
                 isLoading.postValue(false);
                 // Reload profiles list
@@ -199,6 +206,15 @@ public class ChildProfileViewModel extends AndroidViewModel {
         });
     }
 
+    /**
+     * Drop pending reads when ViewModel is cleared
+     */
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        calls.cancel();
+    }
+
     /**
      * Get current parent UID
      */
@@ -9,9 +9,11 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.data.model.ChildProfile;
 import com.mustafa.guardianai.data.model.DashboardSummary;
 import com.mustafa.guardianai.databinding.FragmentDashboardBinding;
+import com.mustafa.guardianai.image.ProfilePictureStore;
 import com.mustafa.guardianai.ui.base.BaseFragment;
 import java.util.List;
 
@@ -51,7 +53,7 @@ public class DashboardFragment extends BaseFragment {
     protected void setupUI() {
         if (!isFragmentAttached()) return;
         // Set parent name from Firebase Auth
-        com.mustafa.guardianai.network.AuthService authService = new com.mustafa.guardianai.network.AuthService();
+        com.mustafa.guardianai.network.AuthService authService = ServiceRegistry.getInstance().getAuthService();
         var user = authService.getCurrentUser();
         if (user != null && user.getDisplayName() != null && !user.getDisplayName().isEmpty()) {
             binding.tvParentName.setText(user.getDisplayName());
@@ -102,23 +104,16 @@ public class DashboardFragment extends BaseFragment {
     }
     
     /**
-     * Load profile picture from SharedPreferences (same as SettingsFragment)
+     * Load profile picture saved by SettingsFragment (memory-cached at this view's size);
+     * the file is resolved on the disk executor, which may migrate the legacy copy
      */
     private void loadProfilePicture() {
-        try {
-            android.content.SharedPreferences prefs = requireContext().getSharedPreferences("GuardianAI", android.content.Context.MODE_PRIVATE);
-            String base64Image = prefs.getString("parent_profile_picture", null);
-            
-            if (base64Image != null && !base64Image.isEmpty()) {
-                byte[] imageBytes = android.util.Base64.decode(base64Image, android.util.Base64.DEFAULT);
-                android.graphics.Bitmap bitmap = android.graphics.BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);
-                if (bitmap != null) {
-                    binding.ivProfilePicture.setImageBitmap(bitmap);
-                }
+        ProfilePictureStore.getFileAsync(requireContext(), ServiceRegistry.getInstance().getDiskExecutor(), file -> {
+            if (binding == null || !isFragmentAttached()) {
+                return;
             }
-        } catch (Exception e) {
-            // If loading fails, use default image
-        }
+            ServiceRegistry.getInstance().getImageLoader().load(file, binding.ivProfilePicture, 0);
+        });
     }
 
     private void setupObservers() {
@@ -150,9 +145,17 @@ public class DashboardFragment extends BaseFragment {
     @Override
     public void onResume() {
         super.onResume();
-        // Refresh data when fragment becomes visible
+        // Apply remote changes (or refresh if stale) when fragment becomes visible
+        if (viewModel != null) {
+            viewModel.onForeground();
+        }
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
         if (viewModel != null) {
-            viewModel.refresh();
+            viewModel.onBackground();
         }
     }
 }
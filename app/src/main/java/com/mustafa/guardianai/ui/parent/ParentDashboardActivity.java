@@ -7,6 +7,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.mustafa.guardianai.R;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.databinding.ActivityParentDashboardBinding;
 import com.mustafa.guardianai.network.AuthService;
 import com.mustafa.guardianai.utils.BiometricHelper;
@@ -18,7 +19,7 @@ import com.mustafa.guardianai.utils.BiometricHelper;
  */
 public class ParentDashboardActivity extends AppCompatActivity {
     private ActivityParentDashboardBinding binding;
-    private final AuthService authService = new AuthService();
+    private final AuthService authService = ServiceRegistry.getInstance().getAuthService();
     private BiometricHelper biometricHelper;
     private boolean isAppInBackground = false;
     private boolean hasCheckedBiometricOnStart = false;
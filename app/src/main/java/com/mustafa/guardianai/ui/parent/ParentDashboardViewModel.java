@@ -8,23 +8,31 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.ListenerRegistration;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.data.model.ChildProfile;
 import com.mustafa.guardianai.data.model.DashboardSummary;
-import com.mustafa.guardianai.network.ChildProfileService;
+import com.mustafa.guardianai.data.repository.InvalidationTracker;
+import com.mustafa.guardianai.network.CallScope;
 import com.mustafa.guardianai.network.DashboardService;
+import com.mustafa.guardianai.network.ServiceCall;
 import java.util.List;
 
 /**
  * ViewModel for Parent Dashboard
  * Manages dashboard data and business logic
  * Uses AndroidViewModel for Application context access
+ *
+ * The summary and profile listeners are attached only while the dashboard is in the
+ * foreground and removed in onBackground. The stored summary is derived data, so FCM hints
+ * (InvalidationTracker) still trigger its recomputation, and so does a long absence.
+ * A reload supersedes the pending read of the same data; clearing cancels them all.
  */
 public class ParentDashboardViewModel extends AndroidViewModel {
     private static final String TAG = "ParentDashboardViewModel";
     
     private final DashboardService dashboardService;
-    private final ChildProfileService childProfileService;
     private final FirebaseAuth auth;
+    private final CallScope calls = new CallScope();
     
     // LiveData for dashboard summary
     private final MutableLiveData<DashboardSummary> dashboardSummary = new MutableLiveData<>();
@@ -38,19 +46,32 @@ public class ParentDashboardViewModel extends AndroidViewModel {
     // LiveData for error messages
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     
-    // Firestore listeners
+    // Foreground-only Firestore listeners
     private ListenerRegistration summaryListener;
     private ListenerRegistration profilesListener;
 
+    // Invalidation state
+    private boolean foreground = false;
+    private long loadedAt;
+    private long loadedSummaryVersion = -1;
+    private long pendingSummaryVersion = -1;
+    private final InvalidationTracker invalidationTracker;
+    private final InvalidationTracker.Listener invalidationListener = (entity, entityId) -> {
+        if (foreground) {
+            applyInvalidations();
+        }
+    };
+
     public ParentDashboardViewModel(@NonNull Application application) {
         super(application);
-        this.dashboardService = new DashboardService();
-        this.childProfileService = new ChildProfileService();
+        this.dashboardService = ServiceRegistry.getInstance().getDashboardService();
         this.auth = FirebaseAuth.getInstance();
+        this.invalidationTracker = InvalidationTracker.getInstance();
+        this.invalidationTracker.addListener(invalidationListener);
     }
 
     /**
-     * Initialize and start listening to dashboard data
+     * Initialize the dashboard; profiles arrive through the listener attached in onForeground
      */
     public void initialize() {
         String parentUid = getCurrentParentUid();
@@ -60,30 +81,119 @@ public class ParentDashboardViewModel extends AndroidViewModel {
         }
 
         isLoading.setValue(true);
-        
-        // Load dashboard summary
+        loadAll(parentUid);
+    }
+
+    /**
+     * Dashboard became visible; attach the listeners and apply changes hinted while hidden
+     */
+    public void onForeground() {
+        foreground = true;
+        String parentUid = getCurrentParentUid();
+        if (parentUid == null || parentUid.isEmpty()) {
+            return;
+        }
+        attachListeners(parentUid);
+        if (System.currentTimeMillis() - loadedAt > InvalidationTracker.MAX_STALE_MILLIS) {
+            // Too old to trust the hints alone (pushes can be missed)
+            loadAll(parentUid);
+        } else {
+            applyInvalidations();
+        }
+    }
+
+    /**
+     * Dashboard hidden; detach the listeners, hints accumulate in the tracker until onForeground
+     */
+    public void onBackground() {
+        foreground = false;
+        detachListeners();
+    }
+
+    private void attachListeners(String parentUid) {
+        if (summaryListener == null) {
+            summaryListener = dashboardService.listenToDashboardSummary(parentUid, new ServiceCall.Callback<DashboardSummary>() {
+                @Override
+                public void onSuccess(DashboardSummary summary) {
+                    dashboardSummary.postValue(summary);
+                }
+
+                @Override
+                public void onFailure(Exception exception) {
+                    Log.e(TAG, "Error in summary listener: " + exception.getMessage(), exception);
+                    handleError(exception);
+                }
+            });
+        }
+        if (profilesListener == null) {
+            // The first snapshot covers any profile changes hinted while detached
+            profilesListener = dashboardService.listenToChildProfiles(parentUid, new ServiceCall.Callback<List<ChildProfile>>() {
+                @Override
+                public void onSuccess(List<ChildProfile> profiles) {
+                    childProfiles.postValue(profiles);
+                }
+
+                @Override
+                public void onFailure(Exception exception) {
+                    Log.e(TAG, "Error in profiles listener: " + exception.getMessage(), exception);
+                    handleError(exception);
+                    errorMessage.postValue("Failed to load child profiles: " + exception.getMessage());
+                }
+            });
+        }
+    }
+
+    private void detachListeners() {
+        if (summaryListener != null) {
+            summaryListener.remove();
+            summaryListener = null;
+        }
+        if (profilesListener != null) {
+            profilesListener.remove();
+            profilesListener = null;
+        }
+    }
+
+    private void loadAll(String parentUid) {
+        loadedAt = System.currentTimeMillis();
         loadDashboardSummary(parentUid);
-        
-        // Load child profiles
-        loadChildProfiles(parentUid);
-        
-        // Set up real-time listeners
-        setupRealtimeListeners(parentUid);
+    }
+
+    /**
+     * Recompute the summary if it was hinted as changed; profile changes arrive through
+     * the profiles listener
+     */
+    private void applyInvalidations() {
+        String parentUid = getCurrentParentUid();
+        if (parentUid == null || parentUid.isEmpty()) {
+            return;
+        }
+
+        long summaryVersion = invalidationTracker.getSummaryVersion();
+        if (summaryVersion != loadedSummaryVersion && summaryVersion != pendingSummaryVersion) {
+            loadDashboardSummary(parentUid);
+        }
     }
 
     /**
      * Load dashboard summary
      */
     private void loadDashboardSummary(String parentUid) {
-        dashboardService.getDashboardSummary(parentUid, new DashboardService.DashboardSummaryCallback() {
+        // Only a successful load covers this version; a failure is retried on the next hint
+        long version = invalidationTracker.getSummaryVersion();
+        pendingSummaryVersion = version;
+        calls.track("summary", dashboardService.getDashboardSummary(parentUid)).observe(new ServiceCall.Callback<DashboardSummary>() {
             @Override
             public void onSuccess(DashboardSummary summary) {
+                loadedSummaryVersion = version;
+                pendingSummaryVersion = -1;
                 dashboardSummary.postValue(summary);
                 isLoading.postValue(false);
             }
 
             @Override
             public void onFailure(Exception exception) {
+                pendingSummaryVersion = -1;
                 Log.e(TAG, "Failed to load dashboard summary: " + exception.getMessage(), exception);
                 handleError(exception);
                 errorMessage.postValue("Failed to load dashboard: " + exception.getMessage());
@@ -92,58 +202,6 @@ public class ParentDashboardViewModel extends AndroidViewModel {
         });
     }
 
-    /**
-     * Load child profiles
-     */
-    private void loadChildProfiles(String parentUid) {
-        childProfileService.getChildProfilesByParent(parentUid, new ChildProfileService.ChildProfileListCallback() {
-            @Override
-            public void onSuccess(List<ChildProfile> profiles) {
-                childProfiles.postValue(profiles);
-            }
-
-            @Override
-            public void onFailure(Exception exception) {
-                Log.e(TAG, "Failed to load child profiles: " + exception.getMessage(), exception);
-                handleError(exception);
-                errorMessage.postValue("Failed to load child profiles: " + exception.getMessage());
-            }
-        });
-    }
-
-    /**
-     * Set up real-time listeners for dashboard updates
-     */
-    private void setupRealtimeListeners(String parentUid) {
-        // Listen to dashboard summary changes
-        summaryListener = dashboardService.listenToDashboardSummary(parentUid, 
-                new DashboardService.DashboardSummaryCallback() {
-                    @Override
-                    public void onSuccess(DashboardSummary summary) {
-                        dashboardSummary.postValue(summary);
-                    }
-
-                    @Override
-                    public void onFailure(Exception exception) {
-                        Log.e(TAG, "Error in summary listener: " + exception.getMessage(), exception);
-                    }
-                });
-
-        // Listen to child profiles changes
-        profilesListener = dashboardService.listenToChildProfiles(parentUid,
-                new ChildProfileService.ChildProfileListCallback() {
-                    @Override
-                    public void onSuccess(List<ChildProfile> profiles) {
-                        childProfiles.postValue(profiles);
-                    }
-
-                    @Override
-                    public void onFailure(Exception exception) {
-                        Log.e(TAG, "Error in profiles listener: " + exception.getMessage(), exception);
-                    }
-                });
-    }
-
     /**
      * Refresh dashboard data
      */
@@ -151,8 +209,7 @@ public class ParentDashboardViewModel extends AndroidViewModel {
         String parentUid = getCurrentParentUid();
         if (parentUid != null && !parentUid.isEmpty()) {
             isLoading.setValue(true);
-            loadDashboardSummary(parentUid);
-            loadChildProfiles(parentUid);
+            loadAll(parentUid);
         }
     }
 
@@ -174,17 +231,14 @@ public class ParentDashboardViewModel extends AndroidViewModel {
     }
 
     /**
-     * Clean up listeners when ViewModel is cleared
+     * Stop receiving invalidations, remove listeners and drop pending reads when ViewModel is cleared
      */
     @Override
     protected void onCleared() {
         super.onCleared();
-        if (summaryListener != null) {
-            summaryListener.remove();
-        }
-        if (profilesListener != null) {
-            profilesListener.remove();
-        }
+        invalidationTracker.removeListener(invalidationListener);
+        detachListeners();
+        calls.cancel();
     }
 
     // Getters for LiveData
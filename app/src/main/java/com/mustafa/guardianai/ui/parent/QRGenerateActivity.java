@@ -2,32 +2,73 @@ package com.mustafa.guardianai.ui.parent;
 
 import android.graphics.Bitmap;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 import android.view.View;
-import android.widget.ImageView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.zxing.common.BitMatrix;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.data.model.QRPairingData;
 import com.mustafa.guardianai.databinding.ActivityQrgenerateBinding;
 import com.mustafa.guardianai.network.QRPairingService;
+import com.mustafa.guardianai.network.ServiceCall;
 import com.mustafa.guardianai.utils.QRCodeGenerator;
+import java.util.concurrent.ExecutorService;
 
 /**
  * QR Code Generation Activity
  * Generates and displays QR code for pairing child devices
+ *
+ * QR codes are encoded and rendered on a worker thread into two reusable bitmaps
+ * (front/back). The next pairing QR is prepared in the back bitmap before the current
+ * one expires, so rotation is just a swap. A failed pre-generation is retried with
+ * exponential backoff while the current QR stays on screen.
+ * Pre-generation and rotation only run while the activity is started, so no tokens are
+ * created from the back stack; onStart re-arms them and replaces a QR that expired meanwhile.
  */
 public class QRGenerateActivity extends AppCompatActivity {
+    private static final String TAG = "QRGenerateActivity";
+
+    // Prepare the next QR this long before the current one expires
+    private static final long PREGENERATE_LEAD_MILLIS = 60 * 1000L;
+    // Rotate slightly before expiry so a scan in progress does not hit an expired token
+    private static final long ROTATE_MARGIN_MILLIS = 5 * 1000L;
+    private static final int FALLBACK_QR_DP = 260;
+    // Retry delays for a failed pre-generation: doubled per failure up to the maximum
+    private static final long RETRY_INITIAL_MILLIS = 5 * 1000L;
+    private static final long RETRY_MAX_MILLIS = 60 * 1000L;
+
     private ActivityQrgenerateBinding binding;
     private QRPairingService qrPairingService;
 
+    // App-scoped compute pool (ServiceRegistry); a render finishing after onDestroy is dropped
+    private final ExecutorService qrExecutor = ServiceRegistry.getInstance().getComputeExecutor();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable pregenerateRunnable = this::prepareNext;
+    private final Runnable rotateRunnable = this::rotate;
+
+    // Bitmap pool: [displayed, back buffer]; only touched on the main thread except while
+    // the worker renders into the back buffer
+    private final Bitmap[] qrBitmaps = new Bitmap[2];
+    private int displayedIndex = 0;
+    private QRPairingData displayedData;
+    private QRPairingData preparedData;
+    private boolean preparing = false;
+    private long retryDelayMillis = RETRY_INITIAL_MILLIS;
+    private boolean started = false;
+    private boolean destroyed = false;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         binding = ActivityQrgenerateBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        qrPairingService = new QRPairingService();
+        qrPairingService = ServiceRegistry.getInstance().getQRPairingService();
         setupUI();
         generateQRCode();
     }
@@ -39,11 +80,43 @@ public class QRGenerateActivity extends AppCompatActivity {
         // Close button
         binding.btnClose.setOnClickListener(v -> finish());
 
-        // Refresh QR code button
-        binding.btnRefresh.setOnClickListener(v -> generateQRCode());
+        // Refresh QR code button (shows the pre-generated QR at once if one is ready)
+        binding.btnRefresh.setOnClickListener(v -> {
+            if (preparedData != null) {
+                rotate();
+            } else if (!preparing) {
+                // A render already in flight owns the back buffer
+                generateQRCode();
+            }
+        });
     }
 
+    /**
+     * Generate the first QR code with a loading state
+     */
     private void generateQRCode() {
+        // Show loading
+        binding.progressBar.setVisibility(View.VISIBLE);
+        binding.imgQRCode.setVisibility(View.GONE);
+        binding.tvInstructions.setVisibility(View.GONE);
+
+        requestPairingQR(true);
+    }
+
+    /**
+     * Pre-generate the next QR into the back buffer
+     */
+    private void prepareNext() {
+        if (!preparing && preparedData == null) {
+            requestPairingQR(false);
+        }
+    }
+
+    /**
+     * Create a pairing token and render its QR code on the worker thread
+     * @param showWhenReady Display the result immediately instead of holding it for rotation
+     */
+    private void requestPairingQR(boolean showWhenReady) {
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
         if (currentUser == null) {
             Toast.makeText(this, "Please log in to generate QR code", Toast.LENGTH_LONG).show();
@@ -53,83 +126,179 @@ public class QRGenerateActivity extends AppCompatActivity {
 
         String parentUid = currentUser.getUid();
         String parentEmail = currentUser.getEmail() != null ? currentUser.getEmail() : "";
-
-        // Show loading
-        binding.progressBar.setVisibility(View.VISIBLE);
-        binding.imgQRCode.setVisibility(View.GONE);
-        binding.tvInstructions.setVisibility(View.GONE);
+        preparing = true;
 
         // Generate QR pairing data
-        qrPairingService.generatePairingQR(parentUid, parentEmail, new QRPairingService.QRPairingCallback() {
+        qrPairingService.generatePairingQR(parentUid, parentEmail).observe(new ServiceCall.Callback<QRPairingData>() {
             @Override
             public void onSuccess(QRPairingData pairingData) {
-                runOnUiThread(() -> {
-                    binding.progressBar.setVisibility(View.GONE);
-                    
-                    // Convert pairing data to JSON string
-                    String qrDataJson = pairingData.toJson();
-                    
-                    // Generate QR code bitmap
+                // View size is only known after layout
+                binding.imgQRCode.post(() -> renderInBackground(pairingData, showWhenReady));
+            }
 
+            @Override
+            public void onFailure(Exception exception) {
+                runOnUiThread(() -> {
+                    preparing = false;
+                    onPrepareFailed(showWhenReady, "Failed to generate QR code: " + exception.getMessage());
+                });
+            }
+        });
+    }
 
-                   // int qrSizePx = 900; // fixed large size for reliable scanning
-                    //android.graphics.Bitmap qrBitmap = QRCodeGenerator.generateQRCode(qrPayload, qrSizePx, qrSizePx);
+    private void renderInBackground(QRPairingData pairingData, boolean showWhenReady) {
+        if (destroyed) {
+            return;
+        }
+        int width = binding.imgQRCode.getWidth();
+        int height = binding.imgQRCode.getHeight();
+        if (width <= 0 || height <= 0) {
+            // Fallback for real devices where the view is not measured yet
+            width = height = (int) (FALLBACK_QR_DP * getResources().getDisplayMetrics().density);
+        }
 
-                    //ImageView imgQrCode = findViewById(R.id.imgQrCode);
-                    ImageView imgQrCode = binding.imgQRCode;
+        // Reuse the back buffer if it already has the target size
+        final int backIndex = 1 - displayedIndex;
+        Bitmap back = qrBitmaps[backIndex];
+        final Bitmap target = back != null && back.getWidth() == width && back.getHeight() == height
+                ? back : null;
+        final int targetWidth = width;
+        final int targetHeight = height;
+        final String qrPayload = "PAIR:" + pairingData.getPairToken();
 
-                    imgQrCode.post(() -> {
+        qrExecutor.execute(() -> {
+            BitMatrix modules = QRCodeGenerator.encodeModules(qrPayload);
+            Bitmap bitmap = null;
+            if (modules != null) {
+                bitmap = target != null
+                        ? target : Bitmap.createBitmap(targetWidth, targetHeight, Bitmap.Config.RGB_565);
+                QRCodeGenerator.render(modules, bitmap);
+            }
+            final Bitmap rendered = bitmap;
+            runOnUiThread(() -> onRendered(pairingData, rendered, backIndex, showWhenReady));
+        });
+    }
 
-                        int width = imgQrCode.getWidth();
-                        int height = imgQrCode.getHeight();
+    private void onRendered(QRPairingData pairingData, Bitmap bitmap, int backIndex, boolean showWhenReady) {
+        preparing = false;
+        if (destroyed) {
+            return;
+        }
+        if (bitmap == null) {
+            onPrepareFailed(showWhenReady, "Failed to generate QR code");
+            return;
+        }
+        retryDelayMillis = RETRY_INITIAL_MILLIS;
+        qrBitmaps[backIndex] = bitmap;
+        preparedData = pairingData;
 
-                        // ✅ Fallback for real devices
-                        if (width <= 0 || height <= 0) {
-                            int fallbackDp = 260; // safe QR size
-                            float density = getResources().getDisplayMetrics().density;
-                            width = height = (int) (fallbackDp * density);
-                        }
-                        String qrPayload = "PAIR:" + pairingData.getPairToken();
+        if (showWhenReady) {
+            rotate();
+        } else if (started) {
+            long rotateIn = displayedData != null
+                    ? displayedData.getExpiresAt() - ROTATE_MARGIN_MILLIS - System.currentTimeMillis()
+                    : 0;
+            handler.postDelayed(rotateRunnable, Math.max(0L, rotateIn));
+        }
+    }
 
+    /**
+     * Report a failed foreground request, or retry a background one after a backoff delay
+     */
+    private void onPrepareFailed(boolean showWhenReady, String message) {
+        if (destroyed) {
+            return;
+        }
+        if (showWhenReady) {
+            binding.progressBar.setVisibility(View.GONE);
+            Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+            return;
+        }
+        if (!started) {
+            // onStart prepares again
+            return;
+        }
+        Log.w(TAG, message + "; retrying in " + retryDelayMillis + " ms");
+        handler.removeCallbacks(pregenerateRunnable);
+        handler.postDelayed(pregenerateRunnable, retryDelayMillis);
+        retryDelayMillis = Math.min(retryDelayMillis * 2, RETRY_MAX_MILLIS);
+    }
 
-                        Bitmap qrBitmap = QRCodeGenerator.generateQRCode(
-                                qrPayload,
-                                width,
-                                height
-                        );
+    /**
+     * Swap the prepared back buffer to the front and schedule the next pre-generation
+     */
+    private void rotate() {
+        handler.removeCallbacks(rotateRunnable);
+        handler.removeCallbacks(pregenerateRunnable);
+        if (preparedData == null || destroyed) {
+            return;
+        }
+        displayedIndex = 1 - displayedIndex;
+        displayedData = preparedData;
+        preparedData = null;
 
-                        imgQrCode.setImageBitmap(qrBitmap);
+        binding.progressBar.setVisibility(View.GONE);
+        binding.imgQRCode.setImageBitmap(qrBitmaps[displayedIndex]);
+        binding.imgQRCode.setVisibility(View.VISIBLE);
+        binding.tvInstructions.setVisibility(View.VISIBLE);
 
-                        if (qrBitmap != null) {
-                            binding.imgQRCode.setImageBitmap(qrBitmap);
-                            binding.imgQRCode.setVisibility(View.VISIBLE);
-                            binding.tvInstructions.setVisibility(View.VISIBLE);
+        // Calculate expiry time remaining
+        long timeRemaining = (displayedData.getExpiresAt() - System.currentTimeMillis()) / 1000 / 60; // minutes
+        binding.tvExpiryTime.setText("Valid for " + timeRemaining + " minutes");
 
-                            // Calculate expiry time remaining
-                            long timeRemaining = (pairingData.getExpiresAt() - System.currentTimeMillis()) / 1000 / 60; // minutes
-                            binding.tvExpiryTime.setText("Valid for " + timeRemaining + " minutes");
-                        } else {
-                            Toast.makeText(QRGenerateActivity.this,
-                                    "Failed to generate QR code",
-                                    Toast.LENGTH_LONG).show();
-                        }
-                    });
+        if (!started) {
+            return;
+        }
+        long pregenerateIn = displayedData.getExpiresAt() - PREGENERATE_LEAD_MILLIS - System.currentTimeMillis();
+        handler.postDelayed(pregenerateRunnable, Math.max(0L, pregenerateIn));
+    }
 
+    /**
+     * Re-arm the timers stopped in onStop, replacing the shown QR at once if it has expired
+     */
+    private void resumeRotation() {
+        if (displayedData == null) {
+            // The first QR is still loading (or failed and waits for refresh)
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (preparedData != null && preparedData.getExpiresAt() - ROTATE_MARGIN_MILLIS <= now) {
+            preparedData = null;
+        }
+        long rotateAt = displayedData.getExpiresAt() - ROTATE_MARGIN_MILLIS;
+        if (preparedData != null) {
+            handler.postDelayed(rotateRunnable, Math.max(0L, rotateAt - now));
+        } else if (rotateAt <= now) {
+            if (!preparing) {
+                generateQRCode();
+            }
+        } else {
+            long pregenerateIn = displayedData.getExpiresAt() - PREGENERATE_LEAD_MILLIS - now;
+            handler.postDelayed(pregenerateRunnable, Math.max(0L, pregenerateIn));
+        }
+    }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        started = true;
+        retryDelayMillis = RETRY_INITIAL_MILLIS;
+        resumeRotation();
+    }
 
-                });
-            }
+    @Override
+    protected void onStop() {
+        started = false;
+        handler.removeCallbacks(pregenerateRunnable);
+        handler.removeCallbacks(rotateRunnable);
+        super.onStop();
+    }
 
-            @Override
-            public void onFailure(Exception exception) {
-                runOnUiThread(() -> {
-                    binding.progressBar.setVisibility(View.GONE);
-                    Toast.makeText(QRGenerateActivity.this, 
-                            "Failed to generate QR code: " + exception.getMessage(), 
-                            Toast.LENGTH_LONG).show();
-                });
-            }
-        });
+    @Override
+    protected void onDestroy() {
+        destroyed = true;
+        handler.removeCallbacks(pregenerateRunnable);
+        handler.removeCallbacks(rotateRunnable);
+        super.onDestroy();
     }
 }
-
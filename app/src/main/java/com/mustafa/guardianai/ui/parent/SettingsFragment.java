@@ -1,10 +1,13 @@
 package com.mustafa.guardianai.ui.parent;
 
+import android.app.Activity;
+import android.content.Context;
 import android.content.Intent;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.provider.MediaStore;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
@@ -16,14 +19,16 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.google.android.material.textfield.TextInputEditText;
 import com.mustafa.guardianai.R;
+import com.mustafa.guardianai.ServiceRegistry;
 import com.mustafa.guardianai.databinding.FragmentSettingsBinding;
+import com.mustafa.guardianai.image.BitmapDecoder;
+import com.mustafa.guardianai.image.ProfilePictureStore;
 import com.mustafa.guardianai.network.AuthService;
+import com.mustafa.guardianai.network.FCMTokenService;
 import com.mustafa.guardianai.ui.auth.LoginActivity;
 import com.mustafa.guardianai.ui.base.BaseFragment;
 import com.mustafa.guardianai.utils.BiometricHelper;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 
 /**
  * Settings Fragment
@@ -32,9 +37,13 @@ import java.io.InputStream;
  * Uses BaseFragment from Shared Foundation
  */
 public class SettingsFragment extends BaseFragment {
+    private static final int PROFILE_PICTURE_SIZE = 400;
+    // In src/debug; not part of release builds
+    private static final String TRACE_DEBUG_ACTIVITY = "com.mustafa.guardianai.ui.debug.TraceDebugActivity";
+
     private FragmentSettingsBinding binding;
-    private final AuthService authService = new AuthService();
-    private static final String PROFILE_PICTURE_KEY = "parent_profile_picture";
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AuthService authService = ServiceRegistry.getInstance().getAuthService();
     
     // Use an array to hold the URI so it can be effectively final for lambda
     private final Uri[] cameraImageUriHolder = new Uri[1];
@@ -120,23 +129,46 @@ public class SettingsFragment extends BaseFragment {
             showToast("Privacy Policy - coming soon");
         });
 
+        // Service traces (the activity only exists in debug builds)
+        Intent traces = new Intent().setClassName(requireContext(), TRACE_DEBUG_ACTIVITY);
+        if (traces.resolveActivity(requireContext().getPackageManager()) != null) {
+            binding.tvAppVersion.setOnLongClickListener(v -> {
+                startActivity(traces);
+                return true;
+            });
+        }
+
         // Logout
         binding.btnLogout.setOnClickListener(v -> {
             new AlertDialog.Builder(requireContext())
                     .setTitle("Logout")
                     .setMessage("Are you sure you want to logout?")
-                    .setPositiveButton("Logout", (dialog, which) -> {
-                        authService.logout();
-                        Intent intent = new Intent(requireContext(), LoginActivity.class);
-                        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-                        startActivity(intent);
-                        requireActivity().finish();
-                    })
+                    .setPositiveButton("Logout", (dialog, which) -> logout())
                     .setNegativeButton("Cancel", null)
                     .show();
         });
     }
 
+    /**
+     * Delete this device's FCM token while still signed in, then sign out (after at most
+     * FCMTokenService.LOGOUT_TIMEOUT_MILLIS, so logging out offline still works)
+     */
+    private void logout() {
+        binding.btnLogout.setEnabled(false);
+        Activity activity = requireActivity();
+        ServiceRegistry.getInstance().getFCMTokenService().deleteToken()
+                .withDeadline(FCMTokenService.LOGOUT_TIMEOUT_MILLIS)
+                .observe(result -> finishLogout(activity), exception -> finishLogout(activity));
+    }
+
+    private void finishLogout(Activity activity) {
+        authService.logout();
+        Intent intent = new Intent(activity, LoginActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        activity.startActivity(intent);
+        activity.finish();
+    }
+
     private void showImageSourceDialog() {
         String[] options = {"Camera", "Gallery", "Remove Picture"};
         new AlertDialog.Builder(requireContext())
@@ -174,59 +206,49 @@ public class SettingsFragment extends BaseFragment {
     }
 
     private void loadImageFromUri(Uri uri) {
-        try {
-            InputStream inputStream = requireContext().getContentResolver().openInputStream(uri);
-            Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-            if (inputStream != null) {
-                inputStream.close();
+        Context context = requireContext().getApplicationContext();
+        // Decode (sampled, EXIF-corrected) and save off the main thread
+        ServiceRegistry.getInstance().getDiskExecutor().execute(() -> {
+            Bitmap bitmap = null;
+            String error = null;
+            try {
+                bitmap = BitmapDecoder.decodeSquare(context.getContentResolver(), uri, PROFILE_PICTURE_SIZE);
+                if (bitmap == null) {
+                    error = "Failed to load image: unsupported format";
+                } else {
+                    ProfilePictureStore.save(context, bitmap);
+                }
+            } catch (IOException e) {
+                error = (bitmap == null ? "Failed to load image: " : "Failed to save picture: ") + e.getMessage();
             }
 
-            if (bitmap != null) {
-                // Resize bitmap to reduce memory usage
-                Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, 400, 400, true);
-                
-                // Save to SharedPreferences as base64 (simple approach for FYP)
-                saveProfilePicture(resizedBitmap);
-                
-                // Display the image
-                binding.ivProfilePicture.setImageBitmap(resizedBitmap);
-                
+            final Bitmap result = bitmap;
+            final String errorMessage = error;
+            mainHandler.post(() -> {
+                if (binding == null || !isFragmentAttached()) {
+                    return;
+                }
+                if (errorMessage != null) {
+                    showError(errorMessage);
+                    return;
+                }
+                // ImageLoader keys files by mtime, so the dashboard picks up the new file
+                ServiceRegistry.getInstance().getImageLoader().clear(binding.ivProfilePicture, 0);
+                binding.ivProfilePicture.setImageBitmap(result);
                 showToast("Profile picture updated");
-            }
-        } catch (IOException e) {
-            showError("Failed to load image: " + e.getMessage());
-        }
-    }
-
-    private void saveProfilePicture(Bitmap bitmap) {
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            bitmap.compress(Bitmap.CompressFormat.JPEG, 80, baos);
-            byte[] imageBytes = baos.toByteArray();
-            String base64Image = android.util.Base64.encodeToString(imageBytes, android.util.Base64.DEFAULT);
-            
-            android.content.SharedPreferences prefs = requireContext().getSharedPreferences("GuardianAI", android.content.Context.MODE_PRIVATE);
-            prefs.edit().putString(PROFILE_PICTURE_KEY, base64Image).apply();
-        } catch (Exception e) {
-            showError("Failed to save picture: " + e.getMessage());
-        }
+            });
+        });
     }
 
     private void loadProfilePicture() {
-        try {
-            android.content.SharedPreferences prefs = requireContext().getSharedPreferences("GuardianAI", android.content.Context.MODE_PRIVATE);
-            String base64Image = prefs.getString(PROFILE_PICTURE_KEY, null);
-            
-            if (base64Image != null && !base64Image.isEmpty()) {
-                byte[] imageBytes = android.util.Base64.decode(base64Image, android.util.Base64.DEFAULT);
-                Bitmap bitmap = BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);
-                if (bitmap != null) {
-                    binding.ivProfilePicture.setImageBitmap(bitmap);
-                }
+        // File lookup (and the one-time legacy migration) and decode both run off the main
+        // thread; keeps the default image if there is none
+        ProfilePictureStore.getFileAsync(requireContext(), ServiceRegistry.getInstance().getDiskExecutor(), file -> {
+            if (binding == null || !isFragmentAttached()) {
+                return;
             }
-        } catch (Exception e) {
-            // If loading fails, use default image
-        }
+            ServiceRegistry.getInstance().getImageLoader().load(file, binding.ivProfilePicture, 0);
+        });
     }
 
     private void removeProfilePicture() {
@@ -234,9 +256,11 @@ public class SettingsFragment extends BaseFragment {
                 .setTitle("Remove Profile Picture")
                 .setMessage("Are you sure you want to remove your profile picture?")
                 .setPositiveButton("Remove", (dialog, which) -> {
-                    android.content.SharedPreferences prefs = requireContext().getSharedPreferences("GuardianAI", android.content.Context.MODE_PRIVATE);
-                    prefs.edit().remove(PROFILE_PICTURE_KEY).apply();
-                    binding.ivProfilePicture.setImageResource(android.R.drawable.ic_menu_gallery);
+                    Context context = requireContext().getApplicationContext();
+                    ServiceRegistry.getInstance().getDiskExecutor().execute(
+                            () -> ProfilePictureStore.delete(context));
+                    ServiceRegistry.getInstance().getImageLoader().clear(
+                            binding.ivProfilePicture, android.R.drawable.ic_menu_gallery);
                     showToast("Profile picture removed");
                 })
                 .setNegativeButton("Cancel", null)
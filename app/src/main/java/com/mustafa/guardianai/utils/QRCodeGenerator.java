@@ -15,6 +15,10 @@ import java.util.Map;
 /**
  * QR Code Generator utility
  * Generates QR code bitmaps from text/JSON data
+ *
+ * The QR code is encoded at module resolution (one matrix cell per module) and scaled
+ * to the requested size with nearest-neighbour sampling. Pixels are written one row at
+ * a time with setPixels, and identical consecutive rows reuse the same row buffer.
  */
 public class QRCodeGenerator {
     
@@ -26,34 +30,86 @@ public class QRCodeGenerator {
      * @return Bitmap of the QR code, or null if generation fails
      */
     public static Bitmap generateQRCode(String text, int width, int height) {
+        BitMatrix modules = encodeModules(text);
+        if (modules == null) {
+            return null;
+        }
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        render(modules, bitmap);
+        return bitmap;
+    }
+    
+    /**
+     * Generate QR code bitmap with default size (512x512)
+     */
+    public static Bitmap generateQRCode(String text) {
+        return generateQRCode(text, 512, 512);
+    }
+
+    /**
+     * Encode text into a module-resolution matrix (including a 1-module quiet zone)
+     * @return Matrix, or null if encoding fails
+     */
+    public static BitMatrix encodeModules(String text) {
         try {
             Map<EncodeHintType, Object> hints = new HashMap<>();
             hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
             hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M);
             hints.put(EncodeHintType.MARGIN, 1);
 
-            QRCodeWriter writer = new QRCodeWriter();
-            BitMatrix bitMatrix = writer.encode(text, BarcodeFormat.QR_CODE, width, height, hints);
-
-            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    bitmap.setPixel(x, y, bitMatrix.get(x, y) ? Color.BLACK : Color.WHITE);
-                }
-            }
-            return bitmap;
+            // Size 0 makes the writer return one cell per module
+            return new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, 0, 0, hints);
         } catch (WriterException e) {
             e.printStackTrace();
             return null;
         }
     }
-    
+
     /**
-     * Generate QR code bitmap with default size (512x512)
+     * Draw a module matrix into a bitmap, scaled to the bitmap's size
+     * Uses the largest integer scale that fits and centers the code, so every module gets
+     * the same number of pixels; bitmaps smaller than the matrix are sampled down.
      */
-    public static Bitmap generateQRCode(String text) {
-        return generateQRCode(text, 512, 512);
-    }
-}
+    public static void render(BitMatrix modules, Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        int[] columns = sampleMap(modules.getWidth(), width);
+        int[] rows = sampleMap(modules.getHeight(), height);
 
+        int[] rowPixels = new int[width];
+        int lastRow = Integer.MIN_VALUE;
+        for (int y = 0; y < height; y++) {
+            int moduleRow = rows[y];
+            if (moduleRow != lastRow) {
+                // Rebuild the buffer only when the module row changes
+                for (int x = 0; x < width; x++) {
+                    int moduleColumn = columns[x];
+                    rowPixels[x] = moduleRow >= 0 && moduleColumn >= 0 && modules.get(moduleColumn, moduleRow)
+                            ? Color.BLACK : Color.WHITE;
+                }
+                lastRow = moduleRow;
+            }
+            bitmap.setPixels(rowPixels, 0, width, 0, y, width, 1);
+        }
+    }
 
+    /**
+     * Map each output pixel to a module index (-1 for centering padding)
+     */
+    static int[] sampleMap(int moduleCount, int pixels) {
+        int[] map = new int[pixels];
+        int scale = pixels / moduleCount;
+        if (scale >= 1) {
+            int offset = (pixels - moduleCount * scale) / 2;
+            for (int p = 0; p < pixels; p++) {
+                int module = (p - offset) / scale;
+                map[p] = p >= offset && module < moduleCount ? module : -1;
+            }
+        } else {
+            for (int p = 0; p < pixels; p++) {
+                map[p] = (int) ((long) p * moduleCount / pixels);
+            }
+        }
+        return map;
+    }
+}
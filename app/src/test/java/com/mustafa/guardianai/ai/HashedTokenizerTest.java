@@ -0,0 +1,122 @@
+package com.mustafa.guardianai.ai;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Hashed Tokenizer Test
+ * Vocabulary lookup and normalization, hashed buckets, padding and vocabulary validation
+ */
+public class HashedTokenizerTest {
+
+    @Test
+    public void vocabularyTokensGetTheirIds() {
+        HashedTokenizer tokenizer = new HashedTokenizer(new String[]{"hello", "world"}, 100);
+        int[] out = new int[4];
+
+        Assert.assertEquals(2, tokenizer.tokenize("Hello, WORLD!", out));
+        Assert.assertArrayEquals(new int[]{1, 2, HashedTokenizer.PAD_ID, HashedTokenizer.PAD_ID}, out);
+    }
+
+    @Test
+    public void unknownTokensHashAboveVocabulary() {
+        HashedTokenizer tokenizer = new HashedTokenizer(new String[]{"hello", "world"}, 10);
+        int[] out = new int[64];
+
+        int count = tokenizer.tokenize(
+                "the quick brown fox jumps over the lazy dog 42 times in 2024", out);
+
+        Assert.assertEquals(13, count);
+        for (int i = 0; i < count; i++) {
+            Assert.assertTrue("id " + out[i], out[i] > 2 && out[i] < 10);
+        }
+        // Same token, same bucket
+        Assert.assertEquals(out[0], out[6]);
+    }
+
+    @Test
+    public void vocabularyEntriesAreNormalized() {
+        HashedTokenizer tokenizer = new HashedTokenizer(
+                new String[]{"Hello", "...world!", "ice-cream", "'", "ice"}, 100);
+        int[] out = new int[3];
+
+        tokenizer.tokenize("hello world ice", out);
+        Assert.assertArrayEquals(new int[]{1, 2, 5}, out);
+
+        // "ice-cream" keeps ID 3 but tokenize only ever produces "ice" and "cream"
+        tokenizer.tokenize("ice-cream", out);
+        Assert.assertEquals(5, out[0]);
+        Assert.assertNotEquals(3, out[1]);
+        Assert.assertEquals(5, tokenizer.getVocabularySize());
+    }
+
+    @Test
+    public void firstDuplicateEntryWins() {
+        HashedTokenizer tokenizer = new HashedTokenizer(new String[]{"cat", "CAT"}, 10);
+        int[] out = new int[1];
+
+        tokenizer.tokenize("Cat", out);
+        Assert.assertEquals(1, out[0]);
+    }
+
+    @Test
+    public void outputIsTruncatedAndPadded() {
+        HashedTokenizer tokenizer = new HashedTokenizer(16);
+        int[] out = new int[2];
+
+        Assert.assertEquals(2, tokenizer.tokenize("one two three", out));
+        Assert.assertEquals(0, tokenizer.tokenize(null, out));
+        Assert.assertArrayEquals(new int[]{HashedTokenizer.PAD_ID, HashedTokenizer.PAD_ID}, out);
+    }
+
+    @Test
+    public void byteBufferMatchesIntArray() {
+        HashedTokenizer tokenizer = new HashedTokenizer(new String[]{"safe", "words"}, 1000);
+        String text = "Some safe words and some other words";
+        int[] expected = new int[10];
+        int count = tokenizer.tokenize(text, expected);
+
+        ByteBuffer buffer = ByteBuffer.allocate(10 * 4);
+        Assert.assertEquals(count, tokenizer.tokenize(text, buffer, 10));
+        buffer.flip();
+        for (int id : expected) {
+            Assert.assertEquals(id, buffer.getInt());
+        }
+    }
+
+    @Test
+    public void contentHashIgnoresCaseAndSeparatorRuns() {
+        Assert.assertEquals(HashedTokenizer.contentHash("Hello,   world!"),
+                HashedTokenizer.contentHash("  hello world"));
+        Assert.assertNotEquals(HashedTokenizer.contentHash("hello world"),
+                HashedTokenizer.contentHash("helloworld"));
+    }
+
+    @Test
+    public void fromVocabularySkipsBlankLines() throws IOException {
+        HashedTokenizer tokenizer = HashedTokenizer.fromVocabulary(stream("alpha\n\n  beta \n"), 8);
+        int[] out = new int[2];
+
+        Assert.assertEquals(2, tokenizer.getVocabularySize());
+        tokenizer.tokenize("beta alpha", out);
+        Assert.assertArrayEquals(new int[]{2, 1}, out);
+    }
+
+    @Test
+    public void fromVocabularyRejectsVocabularyFillingIdRange() {
+        // Three tokens plus padding leave no bucket in an idRange of 4
+        Assert.assertThrows(IOException.class,
+                () -> HashedTokenizer.fromVocabulary(stream("a\nb\nc\n"), 4));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> new HashedTokenizer(new String[]{"a"}, 2));
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
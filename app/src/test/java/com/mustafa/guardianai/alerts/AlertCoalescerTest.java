@@ -0,0 +1,150 @@
+package com.mustafa.guardianai.alerts;
+
+import com.mustafa.guardianai.data.model.Alert;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Alert Coalescer Test
+ * Merging, span cap, hourly limit and flushing, driven with explicit timestamps
+ */
+public class AlertCoalescerTest {
+    private static final long MINUTE = 60 * 1000L;
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final List<Alert> written = new ArrayList<>();
+    private final List<long[]> updates = new ArrayList<>();
+    private final List<String> updatedIds = new ArrayList<>();
+    private AlertCoalescer coalescer;
+    private int nextId;
+
+    @Before
+    public void setUp() {
+        written.clear();
+        updates.clear();
+        updatedIds.clear();
+        nextId = 0;
+        coalescer = new AlertCoalescer(new AlertCoalescer.Sink() {
+            @Override
+            public void write(Alert alert) {
+                written.add(alert);
+            }
+
+            @Override
+            public void updateCount(String alertId, int count, long lastOccurredAt) {
+                updatedIds.add(alertId);
+                updates.add(new long[]{count, lastOccurredAt});
+            }
+        });
+    }
+
+    @Test
+    public void repeatsInsideWindowAreMerged() {
+        Assert.assertEquals(AlertCoalescer.Outcome.WRITTEN, submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0));
+        Assert.assertEquals(AlertCoalescer.Outcome.MERGED, submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0 + MINUTE));
+        Assert.assertEquals(AlertCoalescer.Outcome.MERGED, submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0 + 2 * MINUTE));
+
+        Assert.assertEquals(1, written.size());
+        Assert.assertEquals("child|GEO_FENCE_BREACH|home", written.get(0).getDedupKey());
+        Assert.assertTrue(updates.isEmpty());
+
+        coalescer.flush(T0 + 3 * MINUTE);
+        Assert.assertEquals(1, updates.size());
+        Assert.assertEquals("a0", updatedIds.get(0));
+        Assert.assertEquals(3L, updates.get(0)[0]);
+        Assert.assertEquals(T0 + 2 * MINUTE, updates.get(0)[1]);
+        Assert.assertEquals(2, coalescer.getMetrics().getMerged());
+        Assert.assertEquals(1, coalescer.getMetrics().getCountUpdates());
+
+        // Nothing changed since, so a second flush writes nothing
+        coalescer.flush(T0 + 4 * MINUTE);
+        Assert.assertEquals(1, updates.size());
+    }
+
+    @Test
+    public void differentKeysAndChildrenAreSeparate() {
+        submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0);
+        submit("child", Alert.AlertType.GEO_FENCE_BREACH, "school", T0);
+        submit("sibling", Alert.AlertType.GEO_FENCE_BREACH, "home", T0);
+
+        Assert.assertEquals(3, written.size());
+    }
+
+    @Test
+    public void repeatAfterWindowIsWrittenAgain() {
+        submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0);
+
+        Assert.assertEquals(AlertCoalescer.Outcome.WRITTEN,
+                submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0 + 5 * MINUTE + 1));
+        Assert.assertEquals(2, written.size());
+    }
+
+    @Test
+    public void steadyRepeatIsCappedAtMaxSpan() {
+        // Every 4 minutes stays inside the 5 minute window forever
+        long span = 5 * MINUTE * AlertCoalescer.MAX_SPAN_WINDOWS;
+        for (long t = T0; t <= T0 + span; t += 4 * MINUTE) {
+            submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", t);
+        }
+        Assert.assertEquals(1, written.size());
+
+        Assert.assertEquals(AlertCoalescer.Outcome.WRITTEN,
+                submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0 + span + 4 * MINUTE));
+    }
+
+    @Test
+    public void hourlyLimitFoldsIntoLatestAlert() {
+        coalescer.setPolicy(Alert.AlertType.NEW_APP_INSTALL, MINUTE, 2);
+
+        submit("child", Alert.AlertType.NEW_APP_INSTALL, "com.a", T0);
+        submit("child", Alert.AlertType.NEW_APP_INSTALL, "com.b", T0 + 2 * MINUTE);
+        Assert.assertEquals(AlertCoalescer.Outcome.RATE_LIMITED,
+                submit("child", Alert.AlertType.NEW_APP_INSTALL, "com.c", T0 + 4 * MINUTE));
+
+        Assert.assertEquals(2, written.size());
+        coalescer.flush(T0 + 5 * MINUTE);
+        Assert.assertEquals(1, updates.size());
+        Assert.assertEquals("a1", updatedIds.get(0));
+        Assert.assertEquals(2L, updates.get(0)[0]);
+        Assert.assertEquals(1, coalescer.getMetrics().getRateLimited());
+
+        // An hour after the first write the window has room again
+        Assert.assertEquals(AlertCoalescer.Outcome.WRITTEN,
+                submit("child", Alert.AlertType.NEW_APP_INSTALL, "com.d", T0 + 60 * MINUTE));
+    }
+
+    @Test
+    public void countsAreFlushedAtIntervalFromSubmit() {
+        submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0);
+        submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0 + MINUTE);
+        Assert.assertTrue(updates.isEmpty());
+
+        // The first submit flushed at T0; the next submit after the interval flushes again
+        submit("child", Alert.AlertType.GEO_FENCE_BREACH, "school", T0 + AlertCoalescer.FLUSH_INTERVAL_MILLIS);
+        Assert.assertEquals(1, updates.size());
+        Assert.assertEquals(2L, updates.get(0)[0]);
+    }
+
+    @Test
+    public void flushEvictsClosedEntries() {
+        submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0);
+        submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0 + MINUTE);
+        coalescer.flush(T0 + 10 * MINUTE);
+        Assert.assertEquals(1, updates.size());
+
+        // The evicted entry is neither updated again nor merged into
+        coalescer.flush(T0 + 11 * MINUTE);
+        Assert.assertEquals(1, updates.size());
+        Assert.assertEquals(AlertCoalescer.Outcome.WRITTEN,
+                submit("child", Alert.AlertType.GEO_FENCE_BREACH, "home", T0 + 12 * MINUTE));
+    }
+
+    private AlertCoalescer.Outcome submit(String childUid, Alert.AlertType type, String key, long now) {
+        Alert alert = new Alert("a" + nextId++, "parent", childUid, type, "title", "message",
+                Alert.AlertSeverity.HIGH);
+        return coalescer.submit(alert, key, now);
+    }
+}
@@ -0,0 +1,63 @@
+package com.mustafa.guardianai.alerts;
+
+import com.mustafa.guardianai.data.model.Alert;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Alert Dispatch Queue Test
+ * Persisted form of queued alerts survives a restart unchanged
+ */
+public class AlertDispatchQueueTest {
+
+    @Test
+    public void everyAlertFieldRoundTrips() throws JSONException {
+        Alert alert = new Alert("a1", "parent", "child", Alert.AlertType.GEO_FENCE_BREACH,
+                "Geofence alert", "Ada left \"Home\"", Alert.AlertSeverity.LOW);
+        alert.setRead(true);
+        alert.setResolved(true);
+        alert.setResolvedAt(1_700_000_500_000L);
+        alert.setCreatedAt(1_700_000_000_000L);
+        alert.setDedupKey("child|GEO_FENCE_BREACH|home:exit");
+        alert.setCount(7);
+        alert.setLastOccurredAt(1_700_000_400_000L);
+
+        Alert restored = roundTrip(alert);
+
+        Assert.assertEquals(alert.toMap(), restored.toMap());
+        Assert.assertTrue(restored.isResolved());
+        Assert.assertEquals(1_700_000_500_000L, restored.getResolvedAt());
+    }
+
+    @Test
+    public void unresolvedAlertStaysUnresolved() throws JSONException {
+        Alert alert = new Alert("a2", "parent", "child", Alert.AlertType.NEW_APP_INSTALL,
+                "New app", "com.example", Alert.AlertSeverity.MEDIUM);
+
+        Alert restored = roundTrip(alert);
+
+        Assert.assertEquals(alert.toMap(), restored.toMap());
+        Assert.assertFalse(restored.isResolved());
+        Assert.assertEquals(0L, restored.getResolvedAt());
+    }
+
+    @Test
+    public void nullFieldsStayNull() throws JSONException {
+        Alert alert = new Alert();
+        alert.setAlertId("a3");
+
+        Alert restored = roundTrip(alert);
+
+        Assert.assertNull(restored.getDedupKey());
+        Assert.assertNull(restored.getTitle());
+        Assert.assertEquals(alert.toMap(), restored.toMap());
+    }
+
+    // Through the string form, as the queue stores it in preferences
+    private static Alert roundTrip(Alert alert) throws JSONException {
+        String stored = AlertDispatchQueue.alertToJson(alert).toString();
+        return AlertDispatchQueue.jsonToAlert(new JSONObject(stored));
+    }
+}
@@ -0,0 +1,73 @@
+package com.mustafa.guardianai.location;
+
+import com.mustafa.guardianai.data.model.GeoFence;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Adaptive Location Scheduler Test
+ * Sampling plans driven by the distance to the nearest fence edge of a real engine
+ */
+public class AdaptiveLocationSchedulerTest {
+    private static final double LAT = 41.0082;
+    private static final double LNG = 28.9784;
+    // Haversine degrees of latitude per meter at EARTH_RADIUS_METERS
+    private static final double DEGREES_PER_METER = 180d / (Math.PI * 6_371_000d);
+    private static final float WALKING = 1.5f;
+
+    private GeofenceEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new GeofenceEngine(null);
+        engine.setFences(Collections.singletonList(new GeoFence("school", "parent", "child", "School",
+                LAT, LNG, 200f, GeoFence.ZoneType.SAFE_ZONE)));
+    }
+
+    @Test
+    public void nearEdgeSamplesOftenAndPrecisely() {
+        // 300 m north of the centre is 100 m outside the edge: about 67 s of walking
+        AdaptiveLocationScheduler.Plan plan = planAt(300, WALKING);
+
+        Assert.assertEquals(LocationSamplingPolicy.MotionState.WALKING, plan.motion);
+        Assert.assertEquals(LocationSamplingPolicy.Accuracy.HIGH, plan.accuracy);
+        Assert.assertEquals(33_333L, plan.intervalMillis, 100);
+    }
+
+    @Test
+    public void farFromEveryFenceStretchesTheInterval() {
+        AdaptiveLocationScheduler.Plan near = planAt(1_000, 0f);
+        AdaptiveLocationScheduler.Plan far = planAt(10_000, 0f);
+
+        Assert.assertEquals(LocationSamplingPolicy.Accuracy.LOW, far.accuracy);
+        Assert.assertEquals(5 * 60 * 1000L, near.intervalMillis);
+        Assert.assertEquals(10 * 60 * 1000L, far.intervalMillis);
+    }
+
+    @Test
+    public void standingAtTheEdgeUsesGps() {
+        AdaptiveLocationScheduler.Plan plan = planAt(190, 0f);
+
+        Assert.assertEquals(LocationSamplingPolicy.MotionState.STATIONARY, plan.motion);
+        Assert.assertEquals(LocationSamplingPolicy.Accuracy.HIGH, plan.accuracy);
+    }
+
+    @Test
+    public void withoutFencesPlansOnMotionAlone() {
+        AdaptiveLocationScheduler.Plan withoutEngine = AdaptiveLocationScheduler.planFor(null, WALKING, LAT, LNG);
+        engine.setFences(Collections.emptyList());
+        AdaptiveLocationScheduler.Plan emptyEngine = planAt(300, WALKING);
+
+        Assert.assertEquals(LocationSamplingPolicy.Accuracy.BALANCED, withoutEngine.accuracy);
+        Assert.assertEquals(2 * 60 * 1000L, withoutEngine.intervalMillis);
+        Assert.assertEquals(withoutEngine.intervalMillis, emptyEngine.intervalMillis);
+        Assert.assertEquals(withoutEngine.accuracy, emptyEngine.accuracy);
+    }
+
+    // Plan for a fix the given number of meters north of the fence centre
+    private AdaptiveLocationScheduler.Plan planAt(double metersNorth, float speed) {
+        return AdaptiveLocationScheduler.planFor(engine, speed, LAT + metersNorth * DEGREES_PER_METER, LNG);
+    }
+}
@@ -0,0 +1,142 @@
+package com.mustafa.guardianai.location;
+
+import com.mustafa.guardianai.data.model.GeoFence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Geofence Engine Test
+ * Baselines, dwell confirmation, hysteresis and the band clamp for small fences
+ */
+public class GeofenceEngineTest {
+    private static final double LAT = 41.0082;
+    private static final double LNG = 28.9784;
+    // Haversine degrees of latitude per meter at EARTH_RADIUS_METERS
+    private static final double DEGREES_PER_METER = 180d / (Math.PI * 6_371_000d);
+    private static final float ACCURACY = 10f;
+    private static final long DWELL = 60_000L;
+
+    private final List<Object[]> transitions = new ArrayList<>();
+    private GeofenceEngine engine;
+
+    @Before
+    public void setUp() {
+        transitions.clear();
+        engine = new GeofenceEngine(25f, DWELL, 150f,
+                (fence, entered, isBreach, timeMillis) ->
+                        transitions.add(new Object[]{fence.getFenceId(), entered, isBreach, timeMillis}));
+    }
+
+    @Test
+    public void firstFixIsBaselineNotTransition() {
+        engine.setFences(Collections.singletonList(fence("home", 100f, GeoFence.ZoneType.SAFE_ZONE)));
+
+        Assert.assertEquals(0, fixAt(0, 0L));
+        Assert.assertTrue(engine.isInside("home"));
+        Assert.assertTrue(transitions.isEmpty());
+    }
+
+    @Test
+    public void exitIsConfirmedAfterDwell() {
+        engine.setFences(Collections.singletonList(fence("home", 100f, GeoFence.ZoneType.SAFE_ZONE)));
+        fixAt(0, 0L);
+
+        Assert.assertEquals(0, fixAt(300, 1_000L));
+        Assert.assertTrue(engine.isInside("home"));
+        Assert.assertEquals(1, fixAt(300, 1_000L + DWELL));
+
+        Assert.assertFalse(engine.isInside("home"));
+        Assert.assertEquals(1, transitions.size());
+        Assert.assertEquals("home", transitions.get(0)[0]);
+        Assert.assertEquals(false, transitions.get(0)[1]);
+        // Leaving a safe zone is a breach
+        Assert.assertEquals(true, transitions.get(0)[2]);
+    }
+
+    @Test
+    public void returningBeforeDwellCancelsPendingExit() {
+        engine.setFences(Collections.singletonList(fence("home", 100f, GeoFence.ZoneType.SAFE_ZONE)));
+        fixAt(0, 0L);
+
+        fixAt(300, 1_000L);
+        fixAt(0, 30_000L);
+        // The exit timer restarts here, so DWELL has not elapsed yet
+        Assert.assertEquals(0, fixAt(300, 2_000L + DWELL));
+        Assert.assertTrue(engine.isInside("home"));
+        Assert.assertTrue(transitions.isEmpty());
+    }
+
+    @Test
+    public void jitterInsideBandKeepsState() {
+        engine.setFences(Collections.singletonList(fence("home", 100f, GeoFence.ZoneType.SAFE_ZONE)));
+        fixAt(0, 0L);
+
+        // Inside edge is 75 m, outside edge 125 m plus accuracy
+        for (int i = 1; i <= 20; i++) {
+            fixAt(i % 2 == 0 ? 90 : 130, i * DWELL);
+        }
+        Assert.assertTrue(engine.isInside("home"));
+        Assert.assertTrue(transitions.isEmpty());
+    }
+
+    @Test
+    public void smallFenceCanBeEnteredWithWideHysteresis() {
+        // A 25 m band on a 20 m fence would put the inside edge below zero; it is clamped to 10 m
+        engine.setFences(Collections.singletonList(fence("kiosk", 20f, GeoFence.ZoneType.RESTRICTED_ZONE)));
+        fixAt(2_000, 0L);
+        Assert.assertFalse(engine.isInside("kiosk"));
+
+        fixAt(5, 1_000L);
+        Assert.assertEquals(1, fixAt(5, 1_000L + DWELL));
+        Assert.assertTrue(engine.isInside("kiosk"));
+        Assert.assertEquals(true, transitions.get(0)[1]);
+        // Entering a restricted zone is a breach
+        Assert.assertEquals(true, transitions.get(0)[2]);
+    }
+
+    @Test
+    public void inaccurateFixesAreIgnored() {
+        engine.setFences(Collections.singletonList(fence("home", 100f, GeoFence.ZoneType.SAFE_ZONE)));
+
+        Assert.assertEquals(0, engine.onLocationFix(LAT, LNG, 500f, 0L));
+        Assert.assertFalse(engine.isInside("home"));
+    }
+
+    @Test
+    public void setFencesKeepsStateForSameIdsAndDropsInactive() {
+        GeoFence home = fence("home", 100f, GeoFence.ZoneType.SAFE_ZONE);
+        engine.setFences(Collections.singletonList(home));
+        fixAt(0, 0L);
+
+        GeoFence inactive = fence("school", 100f, GeoFence.ZoneType.SAFE_ZONE);
+        inactive.setActive(false);
+        engine.setFences(Arrays.asList(fence("home", 150f, GeoFence.ZoneType.SAFE_ZONE), inactive));
+
+        Assert.assertTrue(engine.isInside("home"));
+        Assert.assertFalse(engine.isInside("school"));
+        Assert.assertEquals(150d, engine.distanceToNearestEdge(LAT, LNG), 0.01);
+
+        engine.reset();
+        Assert.assertFalse(engine.isInside("home"));
+    }
+
+    @Test
+    public void distanceToNearestEdgeWithoutFences() {
+        Assert.assertEquals(Double.MAX_VALUE, engine.distanceToNearestEdge(LAT, LNG), 0d);
+        Assert.assertEquals(0, fixAt(0, 0L));
+    }
+
+    // Fix the given number of meters north of the fence centre
+    private int fixAt(double metersNorth, long timeMillis) {
+        return engine.onLocationFix(LAT + metersNorth * DEGREES_PER_METER, LNG, ACCURACY, timeMillis);
+    }
+
+    private static GeoFence fence(String id, float radius, GeoFence.ZoneType type) {
+        return new GeoFence(id, "parent", "child", id, LAT, LNG, radius, type);
+    }
+}
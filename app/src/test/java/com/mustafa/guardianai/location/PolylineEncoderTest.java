@@ -0,0 +1,71 @@
+package com.mustafa.guardianai.location;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Polyline Encoder Test
+ * Reference vector of the Encoded Polyline Algorithm and round trips at 1e-5 precision
+ */
+public class PolylineEncoderTest {
+
+    @Test
+    public void encodesReferenceExample() {
+        double[] latitudes = {38.5, 40.7, 43.252};
+        double[] longitudes = {-120.2, -120.95, -126.453};
+
+        Assert.assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@",
+                PolylineEncoder.encode(latitudes, longitudes, 3));
+    }
+
+    @Test
+    public void decodesReferenceExample() {
+        double[] points = PolylineEncoder.decode("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+
+        Assert.assertEquals(6, points.length);
+        double[] expected = {38.5, -120.2, 40.7, -120.95, 43.252, -126.453};
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(expected[i], points[i], 1e-9);
+        }
+    }
+
+    @Test
+    public void encodesOnlyCountPoints() {
+        double[] latitudes = {38.5, 40.7, 43.252};
+        double[] longitudes = {-120.2, -120.95, -126.453};
+
+        Assert.assertEquals("_p~iF~ps|U", PolylineEncoder.encode(latitudes, longitudes, 1));
+        Assert.assertEquals("", PolylineEncoder.encode(latitudes, longitudes, 0));
+        Assert.assertEquals(0, PolylineEncoder.decode("").length);
+    }
+
+    @Test
+    public void roundTripsWithinPrecision() {
+        Random random = new Random(29L);
+        int count = 500;
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        double lat = -33.8688;
+        double lng = 151.2093;
+        for (int i = 0; i < count; i++) {
+            // A walk with both small steps and large jumps across the sign boundary
+            lat = clamp(lat + (i % 50 == 0 ? random.nextDouble() * 60 - 30 : random.nextGaussian() * 1e-3), 90);
+            lng = clamp(lng + (i % 50 == 0 ? random.nextDouble() * 200 - 100 : random.nextGaussian() * 1e-3), 180);
+            latitudes[i] = lat;
+            longitudes[i] = lng;
+        }
+
+        double[] points = PolylineEncoder.decode(PolylineEncoder.encode(latitudes, longitudes, count));
+
+        Assert.assertEquals(count * 2, points.length);
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(latitudes[i], points[2 * i], 0.5e-5 + 1e-12);
+            Assert.assertEquals(longitudes[i], points[2 * i + 1], 0.5e-5 + 1e-12);
+        }
+    }
+
+    private static double clamp(double value, double limit) {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+}
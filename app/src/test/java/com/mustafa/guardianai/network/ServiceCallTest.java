@@ -0,0 +1,77 @@
+package com.mustafa.guardianai.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Service Call Test
+ * Cancellation of shared upstream calls and failures inside transforms
+ */
+public class ServiceCallTest {
+
+    @Test
+    public void cancellingOneDerivedCallKeepsSharedUpstreamRunning() {
+        ServiceCall<Integer> upstream = new ServiceCall<>();
+        ServiceCall<Integer> doubled = upstream.map(value -> value * 2);
+        ServiceCall<String> text = upstream.map(String::valueOf);
+        List<String> received = new ArrayList<>();
+        text.observe(received::add, e -> Assert.fail(e.getMessage()));
+
+        doubled.cancel();
+        Assert.assertFalse(upstream.isCancelled());
+
+        upstream.succeed(21);
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals("21", received.get(0));
+    }
+
+    @Test
+    public void cancellingLastDerivedCallCancelsUpstream() {
+        ServiceCall<Integer> upstream = new ServiceCall<>();
+        ServiceCall<Integer> first = upstream.map(value -> value + 1);
+        ServiceCall<Integer> second = upstream.recover(e -> 0);
+
+        first.cancel();
+        Assert.assertFalse(upstream.isCancelled());
+        second.cancel();
+        Assert.assertTrue(upstream.isCancelled());
+    }
+
+    @Test
+    public void directObserverKeepsUpstreamAliveAfterDerivedCancel() {
+        ServiceCall<Integer> upstream = new ServiceCall<>();
+        List<Integer> received = new ArrayList<>();
+        upstream.observe(received::add, e -> Assert.fail(e.getMessage()));
+        upstream.mapError(e -> new IllegalStateException(e)).cancel();
+
+        Assert.assertFalse(upstream.isCancelled());
+        upstream.succeed(7);
+        Assert.assertEquals(1, received.size());
+    }
+
+    @Test
+    public void cancelThroughChainReachesSoleUpstream() {
+        ServiceCall<Integer> upstream = new ServiceCall<>();
+        ServiceCall<Integer> chained = upstream.map(value -> value + 1).then(ServiceCall::success);
+
+        chained.cancel();
+        Assert.assertTrue(upstream.isCancelled());
+    }
+
+    @Test
+    public void throwingContinuationFailsDerivedCall() {
+        ServiceCall<Integer> upstream = new ServiceCall<>();
+        ServiceCall<Integer> derived = upstream.then(value -> {
+            throw new IllegalStateException("boom");
+        });
+        List<Exception> failures = new ArrayList<>();
+        derived.observe(value -> Assert.fail("unexpected success"), failures::add);
+
+        upstream.succeed(1);
+        Assert.assertTrue(derived.isDone());
+        Assert.assertEquals(1, failures.size());
+        Assert.assertEquals("boom", failures.get(0).getMessage());
+    }
+}
@@ -0,0 +1,132 @@
+package com.mustafa.guardianai.policy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * App Block Matcher Test
+ * Rule precedence, prefix forms and category fallback of the compiled trie
+ */
+public class AppBlockMatcherTest {
+    private static final int CATEGORY_GAME = 0;
+    private static final int CATEGORY_SOCIAL = 4;
+
+    @Test
+    public void exactRuleMatchesOnlyThatPackage() {
+        AppBlockMatcher matcher = new AppBlockMatcher.Builder()
+                .addRule("com.whatsapp", AppBlockMatcher.ACTION_BLOCK)
+                .build();
+
+        Assert.assertEquals(0, matcher.matchPackage("com.whatsapp"));
+        Assert.assertEquals(AppBlockMatcher.NO_MATCH, matcher.matchPackage("com.whatsap"));
+        Assert.assertEquals(AppBlockMatcher.NO_MATCH, matcher.matchPackage("com.whatsapp.w4b"));
+        Assert.assertEquals(AppBlockMatcher.NO_MATCH, matcher.matchPackage(null));
+    }
+
+    @Test
+    public void dottedPrefixCoversSubpackagesOnly() {
+        AppBlockMatcher matcher = new AppBlockMatcher.Builder()
+                .addRule("com.game.*", AppBlockMatcher.ACTION_BLOCK)
+                .build();
+
+        Assert.assertEquals(0, matcher.matchPackage("com.game.racing"));
+        Assert.assertEquals(AppBlockMatcher.NO_MATCH, matcher.matchPackage("com.game"));
+        Assert.assertEquals(AppBlockMatcher.NO_MATCH, matcher.matchPackage("com.gamestudio"));
+    }
+
+    @Test
+    public void rawPrefixCoversAnyContinuation() {
+        AppBlockMatcher matcher = new AppBlockMatcher.Builder()
+                .addRule("com.game*", AppBlockMatcher.ACTION_BLOCK)
+                .build();
+
+        Assert.assertEquals(0, matcher.matchPackage("com.game"));
+        Assert.assertEquals(0, matcher.matchPackage("com.gamestudio"));
+        Assert.assertEquals(AppBlockMatcher.NO_MATCH, matcher.matchPackage("com.gam"));
+    }
+
+    @Test
+    public void mostSpecificRuleWins() {
+        AppBlockMatcher matcher = new AppBlockMatcher.Builder()
+                .addRule("com.*", AppBlockMatcher.ACTION_ALLOW)
+                .addRule("com.game.*", AppBlockMatcher.ACTION_BLOCK)
+                .addRule("com.game.mathtutor", AppBlockMatcher.ACTION_ALLOW)
+                .build();
+
+        Assert.assertEquals(2, matcher.matchPackage("com.game.mathtutor"));
+        Assert.assertEquals(1, matcher.matchPackage("com.game.mathtutor2"));
+        Assert.assertEquals(1, matcher.matchPackage("com.game.racing"));
+        Assert.assertEquals(0, matcher.matchPackage("com.google.android.youtube"));
+        Assert.assertFalse(matcher.isBlocked("com.game.mathtutor", -1));
+        Assert.assertTrue(matcher.isBlocked("com.game.racing", -1));
+    }
+
+    @Test
+    public void laterRuleForSamePatternReplacesEarlier() {
+        AppBlockMatcher matcher = new AppBlockMatcher.Builder()
+                .addRule("com.tiktok", AppBlockMatcher.ACTION_BLOCK)
+                .addRule(" com.tiktok ", AppBlockMatcher.ACTION_ALLOW)
+                .build();
+
+        int rule = matcher.matchPackage("com.tiktok");
+        Assert.assertEquals(1, rule);
+        Assert.assertEquals(AppBlockMatcher.ACTION_ALLOW, matcher.getRuleAction(rule));
+        Assert.assertEquals("com.tiktok", matcher.getRulePattern(rule));
+    }
+
+    @Test
+    public void packageRuleBeatsCategoryRule() {
+        AppBlockMatcher matcher = new AppBlockMatcher.Builder()
+                .addCategoryRule(CATEGORY_GAME, AppBlockMatcher.ACTION_BLOCK)
+                .addRule("com.game.mathtutor", AppBlockMatcher.ACTION_ALLOW)
+                .build();
+
+        Assert.assertEquals(1, matcher.match("com.game.mathtutor", CATEGORY_GAME));
+        Assert.assertEquals(0, matcher.match("com.game.racing", CATEGORY_GAME));
+        Assert.assertEquals(AppBlockMatcher.NO_MATCH, matcher.match("com.game.racing", CATEGORY_SOCIAL));
+        Assert.assertEquals(AppBlockMatcher.NO_MATCH, matcher.match("com.game.racing", -1));
+        Assert.assertEquals("category:" + CATEGORY_GAME, matcher.getRulePattern(0));
+    }
+
+    @Test
+    public void wildcardOnlyRuleMatchesEverything() {
+        AppBlockMatcher matcher = new AppBlockMatcher.Builder()
+                .addRule("*", AppBlockMatcher.ACTION_BLOCK)
+                .build();
+
+        Assert.assertEquals(0, matcher.matchPackage(""));
+        Assert.assertEquals(0, matcher.matchPackage("org.example"));
+    }
+
+    @Test
+    public void emptyMatcherMatchesNothing() {
+        AppBlockMatcher matcher = new AppBlockMatcher.Builder().build();
+
+        Assert.assertEquals(0, matcher.getRuleCount());
+        Assert.assertEquals(AppBlockMatcher.NO_MATCH, matcher.match("com.whatsapp", CATEGORY_GAME));
+    }
+
+    @Test
+    public void manyRulesSurviveCompaction() {
+        AppBlockMatcher.Builder builder = new AppBlockMatcher.Builder();
+        for (int i = 0; i < 2_000; i++) {
+            builder.addRule("org.app" + i, AppBlockMatcher.ACTION_BLOCK);
+        }
+        AppBlockMatcher matcher = builder.build();
+
+        for (int i = 0; i < 2_000; i++) {
+            Assert.assertEquals(i, matcher.matchPackage("org.app" + i));
+        }
+        Assert.assertEquals(AppBlockMatcher.NO_MATCH, matcher.matchPackage("org.app2000"));
+    }
+
+    @Test
+    public void invalidRulesAreRejected() {
+        AppBlockMatcher.Builder builder = new AppBlockMatcher.Builder();
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.addRule("  ", AppBlockMatcher.ACTION_BLOCK));
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.addRule(null, AppBlockMatcher.ACTION_BLOCK));
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.addRule("com.*.game", AppBlockMatcher.ACTION_BLOCK));
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.addCategoryRule(64, AppBlockMatcher.ACTION_BLOCK));
+    }
+}
@@ -0,0 +1,127 @@
+package com.mustafa.guardianai.policy;
+
+import com.mustafa.guardianai.data.model.ScheduleWindow;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Schedule Index Test
+ * Expansion, merging and DST handling of compiled blocked windows
+ */
+public class ScheduleIndexTest {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final TimeZone NEW_YORK = TimeZone.getTimeZone("America/New_York");
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    @Test
+    public void weekdayWindowBlocksOnlyInsideHours() {
+        List<ScheduleWindow> windows = Collections.singletonList(
+                window(ScheduleWindow.WEEKDAYS, 8 * 60, 15 * 60));
+        // Monday 4 March 2024
+        long monday = at(UTC, 2024, Calendar.MARCH, 4, 10, 0);
+        ScheduleIndex index = ScheduleIndex.compile(windows, UTC, monday);
+
+        Assert.assertTrue(index.isBlocked(monday));
+        Assert.assertFalse(index.isBlocked(at(UTC, 2024, Calendar.MARCH, 4, 7, 59)));
+        Assert.assertTrue(index.isBlocked(at(UTC, 2024, Calendar.MARCH, 4, 8, 0)));
+        Assert.assertFalse(index.isBlocked(at(UTC, 2024, Calendar.MARCH, 4, 15, 0)));
+        // Saturday
+        Assert.assertFalse(index.isBlocked(at(UTC, 2024, Calendar.MARCH, 9, 10, 0)));
+
+        Assert.assertEquals(at(UTC, 2024, Calendar.MARCH, 4, 15, 0), index.getNextTransition(monday));
+        Assert.assertEquals(at(UTC, 2024, Calendar.MARCH, 5, 8, 0),
+                index.getNextTransition(at(UTC, 2024, Calendar.MARCH, 4, 16, 0)));
+        // Friday evening sleeps through the weekend
+        Assert.assertEquals(at(UTC, 2024, Calendar.MARCH, 11, 8, 0),
+                index.getNextTransition(at(UTC, 2024, Calendar.MARCH, 8, 15, 0)));
+        Assert.assertEquals(5 * HOUR_MILLIS, index.millisUntilNextTransition(monday));
+    }
+
+    @Test
+    public void windowCrossingMidnightCoversNextMorning() {
+        List<ScheduleWindow> windows = Collections.singletonList(
+                window(ScheduleWindow.SUNDAY, 21 * 60, 7 * 60));
+        // Monday 02:00 belongs to the window that started on Sunday
+        long mondayNight = at(UTC, 2024, Calendar.MARCH, 4, 2, 0);
+        ScheduleIndex index = ScheduleIndex.compile(windows, UTC, mondayNight);
+
+        Assert.assertTrue(index.isBlocked(mondayNight));
+        Assert.assertEquals(at(UTC, 2024, Calendar.MARCH, 4, 7, 0), index.getNextTransition(mondayNight));
+        Assert.assertFalse(index.isBlocked(at(UTC, 2024, Calendar.MARCH, 4, 22, 0)));
+        Assert.assertTrue(index.isBlocked(at(UTC, 2024, Calendar.MARCH, 10, 23, 0)));
+    }
+
+    @Test
+    public void overlappingAndTouchingWindowsAreMerged() {
+        List<ScheduleWindow> windows = Arrays.asList(
+                window(ScheduleWindow.EVERY_DAY, 20 * 60, 22 * 60),
+                window(ScheduleWindow.EVERY_DAY, 21 * 60, 23 * 60),
+                window(ScheduleWindow.EVERY_DAY, 23 * 60, 23 * 60 + 30));
+        long from = at(UTC, 2024, Calendar.MARCH, 4, 12, 0);
+        ScheduleIndex index = ScheduleIndex.compile(windows, UTC, from, 1);
+
+        // One merged interval each for yesterday and today
+        Assert.assertEquals(2, index.getIntervalCount());
+        Assert.assertEquals(at(UTC, 2024, Calendar.MARCH, 4, 23, 30),
+                index.getNextTransition(at(UTC, 2024, Calendar.MARCH, 4, 20, 30)));
+    }
+
+    @Test
+    public void inactiveWindowsAreSkipped() {
+        ScheduleWindow window = window(ScheduleWindow.EVERY_DAY, 0, 12 * 60);
+        window.setActive(false);
+        long from = at(UTC, 2024, Calendar.MARCH, 4, 6, 0);
+        ScheduleIndex index = ScheduleIndex.compile(Collections.singletonList(window), UTC, from);
+
+        Assert.assertEquals(0, index.getIntervalCount());
+        Assert.assertFalse(index.isBlocked(from));
+        Assert.assertEquals(index.getValidUntil(), index.getNextTransition(from));
+    }
+
+    @Test
+    public void horizonBoundsValidity() {
+        long from = at(UTC, 2024, Calendar.MARCH, 4, 10, 0);
+        ScheduleIndex index = ScheduleIndex.compile(Collections.emptyList(), UTC, from);
+
+        // Expansion starts at yesterday's midnight and spans DEFAULT_HORIZON_DAYS + 1 days
+        Assert.assertEquals(at(UTC, 2024, Calendar.MARCH, 12, 0, 0), index.getValidUntil());
+        Assert.assertTrue(index.covers(from));
+        Assert.assertFalse(index.covers(from - 1));
+        Assert.assertFalse(index.covers(index.getValidUntil()));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> ScheduleIndex.compile(Collections.emptyList(), UTC, from, 0));
+    }
+
+    @Test
+    public void daylightSavingShiftIsResolvedInLocalTime() {
+        // Clocks in New York skip 02:00-03:00 on Sunday 10 March 2024
+        List<ScheduleWindow> windows = Collections.singletonList(
+                window(ScheduleWindow.EVERY_DAY, 60, 4 * 60));
+        long from = at(NEW_YORK, 2024, Calendar.MARCH, 9, 12, 0);
+        ScheduleIndex index = ScheduleIndex.compile(windows, NEW_YORK, from, 3);
+
+        long saturdayStart = at(NEW_YORK, 2024, Calendar.MARCH, 9, 1, 0);
+        long sundayStart = at(NEW_YORK, 2024, Calendar.MARCH, 10, 1, 0);
+        long mondayStart = at(NEW_YORK, 2024, Calendar.MARCH, 11, 1, 0);
+        Assert.assertEquals(3 * HOUR_MILLIS, index.getNextTransition(saturdayStart) - saturdayStart);
+        Assert.assertEquals(2 * HOUR_MILLIS, index.getNextTransition(sundayStart) - sundayStart);
+        Assert.assertEquals(3 * HOUR_MILLIS, index.getNextTransition(mondayStart) - mondayStart);
+        Assert.assertEquals(sundayStart, index.getNextTransition(from));
+    }
+
+    private static ScheduleWindow window(int days, int startMinute, int endMinute) {
+        return new ScheduleWindow("w", "p", "child", "test", days, startMinute, endMinute);
+    }
+
+    private static long at(TimeZone timeZone, int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,127 @@
+package com.mustafa.guardianai.trace;
+
+import java.util.Calendar;
+import java.util.Locale;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Firestore Meter Test
+ * Feature attribution, strict-mode overruns and buffered daily totals
+ */
+public class FirestoreMeterTest {
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private FirestoreMeter meter;
+    private InMemoryPreferences prefs;
+
+    @Before
+    public void setUp() {
+        meter = FirestoreMeter.create();
+        prefs = new InMemoryPreferences();
+    }
+
+    @Test
+    public void operationsAreAttributedByArea() {
+        Assert.assertEquals(FirestoreMeter.Feature.DASHBOARD, FirestoreMeter.Feature.of("dashboard.summary.read"));
+        Assert.assertEquals(FirestoreMeter.Feature.PROFILES, FirestoreMeter.Feature.of("pairs.query"));
+        Assert.assertEquals(FirestoreMeter.Feature.AUTH, FirestoreMeter.Feature.of("users"));
+        Assert.assertEquals(FirestoreMeter.Feature.DEVICE, FirestoreMeter.Feature.of("location.segment.write"));
+        Assert.assertEquals(FirestoreMeter.Feature.OTHER, FirestoreMeter.Feature.of("unknown.op"));
+    }
+
+    @Test
+    public void sessionUsageIsSummedPerFeature() {
+        meter.record("dashboard.summary.read", 3, 0, 0);
+        meter.record("dashboard.profiles.listen", 2, 1, 0);
+        meter.record("alerts.delete", 0, 0, 4);
+
+        FirestoreMeter.Usage dashboard = meter.getSessionUsage(FirestoreMeter.Feature.DASHBOARD);
+        Assert.assertEquals(5, dashboard.getReads());
+        Assert.assertEquals(1, dashboard.getWrites());
+        Assert.assertEquals(4, meter.getSessionUsage(FirestoreMeter.Feature.ALERTS).getDeletes());
+
+        // Returned usage is a snapshot
+        meter.record("dashboard.summary.read", 1, 0, 0);
+        Assert.assertEquals(5, dashboard.getReads());
+    }
+
+    @Test
+    public void strictModeCountsEveryOperationPastBudget() {
+        meter.setBudget(FirestoreMeter.Feature.PAIRING, 2, 10);
+        meter.setStrict(true);
+
+        meter.record("pairing.token.read", 2, 0, 0);
+        Assert.assertEquals(0, meter.getOverruns(FirestoreMeter.Feature.PAIRING));
+        meter.record("pairing.token.read", 1, 0, 0);
+        meter.record("pairing.token.read", 1, 0, 0);
+
+        Assert.assertEquals(2, meter.getOverruns(FirestoreMeter.Feature.PAIRING));
+        Assert.assertTrue(meter.formatReport(1).contains("(2 overruns)"));
+    }
+
+    @Test
+    public void lenientModeDoesNotCountOverruns() {
+        meter.setBudget(FirestoreMeter.Feature.PAIRING, 1, 10);
+
+        meter.record("pairing.token.read", 5, 0, 0);
+        meter.record("pairing.token.read", 5, 0, 0);
+
+        Assert.assertEquals(0, meter.getOverruns(FirestoreMeter.Feature.PAIRING));
+        Assert.assertFalse(meter.formatReport(1).contains("overruns"));
+    }
+
+    @Test
+    public void dailyTotalsAreBufferedUntilFlush() {
+        meter.attach(prefs);
+        String today = dayKey(System.currentTimeMillis());
+
+        meter.record("dashboard.summary.read", 7, 0, 0);
+        Assert.assertEquals(7, meter.getDailyUsage(today, FirestoreMeter.Feature.DASHBOARD).getReads());
+        Assert.assertFalse(prefs.contains(today + "/DASHBOARD/reads"));
+
+        meter.flush();
+        Assert.assertEquals(7L, prefs.getLong(today + "/DASHBOARD/reads", 0));
+        Assert.assertEquals(0L, prefs.getLong(today + "/ALERTS/reads", -1));
+    }
+
+    @Test
+    public void attachResumesTodayAndPrunesOldDays() {
+        long now = System.currentTimeMillis();
+        String today = dayKey(now);
+        String expired = dayKey(now - 30 * DAY_MILLIS);
+        String recent = dayKey(now - 2 * DAY_MILLIS);
+        prefs.edit()
+                .putLong(today + "/ALERTS/writes", 4)
+                .putLong(expired + "/ALERTS/writes", 9)
+                .putLong(recent + "/ALERTS/writes", 3)
+                .apply();
+
+        meter.attach(prefs);
+        meter.record("alerts.create", 0, 1, 0);
+        meter.flush();
+
+        Assert.assertEquals(5L, prefs.getLong(today + "/ALERTS/writes", 0));
+        Assert.assertFalse(prefs.contains(expired + "/ALERTS/writes"));
+        Assert.assertEquals(3, meter.getDailyUsage(recent, FirestoreMeter.Feature.ALERTS).getWrites());
+        Assert.assertTrue(meter.formatReport(3).contains("Daily totals"));
+    }
+
+    @Test
+    public void sessionOnlyMeterKeepsNoDailyTotals() {
+        meter.record("dashboard.summary.read", 7, 0, 0);
+        meter.flush();
+
+        String today = dayKey(System.currentTimeMillis());
+        Assert.assertEquals(0, meter.getDailyUsage(today, FirestoreMeter.Feature.DASHBOARD).getReads());
+        Assert.assertFalse(meter.formatReport(3).contains("Daily totals"));
+    }
+
+    private static String dayKey(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return String.format(Locale.US, "%04d%02d%02d", calendar.get(Calendar.YEAR),
+                calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH));
+    }
+}